@@ -0,0 +1,648 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV parser.
+ * <p>
+ * Scans a reusable char buffer window and doesn't create line strings. Parsed fields are available as
+ * buffer slices ({@link #getFieldBuffer(int)}, {@link #getFieldOffset(int)}, {@link #getFieldLength(int)}),
+ * strings are created only on demand. Numbers and ISO dates may be parsed directly from the buffer.
+ * <p>
+ * Slices are valid until the next {@link #nextRecord()} call.
+ * <p>
+ * Format rules:
+ * <ul>
+ *     <li>Records are terminated by LF or CRLF. Empty lines are skipped.</li>
+ *     <li>Field which starts with quote character is quoted (whitespaces in front of the quote are ignored).
+ *     It may contain separators and line feeds.
+ *     Quote is escaped by doubling it. Characters after the closing quote are appended to the field value.</li>
+ *     <li>Escape character followed by quote or escape character makes the latter literal.</li>
+ * </ul>
+ */
+public class CSVStreamParser implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_EXACT_POWER_OF_TEN = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER_OF_TEN + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Reader reader;
+    private final char separator;
+    private final char quotechar;
+    private final char escape;
+
+    private char[] buffer;
+    private int limit;
+    private int pos;
+    private boolean eof;
+    private long recordNumber;
+
+    // Current record state. Positions in buffer are shifted on buffer compaction
+    private int recordStart;
+    private int tokenStart;
+    private int sliceEnd;
+    private boolean copying;
+    private int copyStart;
+
+    // Unescaped values of fields which can't be represented as buffer slices
+    private char[] scratch = new char[256];
+    private int scratchLength;
+
+    private int fieldCount;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] fieldCopied = new boolean[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private String[] fieldStrings = new String[16];
+
+    public CSVStreamParser(Reader reader, char separator, char quotechar, char escape) {
+        this(reader, separator, quotechar, escape, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CSVStreamParser(Reader reader, char separator, char quotechar, char escape, int bufferSize) {
+        if (separator == CSVParser.NULL_CHARACTER) {
+            throw new UnsupportedOperationException("The separator character must be defined!");
+        }
+        if ((quotechar != CSVParser.NULL_CHARACTER && (quotechar == separator || quotechar == escape)) ||
+            (escape != CSVParser.NULL_CHARACTER && escape == separator))
+        {
+            throw new UnsupportedOperationException("The separator, quote, and escape characters must be different!");
+        }
+        this.reader = reader;
+        this.separator = separator;
+        this.quotechar = quotechar;
+        this.escape = escape;
+        this.buffer = new char[Math.max(bufferSize, 16)];
+    }
+
+    /**
+     * Number of records read so far
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Reads next record.
+     *
+     * @return false if there are no more records
+     * @throws IOException on read error or if quoted field isn't terminated at the end of data
+     */
+    public boolean nextRecord() throws IOException {
+        for (;;) {
+            fieldCount = 0;
+            scratchLength = 0;
+            recordStart = pos;
+            if (pos >= limit && !fill()) {
+                return false;
+            }
+            char c = buffer[pos];
+            if (c == '\n' || c == '\r') {
+                // Empty line
+                pos++;
+                skipLineFeed(c);
+                continue;
+            }
+            while (parseField()) {
+                // Read all fields
+            }
+            recordNumber++;
+            return true;
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Buffer which contains field value. Field value starts at {@link #getFieldOffset(int)}.
+     */
+    public char[] getFieldBuffer(int index) {
+        checkIndex(index);
+        return fieldCopied[index] ? scratch : buffer;
+    }
+
+    public int getFieldOffset(int index) {
+        checkIndex(index);
+        return fieldStart[index];
+    }
+
+    public int getFieldLength(int index) {
+        checkIndex(index);
+        return fieldEnd[index] - fieldStart[index];
+    }
+
+    /**
+     * Checks whether field value was enclosed in quotes
+     */
+    public boolean isFieldQuoted(int index) {
+        checkIndex(index);
+        return fieldQuoted[index];
+    }
+
+    public boolean isFieldEmpty(int index) {
+        return getFieldLength(index) == 0;
+    }
+
+    /**
+     * Compares field value with the string without string creation
+     */
+    public boolean fieldEquals(int index, String value) {
+        int length = getFieldLength(index);
+        if (value.length() != length) {
+            return false;
+        }
+        char[] chars = getFieldBuffer(index);
+        int offset = fieldStart[index];
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns field value. String is created on the first call and cached until the next record.
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        String str = fieldStrings[index];
+        if (str == null) {
+            str = new String(getFieldBuffer(index), fieldStart[index], fieldEnd[index] - fieldStart[index]);
+            fieldStrings[index] = str;
+        }
+        return str;
+    }
+
+    /**
+     * Returns field value without leading and trailing whitespaces
+     */
+    public String getTrimmedString(int index) {
+        char[] chars = getFieldBuffer(index);
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        if (start == fieldStart[index] && end == fieldEnd[index]) {
+            return getString(index);
+        }
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Returns values of all fields of current record
+     */
+    public String[] getStrings() {
+        String[] strings = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            strings[i] = getString(i);
+        }
+        return strings;
+    }
+
+    /**
+     * Parses field as a decimal integer.
+     *
+     * @throws NumberFormatException if field is not an integer or doesn't fit long
+     */
+    public long getLong(int index) throws NumberFormatException {
+        char[] chars = getFieldBuffer(index);
+        int offset = fieldStart[index];
+        int end = fieldEnd[index];
+        if (offset == end) {
+            throw new NumberFormatException("Empty value");
+        }
+        boolean negative = false;
+        char first = chars[offset];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            offset++;
+            if (offset == end) {
+                throw new NumberFormatException("Bad number: " + getString(index));
+            }
+        }
+        // Accumulate negative value so Long.MIN_VALUE fits
+        long result = 0;
+        for (int i = offset; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9 || result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Bad number: " + getString(index));
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Bad number: " + getString(index));
+            }
+            result = -result;
+        }
+        return result;
+    }
+
+    /**
+     * Parses field as a double.
+     * Plain decimals with up to 15 significant digits are parsed directly from the buffer,
+     * all other formats are parsed by {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException if field is not a number
+     */
+    public double getDouble(int index) throws NumberFormatException {
+        char[] chars = getFieldBuffer(index);
+        int offset = fieldStart[index];
+        int end = fieldEnd[index];
+        boolean negative = false;
+        if (offset < end && (chars[offset] == '-' || chars[offset] == '+')) {
+            negative = chars[offset] == '-';
+            offset++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean hasPoint = false;
+        int i = offset;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (hasPoint) {
+                    scale++;
+                }
+            } else if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (i == end && i > offset && digits <= 15 && mantissa < MAX_EXACT_MANTISSA && scale <= MAX_EXACT_POWER_OF_TEN &&
+            (i - offset > 1 || !hasPoint))
+        {
+            // Both mantissa and power of ten are exact doubles, so the division is correctly rounded
+            double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(getString(index));
+    }
+
+    /**
+     * Parses field in ISO format (yyyy-MM-dd).
+     *
+     * @return date or null if field has different format
+     */
+    public LocalDate getLocalDate(int index) {
+        if (getFieldLength(index) != 10) {
+            return null;
+        }
+        char[] chars = getFieldBuffer(index);
+        int offset = fieldStart[index];
+        if (chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+            return null;
+        }
+        int year = parseDigits(chars, offset, 4);
+        int month = parseDigits(chars, offset + 5, 2);
+        int day = parseDigits(chars, offset + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses field in ISO format (yyyy-MM-dd HH:mm[:ss[.fffffffff]]). Date and time may be separated with 'T'.
+     *
+     * @return timestamp or null if field has different format
+     */
+    public LocalDateTime getLocalDateTime(int index) {
+        int length = getFieldLength(index);
+        if (length != 16 && length != 19 && (length < 21 || length > 29)) {
+            return null;
+        }
+        char[] chars = getFieldBuffer(index);
+        int offset = fieldStart[index];
+        char dateSeparator = chars[offset + 10];
+        if (chars[offset + 4] != '-' || chars[offset + 7] != '-' || (dateSeparator != ' ' && dateSeparator != 'T') ||
+            chars[offset + 13] != ':' || (length > 16 && chars[offset + 16] != ':') || (length > 19 && chars[offset + 19] != '.'))
+        {
+            return null;
+        }
+        int year = parseDigits(chars, offset, 4);
+        int month = parseDigits(chars, offset + 5, 2);
+        int day = parseDigits(chars, offset + 8, 2);
+        int hour = parseDigits(chars, offset + 11, 2);
+        int minute = parseDigits(chars, offset + 14, 2);
+        int second = length > 16 ? parseDigits(chars, offset + 17, 2) : 0;
+        int nanos = 0;
+        if (length > 20) {
+            int fractionDigits = length - 20;
+            nanos = parseDigits(chars, offset + 20, fractionDigits);
+            for (int i = fractionDigits; i < 9 && nanos >= 0; i++) {
+                nanos *= 10;
+            }
+        }
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0 || nanos < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses single field.
+     *
+     * @return true if field is followed by separator
+     */
+    private boolean parseField() throws IOException {
+        copying = false;
+        boolean quoted = false;
+        if (quotechar != CSVParser.NULL_CHARACTER) {
+            int quotePos = findOpeningQuote();
+            if (quotePos >= 0) {
+                quoted = true;
+                pos = quotePos + 1;
+            }
+        }
+        tokenStart = pos;
+        sliceEnd = pos;
+        boolean inQuotes = quoted;
+        for (;;) {
+            if (pos >= limit && !fill()) {
+                if (inQuotes) {
+                    throw new IOException("Un-terminated quoted field at end of CSV data");
+                }
+                endField(quoted);
+                return false;
+            }
+            char c = buffer[pos];
+            if (inQuotes) {
+                if (c == quotechar) {
+                    if (peekNext() == quotechar) {
+                        // Doubled quote
+                        beginCopy();
+                        appendChar(quotechar);
+                        pos += 2;
+                    } else {
+                        inQuotes = false;
+                        pos++;
+                    }
+                    continue;
+                } else if (c == escape && isEscapable(peekNext())) {
+                    beginCopy();
+                    appendChar(buffer[pos + 1]);
+                    pos += 2;
+                    continue;
+                } else if (c == '\r' && peekNext() == '\n') {
+                    // Normalize line feeds in values
+                    beginCopy();
+                    pos++;
+                    continue;
+                }
+            } else {
+                if (c == separator) {
+                    pos++;
+                    endField(quoted);
+                    return true;
+                } else if (c == '\n' || c == '\r') {
+                    pos++;
+                    skipLineFeed(c);
+                    endField(quoted);
+                    return false;
+                } else if (c == escape && isEscapable(peekNext())) {
+                    beginCopy();
+                    appendChar(buffer[pos + 1]);
+                    pos += 2;
+                    continue;
+                } else if (quoted) {
+                    // Characters after closing quote
+                    beginCopy();
+                } else if (!copying) {
+                    // Fast path: scan plain characters
+                    int p = pos + 1;
+                    while (p < limit) {
+                        char pc = buffer[p];
+                        if (pc == separator || pc == '\n' || pc == '\r' || pc == escape) {
+                            break;
+                        }
+                        p++;
+                    }
+                    pos = p;
+                    sliceEnd = p;
+                    continue;
+                }
+            }
+            if (copying) {
+                appendChar(c);
+            } else {
+                sliceEnd = pos + 1;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Finds quote which opens the field. Whitespaces in front of the quote are ignored.
+     *
+     * @return quote position or -1 if field is not quoted
+     */
+    private int findOpeningQuote() throws IOException {
+        // Offset from the current position, since buffer compaction shifts positions
+        int offset = 0;
+        for (;;) {
+            while (pos + offset >= limit) {
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            char c = buffer[pos + offset];
+            if (c == quotechar) {
+                return pos + offset;
+            }
+            if (c == separator || c == '\n' || c == '\r' || !Character.isWhitespace(c)) {
+                return -1;
+            }
+            offset++;
+        }
+    }
+
+    private void endField(boolean quoted) {
+        if (fieldCount == fieldStart.length) {
+            int newSize = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, newSize);
+            fieldEnd = Arrays.copyOf(fieldEnd, newSize);
+            fieldCopied = Arrays.copyOf(fieldCopied, newSize);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, newSize);
+            fieldStrings = Arrays.copyOf(fieldStrings, newSize);
+        }
+        if (copying) {
+            fieldStart[fieldCount] = copyStart;
+            fieldEnd[fieldCount] = scratchLength;
+        } else {
+            fieldStart[fieldCount] = tokenStart;
+            fieldEnd[fieldCount] = sliceEnd;
+        }
+        fieldCopied[fieldCount] = copying;
+        fieldQuoted[fieldCount] = quoted;
+        fieldStrings[fieldCount] = null;
+        fieldCount++;
+    }
+
+    private void skipLineFeed(char c) throws IOException {
+        if (c == '\r' && (pos < limit || fill()) && buffer[pos] == '\n') {
+            pos++;
+        }
+    }
+
+    private boolean isEscapable(int c) {
+        return escape != CSVParser.NULL_CHARACTER && c >= 0 && (c == quotechar || c == escape);
+    }
+
+    /**
+     * Returns character after the current one or -1 at the end of data
+     */
+    private int peekNext() throws IOException {
+        while (pos + 1 >= limit) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buffer[pos + 1];
+    }
+
+    /**
+     * Switches current field to the scratch buffer. Used when field value differs from the source characters.
+     */
+    private void beginCopy() {
+        if (!copying) {
+            copying = true;
+            copyStart = scratchLength;
+            int length = sliceEnd - tokenStart;
+            ensureScratch(length);
+            System.arraycopy(buffer, tokenStart, scratch, scratchLength, length);
+            scratchLength += length;
+        }
+    }
+
+    private void appendChar(char c) {
+        ensureScratch(1);
+        scratch[scratchLength++] = c;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratchLength + length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+        }
+    }
+
+    /**
+     * Reads more data. Moves current record to the buffer start or grows the buffer if there is no free space.
+     *
+     * @return false at the end of data
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (limit == buffer.length) {
+            if (recordStart > 0) {
+                int shift = recordStart;
+                System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+                limit -= shift;
+                pos -= shift;
+                tokenStart -= shift;
+                sliceEnd -= shift;
+                recordStart = 0;
+                for (int i = 0; i < fieldCount; i++) {
+                    if (!fieldCopied[i]) {
+                        fieldStart[i] -= shift;
+                        fieldEnd[i] -= shift;
+                    }
+                }
+            }
+            if (limit > buffer.length - buffer.length / 4) {
+                // Long record occupies most of the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        int count;
+        do {
+            count = reader.read(buffer, limit, buffer.length - limit);
+        } while (count == 0);
+        if (count < 0) {
+            eof = true;
+            return false;
+        }
+        limit += count;
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field index " + index + " is out of range (" + fieldCount + ")");
+        }
+    }
+
+    /**
+     * Parses fixed number of decimal digits. Returns -1 if there are non-digit characters
+     */
+    private static int parseDigits(char[] chars, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils.io;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * GZIP output stream which compresses data blocks in parallel (the same way pigz does).
+ * Input is split into fixed size blocks, each block is deflated by a worker thread using
+ * the tail of the previous block as a preset dictionary. Compressed blocks are written to the
+ * target stream in the original order, so the result is a regular single member gzip file.
+ * <p>
+ * {@link #flush()} writes blocks which are already compressed but never forces incomplete block compression.
+ * Stream is not thread safe.
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] GZIP_HEADER = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ExecutorService executor;
+    private final ArrayDeque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int blockLength;
+    private byte[] dictionary;
+    private long totalLength;
+    private boolean closed;
+
+    public ParallelGZIPOutputStream(@NotNull OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGZIPOutputStream(@NotNull OutputStream out, int level, int threads) throws IOException {
+        this(out, level, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ParallelGZIPOutputStream(@NotNull OutputStream out, int level, int threads, int blockSize) throws IOException {
+        super(out);
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Block size must be at least " + DICTIONARY_SIZE + " bytes");
+        }
+        this.level = level;
+        this.blockSize = blockSize;
+        int threadCount = Math.max(1, threads);
+        this.maxPendingBlocks = threadCount * 2;
+        int poolNumber = POOL_NUMBER.incrementAndGet();
+        this.executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "GZIP compressor " + poolNumber);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.block = new byte[blockSize];
+        out.write(GZIP_HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[blockLength++] = (byte) b;
+        if (blockLength == blockSize) {
+            submitBlock(false);
+        }
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int count = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, count);
+            blockLength += count;
+            off += count;
+            len -= count;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            writeBlock(pendingBlocks.pollFirst());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.pollFirst());
+            }
+            writeInt((int) crc.getValue());
+            writeInt((int) totalLength);
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        final byte[] data = block;
+        final int length = blockLength;
+        final byte[] blockDictionary = dictionary;
+        crc.update(data, 0, length);
+        totalLength += length;
+        if (length >= DICTIONARY_SIZE) {
+            dictionary = Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length);
+        }
+        block = new byte[blockSize];
+        blockLength = 0;
+
+        if (pendingBlocks.size() >= maxPendingBlocks) {
+            writeBlock(pendingBlocks.pollFirst());
+        }
+        pendingBlocks.addLast(executor.submit(() -> compressBlock(data, length, blockDictionary, last)));
+    }
+
+    @NotNull
+    private byte[] compressBlock(@NotNull byte[] data, int length, @Nullable byte[] blockDictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (blockDictionary != null) {
+                deflater.setDictionary(blockDictionary);
+            }
+            deflater.setInput(data, 0, length);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[Math.max(length / 2, 8192)];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    result.write(buffer, 0, count);
+                }
+            } else {
+                // Sync flush aligns block on a byte boundary so blocks can be concatenated
+                for (;;) {
+                    int count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    result.write(buffer, 0, count);
+                    if (count < buffer.length) {
+                        break;
+                    }
+                }
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(@NotNull Future<byte[]> future) throws IOException {
+        byte[] compressed;
+        try {
+            compressed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Block compression interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Error compressing data block", e.getCause());
+        }
+        out.write(compressed);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+}
@@ -310,6 +310,12 @@ public class CoreMessages extends NLS {
 	public static String pref_page_error_handle_connection_validate_timeout_label;
 	public static String pref_page_error_handle_connection_validate_timeout_label_tip;
 
+	public static String pref_page_error_handle_group_pool_title;
+	public static String pref_page_error_handle_pool_max_idle_label;
+	public static String pref_page_error_handle_pool_max_idle_label_tip;
+	public static String pref_page_error_handle_pool_idle_timeout_label;
+	public static String pref_page_error_handle_pool_idle_timeout_label_tip;
+
 	public static String pref_page_error_handle_group_execute_title;
 	public static String pref_page_error_handle_recover_enabled_label;
 	public static String pref_page_error_handle_recover_enabled_tip;
@@ -337,6 +343,7 @@ public class CoreMessages extends NLS {
     public static String pref_page_query_manager_group_settings;
 	public static String pref_page_query_manager_group_storage;
     public static String pref_page_query_manager_checkbox_store_log_file;
+    public static String pref_page_query_manager_checkbox_store_history;
     public static String pref_page_query_manager_logs_folder;
 	public static String pref_page_query_manager_label_days_to_store_log;
 	public static String pref_page_query_manager_label_entries_per_page;
@@ -431,6 +438,8 @@ public class CoreMessages extends NLS {
 	public static String pref_page_database_general_checkbox_show_row_count_tip;
 	public static String pref_page_database_general_server_side_object_filters;
 	public static String pref_page_database_general_server_side_object_filters_tip;
+	public static String pref_page_database_general_label_cache_max_objects;
+	public static String pref_page_database_general_label_cache_max_objects_tip;
 	public static String pref_page_database_general_group_query_metadata;
 	// EntityEditor
 	public static String pref_page_ui_general_keep_database_editors_tip;
@@ -39,6 +39,7 @@ import org.jkiss.dbeaver.registry.*;
 import org.jkiss.dbeaver.registry.formatter.DataFormatterRegistry;
 import org.jkiss.dbeaver.registry.language.PlatformLanguageRegistry;
 import org.jkiss.dbeaver.runtime.SecurityProviderUtils;
+import org.jkiss.dbeaver.runtime.qm.QMHistoryStore;
 import org.jkiss.dbeaver.runtime.qm.QMLogFileWriter;
 import org.jkiss.dbeaver.runtime.qm.QMRegistryImpl;
 import org.jkiss.dbeaver.utils.ContentUtils;
@@ -80,6 +81,7 @@ public class DesktopPlatform extends BasePlatformImpl implements DBPPlatformDesk
     private DesktopWorkspaceImpl workspace;
     private QMRegistryImpl queryManager;
     private QMLogFileWriter qmLogWriter;
+    private QMHistoryStore qmHistoryStore;
     private DBACertificateStorage certificateStorage;
     private DBPPlatformLanguage language;
 
@@ -181,6 +183,10 @@ public class DesktopPlatform extends BasePlatformImpl implements DBPPlatformDesk
         this.qmLogWriter = new QMLogFileWriter();
         this.queryManager.registerMetaListener(qmLogWriter);
 
+        this.qmHistoryStore = new QMHistoryStore(queryManager);
+        this.queryManager.registerMetaListener(qmHistoryStore);
+        this.queryManager.setHistoryStore(qmHistoryStore);
+
         super.initialize();
 
         log.debug("Platform initialized (" + (System.currentTimeMillis() - startTime) + "ms)");
@@ -209,6 +215,12 @@ public class DesktopPlatform extends BasePlatformImpl implements DBPPlatformDesk
             this.qmLogWriter.dispose();
             this.qmLogWriter = null;
         }
+        if (this.qmHistoryStore != null) {
+            this.queryManager.unregisterMetaListener(qmHistoryStore);
+            this.queryManager.setHistoryStore(null);
+            this.qmHistoryStore.dispose();
+            this.qmHistoryStore = null;
+        }
         if (this.queryManager != null) {
             this.queryManager.dispose();
             //queryManager = null;
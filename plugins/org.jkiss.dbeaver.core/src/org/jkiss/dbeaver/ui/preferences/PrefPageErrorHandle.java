@@ -39,6 +39,9 @@ public class PrefPageErrorHandle extends TargetPrefPage
     private Spinner connectionCloseTimeout;
     private Spinner connectionValidateTimeout;
 
+    private Spinner poolMaxIdleSpinner;
+    private Spinner poolIdleTimeoutSpinner;
+
     private Button rollbackOnErrorCheck;
     private Button connectionAutoRecoverEnabled;
     private Spinner connectionAutoRecoverRetryCount;
@@ -59,6 +62,9 @@ public class PrefPageErrorHandle extends TargetPrefPage
             store.contains(ModelPreferences.CONNECTION_CLOSE_TIMEOUT) ||
             store.contains(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT) ||
 
+            store.contains(ModelPreferences.CONNECTION_POOL_MAX_IDLE) ||
+            store.contains(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT) ||
+
             store.contains(ModelPreferences.QUERY_ROLLBACK_ON_ERROR) ||
             store.contains(ModelPreferences.EXECUTE_RECOVER_ENABLED) ||
             store.contains(ModelPreferences.EXECUTE_RECOVER_RETRY_COUNT) ||
@@ -87,6 +93,14 @@ public class PrefPageErrorHandle extends TargetPrefPage
             connectionValidateTimeout = UIUtils.createLabelSpinner(timeoutsGroup, CoreMessages.pref_page_error_handle_connection_validate_timeout_label + UIMessages.label_ms, CoreMessages.pref_page_error_handle_connection_validate_timeout_label_tip, 0, 0, Integer.MAX_VALUE);
         }
 
+        // Connections pool
+        {
+            Group poolGroup = UIUtils.createControlGroup(composite, CoreMessages.pref_page_error_handle_group_pool_title, 2, GridData.VERTICAL_ALIGN_BEGINNING, 0);
+
+            poolMaxIdleSpinner = UIUtils.createLabelSpinner(poolGroup, CoreMessages.pref_page_error_handle_pool_max_idle_label, CoreMessages.pref_page_error_handle_pool_max_idle_label_tip, 0, 0, 100);
+            poolIdleTimeoutSpinner = UIUtils.createLabelSpinner(poolGroup, CoreMessages.pref_page_error_handle_pool_idle_timeout_label + UIMessages.label_sec, CoreMessages.pref_page_error_handle_pool_idle_timeout_label_tip, 0, 0, Integer.MAX_VALUE);
+        }
+
         // Misc settings
         {
             Group errorGroup = UIUtils.createControlGroup(composite, CoreMessages.pref_page_error_handle_group_execute_title, 2, GridData.VERTICAL_ALIGN_BEGINNING, 0);
@@ -114,6 +128,9 @@ public class PrefPageErrorHandle extends TargetPrefPage
             connectionCloseTimeout.setSelection(store.getInt(ModelPreferences.CONNECTION_CLOSE_TIMEOUT));
             connectionValidateTimeout.setSelection(store.getInt(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT));
 
+            poolMaxIdleSpinner.setSelection(store.getInt(ModelPreferences.CONNECTION_POOL_MAX_IDLE));
+            poolIdleTimeoutSpinner.setSelection(store.getInt(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT));
+
             rollbackOnErrorCheck.setSelection(store.getBoolean(ModelPreferences.QUERY_ROLLBACK_ON_ERROR));
             connectionAutoRecoverEnabled.setSelection(store.getBoolean(ModelPreferences.EXECUTE_RECOVER_ENABLED));
             connectionAutoRecoverRetryCount.setSelection(store.getInt(ModelPreferences.EXECUTE_RECOVER_RETRY_COUNT));
@@ -132,6 +149,9 @@ public class PrefPageErrorHandle extends TargetPrefPage
             store.setValue(ModelPreferences.CONNECTION_CLOSE_TIMEOUT, connectionCloseTimeout.getSelection());
             store.setValue(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT, connectionValidateTimeout.getSelection());
 
+            store.setValue(ModelPreferences.CONNECTION_POOL_MAX_IDLE, poolMaxIdleSpinner.getSelection());
+            store.setValue(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT, poolIdleTimeoutSpinner.getSelection());
+
             store.setValue(ModelPreferences.QUERY_ROLLBACK_ON_ERROR, rollbackOnErrorCheck.getSelection());
             store.setValue(ModelPreferences.EXECUTE_RECOVER_ENABLED, connectionAutoRecoverEnabled.getSelection());
             store.setValue(ModelPreferences.EXECUTE_RECOVER_RETRY_COUNT, connectionAutoRecoverRetryCount.getSelection());
@@ -150,6 +170,9 @@ public class PrefPageErrorHandle extends TargetPrefPage
         store.setToDefault(ModelPreferences.CONNECTION_CLOSE_TIMEOUT);
         store.setToDefault(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT);
 
+        store.setToDefault(ModelPreferences.CONNECTION_POOL_MAX_IDLE);
+        store.setToDefault(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT);
+
         store.setToDefault(ModelPreferences.QUERY_ROLLBACK_ON_ERROR);
         store.setToDefault(ModelPreferences.EXECUTE_RECOVER_ENABLED);
         store.setToDefault(ModelPreferences.EXECUTE_RECOVER_RETRY_COUNT);
@@ -25,6 +25,7 @@ import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Spinner;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.ModelPreferences.SeparateConnectionBehavior;
@@ -47,6 +48,7 @@ public class PrefPageMetaData extends TargetPrefPage
     private Combo separateMetaConnectionCombo;
     private Button caseSensitiveNamesCheck;
     private Button serverSideFiltersCheck;
+    private Spinner cacheMaxObjectsSpinner;
 
     public PrefPageMetaData()
     {
@@ -61,7 +63,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.contains(ModelPreferences.READ_EXPENSIVE_PROPERTIES) ||
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
             store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
-            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS)
+            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS) ||
+            store.contains(ModelPreferences.META_CACHE_MAX_OBJECTS)
             ;
     }
 
@@ -99,6 +102,12 @@ public class PrefPageMetaData extends TargetPrefPage
             caseSensitiveNamesCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names_tip, false, 1);
             readExpensiveCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_show_row_count, CoreMessages.pref_page_database_general_checkbox_show_row_count_tip, false, 1);
             serverSideFiltersCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_server_side_object_filters, CoreMessages.pref_page_database_general_server_side_object_filters_tip, false, 1);
+            cacheMaxObjectsSpinner = UIUtils.createLabelSpinner(
+                UIUtils.createComposite(metadataGroup, 2),
+                CoreMessages.pref_page_database_general_label_cache_max_objects,
+                CoreMessages.pref_page_database_general_label_cache_max_objects_tip,
+                0, 0, Integer.MAX_VALUE
+            );
         }
 
         return composite;
@@ -114,6 +123,7 @@ public class PrefPageMetaData extends TargetPrefPage
             ));
             caseSensitiveNamesCheck.setSelection(store.getBoolean(ModelPreferences.META_CASE_SENSITIVE));
             serverSideFiltersCheck.setSelection(store.getBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+            cacheMaxObjectsSpinner.setSelection(store.getInt(ModelPreferences.META_CACHE_MAX_OBJECTS));
 
         } catch (Exception e) {
             log.warn(e);
@@ -131,6 +141,7 @@ public class PrefPageMetaData extends TargetPrefPage
             );
             store.setValue(ModelPreferences.META_CASE_SENSITIVE, caseSensitiveNamesCheck.getSelection());
             store.setValue(ModelPreferences.META_USE_SERVER_SIDE_FILTERS, serverSideFiltersCheck.getSelection());
+            store.setValue(ModelPreferences.META_CACHE_MAX_OBJECTS, cacheMaxObjectsSpinner.getSelection());
 
         } catch (Exception e) {
             log.warn(e);
@@ -145,6 +156,7 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(ModelPreferences.META_SEPARATE_CONNECTION);
         store.setToDefault(ModelPreferences.META_CASE_SENSITIVE);
         store.setToDefault(ModelPreferences.META_USE_SERVER_SIDE_FILTERS);
+        store.setToDefault(ModelPreferences.META_CACHE_MAX_OBJECTS);
 
     }
 
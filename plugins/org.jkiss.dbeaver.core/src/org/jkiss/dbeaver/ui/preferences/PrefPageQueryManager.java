@@ -60,6 +60,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
     private Button checkQueryTypeDDL;
     private Text textHistoryDays;
     private Text textEntriesPerPage;
+    private Button checkStoreHistory;
     private Button checkStoreLog;
     private Text textOutputFolder;
 
@@ -100,16 +101,27 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         {
             Group storageSettings = UIUtils.createControlGroup(composite, CoreMessages.pref_page_query_manager_group_storage, 2, GridData.FILL_HORIZONTAL | GridData.VERTICAL_ALIGN_BEGINNING, 0);
-            checkStoreLog = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_log_file, false);
+            checkStoreHistory = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_history, false);
             GridData gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
             gd.horizontalSpan = 2;
+            checkStoreHistory.setLayoutData(gd);
+            checkStoreHistory.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e)
+                {
+                    UIUtils.enableWithChildren(textHistoryDays, checkStoreHistory.getSelection() || checkStoreLog.getSelection());
+                }
+            });
+            checkStoreLog = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_log_file, false);
+            gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
+            gd.horizontalSpan = 2;
             checkStoreLog.setLayoutData(gd);
             checkStoreLog.addSelectionListener(new SelectionAdapter() {
                 @Override
                 public void widgetSelected(SelectionEvent e)
                 {
                     UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
-                    UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+                    UIUtils.enableWithChildren(textHistoryDays, checkStoreHistory.getSelection() || checkStoreLog.getSelection());
                 }
             });
             textOutputFolder = DialogUtils.createOutputFolderChooser(storageSettings, CoreMessages.pref_page_query_manager_logs_folder, null);
@@ -144,10 +156,11 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         textHistoryDays.setText(store.getString(QMConstants.PROP_HISTORY_DAYS));
         textEntriesPerPage.setText(store.getString(QMConstants.PROP_ENTRIES_PER_PAGE));
 
+        checkStoreHistory.setSelection(store.getBoolean(QMConstants.PROP_STORE_HISTORY));
         checkStoreLog.setSelection(store.getBoolean(QMConstants.PROP_STORE_LOG_FILE));
         textOutputFolder.setText(store.getString(QMConstants.PROP_LOG_DIRECTORY));
         UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
-        UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+        UIUtils.enableWithChildren(textHistoryDays, checkStoreHistory.getSelection() || checkStoreLog.getSelection());
 
         super.performDefaults();
     }
@@ -180,6 +193,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         if (entriesPerPage != null) {
             store.setValue(QMConstants.PROP_ENTRIES_PER_PAGE, Math.max(1, entriesPerPage));
         }
+        store.setValue(QMConstants.PROP_STORE_HISTORY, checkStoreHistory.getSelection());
         store.setValue(QMConstants.PROP_STORE_LOG_FILE, checkStoreLog.getSelection());
         store.setValue(QMConstants.PROP_LOG_DIRECTORY, textOutputFolder.getText());
         PrefUtils.savePreferenceStore(store);
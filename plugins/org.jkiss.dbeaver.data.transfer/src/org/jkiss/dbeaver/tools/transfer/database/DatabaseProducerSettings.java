@@ -32,11 +32,13 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
     public enum ExtractType {
         SINGLE_QUERY,
-        SEGMENTS
+        SEGMENTS,
+        PARTITIONS
     }
 
     private static final int DEFAULT_SEGMENT_SIZE = 100000;
     private static final int DEFAULT_FETCH_SIZE = 10000;
+    private static final int DEFAULT_PARTITION_COUNT = 4;
 
     private int segmentSize = DEFAULT_SEGMENT_SIZE;
 
@@ -46,6 +48,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int partitionCount = DEFAULT_PARTITION_COUNT;
+    private String partitionColumn;
+    private boolean pipelined = false;
 
     public DatabaseProducerSettings() {
     }
@@ -100,6 +105,41 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.openNewConnections = openNewConnections;
     }
 
+    /**
+     * Number of parallel partitions for {@link ExtractType#PARTITIONS} extract type
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        if (partitionCount > 0) {
+            this.partitionCount = partitionCount;
+        }
+    }
+
+    /**
+     * Numeric column used to split table in partitions. If empty then table identifier is used.
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public void setPartitionColumn(String partitionColumn) {
+        this.partitionColumn = partitionColumn;
+    }
+
+    /**
+     * Read source and write target in separate threads
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
     public ExtractType getExtractType() {
         return extractType;
     }
@@ -113,10 +153,13 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         extractType = CommonUtils.valueOf(ExtractType.class, (String) settings.get("extractType"), extractType);
         segmentSize = CommonUtils.toInt(settings.get("segmentSize"), DEFAULT_SEGMENT_SIZE);
         fetchSize = CommonUtils.toInt(settings.get("fetchSize"), fetchSize);
+        partitionCount = CommonUtils.toInt(settings.get("partitionCount"), DEFAULT_PARTITION_COUNT);
+        partitionColumn = CommonUtils.toString(settings.get("partitionColumn"), null);
         openNewConnections = CommonUtils.toBoolean(settings.get("openNewConnections"));
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
+        pipelined = CommonUtils.toBoolean(settings.get("pipelined"));
     }
 
     @Override
@@ -124,10 +167,15 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         settings.put("extractType", extractType.name());
         settings.put("segmentSize", segmentSize);
         settings.put("fetchSize", fetchSize);
+        settings.put("partitionCount", partitionCount);
+        if (!CommonUtils.isEmpty(partitionColumn)) {
+            settings.put("partitionColumn", partitionColumn);
+        }
         settings.put("openNewConnections", openNewConnections);
         settings.put("queryRowCount", queryRowCount);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
+        settings.put("pipelined", pipelined);
     }
 
     @Override
@@ -136,7 +184,14 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_new_connection, openNewConnections);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_extract_type, extractType.name());
+        if (extractType == ExtractType.PARTITIONS) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_count, partitionCount);
+            if (!CommonUtils.isEmpty(partitionColumn)) {
+                DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_column, partitionColumn);
+            }
+        }
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
+        DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_pipelined, pipelined);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
 
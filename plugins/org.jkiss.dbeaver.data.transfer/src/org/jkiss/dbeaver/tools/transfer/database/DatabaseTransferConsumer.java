@@ -272,10 +272,12 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             if (settings.isUseBulkLoad()) {
                 DBSDataBulkLoader bulkLoader = DBUtils.getAdapter(DBSDataBulkLoader.class, targetContext.getDataSource());
                 if (bulkLoader != null) {
+                    options.put(DBSDataBulkLoader.OPTION_USE_TRANSACTIONS, settings.isUseTransactions());
                     try {
                         bulkLoadManager = bulkLoader.createBulkLoad(
                             targetSession, targetObject, attributes, executionSource, settings.getCommitAfterRows(), options);
                     } catch (Exception e) {
+                        // Bulk load was requested explicitly, do not switch to regular inserts silently
                         throw new DBCException("Error creating bulk loader", e);
                     }
                 }
@@ -390,6 +392,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             if (needCommit) {
                 bulkLoadManager.flushRows(targetSession);
             }
+            // Bulk load is committed by the loader in finishBulkLoad
             return;
         } else {
             boolean disableUsingBatches = settings.isDisableUsingBatches();
@@ -402,6 +405,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, disableUsingBatches);
                 options.put(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE, settings.getMultiRowInsertBatch());
                 options.put(DBSDataManipulator.OPTION_SKIP_BIND_VALUES, settings.isSkipBindValues());
+                // Reuse prepared insert for rows with different null values
+                options.put(DBSDataManipulator.OPTION_BIND_TYPED_NULLS, true);
 
                 boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null &&
                     !settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD);
@@ -867,6 +872,31 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         return settings;
     }
 
+    /**
+     * Checks whether data may be loaded into the target by several consumers at once.
+     * Each consumer needs its own connection, so new connections must be enabled.
+     */
+    public boolean isParallelLoadSupported() {
+        if (isPreview || settings == null || !settings.isOpenNewConnections() || targetObjectContainer != null) {
+            return false;
+        }
+        DBSDataManipulator targetObject = getTargetObject();
+        return targetObject != null && targetObject.getDataSource() != null &&
+            !targetObject.getDataSource().getContainer().getDriver().isEmbedded();
+    }
+
+    /**
+     * Creates consumer which loads data into the same target with the same settings and mappings.
+     * It opens its own connection and must be started with non-zero offset, so target is not truncated again.
+     */
+    @NotNull
+    public DatabaseTransferConsumer createParallelConsumer() {
+        DatabaseTransferConsumer consumer = new DatabaseTransferConsumer(localTargetObject);
+        consumer.settings = settings;
+        consumer.containerMapping = containerMapping;
+        return consumer;
+    }
+
     @Override
     @NotNull
     public DBCStatistics getStatistics() {
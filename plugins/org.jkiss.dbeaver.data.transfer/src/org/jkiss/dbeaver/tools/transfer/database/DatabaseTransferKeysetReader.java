@@ -0,0 +1,287 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads table by segments using keyset (seek) pagination.
+ * <p>
+ * Rows are ordered by table unique key. Each next segment starts after the last key of the previous segment:
+ * {@code WHERE k1 > ? OR (k1 = ? AND k2 > ?) ORDER BY k1, k2}. So server doesn't need to skip already read rows.
+ * Seeking is used only for exact keys (integers and strings): their literals are rendered without formatting,
+ * so segment bounds are not rounded. If key values can't be obtained from the result set then offset is used
+ * (with the same ordering).
+ */
+class DatabaseTransferKeysetReader {
+
+    private static final Log log = Log.getLog(DatabaseTransferKeysetReader.class);
+
+    private final DBSEntity entity;
+    private final List<DBSEntityAttribute> keyAttributes;
+    private final DBDDataFilter dataFilter;
+    private final String keyOrder;
+
+    // SQL literals of the last read key. Null before the first segment or if key values are unavailable.
+    private String[] lastKey;
+
+    private DatabaseTransferKeysetReader(@NotNull DBSEntity entity, @NotNull List<DBSEntityAttribute> keyAttributes, @Nullable DBDDataFilter dataFilter) {
+        this.entity = entity;
+        this.keyAttributes = keyAttributes;
+        this.dataFilter = dataFilter;
+
+        StringBuilder order = new StringBuilder();
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            if (order.length() > 0) order.append(",");
+            order.append(DBUtils.getQuotedIdentifier(attribute));
+        }
+        this.keyOrder = order.toString();
+    }
+
+    /**
+     * Creates keyset reader for the specified container.
+     *
+     * @return reader or null if container doesn't have a usable unique key or data filter defines its own ordering
+     */
+    @Nullable
+    static DatabaseTransferKeysetReader create(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataContainer dataContainer,
+        @Nullable DBDDataFilter dataFilter)
+    {
+        if (!(dataContainer instanceof DBSEntity) || (dataFilter != null && dataFilter.hasOrdering())) {
+            return null;
+        }
+        DBSEntity entity = (DBSEntity) dataContainer;
+        List<DBSEntityAttribute> keyAttributes = new ArrayList<>();
+        try {
+            for (DBSEntityAttribute attribute : DBUtils.getBestTableIdentifier(monitor, entity)) {
+                if (!attribute.isRequired() || !isSeekableAttribute(attribute)) {
+                    return null;
+                }
+                keyAttributes.add(attribute);
+            }
+        } catch (DBException e) {
+            log.debug("Error reading unique key of '" + entity.getName() + "'", e);
+            return null;
+        }
+        if (keyAttributes.isEmpty()) {
+            return null;
+        }
+        return new DatabaseTransferKeysetReader(entity, keyAttributes, dataFilter);
+    }
+
+    /**
+     * Reads next segment.
+     *
+     * @param offset number of rows read by the previous segments. Used if last key is unknown.
+     */
+    @Nullable
+    DBCStatistics readSegment(
+        @NotNull DBCExecutionSource source,
+        @NotNull DBCSession session,
+        @NotNull DBDDataReceiver consumer,
+        long offset,
+        int segmentSize,
+        long readFlags,
+        int fetchSize) throws DBCException
+    {
+        DBDDataFilter filter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+        filter.setOrder(keyOrder);
+        long firstRow = 0;
+        if (lastKey != null) {
+            String seekCondition = makeSeekCondition(lastKey);
+            if (CommonUtils.isEmpty(filter.getWhere())) {
+                filter.setWhere(seekCondition);
+            } else {
+                filter.setWhere("(" + filter.getWhere() + ") AND (" + seekCondition + ")");
+            }
+        } else {
+            firstRow = offset;
+        }
+        KeyReceiver receiver = new KeyReceiver(session.getDataSource(), consumer, offset);
+        DBCStatistics statistics = ((DBSDataContainer) entity).readData(
+            source, session, receiver, filter, firstRow, segmentSize, readFlags, fetchSize);
+        lastKey = receiver.lastKey;
+        return statistics;
+    }
+
+    @NotNull
+    private String makeSeekCondition(@NotNull String[] key) {
+        // k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < keyAttributes.size(); i++) {
+            if (i > 0) condition.append(" OR ");
+            condition.append("(");
+            for (int k = 0; k < i; k++) {
+                condition.append(DBUtils.getQuotedIdentifier(keyAttributes.get(k))).append("=").append(key[k]).append(" AND ");
+            }
+            condition.append(DBUtils.getQuotedIdentifier(keyAttributes.get(i))).append(">").append(key[i]);
+            condition.append(")");
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Only exact key types are seekable. Floating point and date/time values may lose precision
+     * in SQL literals which leads to duplicated or skipped rows.
+     */
+    private static boolean isSeekableAttribute(@NotNull DBSEntityAttribute attribute) {
+        if (attribute.getDataKind() == DBPDataKind.STRING) {
+            return true;
+        }
+        if (attribute.getDataKind() != DBPDataKind.NUMERIC) {
+            return false;
+        }
+        switch (attribute.getTypeID()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                Integer scale = attribute.getScale();
+                return scale != null && scale == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns exact SQL literal of the key value or null if value can't be represented exactly
+     */
+    @Nullable
+    private static String makeKeyLiteral(@NotNull DBPDataSource dataSource, @Nullable Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof BigInteger) {
+            return value.toString();
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return decimal.stripTrailingZeros().scale() <= 0 ? decimal.toBigIntegerExact().toString() : null;
+        } else if (value instanceof String) {
+            SQLDialect dialect = dataSource.getSQLDialect();
+            return dialect == null ? null : dialect.getQuotedString((String) value);
+        }
+        return null;
+    }
+
+    /**
+     * Passes rows to the consumer and remembers key of the last row
+     */
+    private class KeyReceiver implements DBDDataReceiver {
+        private final DBPDataSource dataSource;
+        private final DBDDataReceiver consumer;
+        private final long segmentOffset;
+        private int[] keyIndexes;
+        private Object[] lastValues;
+        private String[] lastKey;
+
+        KeyReceiver(@NotNull DBPDataSource dataSource, @NotNull DBDDataReceiver consumer, long segmentOffset) {
+            this.dataSource = dataSource;
+            this.consumer = consumer;
+            this.segmentOffset = segmentOffset;
+        }
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            // Consumer expects real segment offset (e.g. it truncates target table on the first segment)
+            consumer.fetchStart(session, resultSet, segmentOffset, maxRows);
+            DBCResultSetMetaData meta = resultSet.getMeta();
+            List<DBCAttributeMetaData> rsAttributes = meta == null ? null : meta.getAttributes();
+            if (rsAttributes != null) {
+                keyIndexes = new int[keyAttributes.size()];
+                for (int i = 0; i < keyIndexes.length; i++) {
+                    keyIndexes[i] = findAttribute(rsAttributes, keyAttributes.get(i).getName());
+                    if (keyIndexes[i] < 0) {
+                        log.debug("Key column '" + keyAttributes.get(i).getName() + "' not found in result set. Use offset pagination.");
+                        keyIndexes = null;
+                        break;
+                    }
+                }
+            }
+            if (keyIndexes != null) {
+                lastValues = new Object[keyIndexes.length];
+            }
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            // Read key before the consumer, it may read (and consume) values of the current row
+            if (keyIndexes != null) {
+                for (int i = 0; i < keyIndexes.length; i++) {
+                    lastValues[i] = resultSet.getAttributeValue(keyIndexes[i]);
+                }
+            }
+            consumer.fetchRow(session, resultSet);
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            consumer.fetchEnd(session, resultSet);
+            if (lastValues != null && lastValues[0] != null) {
+                lastKey = new String[lastValues.length];
+                for (int i = 0; i < lastValues.length; i++) {
+                    String literal = DBUtils.isNullValue(lastValues[i]) ? null : makeKeyLiteral(dataSource, lastValues[i]);
+                    if (literal == null) {
+                        log.debug("Key value of '" + keyAttributes.get(i).getName() + "' can't be used for seek. Use offset pagination.");
+                        lastKey = null;
+                        break;
+                    }
+                    lastKey[i] = literal;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            consumer.close();
+        }
+
+        private int findAttribute(@NotNull List<DBCAttributeMetaData> rsAttributes, @NotNull String name) {
+            for (int i = 0; i < rsAttributes.size(); i++) {
+                DBCAttributeMetaData attr = rsAttributes.get(i);
+                if (name.equalsIgnoreCase(attr.getName()) || name.equalsIgnoreCase(attr.getLabel())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,470 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads single table in several parallel partitions.
+ * <p>
+ * Table is split by ranges of a numeric key column (the first column of table identifier by default).
+ * Each range is read in its own job on its own isolated execution context.
+ * All ranges feed the same consumer: rows are passed to consumer one by one, consumer's
+ * fetchStart, fetchEnd and close are invoked only once in the calling thread, with the calling session
+ * and a snapshot of partition result set metadata.
+ */
+class DatabaseTransferPartitionReader {
+
+    private static final Log log = Log.getLog(DatabaseTransferPartitionReader.class);
+
+    // Period of monitor cancel checks while waiting for partitions
+    private static final long CANCEL_CHECK_PERIOD = 200;
+
+    private final DBSEntity entity;
+    private final DBSEntityAttribute partitionAttribute;
+    private final DBCExecutionContext baseContext;
+    private final DBDDataReceiver consumer;
+    private final DBDDataFilter dataFilter;
+    private final long readFlags;
+    private final int fetchSize;
+    private final boolean useTransactions;
+    private final String defaultCatalog;
+    private final String defaultSchema;
+
+    private final DBCStatistics statistics = new DBCStatistics();
+    private final List<PartitionReadJob> jobs = new CopyOnWriteArrayList<>();
+    private volatile Throwable error;
+
+    private DatabaseTransferPartitionReader(
+        @NotNull DBSEntity entity,
+        @NotNull DBSEntityAttribute partitionAttribute,
+        @NotNull DBCExecutionContext baseContext,
+        @NotNull DBDDataReceiver consumer,
+        @Nullable DBDDataFilter dataFilter,
+        long readFlags,
+        int fetchSize,
+        boolean useTransactions,
+        @Nullable String defaultCatalog,
+        @Nullable String defaultSchema)
+    {
+        this.entity = entity;
+        this.partitionAttribute = partitionAttribute;
+        this.baseContext = baseContext;
+        this.consumer = consumer;
+        this.dataFilter = dataFilter;
+        this.readFlags = readFlags;
+        this.fetchSize = fetchSize;
+        this.useTransactions = useTransactions;
+        this.defaultCatalog = defaultCatalog;
+        this.defaultSchema = defaultSchema;
+    }
+
+    /**
+     * Creates partitioned reader for the specified container.
+     *
+     * @return reader or null if container can't be read in partitions
+     */
+    @Nullable
+    static DatabaseTransferPartitionReader create(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBCExecutionContext context,
+        @NotNull DBDDataReceiver consumer,
+        @Nullable DBDDataFilter dataFilter,
+        @NotNull DatabaseProducerSettings settings,
+        long readFlags,
+        boolean useTransactions,
+        @Nullable String defaultCatalog,
+        @Nullable String defaultSchema)
+    {
+        if (!(dataContainer instanceof DBSEntity) || settings.getPartitionCount() < 2) {
+            return null;
+        }
+        DBPDataSource dataSource = dataContainer.getDataSource();
+        if (dataSource == null || dataSource.getContainer().getDriver().isEmbedded()) {
+            // Embedded databases do not support multiple connections
+            return null;
+        }
+        DBSEntity entity = (DBSEntity) dataContainer;
+        DBSEntityAttribute attribute = null;
+        try {
+            if (!CommonUtils.isEmpty(settings.getPartitionColumn())) {
+                attribute = entity.getAttribute(monitor, settings.getPartitionColumn());
+                if (attribute == null) {
+                    log.warn("Partition column '" + settings.getPartitionColumn() + "' not found in '" + entity.getName() + "'");
+                }
+            } else {
+                List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, entity);
+                if (!identifier.isEmpty()) {
+                    attribute = identifier.get(0);
+                }
+            }
+        } catch (DBException e) {
+            log.debug("Error reading partition column of '" + entity.getName() + "'", e);
+        }
+        if (attribute == null || attribute.getDataKind() != DBPDataKind.NUMERIC) {
+            return null;
+        }
+        return new DatabaseTransferPartitionReader(
+            entity, attribute, context, consumer, dataFilter, readFlags, settings.getFetchSize(), useTransactions,
+            defaultCatalog, defaultSchema);
+    }
+
+    @NotNull
+    DBCStatistics readData(@NotNull DBCSession session, int partitionCount) throws DBException {
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        List<String> conditions = makePartitionConditions(session, partitionCount);
+        if (conditions.isEmpty()) {
+            return statistics;
+        }
+        log.debug("Read '" + entity.getName() + "' in " + conditions.size() + " partitions by '" + partitionAttribute.getName() + "'");
+
+        PartitionReceiver receiver = new PartitionReceiver();
+        CountDownLatch finishLatch = new CountDownLatch(conditions.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            PartitionReadJob job = new PartitionReadJob(i, conditions.get(i), receiver, finishLatch);
+            jobs.add(job);
+            job.schedule();
+        }
+        try {
+            DatabaseTransferResultSet consumerResultSet = null;
+            try {
+                // Partitions wait until consumer is started with metadata of the first opened partition
+                awaitJobs(monitor, receiver.metaLatch);
+                DatabaseTransferResultSet partitionResultSet = receiver.resultSet;
+                if (partitionResultSet != null && error == null && !monitor.isCanceled()) {
+                    DatabaseTransferResultSet resultSet = new DatabaseTransferResultSet(session, partitionResultSet);
+                    consumer.fetchStart(session, resultSet, 0, -1);
+                    consumerResultSet = resultSet;
+                }
+            } catch (Throwable e) {
+                if (error == null) {
+                    error = e;
+                }
+                cancelJobs();
+            } finally {
+                receiver.setStarted(consumerResultSet != null);
+            }
+            awaitJobs(monitor, finishLatch);
+            if (consumerResultSet != null) {
+                consumer.fetchEnd(session, consumerResultSet);
+            }
+        } finally {
+            consumer.close();
+        }
+        if (error != null) {
+            if (error instanceof DBException) {
+                throw (DBException) error;
+            }
+            throw new DBException("Error reading partition of '" + entity.getName() + "'", error);
+        }
+        return statistics;
+    }
+
+    /**
+     * Waits for the latch. Partition jobs are canceled if the monitor is canceled or the waiting thread is interrupted,
+     * but the method returns only when the latch is released, so consumer is never closed under running partitions.
+     */
+    private void awaitJobs(@NotNull DBRProgressMonitor monitor, @NotNull CountDownLatch latch) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (latch.await(CANCEL_CHECK_PERIOD, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancelJobs();
+                }
+                if (monitor.isCanceled()) {
+                    cancelJobs();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void cancelJobs() {
+        for (PartitionReadJob job : jobs) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Splits range of partition column values in equal intervals.
+     * Nulls and values which appear outside of the computed range go to the first and the last partitions.
+     */
+    @NotNull
+    private List<String> makePartitionConditions(@NotNull DBCSession session, int partitionCount) throws DBCException {
+        List<String> conditions = new ArrayList<>();
+        String columnName = DBUtils.getQuotedIdentifier(partitionAttribute);
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT MIN(").append(columnName).append("),MAX(").append(columnName).append(") FROM ")
+            .append(DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML));
+        // Compute range over the filtered rows only, otherwise partitions will be unbalanced
+        SQLUtils.appendQueryConditions(session.getDataSource(), query, null, dataFilter);
+
+        BigDecimal minValue = null, maxValue = null;
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query.toString(), false, false, false)) {
+            if (dbStat.executeStatement()) {
+                try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                    if (dbResult.nextRow()) {
+                        minValue = toDecimal(dbResult.getAttributeValue(0));
+                        maxValue = toDecimal(dbResult.getAttributeValue(1));
+                    }
+                }
+            }
+        }
+        if (minValue == null || maxValue == null) {
+            // Empty table or column contains only nulls
+            conditions.add(null);
+            return conditions;
+        }
+        boolean integral = partitionAttribute.getScale() == null || partitionAttribute.getScale() <= 0;
+        BigDecimal step = maxValue.subtract(minValue).divide(BigDecimal.valueOf(partitionCount), 10, RoundingMode.HALF_UP);
+        if (integral) {
+            step = step.setScale(0, RoundingMode.CEILING);
+        }
+        if (step.signum() <= 0) {
+            conditions.add(null);
+            return conditions;
+        }
+        BigDecimal lowBound = null;
+        for (int i = 1; i <= partitionCount; i++) {
+            BigDecimal highBound = i == partitionCount ? null : minValue.add(step.multiply(BigDecimal.valueOf(i)));
+            if (highBound != null && highBound.compareTo(maxValue) > 0) {
+                highBound = null;
+            }
+            StringBuilder condition = new StringBuilder();
+            if (lowBound == null) {
+                condition.append(columnName).append(" IS NULL");
+                if (highBound != null) {
+                    condition.append(" OR ").append(columnName).append("<").append(highBound.toPlainString());
+                }
+            } else {
+                condition.append(columnName).append(">=").append(lowBound.toPlainString());
+                if (highBound != null) {
+                    condition.append(" AND ").append(columnName).append("<").append(highBound.toPlainString());
+                }
+            }
+            conditions.add(condition.toString());
+            if (highBound == null) {
+                break;
+            }
+            lowBound = highBound;
+        }
+        if (conditions.size() == 1) {
+            // The only partition contains all rows
+            conditions.set(0, null);
+        }
+        return conditions;
+    }
+
+    @NotNull
+    private DBDDataFilter makePartitionFilter(@Nullable String condition) {
+        DBDDataFilter filter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+        if (condition != null) {
+            if (CommonUtils.isEmpty(filter.getWhere())) {
+                filter.setWhere(condition);
+            } else {
+                filter.setWhere("(" + filter.getWhere() + ") AND (" + condition + ")");
+            }
+        }
+        return filter;
+    }
+
+    private void readPartition(@NotNull DBRProgressMonitor monitor, int index, @Nullable String condition, @NotNull DBDDataReceiver receiver) throws DBException {
+        DBCExecutionContext context = DBUtils.getObjectOwnerInstance(entity).openIsolatedContext(
+            monitor, "Data transfer partition " + (index + 1), baseContext);
+        try {
+            DBExecUtils.setExecutionContextDefaults(monitor, context.getDataSource(), context, defaultCatalog, null, defaultSchema);
+        } catch (DBException e) {
+            context.close();
+            throw e;
+        }
+        try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Read partition " + (index + 1))) {
+            session.enableLogging(false);
+            DBCTransactionManager txnManager = useTransactions ? DBUtils.getTransactionManager(context) : null;
+            if (txnManager != null && txnManager.isSupportsTransactions()) {
+                // Some drivers read LOBs and other complex structures only in transactional mode
+                txnManager.setAutoCommit(monitor, false);
+            }
+            try {
+                AbstractExecutionSource source = new AbstractExecutionSource((DBSDataContainer) entity, context, consumer);
+                DBCStatistics partitionStatistics = ((DBSDataContainer) entity).readData(
+                    source, session, receiver, makePartitionFilter(condition), -1, -1, readFlags, fetchSize);
+                if (partitionStatistics != null) {
+                    synchronized (statistics) {
+                        statistics.accumulate(partitionStatistics);
+                    }
+                }
+            } finally {
+                if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                    txnManager.rollback(session, null);
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    @Nullable
+    private static BigDecimal toDecimal(@Nullable Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        } else if (value != null) {
+            try {
+                return new BigDecimal(value.toString());
+            } catch (NumberFormatException e) {
+                log.debug("Bad partition column value: " + value);
+            }
+        }
+        return null;
+    }
+
+    private class PartitionReadJob extends AbstractJob {
+        private final int index;
+        private final String condition;
+        private final PartitionReceiver receiver;
+
+        PartitionReadJob(int index, @Nullable String condition, @NotNull PartitionReceiver receiver, @NotNull CountDownLatch finishLatch) {
+            super("Read partition " + (index + 1) + " of " + entity.getName());
+            this.index = index;
+            this.condition = condition;
+            this.receiver = receiver;
+            setUser(false);
+            setSystem(true);
+            // Done is also fired for jobs canceled before they run
+            addJobChangeListener(new JobChangeAdapter() {
+                @Override
+                public void done(IJobChangeEvent event) {
+                    finishLatch.countDown();
+                    if (finishLatch.getCount() == 0) {
+                        // No partition has been opened
+                        receiver.metaLatch.countDown();
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                readPartition(monitor, index, condition, receiver);
+            } catch (Throwable e) {
+                if (error == null) {
+                    error = e;
+                }
+                // Other partitions can't complete the transfer
+                cancelJobs();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Serializes rows from all partitions into the target consumer.
+     * Consumer start and end are performed by the reader thread.
+     */
+    private class PartitionReceiver implements DBDDataReceiver {
+        private final CountDownLatch metaLatch = new CountDownLatch(1);
+        private final CountDownLatch startLatch = new CountDownLatch(1);
+        private volatile DatabaseTransferResultSet resultSet;
+        private volatile boolean started;
+
+        void setStarted(boolean started) {
+            this.started = started;
+            startLatch.countDown();
+        }
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            synchronized (this) {
+                if (this.resultSet == null) {
+                    this.resultSet = new DatabaseTransferResultSet(session, resultSet);
+                    metaLatch.countDown();
+                }
+            }
+            DBRProgressMonitor monitor = session.getProgressMonitor();
+            try {
+                while (!startLatch.await(CANCEL_CHECK_PERIOD, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCanceled()) {
+                        throw new DBCException("Partition read canceled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new DBCException("Partition read interrupted", e);
+            }
+            if (!started) {
+                throw new DBCException("Data consumer wasn't started");
+            }
+        }
+
+        @Override
+        public synchronized void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            consumer.fetchRow(session, resultSet);
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            // Consumer is finished after all partitions are read
+        }
+
+        @Override
+        public void close() {
+            // Consumer is closed after all partitions are read
+        }
+    }
+
+}
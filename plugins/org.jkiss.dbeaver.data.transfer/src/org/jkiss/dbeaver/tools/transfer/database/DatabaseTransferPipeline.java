@@ -0,0 +1,269 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decouples reading of source result set from the consumer.
+ * <p>
+ * Producer thread reads row values and puts them in a bounded queue of row batches.
+ * Consumer job drains the queue and passes rows to the target consumer, so network reads and target writes overlap.
+ * Producer blocks when queue is full.
+ * <p>
+ * Consumer gets a snapshot of source metadata and works with its own session, so the source session and
+ * result set are never used outside of the producer thread.
+ * <p>
+ * Values which may depend on the open source cursor (LOBs, structures, documents) can't be buffered.
+ * For such result sets rows are passed to the consumer directly.
+ */
+class DatabaseTransferPipeline implements DBDDataReceiver {
+
+    private static final Log log = Log.getLog(DatabaseTransferPipeline.class);
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+    static final int DEFAULT_QUEUE_SIZE = 16;
+
+    private static final Object[][] END_OF_DATA = new Object[0][];
+
+    private final DBDDataReceiver consumer;
+    private final int batchSize;
+    private final int queueSize;
+
+    // Per-segment state
+    private BlockingQueue<Object[][]> queue;
+    private PipelineConsumerJob consumerJob;
+    private DatabaseTransferResultSet bufferedResultSet;
+    private DBDValueHandler[] valueHandlers;
+    private DBCAttributeMetaData[] attributes;
+    private Object[][] batch;
+    private int batchRows;
+
+    // Stage statistics (ms)
+    private long readTime;
+    private long producerWaitTime;
+    private volatile long writeTime;
+    private volatile long consumerWaitTime;
+    private long lastRowTime;
+
+    DatabaseTransferPipeline(@NotNull DBDDataReceiver consumer, int batchSize, int queueSize) {
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+        List<DBCAttributeMetaData> rsAttributes = resultSet.getMeta().getAttributes();
+        attributes = rsAttributes.toArray(new DBCAttributeMetaData[0]);
+        valueHandlers = new DBDValueHandler[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            if (!isBufferedDataKind(attributes[i].getDataKind())) {
+                log.debug("Column '" + attributes[i].getName() + "' can't be buffered. Pipeline disabled.");
+                valueHandlers = null;
+                break;
+            }
+            valueHandlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+        }
+        if (valueHandlers == null) {
+            consumer.fetchStart(session, resultSet, offset, maxRows);
+            return;
+        }
+        bufferedResultSet = new DatabaseTransferResultSet(session, resultSet);
+        consumer.fetchStart(session, bufferedResultSet, offset, maxRows);
+
+        queue = new ArrayBlockingQueue<>(queueSize);
+        batch = new Object[batchSize][];
+        batchRows = 0;
+        consumerJob = new PipelineConsumerJob(session.getExecutionContext(), bufferedResultSet);
+        consumerJob.schedule();
+        lastRowTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        if (valueHandlers == null) {
+            consumer.fetchRow(session, resultSet);
+            return;
+        }
+        Object[] row = new Object[valueHandlers.length];
+        for (int i = 0; i < valueHandlers.length; i++) {
+            row[i] = valueHandlers[i].fetchValueObject(session, resultSet, attributes[i], i);
+        }
+        batch[batchRows++] = row;
+        long now = System.currentTimeMillis();
+        readTime += now - lastRowTime;
+        if (batchRows >= batchSize) {
+            putBatch(batch);
+            batch = new Object[batchSize][];
+            batchRows = 0;
+        }
+        lastRowTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        if (valueHandlers == null) {
+            consumer.fetchEnd(session, resultSet);
+            return;
+        }
+        try {
+            if (batchRows > 0) {
+                Object[][] lastBatch = new Object[batchRows][];
+                System.arraycopy(batch, 0, lastBatch, 0, batchRows);
+                putBatch(lastBatch);
+            }
+            putBatch(END_OF_DATA);
+            try {
+                consumerJob.join();
+            } catch (InterruptedException e) {
+                consumerJob.cancel();
+                throw new DBCException("Data transfer interrupted", e);
+            }
+            checkConsumerError();
+            consumer.fetchEnd(session, bufferedResultSet);
+        } finally {
+            log.debug("Transfer pipeline: read " + readTime + "ms (waited for consumer " + producerWaitTime + "ms), " +
+                "write " + writeTime + "ms (waited for producer " + consumerWaitTime + "ms)");
+            queue = null;
+            batch = null;
+            consumerJob = null;
+            valueHandlers = null;
+            bufferedResultSet = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (consumerJob != null) {
+            // Fetch was aborted
+            consumerJob.cancel();
+            queue.clear();
+            queue.offer(END_OF_DATA);
+            try {
+                consumerJob.join();
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            consumerJob = null;
+        }
+        consumer.close();
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics getStatistics() {
+        return consumer.getStatistics();
+    }
+
+    private void putBatch(@NotNull Object[][] rows) throws DBCException {
+        long startTime = System.currentTimeMillis();
+        try {
+            // Wait until consumer drains the queue. Check consumer state from time to time
+            while (!queue.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+                checkConsumerError();
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Data transfer interrupted", e);
+        }
+        producerWaitTime += System.currentTimeMillis() - startTime;
+        checkConsumerError();
+    }
+
+    private void checkConsumerError() throws DBCException {
+        Throwable error = consumerJob.error;
+        if (error instanceof DBCException) {
+            throw (DBCException) error;
+        } else if (error != null) {
+            throw new DBCException("Error writing data", error);
+        } else if (consumerJob.getState() == AbstractJob.NONE && consumerJob.isCanceled()) {
+            throw new DBCException("Data consumer canceled");
+        }
+    }
+
+    private static boolean isBufferedDataKind(@NotNull DBPDataKind dataKind) {
+        switch (dataKind) {
+            case BOOLEAN:
+            case NUMERIC:
+            case STRING:
+            case DATETIME:
+            case BINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private class PipelineConsumerJob extends AbstractJob {
+        private final DBCExecutionContext context;
+        private final DatabaseTransferResultSet sourceResultSet;
+        private volatile Throwable error;
+
+        PipelineConsumerJob(@NotNull DBCExecutionContext context, @NotNull DatabaseTransferResultSet sourceResultSet) {
+            super("Data transfer consumer");
+            this.context = context;
+            this.sourceResultSet = sourceResultSet;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer buffered data")) {
+                session.enableLogging(false);
+                DatabaseTransferResultSet resultSet = new DatabaseTransferResultSet(session, sourceResultSet);
+                for (;;) {
+                    long startTime = System.currentTimeMillis();
+                    Object[][] rows = queue.take();
+                    consumerWaitTime += System.currentTimeMillis() - startTime;
+                    if (rows == END_OF_DATA) {
+                        break;
+                    }
+                    startTime = System.currentTimeMillis();
+                    for (Object[] row : rows) {
+                        if (monitor.isCanceled()) {
+                            return Status.CANCEL_STATUS;
+                        }
+                        resultSet.setCurrentRow(row);
+                        consumer.fetchRow(session, resultSet);
+                    }
+                    writeTime += System.currentTimeMillis() - startTime;
+                }
+            } catch (Throwable e) {
+                error = e;
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
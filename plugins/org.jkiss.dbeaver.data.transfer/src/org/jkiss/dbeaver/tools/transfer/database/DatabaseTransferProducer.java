@@ -25,6 +25,7 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.impl.DataSourceContextProvider;
@@ -36,6 +37,7 @@ import org.jkiss.dbeaver.model.sql.SQLQueryContainer;
 import org.jkiss.dbeaver.model.sql.SQLScriptContext;
 import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkExporter;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.task.DBTTask;
@@ -47,6 +49,7 @@ import org.jkiss.dbeaver.tools.transfer.IDataTransferNodePrimary;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProcessor;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferConsumer;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
@@ -254,16 +257,43 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                             monitor.subTask("Read data");
 
                             // Perform export
-                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                            DBDDataReceiver dataReceiver = settings.isPipelined() ?
+                                new DatabaseTransferPipeline(consumer, DatabaseTransferPipeline.DEFAULT_BATCH_SIZE, DatabaseTransferPipeline.DEFAULT_QUEUE_SIZE) :
+                                consumer;
+                            DBCStatistics nativeStatistics = exportNativeData(session, consumer, selectiveExportFromUI);
+                            if (nativeStatistics != null) {
+                                // Whole table was streamed by the database
+                                producerStatistics.accumulate(nativeStatistics);
+                            } else if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.PARTITIONS && !selectiveExportFromUI) {
+                                // Read key ranges in parallel
+                                DatabaseTransferPartitionReader partitionReader = DatabaseTransferPartitionReader.create(
+                                    monitor, dataContainer, context, dataReceiver, dataFilter, settings, readFlags, forceDataReadTransactions,
+                                    defaultCatalog, defaultSchema);
+                                if (partitionReader != null) {
+                                    producerStatistics.accumulate(partitionReader.readData(session, settings.getPartitionCount()));
+                                } else {
+                                    log.debug("Can't split '" + dataContainer.getName() + "' in partitions. Read it in single query.");
+                                    producerStatistics.accumulate(dataContainer.readData(transferSource, session, dataReceiver, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                }
+                            } else if (settings.getExtractType() != DatabaseProducerSettings.ExtractType.SEGMENTS) {
                                 // Just do it in single query
-                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, dataReceiver, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
                             } else {
                                 // Read all data by segments
                                 long offset = 0;
                                 int segmentSize = settings.getSegmentSize();
+                                // Continue each segment from the last read key if possible. Fallback to offset.
+                                DatabaseTransferKeysetReader keysetReader = selectiveExportFromUI ? null :
+                                    DatabaseTransferKeysetReader.create(monitor, dataContainer, dataFilter);
                                 for (; ; ) {
-                                    DBCStatistics statistics = dataContainer.readData(
-                                        transferSource, session, consumer, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    DBCStatistics statistics;
+                                    if (keysetReader != null) {
+                                        statistics = keysetReader.readSegment(
+                                            transferSource, session, dataReceiver, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    } else {
+                                        statistics = dataContainer.readData(
+                                            transferSource, session, dataReceiver, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    }
                                     if (statistics == null || statistics.getRowsFetched() < segmentSize) {
                                         // Done
                                         break;
@@ -302,6 +332,32 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         });
     }
 
+    /**
+     * Streams whole table into the file with database native exporter (e.g. PostgreSQL COPY TO STDOUT).
+     *
+     * @return export statistics or null if native export is not applicable
+     */
+    @Nullable
+    private DBCStatistics exportNativeData(@NotNull DBCSession session, @NotNull IDataTransferConsumer consumer, boolean selectiveExportFromUI)
+        throws DBCException {
+        if (selectiveExportFromUI || !(consumer instanceof StreamTransferConsumer) || (dataFilter != null && dataFilter.hasFilters())) {
+            return null;
+        }
+        DBSDataBulkExporter bulkExporter = DBUtils.getAdapter(DBSDataBulkExporter.class, session.getDataSource());
+        if (bulkExporter == null) {
+            return null;
+        }
+        DBCStatistics statistics = new DBCStatistics();
+        long rowCount = ((StreamTransferConsumer) consumer).exportNativeData(session, bulkExporter);
+        if (rowCount < 0) {
+            return null;
+        }
+        statistics.setRowsFetched(rowCount);
+        statistics.addExecuteTime();
+        log.debug("'" + dataContainer.getName() + "' exported natively (" + rowCount + " rows)");
+        return statistics;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof DatabaseTransferProducer &&
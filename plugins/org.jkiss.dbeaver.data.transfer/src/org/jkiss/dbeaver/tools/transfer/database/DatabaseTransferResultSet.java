@@ -0,0 +1,145 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.data.DBDValueMeta;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.local.LocalResultSetMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result set detached from the source cursor.
+ * <p>
+ * Holds a snapshot of source metadata and values of the current row, so it remains valid after
+ * the source result set is closed. Result set is bound to its own session and must be used only
+ * in the thread which owns that session.
+ */
+class DatabaseTransferResultSet implements DBCResultSet {
+
+    private final DBCSession session;
+    private final LocalResultSetMeta meta;
+    private final String resultSetName;
+    private Object[] currentRow;
+
+    /**
+     * Copies metadata of the source result set
+     */
+    DatabaseTransferResultSet(@NotNull DBCSession session, @NotNull DBCResultSet source) throws DBCException {
+        this(session, new LocalResultSetMeta(new ArrayList<>(source.getMeta().getAttributes())), source.getResultSetName());
+    }
+
+    /**
+     * Shares metadata snapshot with another result set
+     */
+    DatabaseTransferResultSet(@NotNull DBCSession session, @NotNull DatabaseTransferResultSet source) {
+        this(session, source.meta, source.resultSetName);
+    }
+
+    private DatabaseTransferResultSet(@NotNull DBCSession session, @NotNull LocalResultSetMeta meta, @Nullable String resultSetName) {
+        this.session = session;
+        this.meta = meta;
+        this.resultSetName = resultSetName;
+    }
+
+    void setCurrentRow(@Nullable Object[] currentRow) {
+        this.currentRow = currentRow;
+    }
+
+    @Override
+    public DBCSession getSession() {
+        return session;
+    }
+
+    @Override
+    public DBCStatement getSourceStatement() {
+        // Source statement may be already closed
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Object getAttributeValue(int index) throws DBCException {
+        Object[] row = currentRow;
+        if (row == null || index < 0 || index >= row.length) {
+            throw new DBCException("Attribute index out of range (" + index + ")");
+        }
+        return row[index];
+    }
+
+    @Nullable
+    @Override
+    public Object getAttributeValue(String name) throws DBCException {
+        List<DBCAttributeMetaData> attrs = meta.getAttributes();
+        for (int i = 0; i < attrs.size(); i++) {
+            if (attrs.get(i).getName().equals(name)) {
+                return getAttributeValue(i);
+            }
+        }
+        throw new DBCException("Bad attribute name: " + name);
+    }
+
+    @Nullable
+    @Override
+    public DBDValueMeta getAttributeValueMeta(int index) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public DBDValueMeta getRowMeta() {
+        return null;
+    }
+
+    @Override
+    public boolean nextRow() {
+        throw new IllegalStateException("Detached result set can't be navigated");
+    }
+
+    @Override
+    public boolean moveTo(int position) {
+        throw new IllegalStateException("Detached result set can't be navigated");
+    }
+
+    @NotNull
+    @Override
+    public DBCResultSetMetaData getMeta() {
+        return meta;
+    }
+
+    @Nullable
+    @Override
+    public String getResultSetName() {
+        return resultSetName;
+    }
+
+    @Nullable
+    @Override
+    public Object getFeature(String name) {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkExporter;
+
+import java.util.Map;
+
+/**
+ * Represents an exporter whose output can be produced by the database itself.
+ * <p>
+ * If source database provides {@link DBSDataBulkExporter} then whole table is streamed
+ * directly into the output file, bypassing result set reading and values formatting.
+ */
+public interface INativeDataExporter extends IStreamDataExporter {
+
+    /**
+     * Returns options for {@link DBSDataBulkExporter} which produce the same output as this exporter.
+     * <p>
+     * This method is called after the {@link #init(IStreamDataExporterSite)} method.
+     *
+     * @return bulk export options or {@code null} if native export is disabled or can't reproduce current settings
+     */
+    @Nullable
+    Map<String, Object> getNativeExportOptions();
+}
@@ -0,0 +1,73 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Queue;
+
+/**
+ * Stream importer which can read one file in several parallel threads.
+ * <p>
+ * File is split in byte ranges which start and end at record boundaries.
+ * Ranges are read from the shared file channel and parsed independently.
+ */
+public interface IParallelDataImporter extends IStreamDataImporter {
+
+    /**
+     * Number of parallel readers configured for the current import
+     */
+    int getParallelReaders();
+
+    /**
+     * Finds record boundaries which split data in approximately equal ranges.
+     * Byte order mark and header are excluded from the first range.
+     *
+     * @return range bounds (first range start, ..., last range end) or null if input can't be split safely
+     */
+    @Nullable
+    long[] findRangeBounds(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull FileChannel channel,
+        int rangeCount) throws IOException;
+
+    /**
+     * Imports ranges from the queue until it is empty.
+     * Several threads may call this method at once, each with its own consumer.
+     * Range streams read the file channel with positional reads, so they may be read concurrently.
+     *
+     * @param offset        offset passed to consumer's fetchStart. Zero for the first reader.
+     * @param startListener called once consumer has been started
+     */
+    void runImport(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPDataSource streamDataSource,
+        @NotNull Queue<InputStream> ranges,
+        @NotNull IDataTransferConsumer consumer,
+        long offset,
+        @Nullable Runnable startListener) throws DBException;
+
+}
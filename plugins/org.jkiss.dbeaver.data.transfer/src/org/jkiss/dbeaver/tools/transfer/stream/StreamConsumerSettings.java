@@ -110,6 +110,17 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         }
     }
 
+    public enum CompressionFormat {
+        ZIP("zip"),
+        GZIP("gz");
+
+        public final String extension;
+
+        CompressionFormat(String extension) {
+            this.extension = extension;
+        }
+    }
+
     public static final String PROP_EXTRACT_IMAGES = "extractImages";
     public static final String PROP_FILE_EXTENSION = "extension";
 
@@ -134,6 +145,7 @@ public class StreamConsumerSettings implements IDataTransferSettings {
     private boolean outputClipboard = false;
     private boolean useSingleFile = false;
     private boolean compressResults = false;
+    private CompressionFormat compressionFormat = CompressionFormat.ZIP;
     private boolean splitOutFiles = false;
     private long maxOutFileSize = 10 * 1000 * 1000;
     private final Map<DBSDataContainer, StreamMappingContainer> dataMappings = new LinkedHashMap<>();
@@ -243,6 +255,15 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         this.compressResults = compressResults;
     }
 
+    @NotNull
+    public CompressionFormat getCompressionFormat() {
+        return compressionFormat;
+    }
+
+    public void setCompressionFormat(@NotNull CompressionFormat compressionFormat) {
+        this.compressionFormat = compressionFormat;
+    }
+
     public boolean isSplitOutFiles() {
         return splitOutFiles;
     }
@@ -331,6 +352,7 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         }
 
         compressResults = CommonUtils.getBoolean(settings.get("compressResults"), compressResults);
+        compressionFormat = CommonUtils.valueOf(CompressionFormat.class, CommonUtils.toString(settings.get("compressionFormat")), CompressionFormat.ZIP);
         splitOutFiles = CommonUtils.getBoolean(settings.get("splitOutFiles"), splitOutFiles);
         maxOutFileSize = CommonUtils.toLong(settings.get("maxOutFileSize"), maxOutFileSize);
 
@@ -409,6 +431,7 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         settings.put("useSingleFile", useSingleFile);
 
         settings.put("compressResults", compressResults);
+        settings.put("compressionFormat", compressionFormat.name());
         settings.put("splitOutFiles", splitOutFiles);
         settings.put("maxOutFileSize", maxOutFileSize);
 
@@ -452,6 +475,9 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         }
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_compress, compressResults);
+        if (compressResults) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_compression_format, compressionFormat);
+        }
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_settings_label_binaries, lobExtractType);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_settings_label_encoding, lobEncoding);
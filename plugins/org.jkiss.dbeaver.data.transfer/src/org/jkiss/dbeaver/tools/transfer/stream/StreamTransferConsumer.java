@@ -33,6 +33,7 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
 import org.jkiss.dbeaver.model.sql.SQLQueryContainer;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkExporter;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
@@ -59,11 +60,13 @@ import org.jkiss.utils.Base64;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.IOUtils;
 import org.jkiss.utils.io.ByteOrderMark;
+import org.jkiss.utils.io.ParallelGZIPOutputStream;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -126,6 +129,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
 
     private OutputStream outputStream;
     private ZipOutputStream zipStream;
+    private ParallelGZIPOutputStream gzipStream;
     private PrintWriter writer;
     private int multiFileNumber;
     private long bytesWritten = 0;
@@ -139,6 +143,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     private Map<String, Object> processorProperties;
     private StringWriter outputBuffer;
     private boolean initialized = false;
+    private boolean exporterInitialized = false;
     private boolean firstRow = true;
     private TransferParameters parameters;
 
@@ -154,7 +159,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
 
     @Override
     public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
-        if (!initialized) {
+        if (!initialized && !exporterInitialized) {
             // Can be invoked multiple times in case of per-segment transfer
             initExporter(session);
         }
@@ -194,7 +199,9 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
             // Check for file split
             if (settings.isSplitOutFiles() && !parameters.isBinary && !firstRow) {
                 writer.flush();
-                if (bytesWritten >= settings.getMaxOutFileSize()) {
+                // Compressed output is split by the size of compressed data
+                long fileSize = settings.isCompressResults() ? statStream.getBytesWritten() : bytesWritten;
+                if (fileSize >= settings.getMaxOutFileSize()) {
                     // First add footer for the previous file
                     exportFooterInFile(session.getProgressMonitor());
                     // Make new file with the header
@@ -266,6 +273,51 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
     }
 
+    /**
+     * Exports whole data container with database native exporter, bypassing rows fetch.
+     * Possible only if exporter output can be reproduced by the database and there is no columns mapping.
+     *
+     * @return number of exported rows or -1 if native export can't be used. In the latter case data must be exported as usual.
+     */
+    public long exportNativeData(@NotNull DBCSession session, @NotNull DBSDataBulkExporter bulkExporter) throws DBCException {
+        if (initialized || exporterInitialized || parameters.isBinary || settings.isOutputClipboard() || settings.isSplitOutFiles() ||
+            settings.getLobExtractType() != StreamConsumerSettings.LobExtractType.INLINE ||
+            !(processor instanceof INativeDataExporter))
+        {
+            return -1;
+        }
+        final StreamMappingContainer mapping = settings.getDataMapping(dataContainer);
+        if (mapping != null && mapping.isComplete()) {
+            for (StreamMappingAttribute attribute : mapping.getAttributes(session.getProgressMonitor())) {
+                if (attribute.getMappingType() != StreamMappingType.export) {
+                    // Some columns are excluded
+                    return -1;
+                }
+            }
+        }
+        Map<String, Object> options = new HashMap<>();
+        options.put(DBSDataBulkExporter.OPTION_ENCODING, settings.getOutputEncoding());
+        if (!bulkExporter.isBulkExportSupported(dataContainer, options)) {
+            return -1;
+        }
+
+        initExporter(session);
+        Map<String, Object> nativeOptions = ((INativeDataExporter) processor).getNativeExportOptions();
+        if (nativeOptions == null || !bulkExporter.isBulkExportSupported(dataContainer, nativeOptions)) {
+            // Exporter is ready, header will be written on the first fetch
+            return -1;
+        }
+        initialized = true;
+        try {
+            long rowCount = bulkExporter.exportBulkData(session, dataContainer, outputStream, nativeOptions);
+            outputStream.flush();
+            firstRow = rowCount == 0;
+            return rowCount;
+        } catch (IOException e) {
+            throw new DBCException("IO error", e);
+        }
+    }
+
     @Override
     public void close() {
         columnBindings = null;
@@ -381,6 +433,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         try {
             // init exporter
             processor.init(exportSite);
+            exporterInitialized = true;
         } catch (DBException e) {
             throw new DBCException("Can't initialize data exporter", e);
         }
@@ -494,13 +547,20 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         this.outputStream = this.statStream = new StatOutputStream(outputStream);
 
         if (settings.isCompressResults()) {
-            this.zipStream = new ZipOutputStream(this.outputStream);
-            this.zipStream.putNextEntry(new ZipEntry(getOutputFileName()));
-            this.outputStream = zipStream;
+            if (settings.getCompressionFormat() == StreamConsumerSettings.CompressionFormat.GZIP) {
+                // Blocks are compressed in parallel while exporter writes next rows
+                this.gzipStream = new ParallelGZIPOutputStream(
+                    this.outputStream, Deflater.DEFAULT_COMPRESSION, Runtime.getRuntime().availableProcessors());
+                this.outputStream = gzipStream;
+            } else {
+                this.zipStream = new ZipOutputStream(this.outputStream);
+                this.zipStream.putNextEntry(new ZipEntry(getOutputFileName()));
+                this.outputStream = zipStream;
+            }
         }
 
-        // If we need to split files - use stream wrapper to calculate file size
-        if (settings.isSplitOutFiles()) {
+        // If we need to split uncompressed files - use stream wrapper to calculate file size
+        if (settings.isSplitOutFiles() && !settings.isCompressResults()) {
             this.outputStream = new OutputStreamStatProxy(this.outputStream);
         }
 
@@ -540,6 +600,16 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
             zipStream = null;
         }
 
+        // Write remaining compressed blocks and gzip trailer
+        if (gzipStream != null) {
+            try {
+                gzipStream.close();
+            } catch (IOException e) {
+                log.debug(e);
+            }
+            gzipStream = null;
+        }
+
         if (outputStream != null) {
             try {
                 outputStream.flush();
@@ -743,7 +813,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         }
         String fileName = getOutputFileName(suffix);
         if (settings.isCompressResults()) {
-            fileName += ".zip";
+            fileName += "." + settings.getCompressionFormat().extension;
         }
         return new File(dir, fileName);
     }
@@ -0,0 +1,277 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
+import org.jkiss.utils.io.FileChannelInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads single input file in several parallel threads.
+ * <p>
+ * File is split in ranges at record boundaries, ranges are read from the shared file channel. Reader jobs take ranges from
+ * the shared queue, each job loads rows into its own database consumer on its own connection.
+ * The first job uses the original consumer, other jobs start after it has prepared the target
+ * (e.g. truncated the table).
+ */
+class StreamTransferParallelReader {
+
+    private static final Log log = Log.getLog(StreamTransferParallelReader.class);
+
+    // Small files are read faster in one thread
+    private static final long MIN_FILE_SIZE = 16 * 1024 * 1024;
+    // Several ranges per reader, so fast readers take more work
+    private static final int RANGES_PER_READER = 4;
+    // Period of monitor cancel checks while waiting for readers
+    private static final long CANCEL_CHECK_PERIOD = 200;
+
+    private final File inputFile;
+    private final IParallelDataImporter importer;
+    private final DatabaseTransferConsumer consumer;
+    private final int readerCount;
+
+    private final List<RangeReadJob> jobs = new CopyOnWriteArrayList<>();
+    private volatile Throwable error;
+
+    private StreamTransferParallelReader(
+        @NotNull File inputFile,
+        @NotNull IParallelDataImporter importer,
+        @NotNull DatabaseTransferConsumer consumer,
+        int readerCount)
+    {
+        this.inputFile = inputFile;
+        this.importer = importer;
+        this.consumer = consumer;
+        this.readerCount = readerCount;
+    }
+
+    /**
+     * Creates parallel reader for the specified file.
+     *
+     * @return reader or null if file must be read in one thread
+     */
+    @Nullable
+    static StreamTransferParallelReader create(
+        @NotNull File inputFile,
+        @NotNull IStreamDataImporter importer,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull StreamProducerSettings settings)
+    {
+        if (!(importer instanceof IParallelDataImporter) || !(consumer instanceof DatabaseTransferConsumer)) {
+            return null;
+        }
+        int readerCount = ((IParallelDataImporter) importer).getParallelReaders();
+        if (readerCount < 2 || settings.getMaxRows() > 0 || inputFile.length() < MIN_FILE_SIZE) {
+            return null;
+        }
+        if (!((DatabaseTransferConsumer) consumer).isParallelLoadSupported()) {
+            log.debug("Target of '" + inputFile.getName() + "' can't be loaded in parallel. Enable new connections to use parallel readers");
+            return null;
+        }
+        return new StreamTransferParallelReader(inputFile, (IParallelDataImporter) importer, (DatabaseTransferConsumer) consumer, readerCount);
+    }
+
+    /**
+     * Reads all data.
+     *
+     * @return false if file can't be split in ranges. Nothing has been read in this case.
+     */
+    boolean readData(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource) throws DBException {
+        // Channel stays open until all readers finish
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            int rangeCount = readerCount * RANGES_PER_READER;
+            monitor.subTask("Find record boundaries in " + inputFile.getName());
+            long[] bounds = importer.findRangeBounds(monitor, channel, rangeCount);
+            if (bounds == null) {
+                log.debug("File '" + inputFile.getName() + "' can't be split in ranges, read it in one thread");
+                return false;
+            }
+            Queue<InputStream> ranges = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < bounds.length - 1; i++) {
+                if (bounds[i + 1] > bounds[i]) {
+                    ranges.add(new FileChannelInputStream(channel, bounds[i], bounds[i + 1]));
+                }
+            }
+            if (ranges.size() < 2) {
+                return false;
+            }
+            readRanges(monitor, streamDataSource, ranges);
+        } catch (IOException e) {
+            throw new DBException("Error reading file '" + inputFile.getName() + "'", e);
+        }
+
+        if (error != null) {
+            if (error instanceof DBException) {
+                throw (DBException) error;
+            }
+            throw new DBException("Error reading '" + inputFile.getName() + "'", error);
+        }
+        return true;
+    }
+
+    private void readRanges(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull Queue<InputStream> ranges) {
+        int jobCount = Math.min(readerCount, ranges.size());
+        log.debug("Read '" + inputFile.getName() + "' in " + ranges.size() + " ranges by " + jobCount + " readers");
+        monitor.subTask("Load " + inputFile.getName() + " in " + jobCount + " threads");
+
+        // Start latch is also released if the first job ends before consumer start
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch finishLatch = new CountDownLatch(jobCount);
+        List<DatabaseTransferConsumer> parallelConsumers = new ArrayList<>();
+        RangeReadJob firstJob = new RangeReadJob(0, streamDataSource, ranges, consumer, startLatch, finishLatch);
+        jobs.add(firstJob);
+        firstJob.schedule();
+
+        // Wait until the first consumer prepares target
+        awaitJobs(monitor, startLatch);
+        int startedCount = 1;
+        if (firstJob.isStarted() && error == null && !monitor.isCanceled()) {
+            for (; startedCount < jobCount; startedCount++) {
+                DatabaseTransferConsumer parallelConsumer = consumer.createParallelConsumer();
+                parallelConsumers.add(parallelConsumer);
+                RangeReadJob job = new RangeReadJob(startedCount, streamDataSource, ranges, parallelConsumer, null, finishLatch);
+                jobs.add(job);
+                job.schedule();
+            }
+        }
+        for (; startedCount < jobCount; startedCount++) {
+            finishLatch.countDown();
+        }
+        awaitJobs(monitor, finishLatch);
+
+        for (DatabaseTransferConsumer parallelConsumer : parallelConsumers) {
+            consumer.getStatistics().accumulate(parallelConsumer.getStatistics());
+        }
+    }
+
+    /**
+     * Waits for the latch. Reader jobs are canceled if the monitor is canceled or the waiting thread is interrupted,
+     * but the method returns only when the latch is released, so file channel is never closed under running readers.
+     */
+    private void awaitJobs(@NotNull DBRProgressMonitor monitor, @NotNull CountDownLatch latch) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (latch.await(CANCEL_CHECK_PERIOD, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancelJobs();
+                }
+                if (monitor.isCanceled()) {
+                    cancelJobs();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void cancelJobs() {
+        for (RangeReadJob job : jobs) {
+            job.cancel();
+        }
+    }
+
+    private class RangeReadJob extends AbstractJob {
+        private final int index;
+        private final DBPDataSource streamDataSource;
+        private final Queue<InputStream> ranges;
+        private final IDataTransferConsumer rangeConsumer;
+        private final CountDownLatch startLatch;
+        private volatile boolean started;
+
+        RangeReadJob(
+            int index,
+            @NotNull DBPDataSource streamDataSource,
+            @NotNull Queue<InputStream> ranges,
+            @NotNull IDataTransferConsumer rangeConsumer,
+            @Nullable CountDownLatch startLatch,
+            @NotNull CountDownLatch finishLatch)
+        {
+            super("Read " + inputFile.getName() + " (" + (index + 1) + ")");
+            this.index = index;
+            this.streamDataSource = streamDataSource;
+            this.ranges = ranges;
+            this.rangeConsumer = rangeConsumer;
+            this.startLatch = startLatch;
+            setUser(false);
+            setSystem(true);
+            // Done is also fired for jobs canceled before they run
+            addJobChangeListener(new JobChangeAdapter() {
+                @Override
+                public void done(IJobChangeEvent event) {
+                    if (startLatch != null) {
+                        startLatch.countDown();
+                    }
+                    finishLatch.countDown();
+                }
+            });
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                importer.runImport(monitor, streamDataSource, ranges, rangeConsumer, index, startLatch == null ? null : () -> {
+                    started = true;
+                    startLatch.countDown();
+                });
+            } catch (Throwable e) {
+                if (error == null) {
+                    error = e;
+                }
+                // Other readers can't complete the load
+                cancelJobs();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
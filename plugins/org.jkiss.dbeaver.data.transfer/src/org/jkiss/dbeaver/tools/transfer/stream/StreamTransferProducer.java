@@ -139,8 +139,14 @@ public class StreamTransferProducer implements IDataTransferProducer<StreamProdu
         importer.init(site);
 
         // Perform transfer
-        try (InputStream is = new FileInputStream(entityMapping.getInputFile())) {
-            importer.runImport(monitor, entityMapping.getDataSource(), is, consumer);
+        try {
+            StreamTransferParallelReader parallelReader = StreamTransferParallelReader.create(
+                entityMapping.getInputFile(), importer, consumer, settings);
+            if (parallelReader == null || !parallelReader.readData(monitor, entityMapping.getDataSource())) {
+                try (InputStream is = new FileInputStream(entityMapping.getInputFile())) {
+                    importer.runImport(monitor, entityMapping.getDataSource(), is, consumer);
+                }
+            }
         } catch (IOException e) {
             throw new DBException("IO error", e);
         } finally {
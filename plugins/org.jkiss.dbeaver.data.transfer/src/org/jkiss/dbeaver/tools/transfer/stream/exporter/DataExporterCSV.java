@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.tools.transfer.stream.exporter;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBPDataKind;
@@ -30,8 +31,10 @@ import org.jkiss.dbeaver.model.exec.DBCResultSet;
 import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkExporter;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.tools.transfer.stream.IAppendableDataExporter;
+import org.jkiss.dbeaver.tools.transfer.stream.INativeDataExporter;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferUtils;
 import org.jkiss.dbeaver.utils.ContentUtils;
@@ -43,12 +46,13 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * CSV Exporter
  */
-public class DataExporterCSV extends StreamExporterAbstract implements IAppendableDataExporter {
+public class DataExporterCSV extends StreamExporterAbstract implements IAppendableDataExporter, INativeDataExporter {
 
     private static final String PROP_DELIMITER = "delimiter";
     private static final String PROP_ROW_DELIMITER = "rowDelimiter";
@@ -59,9 +63,11 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     private static final String PROP_QUOTE_NEVER = "quoteNever";
     private static final String PROP_NULL_STRING = "nullString";
     private static final String PROP_FORMAT_NUMBERS = "formatNumbers";
+    private static final String PROP_NATIVE_EXPORT = "nativeExport";
 
     private static final String DEF_QUOTE_CHAR = "\"";
     private boolean formatNumbers;
+    private boolean nativeExport;
 
     enum HeaderPosition {
         none,
@@ -88,7 +94,7 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     private HeaderFormat headerFormat;
     private DBDAttributeBinding[] columns;
 
-    private final StringBuilder buffer = new StringBuilder();
+    private final StringBuilder valueBuffer = new StringBuilder();
 
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
@@ -120,6 +126,7 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
 
         headerFormat = CommonUtils.valueOf(HeaderFormat.class, String.valueOf(properties.get(PROP_HEADER_FORMAT)), HeaderFormat.label);
         formatNumbers = CommonUtils.toBoolean(getSite().getProperties().get(PROP_FORMAT_NUMBERS));
+        nativeExport = CommonUtils.toBoolean(properties.get(PROP_NATIVE_EXPORT));
     }
 
     @Override
@@ -207,16 +214,22 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
                     content.release();
                 }
             } else {
-                String stringValue = super.getValueDisplayString(column, row[i]);
+                CharSequence stringValue;
+                valueBuffer.setLength(0);
+                if (appendNativeValue(valueBuffer, column, row[i])) {
+                    stringValue = valueBuffer;
+                } else {
+                    stringValue = super.getValueDisplayString(column, row[i]);
+                }
                 boolean quote = false;
 
                 if (quoteStrategy == QuoteStrategy.DISABLED) {
-                    if (!stringValue.isEmpty() && !(row[i] instanceof Number) && !(row[i] instanceof Date) && Character.isDigit(stringValue.charAt(0))) {
+                    if (stringValue.length() > 0 && !(row[i] instanceof Number) && !(row[i] instanceof Date) && Character.isDigit(stringValue.charAt(0))) {
                         // Quote string values which starts from number
                         quote = true;
                     }
                 } else if (quoteStrategy == QuoteStrategy.STRINGS) {
-                    if (!stringValue.isEmpty() && !(row[i] instanceof Number) && !(row[i] instanceof Date)) {
+                    if (stringValue.length() > 0 && !(row[i] instanceof Number) && !(row[i] instanceof Date)) {
                         quote = true;
                     }
                 } else if (quoteStrategy == QuoteStrategy.ALL_BUT_NUMBERS) {
@@ -250,6 +263,29 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
         }
     }
 
+    @Nullable
+    @Override
+    public Map<String, Object> getNativeExportOptions() {
+        if (!nativeExport ||
+            delimiter.length() != 1 ||
+            !"\n".equals(rowDelimiter) ||
+            !useQuotes ||
+            quoteStrategy != QuoteStrategy.DISABLED ||
+            headerPosition == HeaderPosition.bottom || headerPosition == HeaderPosition.both ||
+            (headerPosition == HeaderPosition.top && headerFormat != HeaderFormat.label))
+        {
+            // Database can't produce the same output
+            return null;
+        }
+        Map<String, Object> options = new HashMap<>();
+        options.put(DBSDataBulkExporter.OPTION_DELIMITER, delimiter);
+        options.put(DBSDataBulkExporter.OPTION_QUOTE_CHAR, String.valueOf(quoteChar));
+        options.put(DBSDataBulkExporter.OPTION_HEADER, headerPosition == HeaderPosition.top);
+        options.put(DBSDataBulkExporter.OPTION_NULL_STRING, CommonUtils.notEmpty(nullString));
+        options.put(DBSDataBulkExporter.OPTION_ENCODING, getSite().getOutputEncoding());
+        return options;
+    }
+
     @Override
     public void importData(@NotNull IStreamDataExporterSite site) {
         final File file = site.getOutputFile();
@@ -265,45 +301,63 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
         return false;
     }
 
-    private void writeCellValue(String value, boolean quote)
+    private void writeCellValue(CharSequence value, boolean quote)
     {
         if (!useQuotes) {
             quote = false;
         }
         // check for needed quote
-        final boolean hasQuotes = useQuotes && value.indexOf(quoteChar) != -1;
+        final boolean hasQuotes = useQuotes && indexOf(value, quoteChar) != -1;
 
-        if (quoteStrategy == QuoteStrategy.ALL || (useQuotes && value.isEmpty())) {
+        if (quoteStrategy == QuoteStrategy.ALL || (useQuotes && value.length() == 0)) {
             quote = true;
         } else if (!quote) {
             if (hasQuotes ||
-                value.contains(delimiter) ||
-                value.indexOf('\r') != -1 ||
-                value.indexOf('\n') != -1 ||
-                value.contains(rowDelimiter))
+                contains(value, delimiter) ||
+                indexOf(value, '\r') != -1 ||
+                indexOf(value, '\n') != -1 ||
+                contains(value, rowDelimiter))
             {
                 quote = true;
             }
         }
 
+        PrintWriter out = getWriter();
+        if (quote && useQuotes) out.write(quoteChar);
         if (quote && hasQuotes) {
             // escape quotes with double quotes
-            buffer.setLength(0);
             for (int i = 0; i < value.length(); i++) {
                 char c = value.charAt(i);
                 if (c == quoteChar) {
-                    buffer.append(quoteChar);
+                    out.write(quoteChar);
                 }
-                buffer.append(c);
+                out.write(c);
             }
-            value = buffer.toString();
+        } else {
+            writeChars(value);
         }
-        PrintWriter out = getWriter();
-        if (quote && useQuotes) out.write(quoteChar);
-        out.write(value);
         if (quote && useQuotes) out.write(quoteChar);
     }
 
+    private static int indexOf(CharSequence value, char c) {
+        if (value instanceof String) {
+            return ((String) value).indexOf(c);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(CharSequence value, String str) {
+        if (value instanceof String) {
+            return ((String) value).contains(str);
+        }
+        return value instanceof StringBuilder ? ((StringBuilder) value).indexOf(str) != -1 : value.toString().contains(str);
+    }
+
     private void writeCellValue(Reader reader) throws IOException
     {
         try {
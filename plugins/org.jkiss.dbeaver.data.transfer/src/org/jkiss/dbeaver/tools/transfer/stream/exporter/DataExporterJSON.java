@@ -55,6 +55,7 @@ public class DataExporterJSON extends StreamExporterAbstract implements IDocumen
     private DBDAttributeBinding[] columns;
     private String tableName;
     private int rowNum = 0;
+    private final StringBuilder valueBuffer = new StringBuilder();
 
     private boolean printTableName = true;
     private boolean formatDateISO = true;
@@ -139,7 +140,11 @@ public class DataExporterJSON extends StreamExporterAbstract implements IDocumen
                         content.release();
                     }
                 } else {
-                    if (cellValue instanceof Number || cellValue instanceof Boolean) {
+                    if (cellValue instanceof Number) {
+                        valueBuffer.setLength(0);
+                        appendNumber(valueBuffer, (Number) cellValue);
+                        writeChars(valueBuffer);
+                    } else if (cellValue instanceof Boolean) {
                         out.write(cellValue.toString());
                     } else if (cellValue instanceof Date && formatDateISO) {
                         writeTextCell(JSONUtils.formatDate((Date) cellValue));
@@ -183,7 +188,11 @@ public class DataExporterJSON extends StreamExporterAbstract implements IDocumen
     private void writeTextCell(@Nullable String value)
     {
         if (value != null) {
-            getWriter().write("\"" + JSONUtils.escapeJsonString(value) + "\"");
+            valueBuffer.setLength(0);
+            valueBuffer.append('"');
+            JSONUtils.escapeJsonString(value, valueBuffer);
+            valueBuffer.append('"');
+            writeChars(valueBuffer);
         } else {
             getWriter().write("null");
         }
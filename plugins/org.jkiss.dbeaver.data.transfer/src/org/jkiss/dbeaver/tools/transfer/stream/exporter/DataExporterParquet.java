@@ -0,0 +1,331 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetConstants;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileWriter;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.*;
+import java.time.temporal.Temporal;
+import java.util.*;
+
+/**
+ * Parquet exporter.
+ * Column types are mapped to Parquet physical and logical types, so exported files keep numbers, dates and binaries typed.
+ */
+public class DataExporterParquet extends StreamExporterAbstract {
+
+    private static final String PROP_COMPRESSION = "compression";
+    private static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+
+    private static final int MAX_DECIMAL_PRECISION = 38;
+
+    private DBDAttributeBinding[] columns;
+    private ParquetColumn[] parquetColumns;
+    private ParquetFileWriter writer;
+    private int codec;
+    private long rowGroupSize;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        String compression = CommonUtils.toString(properties.get(PROP_COMPRESSION), "snappy");
+        switch (compression.toLowerCase(Locale.ENGLISH)) {
+            case "none":
+                codec = ParquetConstants.CODEC_UNCOMPRESSED;
+                break;
+            case "gzip":
+                codec = ParquetConstants.CODEC_GZIP;
+                break;
+            case "snappy":
+                codec = ParquetConstants.CODEC_SNAPPY;
+                break;
+            default:
+                throw new DBException("Unsupported Parquet compression: " + compression);
+        }
+        rowGroupSize = CommonUtils.toLong(properties.get(PROP_ROW_GROUP_SIZE), 64) * 1024 * 1024;
+    }
+
+    @Override
+    public void dispose() {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException {
+        columns = getSite().getAttributes();
+        parquetColumns = new ParquetColumn[columns.length];
+        Set<String> columnNames = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            DBDAttributeBinding column = columns[i];
+            String columnName = column.getLabel();
+            if (CommonUtils.isEmpty(columnName)) {
+                columnName = column.getName();
+            }
+            // Parquet column names must be unique
+            String uniqueName = columnName;
+            for (int suffix = 2; !columnNames.add(uniqueName); suffix++) {
+                uniqueName = columnName + "_" + suffix;
+            }
+            parquetColumns[i] = createColumn(column, uniqueName);
+        }
+        writer = new ParquetFileWriter(getOutputStream(), Arrays.asList(parquetColumns), codec, rowGroupSize, "DBeaver");
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = convertValue(session.getProgressMonitor(), columns[i], parquetColumns[i], row[i]);
+        }
+        writer.writeRow(values);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws IOException {
+        if (writer != null) {
+            writer.finish();
+        }
+    }
+
+    @NotNull
+    private static ParquetColumn createColumn(@NotNull DBDAttributeBinding column, @NotNull String name) {
+        boolean unsigned = CommonUtils.notEmpty(column.getTypeName()).toUpperCase(Locale.ENGLISH).contains("UNSIGNED");
+        switch (column.getDataKind()) {
+            case BOOLEAN:
+                return new ParquetColumn(name, ParquetConstants.TYPE_BOOLEAN, ParquetConstants.CONVERTED_NONE);
+            case NUMERIC:
+                switch (column.getTypeID()) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_NONE);
+                    case Types.INTEGER:
+                        return unsigned ?
+                            new ParquetColumn(name, ParquetConstants.TYPE_INT64, ParquetConstants.CONVERTED_NONE) :
+                            new ParquetColumn(name, ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_NONE);
+                    case Types.BIGINT:
+                        return unsigned ?
+                            ParquetColumn.createDecimal(name, 20, 0) :
+                            new ParquetColumn(name, ParquetConstants.TYPE_INT64, ParquetConstants.CONVERTED_NONE);
+                    case Types.REAL:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_FLOAT, ParquetConstants.CONVERTED_NONE);
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_DOUBLE, ParquetConstants.CONVERTED_NONE);
+                    case Types.DECIMAL:
+                    case Types.NUMERIC: {
+                        int precision = CommonUtils.toInt(column.getPrecision());
+                        int scale = CommonUtils.toInt(column.getScale());
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ParquetColumn.createDecimal(name, precision, scale);
+                        }
+                        // Unbounded numbers are exported as strings to keep them exact
+                        break;
+                    }
+                    default:
+                        break;
+                }
+                break;
+            case DATETIME:
+                switch (column.getTypeID()) {
+                    case Types.DATE:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_DATE);
+                    case Types.TIME:
+                    case Types.TIME_WITH_TIMEZONE:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_INT64, ParquetConstants.CONVERTED_TIME_MICROS);
+                    default:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_INT64, ParquetConstants.CONVERTED_TIMESTAMP_MICROS);
+                }
+            case BINARY:
+                return new ParquetColumn(name, ParquetConstants.TYPE_BYTE_ARRAY, ParquetConstants.CONVERTED_NONE);
+            case CONTENT:
+                switch (column.getTypeID()) {
+                    case Types.CLOB:
+                    case Types.NCLOB:
+                    case Types.LONGVARCHAR:
+                    case Types.LONGNVARCHAR:
+                    case Types.SQLXML:
+                        break;
+                    default:
+                        return new ParquetColumn(name, ParquetConstants.TYPE_BYTE_ARRAY, ParquetConstants.CONVERTED_NONE);
+                }
+                break;
+            default:
+                break;
+        }
+        return new ParquetColumn(name, ParquetConstants.TYPE_BYTE_ARRAY, ParquetConstants.CONVERTED_UTF8);
+    }
+
+    @Nullable
+    private Object convertValue(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBDAttributeBinding column,
+        @NotNull ParquetColumn parquetColumn,
+        @Nullable Object value) throws DBException, IOException
+    {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof DBDContent) {
+            DBDContent content = (DBDContent) value;
+            try {
+                DBDContentStorage cs = content.getContents(monitor);
+                if (cs == null) {
+                    return null;
+                }
+                if (parquetColumn.getConvertedType() == ParquetConstants.CONVERTED_UTF8) {
+                    try (Reader reader = cs.getContentReader()) {
+                        return IOUtils.readToString(reader);
+                    }
+                } else {
+                    try (InputStream stream = cs.getContentStream()) {
+                        return stream.readAllBytes();
+                    }
+                }
+            } finally {
+                content.release();
+            }
+        }
+        try {
+            switch (parquetColumn.getConvertedType()) {
+                case ParquetConstants.CONVERTED_DECIMAL:
+                    return toDecimal(parquetColumn, value);
+                case ParquetConstants.CONVERTED_DATE:
+                    return (int) toLocalDateTime(value).toLocalDate().toEpochDay();
+                case ParquetConstants.CONVERTED_TIME_MICROS:
+                    return value instanceof LocalTime ?
+                        ((LocalTime) value).toNanoOfDay() / 1000 :
+                        toLocalDateTime(value).toLocalTime().toNanoOfDay() / 1000;
+                case ParquetConstants.CONVERTED_TIMESTAMP_MICROS:
+                    return toEpochMicros(value);
+                case ParquetConstants.CONVERTED_UTF8:
+                    return value instanceof String ? value : getValueDisplayString(column, value);
+                default:
+                    break;
+            }
+            switch (parquetColumn.getType()) {
+                case ParquetConstants.TYPE_BOOLEAN:
+                    return value instanceof Number ? ((Number) value).intValue() != 0 : (Boolean) value;
+                case ParquetConstants.TYPE_INT32:
+                    return ((Number) value).intValue();
+                case ParquetConstants.TYPE_INT64:
+                    return ((Number) value).longValue();
+                case ParquetConstants.TYPE_FLOAT:
+                    return ((Number) value).floatValue();
+                case ParquetConstants.TYPE_DOUBLE:
+                    return ((Number) value).doubleValue();
+                default:
+                    return value instanceof byte[] ? value : getValueDisplayString(column, value);
+            }
+        } catch (ClassCastException | ArithmeticException | DateTimeException e) {
+            throw new DBException("Can't convert value of column '" + column.getName() + "' to Parquet type", e);
+        }
+    }
+
+    @NotNull
+    private static Object toDecimal(@NotNull ParquetColumn parquetColumn, @NotNull Object value) throws DBException {
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            decimal = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            decimal = new BigDecimal(value.toString());
+        }
+        decimal = decimal.setScale(parquetColumn.getScale(), RoundingMode.HALF_UP);
+        if (decimal.precision() > parquetColumn.getPrecision()) {
+            throw new DBException("Value " + value + " doesn't fit into DECIMAL(" + parquetColumn.getPrecision() + "," + parquetColumn.getScale() + ")");
+        }
+        BigInteger unscaled = decimal.unscaledValue();
+        switch (parquetColumn.getType()) {
+            case ParquetConstants.TYPE_INT32:
+                return unscaled.intValueExact();
+            case ParquetConstants.TYPE_INT64:
+                return unscaled.longValueExact();
+            default: {
+                // Big-endian two's complement, sign extended to the fixed length
+                byte[] bytes = unscaled.toByteArray();
+                byte[] result = new byte[parquetColumn.getTypeLength()];
+                Arrays.fill(result, 0, result.length - bytes.length, (byte) (unscaled.signum() < 0 ? -1 : 0));
+                System.arraycopy(bytes, 0, result, result.length - bytes.length, bytes.length);
+                return result;
+            }
+        }
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof Date) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), ZoneId.systemDefault());
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof Temporal) {
+            return LocalDateTime.from((Temporal) value);
+        }
+        throw new DateTimeException("Unsupported date/time value: " + value.getClass().getName());
+    }
+
+    private static long toEpochMicros(@NotNull Object value) {
+        Instant instant;
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return Math.floorDiv(timestamp.getTime(), 1000) * 1_000_000 + timestamp.getNanos() / 1000;
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime() * 1000;
+        } else if (value instanceof OffsetDateTime) {
+            instant = ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            instant = ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof Instant) {
+            instant = (Instant) value;
+        } else {
+            instant = toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant();
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000), instant.getNano() / 1000);
+    }
+
+}
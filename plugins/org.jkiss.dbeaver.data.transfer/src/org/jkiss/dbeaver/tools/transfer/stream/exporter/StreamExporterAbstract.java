@@ -16,15 +16,20 @@
  */
 package org.jkiss.dbeaver.tools.transfer.stream.exporter;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.impl.jdbc.data.handlers.JDBCNumberValueHandler;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporter;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
 
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 /**
  * Abstract Exporter
@@ -33,6 +38,7 @@ public abstract class StreamExporterAbstract implements IStreamDataExporter {
 
     private IStreamDataExporterSite site;
     private DBDDisplayFormat exportFormat;
+    private char[] charBuffer;
 
     public IStreamDataExporterSite getSite()
     {
@@ -74,4 +80,77 @@ public abstract class StreamExporterAbstract implements IStreamDataExporter {
         return this.exportFormat;
     }
 
+    /**
+     * Appends value to the buffer in native format.
+     * The result is the same as {@link #getValueDisplayString} returns, but value handler and
+     * data formatters are not involved and no intermediate strings are created for primitive numbers.
+     * Only numbers of standard numeric columns exported in native format are supported.
+     *
+     * @return false if the value wasn't appended and must be formatted with {@link #getValueDisplayString}
+     */
+    protected boolean appendNativeValue(@NotNull StringBuilder buffer, @NotNull DBDAttributeBinding column, @Nullable Object value) {
+        if (!(value instanceof Number) ||
+            !(column.getValueHandler() instanceof JDBCNumberValueHandler) ||
+            getValueExportFormat(column) != DBDDisplayFormat.NATIVE)
+        {
+            return false;
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            if (decimal.scale() < 0 || decimal.precision() - decimal.scale() - 1 < -6) {
+                // Exponential notation depends on formatter settings
+                return false;
+            }
+        } else if (!(value instanceof BigInteger) && !isPrimitiveNumber(value)) {
+            return false;
+        }
+        int start = buffer.length();
+        appendNumber(buffer, (Number) value);
+        if ((value instanceof Double || value instanceof Float) && buffer.indexOf("E", start) != -1) {
+            // Exponential notation depends on formatter settings
+            buffer.setLength(start);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends number in its {@link Object#toString()} format. Primitive numbers are appended without intermediate strings.
+     */
+    protected static void appendNumber(@NotNull StringBuilder buffer, @NotNull Number value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            buffer.append(value.longValue());
+        } else if (value instanceof Double) {
+            buffer.append(value.doubleValue());
+        } else if (value instanceof Float) {
+            buffer.append(value.floatValue());
+        } else {
+            buffer.append(value.toString());
+        }
+    }
+
+    protected static boolean isPrimitiveNumber(@Nullable Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+            value instanceof Double || value instanceof Float;
+    }
+
+    /**
+     * Writes characters to the output writer. String builders are copied through a reusable buffer, so no strings are created.
+     */
+    protected void writeChars(@NotNull CharSequence value) {
+        PrintWriter out = getWriter();
+        if (value instanceof String) {
+            out.write((String) value);
+        } else if (value instanceof StringBuilder) {
+            int length = value.length();
+            if (charBuffer == null || charBuffer.length < length) {
+                charBuffer = new char[Math.max(length, 256)];
+            }
+            ((StringBuilder) value).getChars(0, length, charBuffer, 0);
+            out.write(charBuffer, 0, length);
+        } else {
+            out.append(value);
+        }
+    }
+
 }
\ No newline at end of file
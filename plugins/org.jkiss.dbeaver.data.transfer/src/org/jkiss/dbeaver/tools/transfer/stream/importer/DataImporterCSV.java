@@ -17,12 +17,14 @@
 package org.jkiss.dbeaver.tools.transfer.stream.importer;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBFetchProgress;
 import org.jkiss.dbeaver.model.DBPDataKind;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
 import org.jkiss.dbeaver.model.exec.DBCSession;
@@ -34,19 +36,27 @@ import org.jkiss.dbeaver.tools.transfer.stream.*;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.Pair;
-import org.jkiss.utils.csv.CSVReader;
+import org.jkiss.utils.csv.CSVStreamParser;
 import org.jkiss.utils.io.BOMInputStream;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 
 /**
  * CSV importer
  */
-public class DataImporterCSV extends StreamImporterAbstract {
+public class DataImporterCSV extends StreamImporterAbstract implements IParallelDataImporter {
     private static final Log log = Log.getLog(DataImporterCSV.class);
 
     private static final String PROP_ENCODING = "encoding";
@@ -57,8 +67,18 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
     private static final String PROP_TRIM_WHITESPACES = "trimWhitespaces";
+    private static final String PROP_PARALLEL_READERS = "parallelReaders";
     public static final int READ_BUFFER_SIZE = 255 * 1024;
 
+    // Size of file region read at once while searching for record boundaries
+    private static final int SCAN_CHUNK_SIZE = 1024 * 1024;
+
+    // Record boundaries scanner states
+    private static final int SCAN_FIELD_START = 0;
+    private static final int SCAN_UNQUOTED = 1;
+    private static final int SCAN_QUOTED = 2;
+    private static final int SCAN_QUOTED_QUOTE = 3;
+
     public enum HeaderPosition {
         none,
         top,
@@ -80,8 +100,8 @@ public class DataImporterCSV extends StreamImporterAbstract {
         final boolean columnIsByteLength = CommonUtils.getBoolean(processorProperties.get(PROP_COLUMN_IS_BYTE_LENGTH), false);
 
         try (Reader reader = openStreamReader(inputStream, processorProperties, true)) {
-            try (CSVReader csvReader = openCSVReader(reader, processorProperties)) {
-                String[] header = getNextLine(csvReader);
+            try (CSVStreamParser csvParser = openCSVParser(reader, processorProperties)) {
+                String[] header = getNextLine(csvParser);
                 if (header == null) {
                     return columnsInfo;
                 }
@@ -106,7 +126,7 @@ public class DataImporterCSV extends StreamImporterAbstract {
                         // Include first line (header that does not exist) for sampling
                         line = header;
                     } else {
-                        line = getNextLine(csvReader);
+                        line = getNextLine(csvParser);
                         if (line == null) {
                             break;
                         }
@@ -155,17 +175,22 @@ public class DataImporterCSV extends StreamImporterAbstract {
         return CommonUtils.valueOf(HeaderPosition.class, CommonUtils.toString(processorProperties.get(PROP_HEADER)), HeaderPosition.top);
     }
 
-    private CSVReader openCSVReader(Reader reader, Map<String, Object> processorProperties) {
-        String delimiter = StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER);
+    private CSVStreamParser openCSVParser(Reader reader, Map<String, Object> processorProperties) {
+        return new CSVStreamParser(reader, getDelimiterChar(processorProperties), getQuoteChar(processorProperties), getEscapeChar(processorProperties));
+    }
+
+    private static char getDelimiterChar(Map<String, Object> processorProperties) {
+        return StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER).charAt(0);
+    }
+
+    private static char getQuoteChar(Map<String, Object> processorProperties) {
         String quoteChar = CommonUtils.toString(processorProperties.get(PROP_QUOTE_CHAR));
-        if (CommonUtils.isEmpty(quoteChar)) {
-            quoteChar = "'";
-        }
+        return CommonUtils.isEmpty(quoteChar) ? '\'' : quoteChar.charAt(0);
+    }
+
+    private static char getEscapeChar(Map<String, Object> processorProperties) {
         String escapeChar = CommonUtils.toString(processorProperties.get(PROP_ESCAPE_CHAR));
-        if (CommonUtils.isEmpty(escapeChar)) {
-            escapeChar = "\\";
-        }
-        return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
+        return CommonUtils.isEmpty(escapeChar) ? '\\' : escapeChar.charAt(0);
     }
 
     private Reader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties, boolean useBufferedStream) throws UnsupportedEncodingException {
@@ -182,17 +207,9 @@ public class DataImporterCSV extends StreamImporterAbstract {
         return new InputStreamReader(inputStream, charset);
     }
 
-    private String[] getNextLine(CSVReader csvReader) throws IOException {
-        while (true) {
-            String[] line = csvReader.readNext();
-            if (line == null) {
-                return null;
-            }
-            if (line.length == 0) {
-                continue;
-            }
-            return line;
-        }
+    private String[] getNextLine(CSVStreamParser csvParser) throws IOException {
+        // Parser skips empty lines
+        return csvParser.nextRecord() ? csvParser.getStrings() : null;
     }
 
     @Override
@@ -201,9 +218,6 @@ public class DataImporterCSV extends StreamImporterAbstract {
         StreamEntityMapping entityMapping = site.getSourceObject();
         Map<String, Object> properties = site.getProcessorProperties();
         HeaderPosition headerPosition = getHeaderPosition(properties);
-        boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
-        boolean trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
-        String nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
 
         DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
         try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
@@ -215,69 +229,185 @@ public class DataImporterCSV extends StreamImporterAbstract {
             applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
 
             try (Reader reader = openStreamReader(inputStream, properties, true)) {
-                try (CSVReader csvReader = openCSVReader(reader, properties)) {
+                try (CSVStreamParser csvParser = openCSVParser(reader, properties)) {
+                    importRecords(
+                        monitor, producerSession, resultSet, consumer, csvParser,
+                        headerPosition != HeaderPosition.none, site.getSettings().getMaxRows(), 0);
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading CSV", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
 
-                    int maxRows = site.getSettings().getMaxRows();
-                    int targetAttrSize = entityMapping.getStreamColumns().size();
-                    boolean headerRead = false;
-                    for (long lineNum = 0; ; ) {
-                        if (monitor.isCanceled()) {
-                            break;
-                        }
-                        String[] line = csvReader.readNext();
-                        if (line == null) {
-                            if (csvReader.getParser().isPending()) {
-                                throw new IOException("Un-terminated quote sequence was detected");
-                            }
-                            break;
-                        }
-                        if (line.length == 0) {
-                            continue;
-                        }
-                        if (headerPosition != HeaderPosition.none && !headerRead) {
-                            // First line is a header
-                            headerRead = true;
-                            continue;
-                        }
-                        if (maxRows > 0 && lineNum >= maxRows) {
-                            break;
-                        }
+    }
 
-                        if (line.length < targetAttrSize) {
-                            // Stream row may be shorter than header
-                            String[] newLine = new String[targetAttrSize];
-                            System.arraycopy(line, 0, newLine, 0, line.length);
-                            for (int i = line.length; i < targetAttrSize; i++) {
-                                newLine[i] = null;
-                            }
-                            line = newLine;
-                        }
-                        if (trimWhitespaces) {
-                            for (int i = 0; i < line.length; i++) {
-                                line[i] = line[i].trim();
-                            }
-                        }
-                        if (emptyStringNull) {
-                            for (int i = 0; i < line.length; i++) {
-                                if ("".equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-                        if (!CommonUtils.isEmpty(nullValueMark)) {
-                            for (int i = 0; i < line.length; i++) {
-                                if (nullValueMark.equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
+    @Override
+    public int getParallelReaders() {
+        return Math.max(CommonUtils.toInt(getSite().getProcessorProperties().get(PROP_PARALLEL_READERS), 1), 1);
+    }
+
+    /**
+     * Scans file bytes and finds line feeds which are not inside quoted values.
+     * Scanner follows quoting rules of {@link CSVStreamParser}, so each range may be parsed independently.
+     * Works only for encodings where line feeds, delimiter, quote and escape characters are single ASCII bytes
+     * which never appear inside other characters (UTF-8 and single byte encodings).
+     */
+    @Nullable
+    @Override
+    public long[] findRangeBounds(@NotNull DBRProgressMonitor monitor, @NotNull FileChannel channel, int rangeCount) throws IOException {
+        Map<String, Object> properties = getSite().getProcessorProperties();
+        final Charset charset = Charset.forName(CommonUtils.toString(properties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
+        boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+        if (!utf8 && (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1)) {
+            return null;
+        }
+        final int delimiter = getAsciiByte(charset, getDelimiterChar(properties));
+        final int quote = getAsciiByte(charset, getQuoteChar(properties));
+        final int escape = getAsciiByte(charset, getEscapeChar(properties));
+        if (delimiter < 0 || quote < 0 || escape < 0 || getAsciiByte(charset, '\n') < 0 || getAsciiByte(charset, '\r') < 0) {
+            return null;
+        }
+
+        final long fileSize = channel.size();
+        long dataStart = 0;
+        if (utf8 && fileSize >= 3) {
+            ByteBuffer bom = ByteBuffer.allocate(3);
+            readFully(channel, bom, 0);
+            if (bom.get(0) == (byte) 0xEF && bom.get(1) == (byte) 0xBB && bom.get(2) == (byte) 0xBF) {
+                dataStart = 3;
+            }
+        }
+        final long rangeSize = Math.max((fileSize - dataStart) / rangeCount, 1);
+        long[] bounds = new long[rangeCount + 1];
+        bounds[0] = dataStart;
+        int boundCount = 1;
+        long nextBound = dataStart + rangeSize;
+        boolean headerPending = getHeaderPosition(properties) != HeaderPosition.none;
+
+        int state = SCAN_FIELD_START;
+        boolean escapePending = false;
+        boolean lineStart = true;
+        final ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK_SIZE);
+        for (long chunkStart = dataStart; chunkStart < fileSize; chunkStart += SCAN_CHUNK_SIZE) {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            chunk.clear().limit((int) Math.min(SCAN_CHUNK_SIZE, fileSize - chunkStart));
+            readFully(channel, chunk, chunkStart);
+            for (int i = 0, chunkSize = chunk.limit(); i < chunkSize; i++) {
+                int b = chunk.get(i);
+                if (escapePending) {
+                    escapePending = false;
+                    if (b == quote || b == escape) {
+                        // Escaped character
+                        continue;
+                    }
+                }
+                if (state == SCAN_QUOTED_QUOTE) {
+                    if (b == quote) {
+                        // Doubled quote
+                        state = SCAN_QUOTED;
+                        continue;
+                    }
+                    state = SCAN_UNQUOTED;
+                } else if (state == SCAN_FIELD_START && b == quote) {
+                    state = SCAN_QUOTED;
+                    lineStart = false;
+                    continue;
+                }
+                if (state == SCAN_QUOTED) {
+                    if (b == quote) {
+                        state = SCAN_QUOTED_QUOTE;
+                    } else if (b == escape) {
+                        escapePending = true;
+                    }
+                    continue;
+                }
+                if (b == '\n' || b == '\r') {
+                    state = SCAN_FIELD_START;
+                    long position = chunkStart + i + 1;
+                    if (headerPending) {
+                        // Parser skips empty lines before header
+                        if (!lineStart) {
+                            headerPending = false;
+                            bounds[0] = position;
                         }
+                    } else if (b == '\n' && position - 1 == bounds[0] && boundCount == 1) {
+                        // Line feed after CR which ends the header
+                        bounds[0] = position;
+                    } else if (b == '\n' && position >= nextBound && position < fileSize && boundCount < rangeCount) {
+                        bounds[boundCount++] = position;
+                        nextBound = position + rangeSize;
+                    }
+                    lineStart = true;
+                    continue;
+                }
+                lineStart = false;
+                if (b == delimiter) {
+                    state = SCAN_FIELD_START;
+                } else {
+                    state = SCAN_UNQUOTED;
+                    if (b == escape) {
+                        escapePending = true;
+                    }
+                }
+            }
+        }
+        if (state == SCAN_QUOTED || headerPending) {
+            // Un-terminated quoted value or no data after header. Let sequential reader handle it
+            return null;
+        }
+        bounds[boundCount++] = fileSize;
+        return Arrays.copyOf(bounds, boundCount);
+    }
 
-                        resultSet.setStreamRow(line);
-                        consumer.fetchRow(producerSession, resultSet);
-                        lineNum++;
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of file at " + position);
+            }
+            position += count;
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void runImport(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPDataSource streamDataSource,
+        @NotNull Queue<InputStream> ranges,
+        @NotNull IDataTransferConsumer consumer,
+        long offset,
+        @Nullable Runnable startListener) throws DBException
+    {
+        IStreamDataImporterSite site = getSite();
+        Map<String, Object> properties = site.getProcessorProperties();
+        Charset charset = Charset.forName(CommonUtils.toString(properties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
 
-                        if (DBFetchProgress.monitorFetchProgress(lineNum)) {
-                            monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, site.getSourceObject());
+            try {
+                consumer.fetchStart(producerSession, resultSet, offset, -1);
+                applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
+                if (startListener != null) {
+                    startListener.run();
+                }
+
+                long rowCount = 0;
+                for (InputStream range = ranges.poll(); range != null && !monitor.isCanceled(); range = ranges.poll()) {
+                    // Header and BOM are excluded from ranges
+                    try (Reader reader = new InputStreamReader(new BufferedInputStream(range, READ_BUFFER_SIZE), charset)) {
+                        try (CSVStreamParser csvParser = openCSVParser(reader, properties)) {
+                            rowCount = importRecords(monitor, producerSession, resultSet, consumer, csvParser, false, 0, rowCount);
                         }
                     }
                 }
@@ -291,7 +421,124 @@ public class DataImporterCSV extends StreamImporterAbstract {
                 }
             }
         }
+    }
 
+    /**
+     * Passes parsed records to the consumer.
+     *
+     * @return total number of processed rows
+     */
+    private long importRecords(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession producerSession,
+        @NotNull StreamTransferResultSet resultSet,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull CSVStreamParser csvParser,
+        boolean skipHeader,
+        int maxRows,
+        long rowCount) throws IOException, DBCException
+    {
+        IStreamDataImporterSite site = getSite();
+        Map<String, Object> properties = site.getProcessorProperties();
+        boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
+        boolean trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
+        String nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        boolean hasNullValueMark = !CommonUtils.isEmpty(nullValueMark);
+        int targetAttrSize = site.getSourceObject().getStreamColumns().size();
+
+        // Numbers and ISO timestamps are parsed from the parser buffer for columns mapped to numeric/datetime targets.
+        // Custom timestamp format is applied by the result set
+        List<StreamDataImporterColumnInfo> attributeMappings = resultSet.getAttributeMappings();
+        boolean parseTimestamps = resultSet.getDateTimeFormat() == null;
+        boolean[] integerColumns = new boolean[attributeMappings.size()];
+        boolean[] timestampColumns = new boolean[attributeMappings.size()];
+        for (int i = 0; i < attributeMappings.size(); i++) {
+            DBPDataKind dataKind = attributeMappings.get(i).getDataKind();
+            integerColumns[i] = dataKind == DBPDataKind.NUMERIC;
+            timestampColumns[i] = parseTimestamps && dataKind == DBPDataKind.DATETIME;
+        }
+        // Consumer reads values in fetchRow, so the row array is reused
+        Object[] line = new Object[targetAttrSize];
+
+        boolean headerRead = !skipHeader;
+        for (long lineNum = rowCount; ; ) {
+            if (monitor.isCanceled()) {
+                return lineNum;
+            }
+            // Throws error on un-terminated quote sequence
+            if (!csvParser.nextRecord()) {
+                return lineNum;
+            }
+            if (!headerRead) {
+                // First line is a header
+                headerRead = true;
+                continue;
+            }
+            if (maxRows > 0 && lineNum >= maxRows) {
+                return lineNum;
+            }
+
+            // Stream row may be shorter than header
+            int fieldCount = csvParser.getFieldCount();
+            if (fieldCount > line.length) {
+                line = new Object[fieldCount];
+            } else {
+                Arrays.fill(line, fieldCount, line.length, null);
+            }
+            for (int i = 0; i < fieldCount; i++) {
+                // Check nulls in parser buffer, so strings are created for actual values only
+                if (trimWhitespaces) {
+                    String value = csvParser.getTrimmedString(i);
+                    if ((emptyStringNull && value.isEmpty()) || (hasNullValueMark && nullValueMark.equals(value))) {
+                        value = null;
+                    }
+                    line[i] = value;
+                } else if ((emptyStringNull && csvParser.isFieldEmpty(i)) || (hasNullValueMark && csvParser.fieldEquals(i, nullValueMark))) {
+                    line[i] = null;
+                } else {
+                    Object value = null;
+                    if (i < integerColumns.length && integerColumns[i] && !csvParser.isFieldEmpty(i)) {
+                        try {
+                            value = csvParser.getLong(i);
+                        } catch (NumberFormatException e) {
+                            // Not an integer column (decimals, exponents or big numbers). Pass strings to the consumer
+                            integerColumns[i] = false;
+                        }
+                    } else if (i < timestampColumns.length && timestampColumns[i]) {
+                        LocalDateTime dateTime = csvParser.getLocalDateTime(i);
+                        if (dateTime == null) {
+                            LocalDate date = csvParser.getLocalDate(i);
+                            if (date != null) {
+                                dateTime = date.atStartOfDay();
+                            }
+                        }
+                        if (dateTime != null) {
+                            value = Timestamp.valueOf(dateTime);
+                        }
+                    }
+                    line[i] = value != null ? value : csvParser.getString(i);
+                }
+            }
+
+            resultSet.setStreamRow(line);
+            consumer.fetchRow(producerSession, resultSet);
+            lineNum++;
+
+            if (DBFetchProgress.monitorFetchProgress(lineNum)) {
+                monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
+            }
+        }
+    }
+
+    /**
+     * Returns byte which encodes the character if it is a single ASCII byte in the specified charset, -1 otherwise
+     */
+    private static int getAsciiByte(Charset charset, char c) {
+        if (c >= 0x80) {
+            return -1;
+        }
+        byte[] bytes = String.valueOf(c).getBytes(charset);
+        return bytes.length == 1 && bytes[0] == c ? c : -1;
     }
 
 }
@@ -0,0 +1,192 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetConstants;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parquet importer.
+ * Parquet files are read from the input file directly because file footer is needed before any data.
+ */
+public class DataImporterParquet extends StreamImporterAbstract {
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>();
+        try (ParquetFileReader reader = new ParquetFileReader(entityMapping.getInputFile())) {
+            List<ParquetColumn> columns = reader.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                columnsInfo.add(createColumnInfo(entityMapping, i, columns.get(i)));
+            }
+        } catch (IOException e) {
+            throw new DBException("IO error reading Parquet file", e);
+        }
+        return columnsInfo;
+    }
+
+    @NotNull
+    private static StreamDataImporterColumnInfo createColumnInfo(@NotNull StreamEntityMapping entityMapping, int index, @NotNull ParquetColumn column) {
+        DBPDataKind dataKind;
+        String typeName;
+        switch (column.getConvertedType()) {
+            case ParquetConstants.CONVERTED_UTF8:
+            case ParquetConstants.CONVERTED_ENUM:
+            case ParquetConstants.CONVERTED_JSON:
+                dataKind = DBPDataKind.STRING;
+                typeName = "VARCHAR";
+                break;
+            case ParquetConstants.CONVERTED_DECIMAL:
+                dataKind = DBPDataKind.NUMERIC;
+                typeName = "DECIMAL";
+                break;
+            case ParquetConstants.CONVERTED_DATE:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "DATE";
+                break;
+            case ParquetConstants.CONVERTED_TIME_MILLIS:
+            case ParquetConstants.CONVERTED_TIME_MICROS:
+            case ParquetConstants.CONVERTED_TIME_NANOS:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "TIME";
+                break;
+            case ParquetConstants.CONVERTED_TIMESTAMP_MILLIS:
+            case ParquetConstants.CONVERTED_TIMESTAMP_MICROS:
+            case ParquetConstants.CONVERTED_TIMESTAMP_NANOS:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "TIMESTAMP";
+                break;
+            case ParquetConstants.CONVERTED_UINT_32:
+                dataKind = DBPDataKind.NUMERIC;
+                typeName = "BIGINT";
+                break;
+            case ParquetConstants.CONVERTED_UINT_64:
+                dataKind = DBPDataKind.NUMERIC;
+                typeName = "DECIMAL";
+                break;
+            default:
+                switch (column.getType()) {
+                    case ParquetConstants.TYPE_BOOLEAN:
+                        dataKind = DBPDataKind.BOOLEAN;
+                        typeName = "BOOLEAN";
+                        break;
+                    case ParquetConstants.TYPE_INT32:
+                        dataKind = DBPDataKind.NUMERIC;
+                        typeName = "INTEGER";
+                        break;
+                    case ParquetConstants.TYPE_INT64:
+                        dataKind = DBPDataKind.NUMERIC;
+                        typeName = "BIGINT";
+                        break;
+                    case ParquetConstants.TYPE_INT96:
+                        dataKind = DBPDataKind.DATETIME;
+                        typeName = "TIMESTAMP";
+                        break;
+                    case ParquetConstants.TYPE_FLOAT:
+                        dataKind = DBPDataKind.NUMERIC;
+                        typeName = "REAL";
+                        break;
+                    case ParquetConstants.TYPE_DOUBLE:
+                        dataKind = DBPDataKind.NUMERIC;
+                        typeName = "DOUBLE";
+                        break;
+                    default:
+                        dataKind = DBPDataKind.BINARY;
+                        typeName = "BLOB";
+                        break;
+                }
+                break;
+        }
+        int maxLength = column.getType() == ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY ? column.getTypeLength() : 0;
+        StreamDataImporterColumnInfo columnInfo = new StreamDataImporterColumnInfo(entityMapping, index, column.getName(), typeName, maxLength, dataKind);
+        if (column.getConvertedType() == ParquetConstants.CONVERTED_DECIMAL) {
+            columnInfo.setPrecision(column.getPrecision());
+            columnInfo.setScale(column.getScale());
+        } else if (column.getConvertedType() == ParquetConstants.CONVERTED_UINT_64) {
+            columnInfo.setPrecision(20);
+            columnInfo.setScale(0);
+        }
+        columnInfo.setRequired(!column.isOptional());
+        columnInfo.setMappingMetadataPresent(true);
+        return columnInfo;
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+        int maxRows = site.getSettings().getMaxRows();
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            applyTransformHints(resultSet, consumer, site.getProcessorProperties(), null, null);
+
+            try (ParquetFileReader reader = new ParquetFileReader(entityMapping.getInputFile())) {
+                monitor.subTask("Import " + reader.getRowCount() + " rows");
+                for (long rowNum = 0; !monitor.isCanceled() && (maxRows <= 0 || rowNum < maxRows); ) {
+                    Object[] row = reader.readRow();
+                    if (row == null) {
+                        break;
+                    }
+                    resultSet.setStreamRow(row);
+                    consumer.fetchRow(producerSession, resultSet);
+                    rowNum++;
+
+                    if (DBFetchProgress.monitorFetchProgress(rowNum)) {
+                        monitor.subTask(rowNum + " rows processed");
+                    }
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading Parquet file", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+}
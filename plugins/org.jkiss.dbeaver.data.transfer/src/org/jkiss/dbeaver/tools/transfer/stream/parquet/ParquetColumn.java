@@ -0,0 +1,105 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * Column of a flat Parquet schema
+ */
+public class ParquetColumn {
+
+    @NotNull
+    private final String name;
+    private final int type;
+    private final int convertedType;
+    private final int typeLength;
+    private final int precision;
+    private final int scale;
+    private final boolean optional;
+
+    public ParquetColumn(@NotNull String name, int type, int convertedType) {
+        this(name, type, convertedType, 0, 0, 0, true);
+    }
+
+    public ParquetColumn(@NotNull String name, int type, int convertedType, int typeLength, int precision, int scale, boolean optional) {
+        this.name = name;
+        this.type = type;
+        this.convertedType = convertedType;
+        this.typeLength = typeLength;
+        this.precision = precision;
+        this.scale = scale;
+        this.optional = optional;
+    }
+
+    /**
+     * Creates decimal column. Physical type depends on precision.
+     */
+    @NotNull
+    public static ParquetColumn createDecimal(@NotNull String name, int precision, int scale) {
+        if (precision <= 9) {
+            return new ParquetColumn(name, ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_DECIMAL, 0, precision, scale, true);
+        } else if (precision <= 18) {
+            return new ParquetColumn(name, ParquetConstants.TYPE_INT64, ParquetConstants.CONVERTED_DECIMAL, 0, precision, scale, true);
+        } else {
+            return new ParquetColumn(name, ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY, ParquetConstants.CONVERTED_DECIMAL,
+                getDecimalLength(precision), precision, scale, true);
+        }
+    }
+
+    /**
+     * Minimal number of bytes which hold two's complement unscaled value of the specified precision
+     */
+    public static int getDecimalLength(int precision) {
+        return (int) Math.ceil((precision * Math.log(10) / Math.log(2) + 1) / 8);
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getConvertedType() {
+        return convertedType;
+    }
+
+    public int getTypeLength() {
+        return typeLength;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + "/" + convertedType + ")";
+    }
+
+}
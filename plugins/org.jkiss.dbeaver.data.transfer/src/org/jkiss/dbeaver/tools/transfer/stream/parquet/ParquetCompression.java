@@ -0,0 +1,240 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Page compression codecs.
+ * <p>
+ * Snappy is implemented here because it is the default codec of most Parquet writers.
+ * Compressor is a simple greedy matcher: it is fast and its output is decoded by any Snappy implementation.
+ */
+class ParquetCompression {
+
+    private static final int SNAPPY_HASH_BITS = 14;
+    private static final int SNAPPY_MAX_OFFSET = 65535;
+    private static final int SNAPPY_MAX_COPY_LENGTH = 64;
+
+    private ParquetCompression() {
+    }
+
+    static boolean isSupported(int codec) {
+        return codec == ParquetConstants.CODEC_UNCOMPRESSED || codec == ParquetConstants.CODEC_SNAPPY || codec == ParquetConstants.CODEC_GZIP;
+    }
+
+    @NotNull
+    static byte[] compress(int codec, @NotNull byte[] data, int length) throws IOException {
+        switch (codec) {
+            case ParquetConstants.CODEC_UNCOMPRESSED:
+                return length == data.length ? data : Arrays.copyOf(data, length);
+            case ParquetConstants.CODEC_GZIP: {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+                    gzip.write(data, 0, length);
+                }
+                return out.toByteArray();
+            }
+            case ParquetConstants.CODEC_SNAPPY:
+                return snappyCompress(data, length);
+            default:
+                throw new IOException("Compression codec " + codec + " is not supported");
+        }
+    }
+
+    @NotNull
+    static byte[] decompress(int codec, @NotNull byte[] data, int uncompressedLength) throws IOException {
+        switch (codec) {
+            case ParquetConstants.CODEC_UNCOMPRESSED:
+                return data;
+            case ParquetConstants.CODEC_GZIP: {
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+                    byte[] result = gzip.readNBytes(uncompressedLength);
+                    if (result.length != uncompressedLength) {
+                        throw new IOException("Unexpected end of compressed data");
+                    }
+                    return result;
+                }
+            }
+            case ParquetConstants.CODEC_SNAPPY:
+                return snappyDecompress(data, uncompressedLength);
+            default:
+                throw new IOException("Compression codec " + codec + " is not supported");
+        }
+    }
+
+    @NotNull
+    static byte[] snappyCompress(@NotNull byte[] data, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+        writeVarInt(out, length);
+        int[] table = new int[1 << SNAPPY_HASH_BITS];
+        int literalStart = 0;
+        int pos = 0;
+        while (pos + 4 <= length) {
+            int key = readIntLE(data, pos);
+            int hash = (key * 0x1e35a7bd) >>> (32 - SNAPPY_HASH_BITS);
+            // Positions are stored incremented, so zero means empty slot
+            int candidate = table[hash] - 1;
+            table[hash] = pos + 1;
+            if (candidate >= 0 && pos - candidate <= SNAPPY_MAX_OFFSET && readIntLE(data, candidate) == key) {
+                writeLiteral(out, data, literalStart, pos - literalStart);
+                int matchLength = 4;
+                while (pos + matchLength < length && data[candidate + matchLength] == data[pos + matchLength]) {
+                    matchLength++;
+                }
+                writeCopy(out, pos - candidate, matchLength);
+                pos += matchLength;
+                literalStart = pos;
+            } else {
+                pos++;
+            }
+        }
+        writeLiteral(out, data, literalStart, length - literalStart);
+        return out.toByteArray();
+    }
+
+    @NotNull
+    static byte[] snappyDecompress(@NotNull byte[] data, int expectedLength) throws IOException {
+        int pos = 0;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos >= data.length || shift > 28) {
+                throw new IOException("Bad Snappy data header");
+            }
+            int b = data[pos++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length != expectedLength) {
+            throw new IOException("Snappy data length " + length + " doesn't match page size " + expectedLength);
+        }
+        byte[] result = new byte[length];
+        int outPos = 0;
+        try {
+            while (pos < data.length) {
+                int tag = data[pos++] & 0xFF;
+                int chunkLength;
+                int offset;
+                switch (tag & 3) {
+                    case 0:
+                        chunkLength = tag >>> 2;
+                        if (chunkLength >= 60) {
+                            int lengthBytes = chunkLength - 59;
+                            chunkLength = 0;
+                            for (int i = 0; i < lengthBytes; i++) {
+                                chunkLength |= (data[pos++] & 0xFF) << (i * 8);
+                            }
+                        }
+                        chunkLength++;
+                        System.arraycopy(data, pos, result, outPos, chunkLength);
+                        pos += chunkLength;
+                        outPos += chunkLength;
+                        continue;
+                    case 1:
+                        chunkLength = ((tag >>> 2) & 7) + 4;
+                        offset = ((tag >>> 5) << 8) | (data[pos++] & 0xFF);
+                        break;
+                    case 2:
+                        chunkLength = (tag >>> 2) + 1;
+                        offset = (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8;
+                        pos += 2;
+                        break;
+                    default:
+                        chunkLength = (tag >>> 2) + 1;
+                        offset = readIntLE(data, pos);
+                        pos += 4;
+                        break;
+                }
+                if (offset <= 0 || offset > outPos) {
+                    throw new IOException("Bad Snappy copy offset");
+                }
+                // Copied regions may overlap
+                for (int i = 0; i < chunkLength; i++) {
+                    result[outPos] = result[outPos - offset];
+                    outPos++;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted Snappy data", e);
+        }
+        if (outPos != length) {
+            throw new IOException("Unexpected end of Snappy data");
+        }
+        return result;
+    }
+
+    private static void writeLiteral(ByteArrayOutputStream out, byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        int n = length - 1;
+        if (n < 60) {
+            out.write(n << 2);
+        } else if (n < 0x100) {
+            out.write(60 << 2);
+            out.write(n);
+        } else if (n < 0x10000) {
+            out.write(61 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+        } else if (n < 0x1000000) {
+            out.write(62 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+            out.write(n >>> 16);
+        } else {
+            out.write(63 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+            out.write(n >>> 16);
+            out.write(n >>> 24);
+        }
+        out.write(data, offset, length);
+    }
+
+    private static void writeCopy(ByteArrayOutputStream out, int offset, int length) {
+        while (length > 0) {
+            int chunkLength = Math.min(length, SNAPPY_MAX_COPY_LENGTH);
+            out.write(((chunkLength - 1) << 2) | 2);
+            out.write(offset);
+            out.write(offset >>> 8);
+            length -= chunkLength;
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readIntLE(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF) << 16 | (data[pos + 3] & 0xFF) << 24;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants of Parquet file format (see parquet.thrift of Apache Parquet format specification)
+ */
+public class ParquetConstants {
+
+    static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    // Physical types
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+    public static final int TYPE_INT96 = 3;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+
+    // Converted (logical) types
+    public static final int CONVERTED_NONE = -1;
+    public static final int CONVERTED_UTF8 = 0;
+    public static final int CONVERTED_ENUM = 4;
+    public static final int CONVERTED_DECIMAL = 5;
+    public static final int CONVERTED_DATE = 6;
+    public static final int CONVERTED_TIME_MILLIS = 7;
+    public static final int CONVERTED_TIME_MICROS = 8;
+    public static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_UINT_8 = 11;
+    public static final int CONVERTED_UINT_16 = 12;
+    public static final int CONVERTED_UINT_32 = 13;
+    public static final int CONVERTED_UINT_64 = 14;
+    public static final int CONVERTED_INT_8 = 15;
+    public static final int CONVERTED_INT_16 = 16;
+    public static final int CONVERTED_INT_32 = 17;
+    public static final int CONVERTED_INT_64 = 18;
+    public static final int CONVERTED_JSON = 19;
+    // Not a Parquet converted type. Used for logical types which have no converted type equivalent
+    public static final int CONVERTED_TIME_NANOS = 1000;
+    public static final int CONVERTED_TIMESTAMP_NANOS = 1001;
+
+    // Repetition types
+    static final int REPETITION_REQUIRED = 0;
+    static final int REPETITION_OPTIONAL = 1;
+    static final int REPETITION_REPEATED = 2;
+
+    // Encodings
+    static final int ENCODING_PLAIN = 0;
+    static final int ENCODING_PLAIN_DICTIONARY = 2;
+    static final int ENCODING_RLE = 3;
+    static final int ENCODING_RLE_DICTIONARY = 8;
+
+    // Compression codecs
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CODEC_SNAPPY = 1;
+    public static final int CODEC_GZIP = 2;
+
+    // Page types
+    static final int PAGE_DATA = 0;
+    static final int PAGE_DICTIONARY = 2;
+    static final int PAGE_DATA_V2 = 3;
+
+    private ParquetConstants() {
+    }
+
+}
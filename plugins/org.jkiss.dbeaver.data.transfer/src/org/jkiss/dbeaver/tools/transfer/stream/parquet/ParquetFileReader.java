@@ -0,0 +1,591 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads flat tables from Parquet files.
+ * <p>
+ * Row groups are read one at a time, column chunks are decoded page by page.
+ * Supports PLAIN and dictionary encodings, data pages of both versions and
+ * uncompressed, Snappy and GZIP compression codecs.
+ * <p>
+ * Values are returned as Java objects according to their logical types:
+ * Boolean, Integer, Long, Float, Double, BigDecimal, String, java.sql.Date, Time, Timestamp or byte[].
+ */
+public class ParquetFileReader implements Closeable {
+
+    private static final long JULIAN_EPOCH_DAY = 2440588;
+    private static final long NANOS_PER_DAY = 86400L * 1000 * 1000 * 1000;
+
+    @NotNull
+    private final FileChannel channel;
+    @NotNull
+    private final List<ParquetColumn> columns;
+    @NotNull
+    private final List<?> rowGroups;
+    private final long rowCount;
+
+    private int rowGroupIndex = -1;
+    private long rowGroupRemaining;
+    private ColumnReader[] columnReaders;
+
+    public ParquetFileReader(@NotNull File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            int magicLength = ParquetConstants.MAGIC.length;
+            if (fileSize < magicLength * 2 + 4 || !checkMagic(0) || !checkMagic(fileSize - magicLength)) {
+                throw new IOException("File '" + file.getName() + "' is not a Parquet file");
+            }
+            ByteBuffer footerLengthBuffer = read(fileSize - magicLength - 4, 4);
+            long footerLength = footerLengthBuffer.order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+            long footerOffset = fileSize - magicLength - 4 - footerLength;
+            if (footerOffset < magicLength) {
+                throw new IOException("Bad Parquet footer length: " + footerLength);
+            }
+            ThriftCompactReader.Struct metadata = new ThriftCompactReader(read(footerOffset, (int) footerLength)).readStruct();
+            this.columns = readSchema(metadata.getList(2));
+            this.rowCount = metadata.getLong(3, 0);
+            this.rowGroups = metadata.getList(4);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    public List<ParquetColumn> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Reads next row. Returns null if there are no more rows.
+     */
+    @Nullable
+    public Object[] readRow() throws IOException {
+        while (rowGroupRemaining <= 0) {
+            if (rowGroupIndex + 1 >= rowGroups.size()) {
+                return null;
+            }
+            rowGroupIndex++;
+            openRowGroup((ThriftCompactReader.Struct) rowGroups.get(rowGroupIndex));
+        }
+        Object[] row = new Object[columnReaders.length];
+        try {
+            for (int i = 0; i < columnReaders.length; i++) {
+                row[i] = columnReaders[i].readValue();
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted Parquet data", e);
+        }
+        rowGroupRemaining--;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        columnReaders = null;
+        channel.close();
+    }
+
+    private boolean checkMagic(long offset) throws IOException {
+        ByteBuffer buffer = read(offset, ParquetConstants.MAGIC.length);
+        return buffer.equals(ByteBuffer.wrap(ParquetConstants.MAGIC));
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of Parquet file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void openRowGroup(ThriftCompactReader.Struct rowGroup) throws IOException {
+        List<?> chunks = rowGroup.getList(1);
+        if (chunks.size() != columns.size()) {
+            throw new IOException("Row group has " + chunks.size() + " columns while schema has " + columns.size());
+        }
+        long fileSize = channel.size();
+        ColumnReader[] readers = new ColumnReader[columns.size()];
+        for (int i = 0; i < readers.length; i++) {
+            ThriftCompactReader.Struct chunk = (ThriftCompactReader.Struct) chunks.get(i);
+            if (chunk.has(1)) {
+                throw new IOException("Column chunks in external files are not supported");
+            }
+            ThriftCompactReader.Struct chunkMeta = chunk.getStruct(3);
+            if (chunkMeta == null) {
+                throw new IOException("Column chunk metadata is missing");
+            }
+            long dataPageOffset = chunkMeta.getLong(9, -1);
+            long dictionaryPageOffset = chunkMeta.getLong(11, -1);
+            long startOffset = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset : dataPageOffset;
+            long chunkSize = chunkMeta.getLong(7, -1);
+            if (startOffset < 0 || chunkSize < 0 || startOffset + chunkSize > fileSize || chunkSize > Integer.MAX_VALUE) {
+                throw new IOException("Bad column chunk bounds of column '" + columns.get(i).getName() + "'");
+            }
+            int codec = chunkMeta.getInt(4, ParquetConstants.CODEC_UNCOMPRESSED);
+            if (!ParquetCompression.isSupported(codec)) {
+                throw new IOException("Compression codec " + codec + " of column '" + columns.get(i).getName() + "' is not supported");
+            }
+            readers[i] = new ColumnReader(columns.get(i), read(startOffset, (int) chunkSize), codec);
+        }
+        columnReaders = readers;
+        rowGroupRemaining = rowGroup.getLong(3, 0);
+    }
+
+    @NotNull
+    private static List<ParquetColumn> readSchema(@NotNull List<?> schema) throws IOException {
+        if (schema.isEmpty()) {
+            throw new IOException("Parquet schema is empty");
+        }
+        List<ParquetColumn> result = new ArrayList<>(schema.size() - 1);
+        for (int i = 1; i < schema.size(); i++) {
+            ThriftCompactReader.Struct element = (ThriftCompactReader.Struct) schema.get(i);
+            String name = element.getString(4);
+            if (name == null) {
+                name = "column" + i;
+            }
+            int repetition = element.getInt(3, ParquetConstants.REPETITION_OPTIONAL);
+            if (element.getInt(5, 0) > 0 || !element.has(1) || repetition == ParquetConstants.REPETITION_REPEATED) {
+                throw new IOException("Nested Parquet column '" + name + "' is not supported");
+            }
+            int type = element.getInt(1, -1);
+            int convertedType = element.getInt(6, ParquetConstants.CONVERTED_NONE);
+            int scale = element.getInt(7, 0);
+            int precision = element.getInt(8, 0);
+            ThriftCompactReader.Struct logicalType = element.getStruct(10);
+            if (logicalType != null) {
+                switch (logicalType.getUnionField()) {
+                    case 1:
+                        convertedType = ParquetConstants.CONVERTED_UTF8;
+                        break;
+                    case 4:
+                        convertedType = ParquetConstants.CONVERTED_ENUM;
+                        break;
+                    case 5: {
+                        ThriftCompactReader.Struct decimal = logicalType.getStruct(5);
+                        convertedType = ParquetConstants.CONVERTED_DECIMAL;
+                        scale = decimal == null ? scale : decimal.getInt(1, scale);
+                        precision = decimal == null ? precision : decimal.getInt(2, precision);
+                        break;
+                    }
+                    case 6:
+                        convertedType = ParquetConstants.CONVERTED_DATE;
+                        break;
+                    case 7:
+                        convertedType = getTimeUnitType(logicalType.getStruct(7),
+                            ParquetConstants.CONVERTED_TIME_MILLIS, ParquetConstants.CONVERTED_TIME_MICROS, ParquetConstants.CONVERTED_TIME_NANOS);
+                        break;
+                    case 8:
+                        convertedType = getTimeUnitType(logicalType.getStruct(8),
+                            ParquetConstants.CONVERTED_TIMESTAMP_MILLIS, ParquetConstants.CONVERTED_TIMESTAMP_MICROS, ParquetConstants.CONVERTED_TIMESTAMP_NANOS);
+                        break;
+                    case 10: {
+                        ThriftCompactReader.Struct integer = logicalType.getStruct(10);
+                        if (integer != null) {
+                            int bitWidth = integer.getInt(1, 32);
+                            boolean signed = integer.getBoolean(2, true);
+                            switch (bitWidth) {
+                                case 8: convertedType = signed ? ParquetConstants.CONVERTED_INT_8 : ParquetConstants.CONVERTED_UINT_8; break;
+                                case 16: convertedType = signed ? ParquetConstants.CONVERTED_INT_16 : ParquetConstants.CONVERTED_UINT_16; break;
+                                case 64: convertedType = signed ? ParquetConstants.CONVERTED_INT_64 : ParquetConstants.CONVERTED_UINT_64; break;
+                                default: convertedType = signed ? ParquetConstants.CONVERTED_INT_32 : ParquetConstants.CONVERTED_UINT_32; break;
+                            }
+                        }
+                        break;
+                    }
+                    case 12:
+                        convertedType = ParquetConstants.CONVERTED_JSON;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            result.add(new ParquetColumn(
+                name, type, convertedType, element.getInt(2, 0), precision, scale,
+                repetition == ParquetConstants.REPETITION_OPTIONAL));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static int getTimeUnitType(@Nullable ThriftCompactReader.Struct type, int millisType, int microsType, int nanosType) {
+        ThriftCompactReader.Struct unit = type == null ? null : type.getStruct(2);
+        switch (unit == null ? 1 : unit.getUnionField()) {
+            case 2:
+                return microsType;
+            case 3:
+                return nanosType;
+            default:
+                return millisType;
+        }
+    }
+
+    /**
+     * Decodes values of one column chunk
+     */
+    private static class ColumnReader {
+        private final ParquetColumn column;
+        private final ByteBuffer chunk;
+        private final int codec;
+
+        private Object[] dictionary;
+        private long pageRemaining;
+        private RleDecoder definitionLevels;
+        private RleDecoder dictionaryIndexes;
+        private ByteBuffer values;
+        private int booleanBits;
+        private int booleanBitIndex;
+
+        ColumnReader(ParquetColumn column, ByteBuffer chunk, int codec) {
+            this.column = column;
+            this.chunk = chunk;
+            this.codec = codec;
+        }
+
+        @Nullable
+        Object readValue() throws IOException {
+            while (pageRemaining <= 0) {
+                readPage();
+            }
+            pageRemaining--;
+            if (definitionLevels != null && definitionLevels.next() == 0) {
+                return null;
+            }
+            if (dictionaryIndexes != null) {
+                int index = dictionaryIndexes.next();
+                if (index < 0 || index >= dictionary.length) {
+                    throw new IOException("Bad dictionary index " + index + " in column '" + column.getName() + "'");
+                }
+                return dictionary[index];
+            }
+            return readPlainValue(values);
+        }
+
+        private void readPage() throws IOException {
+            if (!chunk.hasRemaining()) {
+                throw new IOException("Unexpected end of column '" + column.getName() + "' chunk");
+            }
+            ThriftCompactReader.Struct header = new ThriftCompactReader(chunk).readStruct();
+            int uncompressedSize = header.getInt(2, -1);
+            int compressedSize = header.getInt(3, -1);
+            if (uncompressedSize < 0 || compressedSize < 0 || compressedSize > chunk.remaining()) {
+                throw new IOException("Bad page size in column '" + column.getName() + "'");
+            }
+            byte[] data = new byte[compressedSize];
+            chunk.get(data);
+
+            switch (header.getInt(1, -1)) {
+                case ParquetConstants.PAGE_DICTIONARY: {
+                    ThriftCompactReader.Struct pageHeader = header.getStruct(7);
+                    int valueCount = pageHeader == null ? 0 : pageHeader.getInt(1, 0);
+                    ByteBuffer buffer = wrap(ParquetCompression.decompress(codec, data, uncompressedSize), 0, uncompressedSize);
+                    booleanBitIndex = 0;
+                    dictionary = new Object[valueCount];
+                    for (int i = 0; i < valueCount; i++) {
+                        dictionary[i] = readPlainValue(buffer);
+                    }
+                    break;
+                }
+                case ParquetConstants.PAGE_DATA: {
+                    ThriftCompactReader.Struct pageHeader = header.getStruct(5);
+                    if (pageHeader == null) {
+                        throw new IOException("Data page header is missing");
+                    }
+                    ByteBuffer buffer = wrap(ParquetCompression.decompress(codec, data, uncompressedSize), 0, uncompressedSize);
+                    definitionLevels = null;
+                    if (column.isOptional()) {
+                        int levelsLength = buffer.getInt();
+                        definitionLevels = new RleDecoder(wrap(buffer.array(), buffer.position(), levelsLength), 1);
+                        buffer.position(buffer.position() + levelsLength);
+                    }
+                    initValues(pageHeader.getInt(2, ParquetConstants.ENCODING_PLAIN), buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+                    pageRemaining = pageHeader.getInt(1, 0);
+                    break;
+                }
+                case ParquetConstants.PAGE_DATA_V2: {
+                    ThriftCompactReader.Struct pageHeader = header.getStruct(8);
+                    if (pageHeader == null) {
+                        throw new IOException("Data page header is missing");
+                    }
+                    int definitionLength = pageHeader.getInt(5, 0);
+                    int repetitionLength = pageHeader.getInt(6, 0);
+                    int levelsLength = definitionLength + repetitionLength;
+                    if (levelsLength < 0 || levelsLength > compressedSize) {
+                        throw new IOException("Bad levels length in column '" + column.getName() + "'");
+                    }
+                    definitionLevels = column.isOptional() ? new RleDecoder(wrap(data, repetitionLength, definitionLength), 1) : null;
+                    byte[] valueData;
+                    if (pageHeader.getBoolean(7, true)) {
+                        valueData = ParquetCompression.decompress(
+                            codec, copyOfRange(data, levelsLength, compressedSize), uncompressedSize - levelsLength);
+                    } else {
+                        valueData = copyOfRange(data, levelsLength, compressedSize);
+                    }
+                    initValues(pageHeader.getInt(4, ParquetConstants.ENCODING_PLAIN), wrap(valueData, 0, valueData.length));
+                    pageRemaining = pageHeader.getInt(1, 0);
+                    break;
+                }
+                default:
+                    // Index and unknown pages are skipped
+                    break;
+            }
+        }
+
+        private void initValues(int encoding, ByteBuffer buffer) throws IOException {
+            switch (encoding) {
+                case ParquetConstants.ENCODING_PLAIN:
+                    dictionaryIndexes = null;
+                    values = buffer;
+                    booleanBitIndex = 0;
+                    break;
+                case ParquetConstants.ENCODING_PLAIN_DICTIONARY:
+                case ParquetConstants.ENCODING_RLE_DICTIONARY:
+                    if (dictionary == null) {
+                        throw new IOException("Dictionary page of column '" + column.getName() + "' is missing");
+                    }
+                    int bitWidth = buffer.get() & 0xFF;
+                    dictionaryIndexes = new RleDecoder(buffer.slice(), bitWidth);
+                    values = null;
+                    break;
+                default:
+                    throw new IOException("Encoding " + encoding + " of column '" + column.getName() + "' is not supported");
+            }
+        }
+
+        private Object readPlainValue(ByteBuffer buffer) throws IOException {
+            switch (column.getType()) {
+                case ParquetConstants.TYPE_BOOLEAN:
+                    if (booleanBitIndex == 0) {
+                        booleanBits = buffer.get();
+                    }
+                    boolean value = ((booleanBits >> booleanBitIndex) & 1) != 0;
+                    booleanBitIndex = (booleanBitIndex + 1) & 7;
+                    return value;
+                case ParquetConstants.TYPE_INT32:
+                    return convertInt(buffer.getInt());
+                case ParquetConstants.TYPE_INT64:
+                    return convertLong(buffer.getLong());
+                case ParquetConstants.TYPE_INT96: {
+                    long nanosOfDay = buffer.getLong();
+                    long julianDay = buffer.getInt() & 0xFFFFFFFFL;
+                    return makeTimestamp((julianDay - JULIAN_EPOCH_DAY) * NANOS_PER_DAY + nanosOfDay, 1_000_000_000);
+                }
+                case ParquetConstants.TYPE_FLOAT:
+                    return buffer.getFloat();
+                case ParquetConstants.TYPE_DOUBLE:
+                    return buffer.getDouble();
+                case ParquetConstants.TYPE_BYTE_ARRAY: {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    return convertBytes(bytes);
+                }
+                case ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY: {
+                    byte[] bytes = new byte[column.getTypeLength()];
+                    buffer.get(bytes);
+                    return convertBytes(bytes);
+                }
+                default:
+                    throw new IOException("Unsupported type " + column.getType() + " of column '" + column.getName() + "'");
+            }
+        }
+
+        private Object convertInt(int value) {
+            switch (column.getConvertedType()) {
+                case ParquetConstants.CONVERTED_DECIMAL:
+                    return BigDecimal.valueOf(value, column.getScale());
+                case ParquetConstants.CONVERTED_DATE:
+                    return Date.valueOf(LocalDate.ofEpochDay(value));
+                case ParquetConstants.CONVERTED_TIME_MILLIS:
+                    return makeTime(value * 1_000_000L);
+                case ParquetConstants.CONVERTED_UINT_32:
+                    return Integer.toUnsignedLong(value);
+                default:
+                    return value;
+            }
+        }
+
+        private Object convertLong(long value) {
+            switch (column.getConvertedType()) {
+                case ParquetConstants.CONVERTED_DECIMAL:
+                    return BigDecimal.valueOf(value, column.getScale());
+                case ParquetConstants.CONVERTED_TIME_MILLIS:
+                    return makeTime(value * 1_000_000L);
+                case ParquetConstants.CONVERTED_TIME_MICROS:
+                    return makeTime(value * 1_000L);
+                case ParquetConstants.CONVERTED_TIME_NANOS:
+                    return makeTime(value);
+                case ParquetConstants.CONVERTED_TIMESTAMP_MILLIS:
+                    return makeTimestamp(value, 1_000);
+                case ParquetConstants.CONVERTED_TIMESTAMP_MICROS:
+                    return makeTimestamp(value, 1_000_000);
+                case ParquetConstants.CONVERTED_TIMESTAMP_NANOS:
+                    return makeTimestamp(value, 1_000_000_000);
+                case ParquetConstants.CONVERTED_UINT_64:
+                    return value < 0 ? new BigDecimal(new BigInteger(Long.toUnsignedString(value))) : (Object) value;
+                default:
+                    return value;
+            }
+        }
+
+        private Object convertBytes(byte[] bytes) {
+            switch (column.getConvertedType()) {
+                case ParquetConstants.CONVERTED_UTF8:
+                case ParquetConstants.CONVERTED_ENUM:
+                case ParquetConstants.CONVERTED_JSON:
+                    return new String(bytes, StandardCharsets.UTF_8);
+                case ParquetConstants.CONVERTED_DECIMAL:
+                    return bytes.length == 0 ? BigDecimal.ZERO : new BigDecimal(new BigInteger(bytes), column.getScale());
+                default:
+                    return bytes;
+            }
+        }
+
+        private static ByteBuffer wrap(byte[] data, int offset, int length) throws IOException {
+            if (offset < 0 || length < 0 || offset + length > data.length) {
+                throw new IOException("Bad Parquet page structure");
+            }
+            return ByteBuffer.wrap(data, offset, length).slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private static byte[] copyOfRange(byte[] data, int from, int to) {
+            byte[] result = new byte[to - from];
+            System.arraycopy(data, from, result, 0, result.length);
+            return result;
+        }
+    }
+
+    private static Time makeTime(long nanosOfDay) {
+        LocalTime localTime = LocalTime.ofNanoOfDay(Math.floorMod(nanosOfDay, NANOS_PER_DAY));
+        Time time = Time.valueOf(localTime);
+        time.setTime(time.getTime() + localTime.getNano() / 1_000_000);
+        return time;
+    }
+
+    private static Timestamp makeTimestamp(long value, long unitsPerSecond) {
+        long seconds = Math.floorDiv(value, unitsPerSecond);
+        long fraction = Math.floorMod(value, unitsPerSecond);
+        Timestamp timestamp = new Timestamp(seconds * 1000);
+        timestamp.setNanos((int) (fraction * (1_000_000_000 / unitsPerSecond)));
+        return timestamp;
+    }
+
+    /**
+     * Decoder of RLE/bit-packed hybrid encoding
+     */
+    private static class RleDecoder {
+        private final ByteBuffer buffer;
+        private final int bitWidth;
+        private final int byteWidth;
+        private int repeatCount;
+        private int repeatValue;
+        private int packedCount;
+        private int packedIndex;
+        private int packedStart;
+
+        RleDecoder(ByteBuffer buffer, int bitWidth) throws IOException {
+            if (bitWidth > 32) {
+                throw new IOException("Bad RLE bit width: " + bitWidth);
+            }
+            this.buffer = buffer;
+            this.bitWidth = bitWidth;
+            this.byteWidth = (bitWidth + 7) / 8;
+        }
+
+        int next() throws IOException {
+            while (repeatCount == 0 && packedIndex >= packedCount) {
+                readRunHeader();
+            }
+            if (repeatCount > 0) {
+                repeatCount--;
+                return repeatValue;
+            }
+            long bitOffset = (long) packedIndex * bitWidth;
+            packedIndex++;
+            int byteOffset = packedStart + (int) (bitOffset >>> 3);
+            int shift = (int) (bitOffset & 7);
+            int byteCount = (shift + bitWidth + 7) >>> 3;
+            long word = 0;
+            for (int i = 0; i < byteCount && byteOffset + i < buffer.limit(); i++) {
+                word |= (long) (buffer.get(byteOffset + i) & 0xFF) << (i * 8);
+            }
+            return (int) ((word >>> shift) & ((1L << bitWidth) - 1));
+        }
+
+        private void readRunHeader() throws IOException {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Unexpected end of RLE data");
+            }
+            int header = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = buffer.get();
+                header |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                if (shift > 21) {
+                    throw new IOException("Bad RLE run header");
+                }
+            }
+            if ((header & 1) == 0) {
+                repeatCount = header >>> 1;
+                repeatValue = 0;
+                for (int i = 0; i < byteWidth; i++) {
+                    repeatValue |= (buffer.get() & 0xFF) << (i * 8);
+                }
+            } else {
+                int groupCount = header >>> 1;
+                packedCount = groupCount * 8;
+                packedIndex = 0;
+                packedStart = buffer.position();
+                // The last run may be truncated by some writers
+                buffer.position((int) Math.min(buffer.limit(), packedStart + (long) groupCount * bitWidth));
+            }
+        }
+    }
+
+}
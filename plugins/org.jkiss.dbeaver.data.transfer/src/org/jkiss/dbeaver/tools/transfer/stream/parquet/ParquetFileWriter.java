@@ -0,0 +1,451 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes flat tables in Parquet format.
+ * <p>
+ * Rows are buffered in memory until the row group size is reached, then the row group is written
+ * to the output. So memory usage is bounded by the row group size regardless of the number of rows.
+ * Column values are written with PLAIN encoding in pages of approximately {@link #PAGE_SIZE} bytes,
+ * definition levels of optional columns use RLE/bit-packed hybrid encoding.
+ * <p>
+ * Row values must have Java types which correspond to physical column types:
+ * Boolean, Integer, Long, Float, Double and byte[] for binary types. Strings are written into BYTE_ARRAY columns in UTF-8.
+ */
+public class ParquetFileWriter {
+
+    public static final long DEFAULT_ROW_GROUP_SIZE = 64 * 1024 * 1024;
+
+    private static final int PAGE_SIZE = 1024 * 1024;
+
+    @NotNull
+    private final OutputStream out;
+    @NotNull
+    private final ParquetColumn[] columns;
+    private final int codec;
+    private final long rowGroupSize;
+    @Nullable
+    private final String createdBy;
+
+    private final ColumnWriter[] columnWriters;
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private long totalRows;
+    private int groupRows;
+
+    public ParquetFileWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ParquetColumn> columns,
+        int codec,
+        long rowGroupSize,
+        @Nullable String createdBy) throws IOException
+    {
+        if (!ParquetCompression.isSupported(codec)) {
+            throw new IOException("Compression codec " + codec + " is not supported");
+        }
+        this.out = out;
+        this.columns = columns.toArray(new ParquetColumn[0]);
+        this.codec = codec;
+        this.rowGroupSize = rowGroupSize > 0 ? rowGroupSize : DEFAULT_ROW_GROUP_SIZE;
+        this.createdBy = createdBy;
+        this.columnWriters = new ColumnWriter[this.columns.length];
+        for (int i = 0; i < columnWriters.length; i++) {
+            columnWriters[i] = new ColumnWriter(this.columns[i]);
+        }
+        write(ParquetConstants.MAGIC);
+    }
+
+    public long getRowCount() {
+        return totalRows;
+    }
+
+    public void writeRow(@NotNull Object[] values) throws IOException {
+        if (values.length != columns.length) {
+            throw new IOException("Row has " + values.length + " values while schema has " + columns.length + " columns");
+        }
+        long bufferedSize = 0;
+        for (int i = 0; i < columnWriters.length; i++) {
+            columnWriters[i].addValue(values[i]);
+            bufferedSize += columnWriters[i].getBufferedSize();
+        }
+        groupRows++;
+        totalRows++;
+        if (bufferedSize >= rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    /**
+     * Writes buffered rows and file footer. Output stream is flushed but not closed.
+     */
+    public void finish() throws IOException {
+        writeRowGroup();
+
+        ThriftCompactWriter meta = new ThriftCompactWriter();
+        meta.beginStruct();
+        meta.writeI32Field(1, 1);
+        meta.writeListFieldHeader(2, ThriftCompactWriter.TYPE_STRUCT, columns.length + 1);
+        meta.beginStruct();
+        meta.writeStringField(4, "schema");
+        meta.writeI32Field(5, columns.length);
+        meta.endStruct();
+        for (ParquetColumn column : columns) {
+            meta.beginStruct();
+            meta.writeI32Field(1, column.getType());
+            if (column.getType() == ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY) {
+                meta.writeI32Field(2, column.getTypeLength());
+            }
+            meta.writeI32Field(3, column.isOptional() ? ParquetConstants.REPETITION_OPTIONAL : ParquetConstants.REPETITION_REQUIRED);
+            meta.writeStringField(4, column.getName());
+            if (column.getConvertedType() != ParquetConstants.CONVERTED_NONE) {
+                meta.writeI32Field(6, column.getConvertedType());
+            }
+            if (column.getConvertedType() == ParquetConstants.CONVERTED_DECIMAL) {
+                meta.writeI32Field(7, column.getScale());
+                meta.writeI32Field(8, column.getPrecision());
+            }
+            meta.endStruct();
+        }
+        meta.writeI64Field(3, totalRows);
+        meta.writeListFieldHeader(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            meta.beginStruct();
+            meta.writeListFieldHeader(1, ThriftCompactWriter.TYPE_STRUCT, columns.length);
+            long totalByteSize = 0;
+            for (int i = 0; i < columns.length; i++) {
+                ColumnChunkInfo chunk = rowGroup.chunks[i];
+                totalByteSize += chunk.uncompressedSize;
+                meta.beginStruct();
+                meta.writeI64Field(2, chunk.offset);
+                meta.beginStructField(3);
+                meta.writeI32Field(1, columns[i].getType());
+                meta.writeListFieldHeader(2, ThriftCompactWriter.TYPE_I32, 2);
+                meta.writeI32(ParquetConstants.ENCODING_PLAIN);
+                meta.writeI32(ParquetConstants.ENCODING_RLE);
+                meta.writeListFieldHeader(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                meta.writeString(columns[i].getName());
+                meta.writeI32Field(4, codec);
+                meta.writeI64Field(5, chunk.valueCount);
+                meta.writeI64Field(6, chunk.uncompressedSize);
+                meta.writeI64Field(7, chunk.compressedSize);
+                meta.writeI64Field(9, chunk.offset);
+                meta.endStruct();
+                meta.endStruct();
+            }
+            meta.writeI64Field(2, totalByteSize);
+            meta.writeI64Field(3, rowGroup.rowCount);
+            meta.endStruct();
+        }
+        if (createdBy != null) {
+            meta.writeStringField(6, createdBy);
+        }
+        meta.endStruct();
+
+        byte[] footer = meta.toByteArray();
+        write(footer);
+        byte[] footerLength = new byte[4];
+        putIntLE(footerLength, 0, footer.length);
+        write(footerLength);
+        write(ParquetConstants.MAGIC);
+        out.flush();
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (groupRows == 0) {
+            return;
+        }
+        ColumnChunkInfo[] chunks = new ColumnChunkInfo[columns.length];
+        for (int i = 0; i < columnWriters.length; i++) {
+            chunks[i] = columnWriters[i].writeChunk();
+        }
+        rowGroups.add(new RowGroupInfo(chunks, groupRows));
+        groupRows = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private static void putIntLE(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Buffers values of one column
+     */
+    private class ColumnWriter {
+        private final ParquetColumn column;
+        private final PageBuffer values = new PageBuffer();
+        private byte[] levels = new byte[1024];
+        private int pageValueCount;
+        private int booleanBits;
+        private int booleanBitCount;
+
+        private final PageBuffer chunk = new PageBuffer();
+        private long chunkValueCount;
+        private long chunkUncompressedSize;
+
+        ColumnWriter(ParquetColumn column) {
+            this.column = column;
+        }
+
+        long getBufferedSize() {
+            return chunk.size() + values.size() + pageValueCount / 8;
+        }
+
+        void addValue(@Nullable Object value) throws IOException {
+            if (value == null) {
+                if (!column.isOptional()) {
+                    throw new IOException("Null value in required column '" + column.getName() + "'");
+                }
+            } else {
+                try {
+                    writeValue(value);
+                } catch (ClassCastException e) {
+                    throw new IOException("Bad value type " + value.getClass().getName() + " for column '" + column.getName() + "'", e);
+                }
+            }
+            if (pageValueCount == levels.length) {
+                levels = Arrays.copyOf(levels, levels.length * 2);
+            }
+            levels[pageValueCount++] = (byte) (value == null ? 0 : 1);
+            if (values.size() + pageValueCount / 8 >= PAGE_SIZE) {
+                writePage();
+            }
+        }
+
+        private void writeValue(@NotNull Object value) throws IOException {
+            switch (column.getType()) {
+                case ParquetConstants.TYPE_BOOLEAN:
+                    if ((Boolean) value) {
+                        booleanBits |= 1 << booleanBitCount;
+                    }
+                    if (++booleanBitCount == 8) {
+                        values.write(booleanBits);
+                        booleanBits = 0;
+                        booleanBitCount = 0;
+                    }
+                    break;
+                case ParquetConstants.TYPE_INT32:
+                    values.writeIntLE((Integer) value);
+                    break;
+                case ParquetConstants.TYPE_INT64:
+                    values.writeLongLE((Long) value);
+                    break;
+                case ParquetConstants.TYPE_FLOAT:
+                    values.writeIntLE(Float.floatToRawIntBits((Float) value));
+                    break;
+                case ParquetConstants.TYPE_DOUBLE:
+                    values.writeLongLE(Double.doubleToRawLongBits((Double) value));
+                    break;
+                case ParquetConstants.TYPE_BYTE_ARRAY: {
+                    byte[] bytes = value instanceof String ? ((String) value).getBytes(StandardCharsets.UTF_8) : (byte[]) value;
+                    values.writeIntLE(bytes.length);
+                    values.write(bytes);
+                    break;
+                }
+                case ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY: {
+                    byte[] bytes = (byte[]) value;
+                    if (bytes.length != column.getTypeLength()) {
+                        throw new IOException("Value of column '" + column.getName() + "' must have " + column.getTypeLength() + " bytes");
+                    }
+                    values.write(bytes);
+                    break;
+                }
+                default:
+                    throw new IOException("Unsupported column type " + column.getType());
+            }
+        }
+
+        private void writePage() throws IOException {
+            if (pageValueCount == 0) {
+                return;
+            }
+            if (booleanBitCount > 0) {
+                values.write(booleanBits);
+                booleanBits = 0;
+                booleanBitCount = 0;
+            }
+            PageBuffer page = new PageBuffer();
+            if (column.isOptional()) {
+                PageBuffer levelsBuffer = new PageBuffer();
+                encodeLevels(levelsBuffer, levels, pageValueCount);
+                page.writeIntLE(levelsBuffer.size());
+                levelsBuffer.writeTo(page);
+            }
+            values.writeTo(page);
+            byte[] compressed = ParquetCompression.compress(codec, page.getBuffer(), page.size());
+
+            ThriftCompactWriter header = new ThriftCompactWriter();
+            header.beginStruct();
+            header.writeI32Field(1, ParquetConstants.PAGE_DATA);
+            header.writeI32Field(2, page.size());
+            header.writeI32Field(3, compressed.length);
+            header.beginStructField(5);
+            header.writeI32Field(1, pageValueCount);
+            header.writeI32Field(2, ParquetConstants.ENCODING_PLAIN);
+            header.writeI32Field(3, ParquetConstants.ENCODING_RLE);
+            header.writeI32Field(4, ParquetConstants.ENCODING_RLE);
+            header.endStruct();
+            header.endStruct();
+            byte[] headerBytes = header.toByteArray();
+
+            chunk.write(headerBytes);
+            chunk.write(compressed);
+            chunkUncompressedSize += headerBytes.length + page.size();
+            chunkValueCount += pageValueCount;
+
+            values.reset();
+            pageValueCount = 0;
+        }
+
+        ColumnChunkInfo writeChunk() throws IOException {
+            writePage();
+            ColumnChunkInfo info = new ColumnChunkInfo(position, chunk.size(), chunkUncompressedSize, chunkValueCount);
+            out.write(chunk.getBuffer(), 0, chunk.size());
+            position += chunk.size();
+            chunk.reset();
+            chunkUncompressedSize = 0;
+            chunkValueCount = 0;
+            return info;
+        }
+    }
+
+    /**
+     * Encodes definition levels (0 or 1) with RLE/bit-packed hybrid encoding of bit width 1.
+     * Long runs of equal values are written as RLE runs, everything else is bit-packed in groups of 8 values.
+     */
+    static void encodeLevels(@NotNull PageBuffer out, @NotNull byte[] levels, int count) {
+        int pos = 0;
+        while (pos < count) {
+            int runLength = getRunLength(levels, pos, count);
+            if (runLength >= 8) {
+                out.writeVarInt(runLength << 1);
+                out.write(levels[pos]);
+                pos += runLength;
+                continue;
+            }
+            int start = pos;
+            do {
+                pos += 8;
+            } while (pos < count && getRunLength(levels, pos, count) < 8);
+            int groupCount = (pos - start) / 8;
+            out.writeVarInt((groupCount << 1) | 1);
+            for (int group = 0; group < groupCount; group++) {
+                int bits = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    int index = start + group * 8 + bit;
+                    if (index < count && levels[index] != 0) {
+                        bits |= 1 << bit;
+                    }
+                }
+                out.write(bits);
+            }
+        }
+    }
+
+    private static int getRunLength(byte[] levels, int pos, int count) {
+        int end = pos + 1;
+        while (end < count && levels[end] == levels[pos]) {
+            end++;
+        }
+        return end - pos;
+    }
+
+    /**
+     * Byte buffer with little-endian number writers
+     */
+    static class PageBuffer extends ByteArrayOutputStream {
+        PageBuffer() {
+            super(1024);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+
+        void writeIntLE(int value) {
+            write(value);
+            write(value >>> 8);
+            write(value >>> 16);
+            write(value >>> 24);
+        }
+
+        void writeLongLE(long value) {
+            writeIntLE((int) value);
+            writeIntLE((int) (value >>> 32));
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        @Override
+        public void write(byte[] b) {
+            write(b, 0, b.length);
+        }
+
+        void writeTo(PageBuffer target) {
+            target.write(buf, 0, count);
+        }
+    }
+
+    private static class ColumnChunkInfo {
+        final long offset;
+        final long compressedSize;
+        final long uncompressedSize;
+        final long valueCount;
+
+        ColumnChunkInfo(long offset, long compressedSize, long uncompressedSize, long valueCount) {
+            this.offset = offset;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.valueCount = valueCount;
+        }
+    }
+
+    private static class RowGroupInfo {
+        final ColumnChunkInfo[] chunks;
+        final long rowCount;
+
+        RowGroupInfo(ColumnChunkInfo[] chunks, long rowCount) {
+            this.chunks = chunks;
+            this.rowCount = rowCount;
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader of Thrift compact protocol structures.
+ * <p>
+ * Structures are read into generic {@link Struct} objects. Integers are represented as longs,
+ * binaries as byte arrays, lists as lists. Maps and sets are skipped.
+ */
+class ThriftCompactReader {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final ByteBuffer buffer;
+
+    ThriftCompactReader(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads structure starting at the current buffer position. Position is moved after the structure.
+     */
+    @NotNull
+    Struct readStruct() throws IOException {
+        try {
+            return readStruct(0);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of Thrift structure", e);
+        }
+    }
+
+    private Struct readStruct(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Thrift structure is too deep");
+        }
+        Struct struct = new Struct();
+        int lastFieldId = 0;
+        for (;;) {
+            int header = buffer.get() & 0xFF;
+            if (header == 0) {
+                return struct;
+            }
+            int type = header & 0x0F;
+            int delta = header >>> 4;
+            int fieldId = delta != 0 ? lastFieldId + delta : (int) unzigzag(readVarLong());
+            lastFieldId = fieldId;
+            Object value;
+            if (type == ThriftCompactWriter.TYPE_BOOLEAN_TRUE) {
+                value = Boolean.TRUE;
+            } else if (type == ThriftCompactWriter.TYPE_BOOLEAN_FALSE) {
+                value = Boolean.FALSE;
+            } else {
+                value = readValue(type, depth);
+            }
+            if (value != null) {
+                struct.fields.put(fieldId, value);
+            }
+        }
+    }
+
+    @Nullable
+    private Object readValue(int type, int depth) throws IOException {
+        switch (type) {
+            case ThriftCompactWriter.TYPE_BOOLEAN_TRUE:
+            case ThriftCompactWriter.TYPE_BOOLEAN_FALSE:
+                // Boolean list element
+                return buffer.get() == ThriftCompactWriter.TYPE_BOOLEAN_TRUE;
+            case ThriftCompactWriter.TYPE_BYTE:
+                return (long) buffer.get();
+            case ThriftCompactWriter.TYPE_I16:
+            case ThriftCompactWriter.TYPE_I32:
+            case ThriftCompactWriter.TYPE_I64:
+                return unzigzag(readVarLong());
+            case ThriftCompactWriter.TYPE_DOUBLE:
+                return Double.longBitsToDouble(Long.reverseBytes(buffer.getLong()));
+            case ThriftCompactWriter.TYPE_BINARY: {
+                int length = readLength();
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                return bytes;
+            }
+            case ThriftCompactWriter.TYPE_LIST:
+            case ThriftCompactWriter.TYPE_SET: {
+                int header = buffer.get() & 0xFF;
+                int size = header >>> 4;
+                if (size == 15) {
+                    size = readLength();
+                }
+                int elementType = header & 0x0F;
+                List<Object> list = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(elementType, depth + 1));
+                }
+                return type == ThriftCompactWriter.TYPE_LIST ? list : null;
+            }
+            case ThriftCompactWriter.TYPE_MAP: {
+                int size = readLength();
+                if (size > 0) {
+                    int types = buffer.get() & 0xFF;
+                    for (int i = 0; i < size; i++) {
+                        readValue(types >>> 4, depth + 1);
+                        readValue(types & 0x0F, depth + 1);
+                    }
+                }
+                return null;
+            }
+            case ThriftCompactWriter.TYPE_STRUCT:
+                return readStruct(depth + 1);
+            default:
+                throw new IOException("Unsupported Thrift type " + type);
+        }
+    }
+
+    private int readLength() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Bad Thrift value length: " + length);
+        }
+        return (int) length;
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Bad Thrift variable length integer");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Generic Thrift structure. Fields are accessed by their ids.
+     */
+    static class Struct {
+        private final Map<Integer, Object> fields = new HashMap<>();
+
+        boolean has(int id) {
+            return fields.containsKey(id);
+        }
+
+        int getInt(int id, int defaultValue) {
+            Object value = fields.get(id);
+            return value instanceof Long ? (int) (long) (Long) value : defaultValue;
+        }
+
+        long getLong(int id, long defaultValue) {
+            Object value = fields.get(id);
+            return value instanceof Long ? (Long) value : defaultValue;
+        }
+
+        boolean getBoolean(int id, boolean defaultValue) {
+            Object value = fields.get(id);
+            return value instanceof Boolean ? (Boolean) value : defaultValue;
+        }
+
+        @Nullable
+        String getString(int id) {
+            Object value = fields.get(id);
+            return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : null;
+        }
+
+        @Nullable
+        Struct getStruct(int id) {
+            Object value = fields.get(id);
+            return value instanceof Struct ? (Struct) value : null;
+        }
+
+        @NotNull
+        List<?> getList(int id) {
+            Object value = fields.get(id);
+            return value instanceof List ? (List<?>) value : Collections.emptyList();
+        }
+
+        /**
+         * Returns the first set field of a union
+         */
+        int getUnionField() {
+            return fields.isEmpty() ? -1 : fields.keySet().iterator().next();
+        }
+    }
+
+}
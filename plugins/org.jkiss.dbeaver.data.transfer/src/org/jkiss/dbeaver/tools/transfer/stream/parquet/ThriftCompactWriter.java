@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer of Thrift compact protocol structures.
+ * Parquet file metadata and page headers are encoded with this protocol.
+ * <p>
+ * Fields must be written in ascending order of their ids. Nested structures
+ * and structures in lists are opened with {@link #beginStruct()} and closed with {@link #endStruct()}.
+ */
+class ThriftCompactWriter {
+
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_DOUBLE = 7;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_SET = 10;
+    static final int TYPE_MAP = 11;
+    static final int TYPE_STRUCT = 12;
+
+    private static final int MAX_DEPTH = 32;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final short[] lastFieldIds = new short[MAX_DEPTH];
+    private int depth;
+
+    void beginStruct() {
+        lastFieldIds[++depth] = 0;
+    }
+
+    void endStruct() {
+        out.write(0);
+        depth--;
+    }
+
+    void writeI32Field(int id, int value) {
+        writeFieldHeader(id, TYPE_I32);
+        writeVarLong(zigzag(value));
+    }
+
+    void writeI64Field(int id, long value) {
+        writeFieldHeader(id, TYPE_I64);
+        writeVarLong(zigzag(value));
+    }
+
+    void writeBooleanField(int id, boolean value) {
+        writeFieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void writeStringField(int id, @NotNull String value) {
+        writeFieldHeader(id, TYPE_BINARY);
+        writeString(value);
+    }
+
+    /**
+     * Writes header of structure field. Field content must be closed with {@link #endStruct()}
+     */
+    void beginStructField(int id) {
+        writeFieldHeader(id, TYPE_STRUCT);
+        beginStruct();
+    }
+
+    /**
+     * Writes header of list field. List elements must be written right after it.
+     */
+    void writeListFieldHeader(int id, int elementType, int size) {
+        writeFieldHeader(id, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            writeVarLong(size);
+        }
+    }
+
+    void writeI32(int value) {
+        writeVarLong(zigzag(value));
+    }
+
+    void writeString(@NotNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    int size() {
+        return out.size();
+    }
+
+    @NotNull
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void writeFieldHeader(int id, int type) {
+        int delta = id - lastFieldIds[depth];
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            writeVarLong(zigzag(id));
+        }
+        lastFieldIds[depth] = (short) id;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
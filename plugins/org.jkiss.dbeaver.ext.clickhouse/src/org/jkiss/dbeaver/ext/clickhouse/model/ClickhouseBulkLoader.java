@@ -0,0 +1,566 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.clickhouse.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.*;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk loader based on {@code INSERT ... FORMAT RowBinary}.
+ * <p>
+ * Rows are encoded in ClickHouse RowBinary format and buffered. On each flush the buffer is streamed to the server
+ * with {@code sendRowBinaryStream} of ClickHouse JDBC driver, so the server doesn't need to parse values.
+ * If some column type has no binary encoder then bulk load is not used.
+ */
+public class ClickhouseBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(ClickhouseBulkLoader.class);
+
+    // Flush rows when buffer exceeds this size even if batch is not finished
+    private static final int MAX_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private final ClickhouseDataSource dataSource;
+    private String insertQuery;
+    private Class<?> callbackClass;
+    private Method sendMethod;
+    private DBSAttributeBase[] attributes;
+    private ValueEncoder[] encoders;
+
+    private RowBuffer buffer = new RowBuffer();
+    private int bufferRows;
+    private long totalRows;
+
+    public ClickhouseBulkLoader(ClickhouseDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        ClickhouseTable table = (ClickhouseTable) dataContainer;
+        this.attributes = attributes;
+        this.encoders = new ValueEncoder[attributes.length];
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        for (int i = 0; i < attributes.length; i++) {
+            DBSAttributeBase attr = attributes[i];
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(dataSource, attr.getName()));
+            Map<String, Integer> enumEntries = attr instanceof ClickhouseTableColumn ?
+                ((ClickhouseTableColumn) attr).getEnumEntries() : Collections.emptyMap();
+            encoders[i] = getEncoder(CommonUtils.notEmpty(attr.getFullTypeName()).trim(), enumEntries);
+            if (encoders[i] == null) {
+                throw new DBCException("Column " + attr.getName() + " type " + attr.getFullTypeName() + " can't be loaded in RowBinary format");
+            }
+            encoders[i].valueHandler = DBUtils.findValueHandler(session, attr);
+            encoders[i].attribute = attr;
+        }
+        query.append(")");
+        insertQuery = query.toString();
+
+        try {
+            // Legacy (ru.yandex) driver API: sendRowBinaryStream(String sql, ClickHouseStreamCallback callback)
+            Connection connection = ((JDBCSession) session).getOriginal();
+            ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+            callbackClass = Class.forName("ru.yandex.clickhouse.util.ClickHouseStreamCallback", true, driverClassLoader);
+            try (Statement statement = connection.createStatement()) {
+                sendMethod = statement.getClass().getMethod("sendRowBinaryStream", String.class, callbackClass);
+            }
+        } catch (Exception e) {
+            throw new DBCException("Driver doesn't support RowBinary streams", e);
+        }
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        for (int i = 0; i < encoders.length; i++) {
+            Object value = attributeValues[i];
+            if (value instanceof DBDContent) {
+                value = readContent(session, (DBDContent) value);
+            }
+            try {
+                encoders[i].write(buffer, value);
+            } catch (DBCException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DBCException("Can't encode value of column " + attributes[i].getName(), e);
+            }
+        }
+        bufferRows++;
+        if (buffer.size >= MAX_BUFFER_SIZE) {
+            flushRows(session);
+        }
+    }
+
+    @Nullable
+    private static byte[] readContent(@NotNull DBCSession session, @NotNull DBDContent content) throws DBCException {
+        try {
+            DBDContentStorage storage = content.getContents(session.getProgressMonitor());
+            if (storage == null) {
+                return null;
+            }
+            try (InputStream stream = storage.getContentStream()) {
+                return stream.readAllBytes();
+            }
+        } catch (Exception e) {
+            throw new DBCException("Error reading content", e);
+        } finally {
+            content.release();
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (bufferRows == 0) {
+            return;
+        }
+        session.getProgressMonitor().subTask("Insert " + bufferRows + " rows");
+        final byte[] data = Arrays.copyOf(buffer.data, buffer.size);
+        Object callback = Proxy.newProxyInstance(callbackClass.getClassLoader(), new Class[] { callbackClass }, (proxy, method, args) -> {
+            if (method.getName().equals("writeTo")) {
+                // ClickHouseRowBinaryStream.writeBytes(byte[])
+                Object stream = args[0];
+                try {
+                    stream.getClass().getMethod("writeBytes", byte[].class).invoke(stream, (Object) data);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                return null;
+            } else if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            return "RowBinary stream callback";
+        });
+        Connection connection = ((JDBCSession) session).getOriginal();
+        try (Statement statement = connection.createStatement()) {
+            sendMethod.invoke(statement, insertQuery, callback);
+        } catch (Throwable e) {
+            if (e instanceof InvocationTargetException) {
+                e = ((InvocationTargetException) e).getTargetException();
+            }
+            throw new DBCException("Error inserting data on remote server", e);
+        }
+        totalRows += bufferRows;
+        buffer.size = 0;
+        bufferRows = 0;
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        flushRows(session);
+        log.debug("Data has been inserted (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        bufferRows = 0;
+    }
+
+    ////////////////////////////////////////////////////////
+    // Binary encoders
+
+    @Nullable
+    private static ValueEncoder getEncoder(@NotNull String type, @NotNull Map<String, Integer> enumEntries) {
+        String typeName = type;
+        String typeArgs = null;
+        int divPos = type.indexOf('(');
+        if (divPos > 0 && type.endsWith(")")) {
+            typeName = type.substring(0, divPos).trim();
+            typeArgs = type.substring(divPos + 1, type.length() - 1).trim();
+        }
+        switch (typeName) {
+            case "Nullable": {
+                ValueEncoder nested = typeArgs == null ? null : getEncoder(typeArgs, enumEntries);
+                return nested == null ? null : new NullableEncoder(nested);
+            }
+            case "LowCardinality":
+                // Transparent in RowBinary
+                return typeArgs == null ? null : getEncoder(typeArgs, enumEntries);
+            case "Bool":
+            case "Boolean":
+            case "Int8":
+            case "UInt8":
+                return new IntegerEncoder(1);
+            case "Int16":
+            case "UInt16":
+                return new IntegerEncoder(2);
+            case "Int32":
+            case "UInt32":
+                return new IntegerEncoder(4);
+            case "Int64":
+            case "UInt64":
+                return new IntegerEncoder(8);
+            case "Int128":
+            case "UInt128":
+                return new IntegerEncoder(16);
+            case "Int256":
+            case "UInt256":
+                return new IntegerEncoder(32);
+            case "Float32":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) {
+                        buffer.writeLE(Float.floatToIntBits(toNumber(value).floatValue()), 4);
+                    }
+                };
+            case "Float64":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) {
+                        buffer.writeLE(Double.doubleToLongBits(toNumber(value).doubleValue()), 8);
+                    }
+                };
+            case "Decimal":
+            case "Decimal32":
+            case "Decimal64":
+            case "Decimal128":
+            case "Decimal256":
+                return typeArgs == null ? null : getDecimalEncoder(typeName, typeArgs);
+            case "String":
+                return new StringEncoder(-1);
+            case "FixedString":
+                return typeArgs == null ? null : new StringEncoder(CommonUtils.toInt(typeArgs));
+            case "UUID":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) {
+                        UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString());
+                        buffer.writeLE(uuid.getMostSignificantBits(), 8);
+                        buffer.writeLE(uuid.getLeastSignificantBits(), 8);
+                    }
+                };
+            case "Date":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) throws DBCException {
+                        buffer.writeLE(toLocalDate(value).toEpochDay(), 2);
+                    }
+                };
+            case "Date32":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) throws DBCException {
+                        buffer.writeLE(toLocalDate(value).toEpochDay(), 4);
+                    }
+                };
+            case "DateTime":
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) throws DBCException {
+                        buffer.writeLE(toInstant(value).getEpochSecond(), 4);
+                    }
+                };
+            case "DateTime64": {
+                if (typeArgs == null) {
+                    return null;
+                }
+                int commaPos = typeArgs.indexOf(',');
+                int precision = CommonUtils.toInt((commaPos < 0 ? typeArgs : typeArgs.substring(0, commaPos)).trim(), 3);
+                long multiplier = BigInteger.TEN.pow(precision).longValue();
+                long divider = BigInteger.TEN.pow(Math.max(0, 9 - precision)).longValue();
+                return new ValueEncoder() {
+                    @Override
+                    void encode(RowBuffer buffer, Object value) throws DBCException {
+                        Instant instant = toInstant(value);
+                        buffer.writeLE(instant.getEpochSecond() * multiplier + instant.getNano() / divider, 8);
+                    }
+                };
+            }
+            case "Enum8":
+            case "Enum16":
+                return enumEntries.isEmpty() ? null : new EnumEncoder(typeName.equals("Enum8") ? 1 : 2, enumEntries);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static ValueEncoder getDecimalEncoder(@NotNull String typeName, @NotNull String typeArgs) {
+        int size;
+        int scale;
+        if (typeName.equals("Decimal")) {
+            // Decimal(P, S). Storage size depends on precision
+            String[] args = typeArgs.split(",");
+            int precision = CommonUtils.toInt(args[0].trim());
+            scale = args.length > 1 ? CommonUtils.toInt(args[1].trim()) : 0;
+            size = precision <= 9 ? 4 : precision <= 18 ? 8 : precision <= 38 ? 16 : 32;
+        } else {
+            // DecimalN(S)
+            size = CommonUtils.toInt(typeName.substring("Decimal".length())) / 8;
+            scale = CommonUtils.toInt(typeArgs);
+        }
+        return new ValueEncoder() {
+            @Override
+            void encode(RowBuffer buffer, Object value) {
+                BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+                buffer.writeLE(decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue(), size);
+            }
+        };
+    }
+
+    @NotNull
+    private static Number toNumber(@NotNull Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(@NotNull Object value) throws DBCException {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate();
+        }
+        return toInstant(value).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value) throws DBCException {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toInstant();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).toInstant();
+        } else if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof Temporal) {
+            return Instant.from((Temporal) value);
+        } else if (value instanceof Number) {
+            return Instant.ofEpochMilli(((Number) value).longValue());
+        }
+        throw new DBCException("Can't convert " + value.getClass().getName() + " to date/time");
+    }
+
+    private abstract static class ValueEncoder {
+        DBSAttributeBase attribute;
+        DBDValueHandler valueHandler;
+
+        void write(RowBuffer buffer, Object value) throws DBCException {
+            if (DBUtils.isNullValue(value)) {
+                throw new DBCException("NULL value in not nullable column " + attribute.getName());
+            }
+            encode(buffer, value);
+        }
+
+        abstract void encode(RowBuffer buffer, Object value) throws DBCException;
+    }
+
+    private static class NullableEncoder extends ValueEncoder {
+        private final ValueEncoder nested;
+
+        NullableEncoder(ValueEncoder nested) {
+            this.nested = nested;
+        }
+
+        @Override
+        void write(RowBuffer buffer, Object value) throws DBCException {
+            if (DBUtils.isNullValue(value)) {
+                buffer.writeByte(1);
+            } else {
+                buffer.writeByte(0);
+                nested.encode(buffer, value);
+            }
+        }
+
+        @Override
+        void encode(RowBuffer buffer, Object value) throws DBCException {
+            nested.encode(buffer, value);
+        }
+    }
+
+    private static class IntegerEncoder extends ValueEncoder {
+        private final int size;
+
+        IntegerEncoder(int size) {
+            this.size = size;
+        }
+
+        @Override
+        void encode(RowBuffer buffer, Object value) {
+            Number number = toNumber(value);
+            if (size > 8 || number instanceof BigInteger || number instanceof BigDecimal) {
+                BigInteger bigValue = number instanceof BigInteger ? (BigInteger) number :
+                    number instanceof BigDecimal ? ((BigDecimal) number).toBigInteger() : BigInteger.valueOf(number.longValue());
+                buffer.writeLE(bigValue, size);
+            } else {
+                buffer.writeLE(number.longValue(), size);
+            }
+        }
+    }
+
+    private static class EnumEncoder extends ValueEncoder {
+        private final int size;
+        private final Map<String, Integer> entries;
+
+        EnumEncoder(int size, Map<String, Integer> entries) {
+            this.size = size;
+            this.entries = entries;
+        }
+
+        @Override
+        void encode(RowBuffer buffer, Object value) throws DBCException {
+            Integer code = value instanceof Number ? Integer.valueOf(((Number) value).intValue()) : entries.get(value.toString());
+            if (code == null) {
+                throw new DBCException("Unknown enum value '" + value + "' of column " + attribute.getName());
+            }
+            buffer.writeLE(code, size);
+        }
+    }
+
+    private static class StringEncoder extends ValueEncoder {
+        private final int fixedLength;
+
+        StringEncoder(int fixedLength) {
+            this.fixedLength = fixedLength;
+        }
+
+        @Override
+        void encode(RowBuffer buffer, Object value) {
+            byte[] bytes;
+            if (value instanceof byte[]) {
+                bytes = (byte[]) value;
+            } else if (value instanceof String) {
+                bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            } else {
+                bytes = valueHandler.getValueDisplayString(attribute, value, DBDDisplayFormat.NATIVE).getBytes(StandardCharsets.UTF_8);
+            }
+            if (fixedLength < 0) {
+                buffer.writeUnsignedLeb128(bytes.length);
+                buffer.write(bytes, bytes.length);
+            } else {
+                // Padded with zeros
+                int length = Math.min(bytes.length, fixedLength);
+                buffer.write(bytes, length);
+                for (int i = length; i < fixedLength; i++) {
+                    buffer.writeByte(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Little-endian rows buffer
+     */
+    private static class RowBuffer {
+        private byte[] data = new byte[64 * 1024];
+        private int size;
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            data[size++] = (byte) b;
+        }
+
+        void writeLE(long value, int length) {
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                data[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeLE(BigInteger value, int length) {
+            // Two's complement big-endian representation, sign-extended to the required length
+            byte[] bytes = value.toByteArray();
+            byte fill = value.signum() < 0 ? (byte) 0xFF : 0;
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                data[size++] = i < bytes.length ? bytes[bytes.length - 1 - i] : fill;
+            }
+        }
+
+        void writeUnsignedLeb128(int value) {
+            ensureCapacity(5);
+            do {
+                byte b = (byte) (value & 0x7F);
+                value >>>= 7;
+                if (value != 0) {
+                    b |= 0x80;
+                }
+                data[size++] = b;
+            } while (value != 0);
+        }
+
+        void write(byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, data, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.*;
+
+/**
+ * Bulk loader based on SQLServerBulkCopy API of Microsoft JDBC driver.
+ * <p>
+ * Rows are collected in batches. Each batch is sent to the server with {@code writeToServer}
+ * which uses TDS bulk load protocol instead of INSERT statements.
+ */
+public class SQLServerBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(SQLServerBulkLoader.class);
+
+    private final SQLServerDataSource dataSource;
+    private DBSAttributeBase[] attributes;
+    private Object bulkCopy;
+    private Method writeToServerMethod;
+    private Class<?> bulkDataClass;
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private long totalRows;
+
+    public SQLServerBulkLoader(SQLServerDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        SQLServerTableBase table = (SQLServerTableBase) dataContainer;
+        this.attributes = attributes;
+        try {
+            // Use reflection to create bulk copy
+            Connection connection = ((JDBCSession) session).getOriginal();
+            ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+
+            Class<?> bulkCopyClass = Class.forName("com.microsoft.sqlserver.jdbc.SQLServerBulkCopy", true, driverClassLoader);
+            Class<?> optionsClass = Class.forName("com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions", true, driverClassLoader);
+            for (Method method : bulkCopyClass.getMethods()) {
+                // writeToServer(ISQLServerBulkData) in recent drivers, writeToServer(ISQLServerBulkRecord) in old ones
+                Class<?>[] paramTypes = method.getParameterTypes();
+                if (method.getName().equals("writeToServer") && paramTypes.length == 1 &&
+                    paramTypes[0].isInterface() && paramTypes[0].getName().startsWith("com.microsoft.sqlserver.jdbc.ISQLServerBulk"))
+                {
+                    writeToServerMethod = method;
+                    bulkDataClass = paramTypes[0];
+                    break;
+                }
+            }
+            if (writeToServerMethod == null) {
+                throw new DBCException("Bulk copy data interface not found in driver");
+            }
+
+            bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+
+            boolean keepIdentity = false;
+            for (DBSAttributeBase attr : attributes) {
+                if (attr.isAutoGenerated()) {
+                    keepIdentity = true;
+                    break;
+                }
+            }
+            Object bulkOptions = optionsClass.getConstructor().newInstance();
+            optionsClass.getMethod("setBatchSize", Integer.TYPE).invoke(bulkOptions, batchSize);
+            optionsClass.getMethod("setKeepIdentity", Boolean.TYPE).invoke(bulkOptions, keepIdentity);
+            optionsClass.getMethod("setKeepNulls", Boolean.TYPE).invoke(bulkOptions, true);
+            // Without timeout (default is 60 seconds)
+            optionsClass.getMethod("setBulkCopyTimeout", Integer.TYPE).invoke(bulkOptions, 0);
+            bulkCopyClass.getMethod("setBulkCopyOptions", optionsClass).invoke(bulkCopy, bulkOptions);
+
+            bulkCopyClass.getMethod("setDestinationTableName", String.class).invoke(
+                bulkCopy, table.getFullyQualifiedName(DBPEvaluationContext.DML));
+            Method addColumnMappingMethod = bulkCopyClass.getMethod("addColumnMapping", Integer.TYPE, String.class);
+            for (int i = 0; i < attributes.length; i++) {
+                addColumnMappingMethod.invoke(bulkCopy, i + 1, attributes[i].getName());
+            }
+        } catch (DBCException e) {
+            throw e;
+        } catch (Throwable e) {
+            if (e instanceof InvocationTargetException) {
+                e = ((InvocationTargetException) e).getTargetException();
+            }
+            throw new DBCException("Can't instantiate SQLServerBulkCopy", e);
+        }
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        Object[] row = new Object[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            row[i] = getBulkValue(session, i, attributeValues[i]);
+        }
+        rows.add(row);
+    }
+
+    private Object getBulkValue(@NotNull DBCSession session, int index, Object value) throws DBCException {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof DBDContent) {
+            DBDContent content = (DBDContent) value;
+            try {
+                DBDContentStorage storage = content.getContents(session.getProgressMonitor());
+                if (storage == null) {
+                    return null;
+                }
+                if (ContentUtils.isTextContent(content)) {
+                    try (Reader reader = storage.getContentReader()) {
+                        return IOUtils.readToString(reader);
+                    }
+                }
+                try (InputStream stream = storage.getContentStream()) {
+                    return stream.readAllBytes();
+                }
+            } catch (Exception e) {
+                throw new DBCException("Error reading content of column " + attributes[index].getName(), e);
+            } finally {
+                content.release();
+            }
+        }
+        if (value instanceof DBDValue) {
+            return ((DBDValue) value).getRawValue();
+        }
+        return value;
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        session.getProgressMonitor().subTask("Bulk copy " + rows.size() + " rows");
+        Object bulkData = Proxy.newProxyInstance(
+            bulkDataClass.getClassLoader(),
+            new Class[] { bulkDataClass },
+            new BulkDataHandler(rows.iterator()));
+        try {
+            writeToServerMethod.invoke(bulkCopy, bulkData);
+        } catch (Throwable e) {
+            if (e instanceof InvocationTargetException) {
+                e = ((InvocationTargetException) e).getTargetException();
+            }
+            throw new DBCException("Error copying dataset on remote server", e);
+        }
+        totalRows += rows.size();
+        rows.clear();
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        flushRows(session);
+
+        // Commit changes
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit bulk copy");
+            txnManager.commit(session);
+        }
+
+        log.debug("Data has been copied (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        if (bulkCopy != null) {
+            try {
+                bulkCopy.getClass().getMethod("close").invoke(bulkCopy);
+            } catch (Throwable e) {
+                log.debug("Error closing bulk copy", e);
+            }
+            bulkCopy = null;
+        }
+    }
+
+    /**
+     * Implements driver's bulk data interface over buffered rows
+     */
+    private class BulkDataHandler implements InvocationHandler {
+        private final Iterator<Object[]> iterator;
+        private Object[] currentRow;
+
+        BulkDataHandler(@NotNull Iterator<Object[]> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "next":
+                    currentRow = iterator.hasNext() ? iterator.next() : null;
+                    return currentRow != null;
+                case "getRowData":
+                    return currentRow;
+                case "getColumnOrdinals": {
+                    Set<Integer> ordinals = new LinkedHashSet<>();
+                    for (int i = 1; i <= attributes.length; i++) {
+                        ordinals.add(i);
+                    }
+                    return ordinals;
+                }
+                case "getColumnName":
+                    return getAttribute(args).getName();
+                case "getColumnType":
+                    return getAttribute(args).getTypeID();
+                case "getPrecision": {
+                    DBSAttributeBase attribute = getAttribute(args);
+                    Integer precision = attribute.getPrecision();
+                    return precision != null && precision > 0 ? precision : (int) Math.min(attribute.getMaxLength(), Integer.MAX_VALUE);
+                }
+                case "getScale":
+                    return CommonUtils.toInt(getAttribute(args).getScale());
+                case "isAutoIncrement":
+                    return getAttribute(args).isAutoGenerated();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Bulk data of " + attributes.length + " columns";
+                default: {
+                    // Optional methods (e.g. timestamp formats)
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == Boolean.TYPE) {
+                        return false;
+                    } else if (returnType == Integer.TYPE) {
+                        return 0;
+                    }
+                    return null;
+                }
+            }
+        }
+
+        private DBSAttributeBase getAttribute(Object[] args) {
+            return attributes[((Integer) args[0]) - 1];
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Bulk loader based on LOAD DATA LOCAL INFILE.
+ * <p>
+ * Rows are encoded in MySQL text format and buffered. On each flush the buffer is fed to
+ * {@code LOAD DATA LOCAL INFILE} as an input stream, so no temporary files are created.
+ * Requires local infile support enabled in driver ({@code allowLoadLocalInfile}) and server ({@code local_infile}).
+ */
+public class MySQLBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(MySQLBulkLoader.class);
+
+    // Flush rows when buffer exceeds this size even if batch is not finished
+    private static final int MAX_BUFFER_SIZE = 8 * 1024 * 1024;
+    // Number of warning messages included into the load error
+    private static final int MAX_REPORTED_WARNINGS = 10;
+
+    private final MySQLDataSource dataSource;
+    private String loadQuery;
+    private Method setInputStreamMethod;
+    private DBSAttributeBase[] attributes;
+    private DBDValueHandler[] valueHandlers;
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int bufferSize;
+    private int bufferRows;
+    private long totalRows;
+
+    public MySQLBulkLoader(MySQLDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        MySQLTableBase table = (MySQLTableBase) dataContainer;
+        this.attributes = attributes;
+        this.valueHandlers = new DBDValueHandler[attributes.length];
+        StringBuilder query = new StringBuilder();
+        query.append("LOAD DATA LOCAL INFILE 'stream' INTO TABLE ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML));
+        query.append(" CHARACTER SET ").append(dataSource.isMariaDB() || dataSource.isServerVersionAtLeast(5, 5) ? "utf8mb4" : "utf8");
+        query.append(" FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(dataSource, attributes[i].getName()));
+            valueHandlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+        }
+        query.append(")");
+        loadQuery = query.toString();
+
+        try {
+            Connection connection = ((JDBCSession) session).getOriginal();
+            try (Statement statement = connection.createStatement()) {
+                // Connector/J and MariaDB (2.x) drivers
+                setInputStreamMethod = statement.getClass().getMethod("setLocalInfileInputStream", InputStream.class);
+            }
+        } catch (Exception e) {
+            throw new DBCException("Driver doesn't support LOAD DATA from stream", e);
+        }
+        // Local infile may be disabled on client or server side. Check it with empty load.
+        executeLoad(session, new byte[0], 0);
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) {
+                writeByte('\t');
+            }
+            writeValue(session, i, attributeValues[i]);
+        }
+        writeByte('\n');
+        bufferRows++;
+        if (bufferSize >= MAX_BUFFER_SIZE) {
+            flushRows(session);
+        }
+    }
+
+    private void writeValue(@NotNull DBCSession session, int index, Object value) throws DBCException {
+        if (DBUtils.isNullValue(value)) {
+            writeByte('\\');
+            writeByte('N');
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? '1' : '0');
+        } else if (value instanceof BigDecimal) {
+            writeEscaped(((BigDecimal) value).toPlainString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Number) {
+            writeEscaped(value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            writeEscaped((byte[]) value);
+        } else if (value instanceof DBDContent) {
+            DBDContent content = (DBDContent) value;
+            try {
+                DBDContentStorage storage = content.getContents(session.getProgressMonitor());
+                if (storage == null) {
+                    writeValue(session, index, null);
+                } else {
+                    try (InputStream stream = storage.getContentStream()) {
+                        writeEscaped(stream.readAllBytes());
+                    }
+                }
+            } catch (Exception e) {
+                throw new DBCException("Error reading content of column " + attributes[index].getName(), e);
+            } finally {
+                content.release();
+            }
+        } else {
+            String strValue = valueHandlers[index].getValueDisplayString(attributes[index], value, DBDDisplayFormat.NATIVE);
+            writeEscaped(strValue.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeEscaped(byte[] bytes) {
+        ensureCapacity(bytes.length * 2);
+        for (byte b : bytes) {
+            byte escaped;
+            switch (b) {
+                case '\\':
+                    escaped = '\\';
+                    break;
+                case '\t':
+                    escaped = 't';
+                    break;
+                case '\n':
+                    escaped = 'n';
+                    break;
+                case '\r':
+                    escaped = 'r';
+                    break;
+                case 0:
+                    escaped = '0';
+                    break;
+                default:
+                    buffer[bufferSize++] = b;
+                    continue;
+            }
+            buffer[bufferSize++] = '\\';
+            buffer[bufferSize++] = escaped;
+        }
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        buffer[bufferSize++] = (byte) c;
+    }
+
+    private void ensureCapacity(int length) {
+        if (bufferSize + length > buffer.length) {
+            byte[] newBuffer = new byte[Math.max(buffer.length * 2, bufferSize + length)];
+            System.arraycopy(buffer, 0, newBuffer, 0, bufferSize);
+            buffer = newBuffer;
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (bufferRows == 0) {
+            return;
+        }
+        session.getProgressMonitor().subTask("Load " + bufferRows + " rows");
+        executeLoad(session, buffer, bufferSize);
+        totalRows += bufferRows;
+        bufferSize = 0;
+        bufferRows = 0;
+    }
+
+    /**
+     * LOAD DATA LOCAL reports duplicate keys and value conversion errors as warnings and skips/truncates such rows.
+     * Treat any warning as a load error, otherwise data is lost silently.
+     */
+    private static void checkLoadWarnings(@NotNull Statement statement) throws SQLException, DBCException {
+        int warningCount = 0;
+        try (ResultSet dbResult = statement.executeQuery("SHOW COUNT(*) WARNINGS")) {
+            if (dbResult.next()) {
+                warningCount = dbResult.getInt(1);
+            }
+        }
+        if (warningCount <= 0) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        message.append("LOAD DATA finished with ").append(warningCount)
+            .append(" warning(s), some rows were skipped or converted");
+        try (ResultSet dbResult = statement.executeQuery("SHOW WARNINGS LIMIT " + MAX_REPORTED_WARNINGS)) {
+            while (dbResult.next()) {
+                message.append("\n").append(dbResult.getString("Level"))
+                    .append(" (").append(dbResult.getInt("Code")).append("): ")
+                    .append(dbResult.getString("Message"));
+            }
+        }
+        throw new DBCException(message.toString());
+    }
+
+    private void executeLoad(@NotNull DBCSession session, byte[] data, int length) throws DBCException {
+        try (Statement statement = ((JDBCSession) session).getOriginal().createStatement()) {
+            setInputStreamMethod.invoke(statement, new ByteArrayInputStream(data, 0, length));
+            statement.execute(loadQuery);
+            checkLoadWarnings(statement);
+        } catch (InvocationTargetException e) {
+            throw new DBCException("Error loading data on remote server", e.getTargetException());
+        } catch (SQLException | IllegalAccessException e) {
+            throw new DBCException("Error loading data on remote server", e);
+        }
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        flushRows(session);
+
+        // Commit changes
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit LOAD DATA");
+            txnManager.commit(session);
+        }
+
+        log.debug("Data has been loaded (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        bufferSize = 0;
+        bufferRows = 0;
+    }
+
+}
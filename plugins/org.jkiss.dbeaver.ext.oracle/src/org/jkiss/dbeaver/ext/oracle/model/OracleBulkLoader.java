@@ -0,0 +1,228 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.oracle.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulk loader based on array DML.
+ * <p>
+ * INSERT statement is prepared once for each set of omitted columns. Rows are added to the statement batch which
+ * Oracle driver sends as one array bind, so thousands of rows are inserted in one round trip.
+ * Generated columns are never inserted. Columns with default value are omitted for rows where the value is NULL
+ * (the same way as in regular insert), so the default is applied. Other NULLs are bound with column SQL type.
+ * Loaded data is committed in the end of bulk load unless transactions are disabled in options.
+ */
+public class OracleBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(OracleBulkLoader.class);
+
+    // Maximum number of rows in one array bind. Bigger arrays consume client memory without noticeable speedup
+    private static final int MAX_ARRAY_SIZE = 5000;
+
+    private final OracleDataSource dataSource;
+    private OracleTableBase table;
+    private DBSAttributeBase[] attributes;
+    private DBDValueHandler[] valueHandlers;
+    private boolean[] generatedAttributes;
+    private boolean[] defaultedAttributes;
+    private DBCExecutionSource source;
+    // Statements by omitted columns
+    private final Map<BitSet, ArrayStatement> statements = new HashMap<>();
+    private final BitSet rowOmittedColumns = new BitSet();
+    private int arraySize;
+    private boolean useTransactions;
+    private long totalRows;
+
+    public OracleBulkLoader(OracleDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof OracleTableBase)) {
+            throw new DBCException("Bulk load is supported for tables only");
+        }
+        this.table = (OracleTableBase) dataContainer;
+        this.attributes = attributes;
+        this.source = source;
+        this.valueHandlers = new DBDValueHandler[attributes.length];
+        this.generatedAttributes = new boolean[attributes.length];
+        this.defaultedAttributes = new boolean[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            valueHandlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+            DBSEntityAttribute entityAttribute = getEntityAttribute(attributes[i]);
+            generatedAttributes[i] = DBUtils.isPseudoAttribute(attributes[i]) || attributes[i].isAutoGenerated() ||
+                (entityAttribute != null && entityAttribute.isAutoGenerated());
+            defaultedAttributes[i] = entityAttribute != null && !CommonUtils.isEmpty(entityAttribute.getDefaultValue());
+        }
+        arraySize = batchSize > 0 ? Math.min(batchSize, MAX_ARRAY_SIZE) : MAX_ARRAY_SIZE;
+        useTransactions = options == null || CommonUtils.getBoolean(options.get(OPTION_USE_TRANSACTIONS), true);
+
+        // Prepare statement for rows without nulls to check the table is writable
+        rowOmittedColumns.clear();
+        for (int i = 0; i < attributes.length; i++) {
+            if (generatedAttributes[i]) {
+                rowOmittedColumns.set(i);
+            }
+        }
+        getArrayStatement(session);
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        rowOmittedColumns.clear();
+        for (int i = 0; i < attributes.length; i++) {
+            if (generatedAttributes[i] || (defaultedAttributes[i] && DBUtils.isNullValue(attributeValues[i]))) {
+                rowOmittedColumns.set(i);
+            }
+        }
+        ArrayStatement arrayStatement = getArrayStatement(session);
+        int[] columns = arrayStatement.columns;
+        for (int i = 0; i < columns.length; i++) {
+            int column = columns[i];
+            // Value handlers bind nulls with attribute type
+            valueHandlers[column].bindValueObject(session, arrayStatement.statement, attributes[column], i, attributeValues[column]);
+        }
+        arrayStatement.statement.addToBatch();
+        arrayStatement.rows++;
+        if (arrayStatement.rows >= arraySize) {
+            executeArray(session, arrayStatement);
+        }
+    }
+
+    @NotNull
+    private ArrayStatement getArrayStatement(@NotNull DBCSession session) throws DBCException {
+        ArrayStatement arrayStatement = statements.get(rowOmittedColumns);
+        if (arrayStatement != null) {
+            return arrayStatement;
+        }
+        BitSet omittedColumns = (BitSet) rowOmittedColumns.clone();
+        int[] columns = new int[attributes.length - omittedColumns.cardinality()];
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        for (int i = 0, column = 0; i < attributes.length; i++) {
+            if (omittedColumns.get(i)) {
+                continue;
+            }
+            if (column > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(dataSource, attributes[i].getName()));
+            columns[column++] = i;
+        }
+        if (columns.length == 0) {
+            // All values are omitted. Insert the first column default explicitly
+            query.append(DBUtils.getQuotedIdentifier(dataSource, attributes[0].getName())).append(") VALUES (DEFAULT)");
+        } else {
+            query.append(") VALUES (");
+            for (int i = 0; i < columns.length; i++) {
+                query.append(i > 0 ? ",?" : "?");
+            }
+            query.append(")");
+        }
+
+        DBCStatement statement = session.prepareStatement(DBCStatementType.QUERY, query.toString(), false, false, false);
+        statement.setStatementSource(source);
+        arrayStatement = new ArrayStatement(statement, columns);
+        statements.put(omittedColumns, arrayStatement);
+        return arrayStatement;
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        for (ArrayStatement arrayStatement : statements.values()) {
+            executeArray(session, arrayStatement);
+        }
+    }
+
+    private void executeArray(@NotNull DBCSession session, @NotNull ArrayStatement arrayStatement) throws DBCException {
+        if (arrayStatement.rows == 0) {
+            return;
+        }
+        session.getProgressMonitor().subTask("Insert " + arrayStatement.rows + " rows");
+        arrayStatement.statement.executeStatementBatch();
+        totalRows += arrayStatement.rows;
+        arrayStatement.rows = 0;
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        flushRows(session);
+        if (useTransactions) {
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+            if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                session.getProgressMonitor().subTask("Commit changes");
+                txnManager.commit(session);
+            }
+        }
+        log.debug("Data has been loaded (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        for (ArrayStatement arrayStatement : statements.values()) {
+            arrayStatement.statement.close();
+        }
+        statements.clear();
+    }
+
+    private static DBSEntityAttribute getEntityAttribute(@NotNull DBSAttributeBase attribute) {
+        if (attribute instanceof DBDAttributeBinding) {
+            return ((DBDAttributeBinding) attribute).getEntityAttribute();
+        } else if (attribute instanceof DBSEntityAttribute) {
+            return (DBSEntityAttribute) attribute;
+        }
+        return null;
+    }
+
+    private static class ArrayStatement {
+        private final DBCStatement statement;
+        // Indexes of bound attributes
+        private final int[] columns;
+        private int rows;
+
+        ArrayStatement(DBCStatement statement, int[] columns) {
+            this.statement = statement;
+            this.columns = columns;
+        }
+    }
+}
@@ -51,6 +51,8 @@ public class PrefPagePostgreSQL extends AbstractPrefPage implements IWorkbenchPr
     private Combo ddPlainBehaviorCombo;
     private Combo ddTagBehaviorCombo;
 
+    private Button copyBinaryFormat;
+
     public PrefPagePostgreSQL()
     {
         super();
@@ -136,6 +138,19 @@ public class PrefPagePostgreSQL extends AbstractPrefPage implements IWorkbenchPr
             ddTagBehaviorCombo.select(globalPrefs.getBoolean(PostgreConstants.PROP_DD_TAG_STRING) ? 0 : 1);
         }
 
+        {
+            Group transferGroup = new Group(cfgGroup, SWT.NONE);
+            transferGroup.setText(PostgreMessages.dialog_setting_group_data_transfer);
+            transferGroup.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            transferGroup.setLayout(new GridLayout(2, false));
+
+            copyBinaryFormat = UIUtils.createCheckbox(transferGroup,
+                PostgreMessages.dialog_setting_copy_binary_format,
+                PostgreMessages.dialog_setting_copy_binary_format_tip,
+                globalPrefs.getBoolean(PostgreConstants.PROP_COPY_BINARY_FORMAT),
+                2);
+        }
+
         return cfgGroup;
     }
 
@@ -162,6 +177,8 @@ public class PrefPagePostgreSQL extends AbstractPrefPage implements IWorkbenchPr
         preferenceStore.setValue(PostgreConstants.PROP_DD_PLAIN_STRING, ddPlainBehaviorCombo.getSelectionIndex() == 0);
         preferenceStore.setValue(PostgreConstants.PROP_DD_TAG_STRING, ddTagBehaviorCombo.getSelectionIndex() == 0);
 
+        preferenceStore.setValue(PostgreConstants.PROP_COPY_BINARY_FORMAT, copyBinaryFormat.getSelection());
+
         return super.performOk();
     }
 
@@ -0,0 +1,169 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkExporter;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk exporter based on CopyManager.
+ * <p>
+ * Table rows are streamed with {@code COPY (SELECT * FROM table) TO STDOUT (FORMAT csv)} directly into the output,
+ * values are formatted by the server.
+ */
+public class PostgreCopyExporter implements DBSDataBulkExporter {
+
+    private static final Log log = Log.getLog(PostgreCopyExporter.class);
+
+    // Normalized Java charset names which are also PostgreSQL encoding names or aliases
+    private static final Set<String> SUPPORTED_ENCODINGS = Set.of(
+        "utf8",
+        "iso88591", "iso88592", "iso88593", "iso88594", "iso88595", "iso88596", "iso88597", "iso88598", "iso88599",
+        "iso885910", "iso885913", "iso885914", "iso885915", "iso885916",
+        "windows866", "windows874", "windows1250", "windows1251", "windows1252", "windows1253", "windows1254",
+        "windows1255", "windows1256", "windows1257", "windows1258",
+        "koi8r", "koi8u", "eucjp", "euckr", "gbk", "gb18030", "big5"
+    );
+
+    private final PostgreDataSource dataSource;
+
+    public PostgreCopyExporter(PostgreDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public boolean isBulkExportSupported(@NotNull DBSDataContainer dataContainer, @NotNull Map<String, Object> options) {
+        if (!(dataContainer instanceof PostgreTableBase) || !dataSource.isServerVersionAtLeast(9, 0)) {
+            return false;
+        }
+        if (getEncodingName(options) == null) {
+            return false;
+        }
+        String delimiter = CommonUtils.toString(options.get(OPTION_DELIMITER), ",");
+        String quoteChar = CommonUtils.toString(options.get(OPTION_QUOTE_CHAR), "\"");
+        return delimiter.length() == 1 && quoteChar.length() == 1 &&
+            !delimiter.equals(quoteChar) &&
+            delimiter.charAt(0) != '\r' && delimiter.charAt(0) != '\n';
+    }
+
+    @Override
+    public long exportBulkData(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull OutputStream stream,
+        @NotNull Map<String, Object> options) throws DBCException
+    {
+        PostgreTableBase table = (PostgreTableBase) dataContainer;
+        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
+
+        StringBuilder query = new StringBuilder();
+        query.append("COPY (SELECT * FROM ").append(tableFQN).append(") TO STDOUT (FORMAT CSV");
+        query.append(", DELIMITER ").append(SQLUtils.quoteString(dataSource, CommonUtils.toString(options.get(OPTION_DELIMITER), ",")));
+        query.append(", QUOTE ").append(SQLUtils.quoteString(dataSource, CommonUtils.toString(options.get(OPTION_QUOTE_CHAR), "\"")));
+        query.append(", NULL ").append(SQLUtils.quoteString(dataSource, CommonUtils.toString(options.get(OPTION_NULL_STRING))));
+        query.append(", HEADER ").append(CommonUtils.toBoolean(options.get(OPTION_HEADER)));
+        query.append(", ENCODING ").append(SQLUtils.quoteString(dataSource, getEncodingName(options)));
+        query.append(")");
+
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        monitor.subTask("Copy from " + tableFQN);
+        try {
+            // Use reflection to create copy manager
+            Connection pgConnection = ((JDBCSession) session).getOriginal();
+            ClassLoader driverClassLoader = pgConnection.getClass().getClassLoader();
+
+            Class<?> baseConnectionClass = Class.forName("org.postgresql.core.BaseConnection", true, driverClassLoader);
+            Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverClassLoader);
+
+            // long copyOut(String sql, OutputStream to)
+            Method copyOutMethod = copyManagerClass.getMethod("copyOut", String.class, OutputStream.class);
+            Object copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
+
+            Object rowCount = copyOutMethod.invoke(copyManager, query.toString(), new CancelableOutputStream(stream, monitor));
+            return rowCount instanceof Number ? ((Number) rowCount).longValue() : 0;
+        } catch (Throwable e) {
+            if (e instanceof InvocationTargetException) {
+                e = ((InvocationTargetException) e).getTargetException();
+            }
+            log.debug("Error executing " + query);
+            throw new DBCException("Error copying data from remote server", e);
+        }
+    }
+
+    private static String getEncodingName(@NotNull Map<String, Object> options) {
+        Object encoding = options.get(OPTION_ENCODING);
+        String charsetName;
+        try {
+            charsetName = encoding == null ? "UTF-8" : Charset.forName(encoding.toString()).name();
+        } catch (Exception e) {
+            return null;
+        }
+        String pgName = charsetName.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9]", "");
+        return SUPPORTED_ENCODINGS.contains(pgName) ? pgName : null;
+    }
+
+    /**
+     * Interrupts COPY when export is canceled. Driver cancels copy operation on stream error.
+     */
+    private static class CancelableOutputStream extends FilterOutputStream {
+        private final DBRProgressMonitor monitor;
+
+        CancelableOutputStream(@NotNull OutputStream out, @NotNull DBRProgressMonitor monitor) {
+            super(out);
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCanceled();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCanceled();
+            out.write(b, off, len);
+        }
+
+        private void checkCanceled() throws IOException {
+            if (monitor.isCanceled()) {
+                throw new IOException("Copy canceled");
+            }
+        }
+    }
+
+}
@@ -17,9 +17,13 @@
 package org.jkiss.dbeaver.ext.postgresql.model;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.postgresql.PostgreConstants;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.DBCException;
@@ -34,40 +38,62 @@ import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
- * Bulk loader based on CopyManager
- *
- * //        new CopyManager((BaseConnection) conn)
- * //            .copyIn(
- * //                "COPY table1 FROM STDIN (FORMAT csv)",
- * //                new BufferedReader(new FileReader("data.csv"))
- * //            );
+ * Bulk loader based on CopyManager.
+ * <p>
+ * Rows are streamed into {@code COPY table (columns) FROM STDIN} in fixed-size chunks, so data reaches the server
+ * while the source is still being read.
+ * If all target columns have binary encoders (and it is enabled in preferences) then {@code FORMAT binary} is used.
+ * Otherwise rows are sent in CSV format.
  */
 public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
 
     private static final Log log = Log.getLog(PostgreCopyLoader.class);
 
+    private static final byte[] BINARY_HEADER = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+        // Flags
+        0, 0, 0, 0,
+        // Header extension length
+        0, 0, 0, 0
+    };
+
+    // 2000-01-01 - PostgreSQL epoch
+    private static final long PG_EPOCH_SECONDS = 946684800L;
+    private static final long PG_EPOCH_DAYS = 10957L;
+
+    private static final int NUMERIC_POS = 0x0000;
+    private static final int NUMERIC_NEG = 0x4000;
+    private static final int NUMERIC_NAN = 0xC000;
+
     private final PostgreDataSource dataSource;
     private PostgreTableReal table;
     private Object copyManager;
     private Method copyInMethod;
-    private Writer csvWriter;
-    private Path csvFile;
+    private Method writeToCopyMethod;
+    private Method flushCopyMethod;
+    private Method endCopyMethod;
+    private Method cancelCopyMethod;
+    private Object copyIn;
 
     private AttrMapping[] mappings;
+    private boolean binaryFormat;
+    private CopyBuffer buffer;
+    private final StringBuilder line = new StringBuilder();
 
     private int copyBufferSize = 100 * 1024;
 
@@ -75,6 +101,7 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         PostgreTableColumn tableAttr;
         DBDValueHandler valueHandler;
         int srcPos;
+        ValueEncoder encoder;
 
         AttrMapping(PostgreTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
             this.tableAttr = tableAttr;
@@ -105,53 +132,98 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
 
             Class<?> baseConnectionClass = Class.forName("org.postgresql.core.BaseConnection", true, driverClassLoader);
             Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverClassLoader);
+            Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn", true, driverClassLoader);
 
-            // Get method copyIn(final String sql, Reader from, int bufferSize)
-            copyInMethod = copyManagerClass.getMethod("copyIn", String.class, Reader.class, Integer.TYPE);
+            // CopyIn copyIn(String sql)
+            copyInMethod = copyManagerClass.getMethod("copyIn", String.class);
+            writeToCopyMethod = copyInClass.getMethod("writeToCopy", byte[].class, Integer.TYPE, Integer.TYPE);
+            flushCopyMethod = copyInClass.getMethod("flushCopy");
+            endCopyMethod = copyInClass.getMethod("endCopy");
+            cancelCopyMethod = copyInClass.getMethod("cancelCopy");
 
             copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
 
-            Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
-            csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + ".csv");  //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                Files.createFile(csvFile);
-            } catch (IOException ex) {
-                throw new IOException("Can't create CSV file " + csvFile);
-            }
-
-            csvWriter = new BufferedWriter(
-                Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8),
-                copyBufferSize
-                );
-
             List<? extends PostgreTableColumn> tableAttrs = CommonUtils.safeList(table.getAttributes(session.getProgressMonitor()));
-            tableAttrs.removeIf(a -> a.getOrdinalPosition() < 0);
-            mappings = new AttrMapping[tableAttrs.size()];
-
-            for (int i = 0; i < tableAttrs.size(); i++) {
-                PostgreTableColumn attr = tableAttrs.get(i);
-                DBDValueHandler valueHandler = DBUtils.findValueHandler(session, attr);
-                AttrMapping mapping = new AttrMapping(
-                    attr,
-                    valueHandler,
-                    ArrayUtils.indexOf(attributes, attr)
-                );
-                mappings[i] = mapping;
+            List<AttrMapping> mappingList = new ArrayList<>();
+            for (PostgreTableColumn attr : tableAttrs) {
+                if (attr.getOrdinalPosition() < 0) {
+                    continue;
+                }
+                int srcPos = ArrayUtils.indexOf(attributes, attr);
+                if (srcPos < 0) {
+                    // Not mapped. Will get default value
+                    continue;
+                }
+                mappingList.add(new AttrMapping(attr, DBUtils.findValueHandler(session, attr), srcPos));
             }
+            mappings = mappingList.toArray(new AttrMapping[0]);
         } catch (Exception e) {
             throw new DBCException("Can't instantiate CopyManager", e);
         }
+
+        binaryFormat = DBWorkbench.getPlatform().getPreferenceStore().getBoolean(PostgreConstants.PROP_COPY_BINARY_FORMAT);
+        if (binaryFormat) {
+            for (AttrMapping mapping : mappings) {
+                PostgreDataType dataType = mapping.tableAttr.getDataType();
+                mapping.encoder = dataType == null ? null : getBinaryEncoder((int) dataType.getObjectId());
+                if (mapping.encoder == null) {
+                    // Binary format is used for all columns or for none
+                    log.debug("Column " + mapping.tableAttr.getName() + " type can't be copied in binary format. Use CSV.");
+                    binaryFormat = false;
+                    break;
+                }
+            }
+        }
         return this;
     }
 
+    private void startCopy(@NotNull DBCSession session) throws DBCException {
+        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
+        StringBuilder query = new StringBuilder();
+        query.append("COPY ").append(tableFQN).append(" (");
+        for (int i = 0; i < mappings.length; i++) {
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(mappings[i].tableAttr));
+        }
+        query.append(") FROM STDIN (FORMAT ").append(binaryFormat ? "BINARY" : "CSV").append(")");
+
+        session.getProgressMonitor().subTask("Copy into " + tableFQN);
+        copyIn = invokeCopy(copyManager, copyInMethod, query.toString());
+        buffer = new CopyBuffer(copyBufferSize);
+        if (binaryFormat) {
+            buffer.write(BINARY_HEADER, 0, BINARY_HEADER.length);
+        }
+    }
+
     @Override
     public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
-        StringBuilder line = new StringBuilder();
-        boolean hasCell = false;
-        for (AttrMapping mapping : mappings) {
-            if (mapping.srcPos >= 0) {
-                if (hasCell) {
-                    line.append(",");
+        if (copyIn == null) {
+            startCopy(session);
+        }
+        if (binaryFormat) {
+            buffer.writeShort(mappings.length);
+            for (AttrMapping mapping : mappings) {
+                Object srcValue = attributeValues[mapping.srcPos];
+                if (DBUtils.isNullValue(srcValue)) {
+                    buffer.writeInt(-1);
+                } else {
+                    try {
+                        mapping.encoder.encode(session, mapping, srcValue, buffer);
+                    } catch (DBCException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new DBCException("Can't encode value of column " + mapping.tableAttr.getName(), e);
+                    }
+                }
+            }
+        } else {
+            line.setLength(0);
+            for (int i = 0; i < mappings.length; i++) {
+                AttrMapping mapping = mappings[i];
+                if (i > 0) {
+                    line.append(',');
                 }
                 Object srcValue = attributeValues[mapping.srcPos];
                 if (!DBUtils.isNullValue(srcValue)) {
@@ -160,66 +232,78 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
                     } else {
                         String strValue = mapping.valueHandler.getValueDisplayString(
                             mapping.tableAttr, srcValue, DBDDisplayFormat.NATIVE);
-                        strValue = convertStringValueToCell(strValue);
-                        line.append(strValue);
+                        appendCsvCell(strValue);
                     }
                 }
-                hasCell = true;
             }
-        }
-        line.append("\n");
-        try {
-            csvWriter.write(line.toString());
-        } catch (IOException e) {
-            throw new DBCException("Error writing CSV line", e);
+            line.append('\n');
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.write(bytes, 0, bytes.length);
         }
     }
 
-    private String convertStringValueToCell(String strValue) {
-        return '"' +
-            strValue.replace("\"", "\\\"") +
-            '"';
+    private void appendCsvCell(String strValue) {
+        // Quoted value. Empty quoted string is an empty string, empty unquoted cell is NULL
+        line.append('"');
+        for (int i = 0; i < strValue.length(); i++) {
+            char c = strValue.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
     }
 
     @Override
     public void flushRows(@NotNull DBCSession session) throws DBCException {
-        try {
-            csvWriter.flush();
-        } catch (IOException e) {
-            throw new DBCException("Error saving CSV data", e);
+        if (copyIn != null) {
+            buffer.flush();
+            invokeCopy(copyIn, flushCopyMethod);
         }
     }
 
     @Override
     public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
-        try {
-            csvWriter.flush();
-            csvWriter.close();
-        } catch (IOException e) {
-            log.debug(e);
+        if (copyIn == null) {
+            // No rows
+            return;
         }
-        csvWriter = null;
-
-        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
-
-        session.getProgressMonitor().subTask("Copy into " + tableFQN);
+        if (binaryFormat) {
+            // File trailer
+            buffer.writeShort(-1);
+        }
+        buffer.flush();
+        Object rowCount = invokeCopy(copyIn, endCopyMethod);
+        copyIn = null;
 
-        String queryText = "COPY " + tableFQN + " FROM STDIN (FORMAT CSV)";
+        // Commit changes
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit COPY");
+            txnManager.commit(session);
+        }
 
-        try {
-            Object rowCount;
-            try (Reader csvReader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
-                rowCount = copyInMethod.invoke(copyManager, queryText, csvReader, copyBufferSize);
-            }
+        log.debug("Data has been copied (" + rowCount + ")");
+    }
 
-            // Commit changes
-            DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
-            if (txnManager != null && !txnManager.isAutoCommit()) {
-                session.getProgressMonitor().subTask("Commit COPY");
-                txnManager.commit(session);
+    @Override
+    public void close() {
+        if (copyIn != null) {
+            // Load was interrupted
+            try {
+                invokeCopy(copyIn, cancelCopyMethod);
+            } catch (DBCException e) {
+                log.debug("Error canceling COPY", e);
             }
+            copyIn = null;
+        }
+        buffer = null;
+    }
 
-            log.debug("CSV has been imported (" + rowCount + ")");
+    private static Object invokeCopy(@NotNull Object object, @NotNull Method method, Object... args) throws DBCException {
+        try {
+            return method.invoke(object, args);
         } catch (Throwable e) {
             if (e instanceof InvocationTargetException) {
                 e = ((InvocationTargetException) e).getTargetException();
@@ -228,16 +312,338 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         }
     }
 
-    @Override
+    /**
+     * Rows buffer. Sends data to the server when it is full.
+     */
+    private class CopyBuffer {
+        private final byte[] data;
+        private int position;
 
-    public void close() {
-        if (csvFile != null && Files.exists(csvFile)) {
-            try {
-                Files.delete(csvFile);
-            } catch (IOException e) {
-                log.debug("Error deleting CSV file " + csvFile, e);
-                csvFile.toFile().deleteOnExit();
+        CopyBuffer(int size) {
+            this.data = new byte[size];
+        }
+
+        void writeByte(int value) throws DBCException {
+            ensureCapacity(1);
+            data[position++] = (byte) value;
+        }
+
+        void writeShort(int value) throws DBCException {
+            ensureCapacity(2);
+            data[position++] = (byte) (value >>> 8);
+            data[position++] = (byte) value;
+        }
+
+        void writeInt(int value) throws DBCException {
+            ensureCapacity(4);
+            data[position++] = (byte) (value >>> 24);
+            data[position++] = (byte) (value >>> 16);
+            data[position++] = (byte) (value >>> 8);
+            data[position++] = (byte) value;
+        }
+
+        void writeLong(long value) throws DBCException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void write(byte[] bytes, int offset, int length) throws DBCException {
+            if (length > data.length) {
+                // Do not copy large values
+                flush();
+                invokeCopy(copyIn, writeToCopyMethod, bytes, offset, length);
+                return;
+            }
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, data, position, length);
+            position += length;
+        }
+
+        private void ensureCapacity(int length) throws DBCException {
+            if (position + length > data.length) {
+                flush();
+            }
+        }
+
+        void flush() throws DBCException {
+            if (position > 0) {
+                invokeCopy(copyIn, writeToCopyMethod, data, 0, position);
+                position = 0;
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////
+    // Binary format encoders
+
+    private interface ValueEncoder {
+        void encode(@NotNull DBCSession session, @NotNull AttrMapping mapping, @NotNull Object value, @NotNull CopyBuffer buffer) throws Exception;
+    }
+
+    @Nullable
+    private static ValueEncoder getBinaryEncoder(int typeOid) {
+        switch (typeOid) {
+            case PostgreOid.BOOL:
+                return (session, mapping, value, buffer) -> {
+                    boolean boolValue = value instanceof Number ? ((Number) value).intValue() != 0 : CommonUtils.toBoolean(value);
+                    buffer.writeInt(1);
+                    buffer.writeByte(boolValue ? 1 : 0);
+                };
+            case PostgreOid.INT2:
+                return (session, mapping, value, buffer) -> {
+                    int shortValue = (int) checkRange(toLong(value), Short.MIN_VALUE, Short.MAX_VALUE);
+                    buffer.writeInt(2);
+                    buffer.writeShort(shortValue);
+                };
+            case PostgreOid.INT4:
+                return (session, mapping, value, buffer) -> {
+                    int intValue = Math.toIntExact(toLong(value));
+                    buffer.writeInt(4);
+                    buffer.writeInt(intValue);
+                };
+            case PostgreOid.INT8:
+                return (session, mapping, value, buffer) -> {
+                    long longValue = toLong(value);
+                    buffer.writeInt(8);
+                    buffer.writeLong(longValue);
+                };
+            case PostgreOid.FLOAT4:
+                return (session, mapping, value, buffer) -> {
+                    float floatValue = value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString().trim());
+                    buffer.writeInt(4);
+                    buffer.writeInt(Float.floatToIntBits(floatValue));
+                };
+            case PostgreOid.FLOAT8:
+                return (session, mapping, value, buffer) -> {
+                    double doubleValue = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim());
+                    buffer.writeInt(8);
+                    buffer.writeLong(Double.doubleToLongBits(doubleValue));
+                };
+            case PostgreOid.NUMERIC:
+                return (session, mapping, value, buffer) -> writeNumeric(value, buffer);
+            case PostgreOid.UUID:
+                return (session, mapping, value, buffer) -> {
+                    UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString().trim());
+                    buffer.writeInt(16);
+                    buffer.writeLong(uuid.getMostSignificantBits());
+                    buffer.writeLong(uuid.getLeastSignificantBits());
+                };
+            case PostgreOid.DATE:
+                return (session, mapping, value, buffer) -> {
+                    int days = Math.toIntExact(toLocalDate(value).toEpochDay() - PG_EPOCH_DAYS);
+                    buffer.writeInt(4);
+                    buffer.writeInt(days);
+                };
+            case PostgreOid.TIMESTAMP:
+                return (session, mapping, value, buffer) -> {
+                    LocalDateTime dateTime = toLocalDateTime(value);
+                    buffer.writeInt(8);
+                    buffer.writeLong(toPostgreMicros(dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano()));
+                };
+            case PostgreOid.TIMESTAMPTZ:
+                return (session, mapping, value, buffer) -> {
+                    Instant instant = toInstant(value);
+                    buffer.writeInt(8);
+                    buffer.writeLong(toPostgreMicros(instant.getEpochSecond(), instant.getNano()));
+                };
+            case PostgreOid.BYTEA:
+                return (session, mapping, value, buffer) -> {
+                    byte[] bytes;
+                    if (value instanceof byte[]) {
+                        bytes = (byte[]) value;
+                    } else if (value instanceof DBDContent) {
+                        bytes = readContent(session, (DBDContent) value);
+                        if (bytes == null) {
+                            buffer.writeInt(-1);
+                            return;
+                        }
+                    } else {
+                        bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    }
+                    buffer.writeInt(bytes.length);
+                    buffer.write(bytes, 0, bytes.length);
+                };
+            case PostgreOid.TEXT:
+            case PostgreOid.VARCHAR:
+            case PostgreOid.BPCHAR:
+            case PostgreOid.NAME:
+                // Binary representation of text types is the text itself (in client encoding)
+                return (session, mapping, value, buffer) -> {
+                    String strValue = value instanceof String ?
+                        (String) value :
+                        mapping.valueHandler.getValueDisplayString(mapping.tableAttr, value, DBDDisplayFormat.NATIVE);
+                    byte[] bytes = strValue.getBytes(StandardCharsets.UTF_8);
+                    buffer.writeInt(bytes.length);
+                    buffer.write(bytes, 0, bytes.length);
+                };
+            default:
+                return null;
+        }
+    }
+
+    private static long toLong(@NotNull Object value) {
+        if (value instanceof Number) {
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).longValueExact();
+            } else if (value instanceof BigInteger) {
+                return ((BigInteger) value).longValueExact();
             }
+            return ((Number) value).longValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
+    private static long checkRange(long value, long minValue, long maxValue) {
+        if (value < minValue || value > maxValue) {
+            throw new ArithmeticException("Value " + value + " is out of range");
         }
+        return value;
     }
+
+    private static long toPostgreMicros(long epochSeconds, int nanos) {
+        return (epochSeconds - PG_EPOCH_SECONDS) * 1_000_000L + nanos / 1000;
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(@NotNull Object value) throws DBCException {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof java.util.Date) {
+            return new java.sql.Date(((java.util.Date) value).getTime()).toLocalDate();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate();
+        } else if (value instanceof String) {
+            return LocalDate.parse(((String) value).trim());
+        }
+        throw new DBCException("Unsupported date value: " + value.getClass().getName());
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value) throws DBCException {
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } else if (value instanceof String) {
+            return Timestamp.valueOf(((String) value).trim()).toLocalDateTime();
+        }
+        throw new DBCException("Unsupported timestamp value: " + value.getClass().getName());
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value) throws DBCException {
+        if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof java.util.Date && !(value instanceof java.sql.Date)) {
+            // Timestamp keeps nanoseconds
+            return value instanceof Timestamp ? ((Timestamp) value).toInstant() : ((java.util.Date) value).toInstant();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        }
+        // Local date/time is in client time zone
+        return toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    @Nullable
+    private static byte[] readContent(@NotNull DBCSession session, @NotNull DBDContent content) throws Exception {
+        if (content.isNull()) {
+            return null;
+        }
+        DBDContentStorage storage = content.getContents(session.getProgressMonitor());
+        if (storage == null) {
+            return null;
+        }
+        try (InputStream stream = storage.getContentStream()) {
+            return stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Writes numeric in PostgreSQL binary format: number of base-10000 digits, weight of the first digit,
+     * sign, display scale and then digits.
+     */
+    private static void writeNumeric(@NotNull Object value, @NotNull CopyBuffer buffer) throws DBCException {
+        BigDecimal number;
+        if (value instanceof BigDecimal) {
+            number = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            number = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double doubleValue = ((Number) value).doubleValue();
+            if (Double.isNaN(doubleValue)) {
+                buffer.writeInt(8);
+                buffer.writeShort(0);
+                buffer.writeShort(0);
+                buffer.writeShort(NUMERIC_NAN);
+                buffer.writeShort(0);
+                return;
+            }
+            number = BigDecimal.valueOf(doubleValue);
+        } else if (value instanceof Number) {
+            number = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            number = new BigDecimal(value.toString().trim());
+        }
+
+        int displayScale = Math.max(number.scale(), 0);
+        String digits = number.abs().setScale(displayScale).unscaledValue().toString();
+        int intLength = digits.length() - displayScale;
+        String intPart = intLength > 0 ? digits.substring(0, intLength) : "";
+        String fractPart = intLength >= 0 ? digits.substring(intLength) : zeros(-intLength) + digits;
+        // Align both parts to groups of 4 decimal digits
+        intPart = zeros((4 - intPart.length() % 4) % 4) + intPart;
+        fractPart = fractPart + zeros((4 - fractPart.length() % 4) % 4);
+        String allDigits = intPart + fractPart;
+
+        int groupCount = allDigits.length() / 4;
+        int weight = intPart.length() / 4 - 1;
+        int first = 0, last = groupCount;
+        while (first < last && isZeroGroup(allDigits, first)) {
+            first++;
+            weight--;
+        }
+        while (last > first && isZeroGroup(allDigits, last - 1)) {
+            last--;
+        }
+        if (first == last) {
+            weight = 0;
+        }
+        int digitCount = last - first;
+        buffer.writeInt(8 + digitCount * 2);
+        buffer.writeShort(digitCount);
+        buffer.writeShort(weight);
+        buffer.writeShort(number.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
+        buffer.writeShort(displayScale);
+        for (int i = first; i < last; i++) {
+            buffer.writeShort(Integer.parseInt(allDigits, i * 4, i * 4 + 4, 10));
+        }
+    }
+
+    private static boolean isZeroGroup(String digits, int group) {
+        for (int i = group * 4; i < group * 4 + 4; i++) {
+            if (digits.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String zeros(int count) {
+        return "0".repeat(count);
+    }
+
 }
@@ -527,6 +527,10 @@ public class PostgreDataSource extends JDBCDataSource implements DBSInstanceCont
             if (getServerType().supportsCopyFromStdIn()) {
                 return adapter.cast(new PostgreCopyLoader(this));
             }
+        } else if (adapter == DBSDataBulkExporter.class) {
+            if (getServerType().supportsCopyFromStdIn()) {
+                return adapter.cast(new PostgreCopyExporter(this));
+            }
         } else if (adapter == DBAUserPasswordManager.class) {
             if (getServerType().supportsAlterUserChangePassword()) {
                 return adapter.cast(new PostgresUserPasswordManager(this));
@@ -1119,37 +1119,30 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                     }
                 }
             }
+            SQLIdentifierIndex identifierIndex = SQLIdentifierIndex.getInstance(dataSource);
+            for (DBSObject child : identifierIndex.getVirtualObjects(parent, children)) {
+                makeProposalsFromChildren(child, startPart, addFirst, Collections.emptyMap());
+            }
             StringBuilder combinedMatch = new StringBuilder();
-            for (DBSObject child : children) {
-                if (DBUtils.isHiddenObject(child)) {
-                    // Skip hidden
-                    continue;
-                }
-                if (DBUtils.isVirtualObject(child)) {
-                    makeProposalsFromChildren(child, startPart, addFirst, Collections.emptyMap());
-                    continue;
-                }
-                if (allObjects) {
+            if (allObjects) {
+                for (String quotedName : identifierIndex.getQuotedNames(parent, children)) {
                     if (combinedMatch.length() > 0) {
                         combinedMatch.append(", ");
                         if (objPrefix != null) combinedMatch.append(objPrefix);
                     }
-                    combinedMatch.append(DBUtils.getQuotedIdentifier(child));
-                } else {
-                    if (dataSource != null && !request.getContext().isSearchInsideNames()) {
-                        // startsWith
-                        if (CommonUtils.isEmpty(startPart) || CommonUtils.startsWithIgnoreCase(child.getName(), startPart)) {
-                            matchedObjects.add(child);
-                        }
-                    } else {
-                        // Use fuzzy search for contains
-                        int score = CommonUtils.isEmpty(startPart) ? 1 : TextUtils.fuzzyScore(child.getName(), startPart);
-                        if (score > 0) {
-                            matchedObjects.add(child);
-                            scoredMatches.put(child.getName(), score);
-                        }
-                    }
+                    combinedMatch.append(quotedName);
+                }
+            } else if (dataSource != null && !request.getContext().isSearchInsideNames()) {
+                // startsWith
+                matchedObjects.addAll(identifierIndex.findObjects(parent, children, startPart));
+            } else if (CommonUtils.isEmpty(startPart)) {
+                for (DBSObject child : identifierIndex.findObjects(parent, children, null)) {
+                    matchedObjects.add(child);
+                    scoredMatches.put(child.getName(), 1);
                 }
+            } else {
+                // Use fuzzy search for contains
+                matchedObjects.addAll(identifierIndex.findObjectsFuzzy(parent, children, startPart, scoredMatches));
             }
             if (combinedMatch.length() > 0) {
                 String replaceString = combinedMatch.toString();
@@ -0,0 +1,334 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.text.TextUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.*;
+
+/**
+ * Identifier index used by SQL completion.
+ * <p>
+ * Index is kept per data source and per parent object (schema, table, etc). Each parent index contains
+ * children names sorted in case-insensitive order (for prefix search), character masks of names
+ * (to skip names which can't match fuzzy search) and quoted identifiers.
+ * <p>
+ * Parent index is valid while parent returns the same children (same objects in the same order).
+ * Some containers build a new children list on each call, so validity is checked by children count and
+ * identity fingerprint rather than by collection instance. Index is rebuilt after cache modification
+ * (refresh, object create/delete) and after object rename (indexed name doesn't match object name).
+ * Index doesn't hold strong references to metadata objects.
+ */
+public class SQLIdentifierIndex {
+
+    private static final Map<DBPDataSource, SQLIdentifierIndex> indexes = new WeakHashMap<>();
+
+    private final Map<Object, NameIndex> parentIndexes = new WeakHashMap<>();
+
+    @NotNull
+    public static SQLIdentifierIndex getInstance(@Nullable DBPDataSource dataSource) {
+        if (dataSource == null) {
+            // Do not keep index for unknown data source
+            return new SQLIdentifierIndex();
+        }
+        synchronized (indexes) {
+            return indexes.computeIfAbsent(dataSource, ds -> new SQLIdentifierIndex());
+        }
+    }
+
+    /**
+     * Removes index of the specified data source
+     */
+    public static void resetIndex(@NotNull DBPDataSource dataSource) {
+        synchronized (indexes) {
+            indexes.remove(dataSource);
+        }
+    }
+
+    /**
+     * Returns virtual children (they are not indexed, their own children are used instead)
+     */
+    @NotNull
+    public List<DBSObject> getVirtualObjects(@NotNull Object parent, @NotNull Collection<? extends DBSObject> children) {
+        NameIndex nameIndex = getNameIndex(parent, children);
+        return nameIndex.getObjects(children, nameIndex.virtualPositions);
+    }
+
+    /**
+     * Returns quoted identifiers of all visible children
+     */
+    @NotNull
+    public List<String> getQuotedNames(@NotNull Object parent, @NotNull Collection<? extends DBSObject> children) {
+        NameIndex nameIndex = getNameIndex(parent, children);
+        List<? extends DBSObject> objects = NameIndex.asList(children);
+        List<String> result = new ArrayList<>(nameIndex.names.length);
+        for (int i = 0; i < nameIndex.names.length; i++) {
+            String quotedName = nameIndex.quotedNames[i];
+            if (quotedName == null) {
+                quotedName = DBUtils.getQuotedIdentifier(objects.get(nameIndex.positions[i]));
+                nameIndex.quotedNames[i] = quotedName;
+            }
+            result.add(quotedName);
+        }
+        return result;
+    }
+
+    /**
+     * Returns visible children which names start with the specified prefix (case insensitive).
+     * All visible children are returned if prefix is empty.
+     * Objects are returned in the original order.
+     */
+    @NotNull
+    public List<DBSObject> findObjects(@NotNull Object parent, @NotNull Collection<? extends DBSObject> children, @Nullable String prefix) {
+        for (int attempt = 0; ; attempt++) {
+            NameIndex nameIndex = attempt == 0 ? getNameIndex(parent, children) : rebuildNameIndex(parent, children);
+            List<DBSObject> result = nameIndex.findByPrefix(children, prefix);
+            if (result != null || attempt > 0) {
+                return result == null ? Collections.emptyList() : result;
+            }
+        }
+    }
+
+    /**
+     * Returns visible children which names match the specified fuzzy query (see {@link TextUtils#fuzzyScore}).
+     * Scores are put in the scores map (by object name).
+     * Objects are returned in the original order.
+     */
+    @NotNull
+    public List<DBSObject> findObjectsFuzzy(
+        @NotNull Object parent,
+        @NotNull Collection<? extends DBSObject> children,
+        @NotNull String query,
+        @NotNull Map<String, Integer> scores)
+    {
+        for (int attempt = 0; ; attempt++) {
+            NameIndex nameIndex = attempt == 0 ? getNameIndex(parent, children) : rebuildNameIndex(parent, children);
+            List<DBSObject> result = nameIndex.findFuzzy(children, query, scores);
+            if (result != null || attempt > 0) {
+                return result == null ? Collections.emptyList() : result;
+            }
+            scores.clear();
+        }
+    }
+
+    @NotNull
+    private NameIndex getNameIndex(@NotNull Object parent, @NotNull Collection<? extends DBSObject> children) {
+        synchronized (parentIndexes) {
+            NameIndex nameIndex = parentIndexes.get(parent);
+            if (nameIndex != null && nameIndex.isValidFor(children)) {
+                return nameIndex;
+            }
+        }
+        return rebuildNameIndex(parent, children);
+    }
+
+    @NotNull
+    private NameIndex rebuildNameIndex(@NotNull Object parent, @NotNull Collection<? extends DBSObject> children) {
+        NameIndex nameIndex = new NameIndex(children);
+        synchronized (parentIndexes) {
+            parentIndexes.put(parent, nameIndex);
+        }
+        return nameIndex;
+    }
+
+    /**
+     * Returns case insensitive search key. Characters are compared the same way as {@link String#regionMatches(boolean, int, String, int, int)} does.
+     */
+    @NotNull
+    static String makeSearchKey(@NotNull String name) {
+        char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Mask of characters of the lower case name. Name can match fuzzy query only if its mask contains all bits of query mask.
+     */
+    static long makeCharMask(@NotNull String lowerCaseName) {
+        long mask = 0;
+        for (int i = 0; i < lowerCaseName.length(); i++) {
+            mask |= 1L << (lowerCaseName.charAt(i) & 63);
+        }
+        return mask;
+    }
+
+    private static class NameIndex {
+        private final int childrenCount;
+        // Identity hash of children (in the original order)
+        private final long childrenFingerprint;
+        // Visible children (in the original order)
+        private final String[] names;
+        private final int[] positions;
+        private final long[] charMasks;
+        private final String[] quotedNames;
+        // Indexes of visible children sorted by search key
+        private final String[] sortedKeys;
+        private final int[] sortedIndexes;
+        private final int[] virtualPositions;
+
+        NameIndex(@NotNull Collection<? extends DBSObject> children) {
+            this.childrenCount = children.size();
+            this.childrenFingerprint = makeFingerprint(children);
+
+            List<String> nameList = new ArrayList<>(childrenCount);
+            int[] positionList = new int[childrenCount];
+            int[] virtualList = new int[childrenCount];
+            int virtualCount = 0;
+            int position = 0;
+            for (DBSObject child : children) {
+                if (DBUtils.isHiddenObject(child)) {
+                    // Skip hidden
+                } else if (DBUtils.isVirtualObject(child)) {
+                    virtualList[virtualCount++] = position;
+                } else {
+                    positionList[nameList.size()] = position;
+                    nameList.add(child.getName());
+                }
+                position++;
+            }
+            int count = nameList.size();
+            this.names = nameList.toArray(new String[0]);
+            this.positions = Arrays.copyOf(positionList, count);
+            this.virtualPositions = Arrays.copyOf(virtualList, virtualCount);
+            this.quotedNames = new String[count];
+            this.charMasks = new long[count];
+
+            String[] keys = new String[count];
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                String name = CommonUtils.notEmpty(names[i]);
+                keys[i] = makeSearchKey(name);
+                charMasks[i] = makeCharMask(name.toLowerCase(Locale.getDefault()));
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+            this.sortedKeys = new String[count];
+            this.sortedIndexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                sortedIndexes[i] = order[i];
+                sortedKeys[i] = keys[order[i]];
+            }
+        }
+
+        boolean isValidFor(@NotNull Collection<? extends DBSObject> children) {
+            return childrenCount == children.size() && childrenFingerprint == makeFingerprint(children);
+        }
+
+        private static long makeFingerprint(@NotNull Collection<? extends DBSObject> children) {
+            long fingerprint = 1;
+            for (DBSObject child : children) {
+                fingerprint = fingerprint * 1_000_003 + System.identityHashCode(child);
+            }
+            return fingerprint;
+        }
+
+        /**
+         * Returns null if indexed names do not match object names (object was renamed)
+         */
+        @Nullable
+        List<DBSObject> findByPrefix(@NotNull Collection<? extends DBSObject> children, @Nullable String prefix) {
+            if (prefix == null || prefix.isEmpty()) {
+                int[] all = new int[names.length];
+                for (int i = 0; i < all.length; i++) {
+                    all[i] = i;
+                }
+                return getMatchedObjects(children, all, all.length);
+            }
+            String key = makeSearchKey(prefix);
+            int low = 0;
+            int high = sortedKeys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedKeys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int[] matches = new int[sortedKeys.length - low];
+            int matchCount = 0;
+            for (int i = low; i < sortedKeys.length && sortedKeys[i].startsWith(key); i++) {
+                matches[matchCount++] = sortedIndexes[i];
+            }
+            // Keep the original order
+            Arrays.sort(matches, 0, matchCount);
+            return getMatchedObjects(children, matches, matchCount);
+        }
+
+        @Nullable
+        List<DBSObject> findFuzzy(@NotNull Collection<? extends DBSObject> children, @NotNull String query, @NotNull Map<String, Integer> scores) {
+            long queryMask = makeCharMask(query.toLowerCase(Locale.getDefault()));
+            int[] matches = new int[names.length];
+            int matchCount = 0;
+            for (int i = 0; i < names.length; i++) {
+                if ((charMasks[i] & queryMask) != queryMask || names[i] == null) {
+                    continue;
+                }
+                int score = TextUtils.fuzzyScore(names[i], query);
+                if (score > 0) {
+                    matches[matchCount++] = i;
+                    scores.put(names[i], score);
+                }
+            }
+            return getMatchedObjects(children, matches, matchCount);
+        }
+
+        @Nullable
+        private List<DBSObject> getMatchedObjects(@NotNull Collection<? extends DBSObject> children, @NotNull int[] matches, int matchCount) {
+            List<? extends DBSObject> objects = asList(children);
+            List<DBSObject> result = new ArrayList<>(matchCount);
+            for (int i = 0; i < matchCount; i++) {
+                DBSObject object = objects.get(positions[matches[i]]);
+                if (!Objects.equals(object.getName(), names[matches[i]])) {
+                    return null;
+                }
+                result.add(object);
+            }
+            return result;
+        }
+
+        @NotNull
+        List<DBSObject> getObjects(@NotNull Collection<? extends DBSObject> children, @NotNull int[] objectPositions) {
+            if (objectPositions.length == 0) {
+                return Collections.emptyList();
+            }
+            List<? extends DBSObject> objects = asList(children);
+            List<DBSObject> result = new ArrayList<>(objectPositions.length);
+            for (int position : objectPositions) {
+                result.add(objects.get(position));
+            }
+            return result;
+        }
+
+        @NotNull
+        static List<? extends DBSObject> asList(@NotNull Collection<? extends DBSObject> children) {
+            if (children instanceof List && children instanceof RandomAccess) {
+                return (List<? extends DBSObject>) children;
+            }
+            return new ArrayList<>(children);
+        }
+    }
+
+}
@@ -0,0 +1,375 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.sql.SQLControlCommand;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incrementally maintained list of script elements of a document.
+ * <p>
+ * Element offsets are shifted on each document change, and the changed range is remembered.
+ * On the next read only statements around the changed range are parsed again. Parsing starts
+ * at the end of a statement which is not affected by the change (the scanner always starts
+ * in the default state there) and stops as soon as it produces a statement which is equal
+ * to an already indexed statement located after the change.
+ * <p>
+ * Changes made during parsing are recorded. Parsing stops at the first such change, the parsed
+ * statements are merged, then recorded changes are applied the same way and the rest is parsed again.
+ * <p>
+ * Scripts with control commands (e.g. delimiter redefinition) are always parsed completely
+ * because scanner state depends on previous commands.
+ */
+public class SQLScriptElementIndex implements IDocumentListener {
+
+    @NotNull
+    private final SQLParserContext context;
+    private final boolean scriptMode;
+    private final boolean keepDelimiters;
+
+    private final Object updateLock = new Object();
+    private final List<SQLScriptElement> elements = new ArrayList<>();
+    // Changes made during parsing: offset, replaced text end, inserted text end
+    private final List<int[]> pendingChanges = new ArrayList<>();
+    private boolean fullParse = true;
+    private int dirtyStart = -1;
+    private int dirtyEnd = -1;
+    private boolean hasControlCommands;
+    private boolean parsing;
+    private boolean changedWhileParsing;
+    private boolean connected;
+
+    public SQLScriptElementIndex(@NotNull SQLParserContext context, boolean scriptMode, boolean keepDelimiters) {
+        this.context = context;
+        this.scriptMode = scriptMode;
+        this.keepDelimiters = keepDelimiters;
+    }
+
+    @NotNull
+    public IDocument getDocument() {
+        return context.getDocument();
+    }
+
+    public synchronized void connect() {
+        if (!connected) {
+            context.getDocument().addDocumentListener(this);
+            connected = true;
+        }
+        reset();
+    }
+
+    public synchronized void disconnect() {
+        if (connected) {
+            context.getDocument().removeDocumentListener(this);
+            connected = false;
+        }
+        reset();
+    }
+
+    /**
+     * Invalidates all indexed elements. Next read parses the whole document.
+     */
+    public synchronized void reset() {
+        fullParse = true;
+        dirtyStart = dirtyEnd = -1;
+        if (parsing) {
+            changedWhileParsing = true;
+        }
+    }
+
+    /**
+     * Returns all script elements of the document
+     */
+    @NotNull
+    public List<SQLScriptElement> getElements() {
+        update();
+        synchronized (this) {
+            // Document length may be changed during update
+            return new ArrayList<>(elements);
+        }
+    }
+
+    /**
+     * Returns script elements which intersect with the specified range
+     */
+    @NotNull
+    public List<SQLScriptElement> getElements(int offset, int length) {
+        update();
+        synchronized (this) {
+            int endOffset = offset + length;
+            List<SQLScriptElement> result = new ArrayList<>();
+            for (int i = findFirstEndingAfter(offset); i < elements.size(); i++) {
+                SQLScriptElement element = elements.get(i);
+                if (element.getOffset() > endOffset || (length > 0 && element.getOffset() == endOffset)) {
+                    break;
+                }
+                result.add(element);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns script element which contains the specified position
+     */
+    @Nullable
+    public SQLScriptElement getElementAt(int position) {
+        update();
+        synchronized (this) {
+            int index = findFirstEndingAfter(position);
+            if (index < elements.size()) {
+                SQLScriptElement element = elements.get(index);
+                if (element.getOffset() <= position) {
+                    return element;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+        if (parsing) {
+            // Statements parsed after this point may contain changed text
+            changedWhileParsing = true;
+        }
+    }
+
+    @Override
+    public synchronized void documentChanged(DocumentEvent event) {
+        int offset = event.getOffset();
+        int replacedEnd = offset + event.getLength();
+        int insertedEnd = offset + (event.getText() == null ? 0 : event.getText().length());
+        if (parsing) {
+            // Elements are owned by the parser now. Change is applied after parsing ends
+            changedWhileParsing = true;
+            pendingChanges.add(new int[] { offset, replacedEnd, insertedEnd });
+            return;
+        }
+        applyChange(offset, replacedEnd, insertedEnd);
+    }
+
+    private void applyChange(int offset, int replacedEnd, int insertedEnd) {
+        if (fullParse) {
+            return;
+        }
+        int delta = insertedEnd - replacedEnd;
+
+        if (hasControlCommands) {
+            // Offsets of control commands can't be shifted
+            fullParse = true;
+            return;
+        }
+        int index = elements.size() - 1;
+        // Shift elements after the change
+        for (; index >= 0; index--) {
+            SQLScriptElement element = elements.get(index);
+            if (element.getOffset() < replacedEnd) {
+                break;
+            }
+            if (delta != 0) {
+                ((SQLQuery) element).setOffset(element.getOffset() + delta);
+            }
+        }
+        // Remove elements intersecting with the change, they will be parsed again
+        int removeEnd = index + 1;
+        while (index >= 0 && getEndOffset(elements.get(index)) > offset) {
+            index--;
+        }
+        elements.subList(index + 1, removeEnd).clear();
+
+        if (dirtyStart < 0) {
+            dirtyStart = offset;
+            dirtyEnd = insertedEnd;
+        } else {
+            dirtyEnd = dirtyEnd >= replacedEnd ? dirtyEnd + delta : insertedEnd;
+            dirtyStart = Math.min(dirtyStart, offset);
+        }
+    }
+
+    private void update() {
+        synchronized (updateLock) {
+            while (parseChanges()) {
+                // Document was changed during parsing, parse the rest of changes
+            }
+        }
+    }
+
+    /**
+     * Parses changed part of the document. Returns true if some changes still need to be parsed.
+     */
+    private boolean parseChanges() {
+        int parseStart;
+        int firstChanged;
+        int resyncStart;
+        int documentLength;
+        boolean wasFullParse;
+        synchronized (this) {
+            if (!fullParse && dirtyStart < 0) {
+                return false;
+            }
+            wasFullParse = fullParse;
+            documentLength = context.getDocument().getLength();
+            if (fullParse) {
+                firstChanged = 0;
+                parseStart = 0;
+                resyncStart = -1;
+            } else {
+                // Previous statement may be affected too (e.g. if a delimiter or an empty line was removed)
+                int firstDamaged = findFirstEndingAfter(dirtyStart);
+                firstChanged = Math.max(firstDamaged - 1, 0);
+                parseStart = firstChanged == 0 ? 0 : getEndOffset(elements.get(firstChanged - 1));
+                resyncStart = dirtyEnd;
+            }
+            // Elements are not modified by document changes until parsing ends
+            parsing = true;
+            changedWhileParsing = false;
+            // Index reset during parsing sets it again
+            fullParse = false;
+        }
+
+        List<SQLScriptElement> parsedElements = new ArrayList<>();
+        int resyncIndex = -1;
+        boolean parsedControlCommands = false;
+        boolean stopped = false;
+        boolean completed = false;
+        context.startScriptEvaluation();
+        try {
+            int oldIndex = firstChanged;
+            for (int queryOffset = parseStart; ; ) {
+                SQLScriptElement element = SQLScriptParser.parseQuery(
+                    context, queryOffset, context.getDocument().getLength(), queryOffset, scriptMode, keepDelimiters);
+                synchronized (this) {
+                    if (changedWhileParsing) {
+                        // Element may contain changed text, it is parsed again after the changes are applied
+                        stopped = true;
+                    }
+                }
+                if (element == null || stopped) {
+                    break;
+                }
+                if (element instanceof SQLControlCommand) {
+                    parsedControlCommands = true;
+                }
+                if (resyncStart >= 0 && !parsedControlCommands && element.getOffset() >= resyncStart) {
+                    while (oldIndex < elements.size() && elements.get(oldIndex).getOffset() < element.getOffset()) {
+                        oldIndex++;
+                    }
+                    if (oldIndex < elements.size()) {
+                        SQLScriptElement oldElement = elements.get(oldIndex);
+                        if (oldElement.getOffset() == element.getOffset() && oldElement.getLength() == element.getLength()) {
+                            // The rest of the script is the same
+                            resyncIndex = oldIndex;
+                            break;
+                        }
+                    }
+                }
+                parsedElements.add(element);
+                queryOffset = element.getOffset() + element.getLength();
+            }
+            completed = true;
+        } finally {
+            context.endScriptEvaluation();
+            synchronized (this) {
+                parsing = false;
+                if (!completed || fullParse || (stopped && parsedControlCommands)) {
+                    // Parse failed or the index was reset. Control commands can't be shifted
+                    fullParse = true;
+                } else {
+                    mergeParsedElements(
+                        parsedElements, parseStart, firstChanged, resyncIndex, wasFullParse, stopped, documentLength);
+                    hasControlCommands = wasFullParse ? parsedControlCommands : hasControlCommands | parsedControlCommands;
+                    for (int[] change : pendingChanges) {
+                        applyChange(change[0], change[1], change[2]);
+                    }
+                }
+                pendingChanges.clear();
+            }
+        }
+        synchronized (this) {
+            return fullParse || dirtyStart >= 0;
+        }
+    }
+
+    private void mergeParsedElements(
+        @NotNull List<SQLScriptElement> parsedElements,
+        int parseStart,
+        int firstChanged,
+        int resyncIndex,
+        boolean wasFullParse,
+        boolean stopped,
+        int documentLength)
+    {
+        int parsedEnd = parsedElements.isEmpty() ? parseStart : getEndOffset(parsedElements.get(parsedElements.size() - 1));
+        int replaceEnd;
+        if (resyncIndex >= 0) {
+            replaceEnd = resyncIndex;
+        } else if (!stopped || wasFullParse) {
+            replaceEnd = elements.size();
+        } else {
+            // Elements after the parsed part are kept, they are checked by the next parse
+            replaceEnd = firstChanged;
+            while (replaceEnd < elements.size() && elements.get(replaceEnd).getOffset() < parsedEnd) {
+                replaceEnd++;
+            }
+        }
+        elements.subList(firstChanged, replaceEnd).clear();
+        elements.addAll(firstChanged, parsedElements);
+        if (!stopped) {
+            dirtyStart = dirtyEnd = -1;
+        } else if (wasFullParse) {
+            // Nothing is indexed after the parsed part
+            dirtyStart = parsedEnd;
+            dirtyEnd = documentLength;
+        } else {
+            // Parsing restarts where it stopped, not before the initially changed statement
+            dirtyStart = Math.max(dirtyStart, parsedEnd);
+            dirtyEnd = Math.max(dirtyEnd, parsedEnd);
+        }
+    }
+
+    /**
+     * Returns index of the first element which ends at or after the specified offset
+     */
+    private int findFirstEndingAfter(int offset) {
+        int low = 0;
+        int high = elements.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getEndOffset(elements.get(mid)) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int getEndOffset(@NotNull SQLScriptElement element) {
+        return element.getOffset() + element.getLength();
+    }
+
+}
@@ -126,6 +126,11 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
             // We must be aware of nulls because actual insert statements may differ depending on null values.
             // So if row nulls aren't the same as in previous row we need to prepare new statement and restart batch.
             // Quite complicated but works.
+            // Attributes which are always bound (typed NULLs) do not affect statement text, so their nulls are ignored.
+            boolean[] nullSensitive = new boolean[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                nullSensitive[i] = isNullSensitive(i, options);
+            }
             boolean[] prevNulls = new boolean[attributes.length];
             boolean[] nulls = new boolean[attributes.length];
             int statementsInBatch = 0;
@@ -142,7 +147,7 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
                 boolean reuse = !skipBindValues && reuseStatement;
                 if (reuse) {
                     for (int i = 0; i < rowValues.length; i++) {
-                        nulls[i] = DBUtils.isNullValue(rowValues[i]);
+                        nulls[i] = nullSensitive[i] && DBUtils.isNullValue(rowValues[i]);
                     }
                     if (!Arrays.equals(prevNulls, nulls) && statementsInBatch > 0) {
                         reuse = false;
@@ -230,6 +235,17 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
         return paramIndex + 1;
     }
 
+    /**
+     * Checks whether statement text depends on null value of the specified attribute.
+     * Statement and batch are restarted each time the null pattern of such attributes changes.
+     *
+     * @param attributeIndex attribute index
+     * @param options        execute options
+     */
+    protected boolean isNullSensitive(int attributeIndex, Map<String, Object> options) {
+        return true;
+    }
+
     String formatQueryParameters(DBCSession session, String queryString, DBDValueHandler[] handlers, Object[] rowValues) {
         if (handlers.length == 0) {
             return queryString;
@@ -47,6 +47,11 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
     private boolean useUpsert;
     private boolean allNulls;
     private boolean allColumnsDefault;
+    // Attributes which may be bound as typed NULLs (lazily computed)
+    private boolean[] typedNullAttributes;
+    // Attributes which NULL values are bound as typed NULLs in current statement. Null if typed NULLs are disabled
+    @Nullable
+    private boolean[] statementTypedNulls;
 
     /**
      * Constructs new batch
@@ -66,12 +71,41 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
     protected int getNextUsedParamIndex(Object[] attributeValues, int paramIndex) {
         paramIndex++;
         DBSAttributeBase attribute = attributes[paramIndex];
-        while (DBUtils.isPseudoAttribute(attribute) || (!allNulls && DBUtils.isNullValue(attributeValues[paramIndex]))) {
+        while (DBUtils.isPseudoAttribute(attribute) || (!allNulls && isOmittedNull(attributeValues, paramIndex))) {
             paramIndex++;
         }
         return paramIndex;
     }
 
+    @Override
+    protected boolean isNullSensitive(int attributeIndex, Map<String, Object> options) {
+        boolean[] typedNulls = getTypedNullAttributes(options);
+        return typedNulls == null || !typedNulls[attributeIndex];
+    }
+
+    /**
+     * Attributes without default values may be bound as typed NULL.
+     * In this case statement text doesn't depend on null values and it can be reused for all rows.
+     */
+    @Nullable
+    private boolean[] getTypedNullAttributes(Map<String, Object> options) {
+        if (useUpsert || !CommonUtils.toBoolean(options.get(DBSDataManipulator.OPTION_BIND_TYPED_NULLS))) {
+            // UPSERT doesn't update omitted columns so NULL can't be bound instead of them
+            return null;
+        }
+        if (typedNullAttributes == null) {
+            typedNullAttributes = new boolean[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                typedNullAttributes[i] = isTypedNullAttribute(attributes[i]);
+            }
+        }
+        return typedNullAttributes;
+    }
+
+    private boolean isOmittedNull(Object[] attributeValues, int index) {
+        return DBUtils.isNullValue(attributeValues[index]) && (statementTypedNulls == null || !statementTypedNulls[index]);
+    }
+
     @NotNull
     @Override
     protected DBCStatement prepareStatement(@NotNull DBCSession session, DBDValueHandler[] handlers, Object[] attributeValues, Map<String, Object> options) throws DBCException {
@@ -97,7 +131,7 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
         int paramIndex = 0;
         for (int k = 0; k < handlers.length; k++) {
             DBSAttributeBase attribute = attributes[k];
-            if (DBUtils.isPseudoAttribute(attribute) || (!allNulls && DBUtils.isNullValue(attributeValues[k]))) {
+            if (DBUtils.isPseudoAttribute(attribute) || (!allNulls && isOmittedNull(attributeValues, k))) {
                 continue;
             }
             if (allNulls && attributeHasDefaultValue(attribute)) {
@@ -120,6 +154,8 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
         Map<String, Object> options) throws DBCException {
 
         allColumnsDefault = false;
+        boolean[] typedNulls = useMultiRowInsert ? null : getTypedNullAttributes(options);
+        statementTypedNulls = typedNulls;
         
         Assert.isLegal(attributes.length == handlers.length);
         Assert.isLegal(useMultiRowInsert || attributes.length == attributeValues.length);
@@ -143,7 +179,8 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
 
         allNulls = true;
         for (int i = 0; i < attributes.length; i++) {
-            if (!DBUtils.isNullValue(attributeValues[i])) {
+            if (!DBUtils.isNullValue(attributeValues[i]) || (typedNulls != null && typedNulls[i])) {
+                // Typed NULL is a regular parameter. Row which has them is not "all nulls" row.
                 allNulls = false;
                 break;
             }
@@ -159,7 +196,7 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
         List<Integer> usedAttributes = new ArrayList<Integer>();
         for (int i = 0; i < attributes.length; i++) {
             DBSAttributeBase attribute = attributes[i];
-            if (DBUtils.isPseudoAttribute(attribute) || (!useMultiRowInsert && (!allNulls && DBUtils.isNullValue(attributeValues[i])))) {
+            if (DBUtils.isPseudoAttribute(attribute) || (!useMultiRowInsert && (!allNulls && isOmittedNull(attributeValues, i)))) {
                 continue;
             }
             if (hasKey) query.append(","); //$NON-NLS-1$
@@ -208,6 +245,20 @@ public class ExecuteInsertBatchImpl extends ExecuteBatchImpl {
         return query;
     }
 
+    private static boolean isTypedNullAttribute(@NotNull DBSAttributeBase attribute) {
+        if (DBUtils.isPseudoAttribute(attribute) || attribute.isAutoGenerated()) {
+            return false;
+        }
+        DBSEntityAttribute entityAttribute = null;
+        if (attribute instanceof DBDAttributeBinding) {
+            entityAttribute = ((DBDAttributeBinding) attribute).getEntityAttribute();
+        } else if (attribute instanceof DBSEntityAttribute) {
+            entityAttribute = (DBSEntityAttribute) attribute;
+        }
+        // Explicit NULL differs from omitted value only if attribute has default or is generated
+        return entityAttribute != null && !entityAttribute.isAutoGenerated() && CommonUtils.isEmpty(entityAttribute.getDefaultValue());
+    }
+
     private boolean attributeHasDefaultValue(@NotNull DBSAttributeBase attribute) {
         if (DBUtils.isPseudoAttribute(attribute) || DBUtils.isHiddenObject(attribute)) {
             return false;
@@ -0,0 +1,310 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of idle physical connections of isolated execution contexts.
+ * <p>
+ * When isolated context is closed its connection is returned to the pool instead of closing.
+ * Next isolated context of the same instance reuses it and skips connection handshake.
+ * Connections are validated before reuse, their initial catalog and schema are restored on release.
+ * Connections which stay idle longer than {@link ModelPreferences#CONNECTION_POOL_IDLE_TIMEOUT} are closed.
+ */
+public class JDBCConnectionPool {
+
+    private static final Log log = Log.getLog(JDBCConnectionPool.class);
+
+    // Connections returned recently are reused without validation
+    private static final long VALIDATE_IDLE_PERIOD = 5000;
+
+    @NotNull
+    private final JDBCDataSource dataSource;
+    // Guarded by this. Last returned connections are at the end
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private final AtomicLong connectTime = new AtomicLong();
+    private final AtomicLong acquireTime = new AtomicLong();
+
+    JDBCConnectionPool(@NotNull JDBCDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Maximum number of idle connections. Zero means that pooling is disabled.
+     */
+    public int getMaxIdleConnections() {
+        return dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.CONNECTION_POOL_MAX_IDLE);
+    }
+
+    private long getIdleTimeout() {
+        return dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT) * 1000L;
+    }
+
+    public synchronized int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Number of physical connections opened for isolated contexts
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * Number of isolated contexts which reused pooled connections
+     */
+    public long getReuseCount() {
+        return reuseCount.get();
+    }
+
+    /**
+     * Average time of physical connection open (ms)
+     */
+    public long getAverageConnectTime() {
+        long count = openCount.get();
+        return count == 0 ? 0 : connectTime.get() / count;
+    }
+
+    /**
+     * Average time of pooled connection acquire, including validation (ms)
+     */
+    public long getAverageWaitTime() {
+        long count = reuseCount.get();
+        return count == 0 ? 0 : acquireTime.get() / count;
+    }
+
+    /**
+     * Estimated connect time saved by connection reuse (ms)
+     */
+    public long getSavedConnectTime() {
+        return Math.max(0, reuseCount.get() * (getAverageConnectTime() - getAverageWaitTime()));
+    }
+
+    /**
+     * Returns idle valid connection or null if pool is empty
+     */
+    @Nullable
+    PooledConnection acquire(@NotNull DBRProgressMonitor monitor) {
+        if (getMaxIdleConnections() <= 0) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        long idleTimeout = getIdleTimeout();
+        for (;;) {
+            PooledConnection pooled;
+            synchronized (this) {
+                pooled = idleConnections.pollLast();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long idleTime = System.currentTimeMillis() - pooled.releaseTime;
+            if ((idleTimeout > 0 && idleTime > idleTimeout) ||
+                (idleTime > VALIDATE_IDLE_PERIOD && !isConnectionValid(monitor, pooled.connection)))
+            {
+                closeConnection(pooled);
+                continue;
+            }
+            reuseCount.incrementAndGet();
+            acquireTime.addAndGet(System.currentTimeMillis() - startTime);
+            return pooled;
+        }
+    }
+
+    /**
+     * Registers newly opened connection. Saves its initial state which is restored on release.
+     */
+    @NotNull
+    PooledConnection register(@NotNull Connection connection, long openTime) {
+        openCount.incrementAndGet();
+        connectTime.addAndGet(openTime);
+        if (getMaxIdleConnections() <= 0) {
+            // Connection can't be pooled without its initial state
+            return new PooledConnection(connection, false, null, null);
+        }
+        String catalog = null, schema = null;
+        try {
+            catalog = connection.getCatalog();
+        } catch (Throwable e) {
+            log.debug("Can't read connection catalog: " + e.getMessage());
+        }
+        try {
+            schema = connection.getSchema();
+        } catch (Throwable e) {
+            // Not supported by old drivers
+            log.debug("Can't read connection schema: " + e.getMessage());
+        }
+        return new PooledConnection(connection, true, catalog, schema);
+    }
+
+    /**
+     * Returns connection to the pool.
+     *
+     * @return false if connection can't be pooled and must be closed by caller
+     */
+    boolean release(@NotNull PooledConnection pooled, boolean rollback) {
+        int maxIdle = getMaxIdleConnections();
+        if (maxIdle <= 0 || !pooled.poolable) {
+            return false;
+        }
+        synchronized (this) {
+            if (idleConnections.size() >= maxIdle) {
+                return false;
+            }
+        }
+        Connection connection = pooled.connection;
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (rollback) {
+                connection.rollback();
+            }
+            if (pooled.catalog != null && !CommonUtils.equalObjects(pooled.catalog, connection.getCatalog())) {
+                connection.setCatalog(pooled.catalog);
+            }
+            if (pooled.schema != null && !CommonUtils.equalObjects(pooled.schema, connection.getSchema())) {
+                connection.setSchema(pooled.schema);
+            }
+        } catch (Throwable e) {
+            log.debug("Can't reset pooled connection state: " + e.getMessage());
+            return false;
+        }
+        pooled.releaseTime = System.currentTimeMillis();
+        synchronized (this) {
+            if (idleConnections.size() >= maxIdle) {
+                return false;
+            }
+            idleConnections.addLast(pooled);
+        }
+        return true;
+    }
+
+    /**
+     * Closes connections which are idle for too long
+     */
+    public void evictIdle() {
+        long idleTimeout = getIdleTimeout();
+        int maxIdle = getMaxIdleConnections();
+        List<PooledConnection> expired = null;
+        synchronized (this) {
+            if (idleConnections.isEmpty()) {
+                return;
+            }
+            long currentTime = System.currentTimeMillis();
+            for (Iterator<PooledConnection> iter = idleConnections.iterator(); iter.hasNext(); ) {
+                PooledConnection pooled = iter.next();
+                if (idleConnections.size() > maxIdle || (idleTimeout > 0 && currentTime - pooled.releaseTime > idleTimeout)) {
+                    iter.remove();
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(pooled);
+                }
+            }
+        }
+        if (expired != null) {
+            for (PooledConnection pooled : expired) {
+                closeConnection(pooled);
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections
+     */
+    void close() {
+        List<PooledConnection> connections;
+        synchronized (this) {
+            connections = new ArrayList<>(idleConnections);
+            idleConnections.clear();
+        }
+        for (PooledConnection pooled : connections) {
+            closeConnection(pooled);
+        }
+    }
+
+    private boolean isConnectionValid(@NotNull DBRProgressMonitor monitor, @NotNull Connection connection) {
+        monitor.subTask("Validate pooled connection");
+        int timeout = dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT);
+        try {
+            return connection.isValid(Math.max(1, timeout / 1000));
+        } catch (SQLException e) {
+            return false;
+        } catch (Throwable e) {
+            // Not supported by old drivers
+            return JDBCUtils.isConnectionAlive(dataSource, connection);
+        }
+    }
+
+    private void closeConnection(@NotNull PooledConnection pooled) {
+        if (!dataSource.closeConnection(pooled.connection, "Pooled connection", false)) {
+            log.debug("Pooled connection close timeout");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Connection pool of '" + dataSource.getName() + "': " +
+            getIdleCount() + " idle, " + openCount.get() + " opened, " + reuseCount.get() + " reused, " +
+            "avg connect " + getAverageConnectTime() + "ms, avg wait " + getAverageWaitTime() + "ms, " +
+            "saved " + getSavedConnectTime() + "ms";
+    }
+
+    static final class PooledConnection {
+        @NotNull
+        private final Connection connection;
+        private final boolean poolable;
+        @Nullable
+        private final String catalog;
+        @Nullable
+        private final String schema;
+        private volatile long releaseTime;
+
+        PooledConnection(@NotNull Connection connection, boolean poolable, @Nullable String catalog, @Nullable String schema) {
+            this.connection = connection;
+            this.poolable = poolable;
+            this.catalog = catalog;
+            this.schema = schema;
+        }
+
+        @NotNull
+        Connection getConnection() {
+            return connection;
+        }
+    }
+
+}
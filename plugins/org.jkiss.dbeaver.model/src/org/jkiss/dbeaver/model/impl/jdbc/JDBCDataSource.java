@@ -34,6 +34,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCacheBudget;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCConnectionImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
@@ -89,6 +90,7 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     private final transient List<Connection> closingConnections = new ArrayList<>();
     private List<Path> tempFiles;
+    private final JDBCCacheBudget metadataCacheBudget;
 
 
     protected JDBCDataSource(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSourceContainer container, @NotNull SQLDialect dialect)
@@ -116,6 +118,7 @@ public abstract class JDBCDataSource extends AbstractDataSource
         this.dataSourceInfo = new JDBCDataSourceInfo(container);
         this.sqlDialect = dialect;
         this.jdbcFactory = createJdbcFactory();
+        this.metadataCacheBudget = new JDBCCacheBudget(container);
     }
 
     @NotNull
@@ -399,6 +402,14 @@ public abstract class JDBCDataSource extends AbstractDataSource
         return defaultRemoteInstance;
     }
 
+    /**
+     * Metadata caches budget and statistics
+     */
+    @NotNull
+    public JDBCCacheBudget getMetadataCacheBudget() {
+        return metadataCacheBudget;
+    }
+
     @NotNull
     @Override
     public List<? extends JDBCRemoteInstance> getAvailableInstances() {
@@ -423,6 +434,11 @@ public abstract class JDBCDataSource extends AbstractDataSource
         }
         defaultRemoteInstance = null;
 
+        if (metadataCacheBudget.getRequests() > 0) {
+            log.debug(metadataCacheBudget.toString());
+        }
+        metadataCacheBudget.clear();
+
         if (tempFiles != null) {
             for (Path tmpFile : tempFiles) {
                 try {
@@ -60,6 +60,10 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     private volatile Boolean autoCommit;
     private volatile Integer transactionIsolationLevel;
     private transient volatile boolean txnIsolationLevelReadInProgress;
+    // Isolated contexts return their connections to the instance pool on close
+    private boolean pooled;
+    @Nullable
+    private volatile JDBCConnectionPool.PooledConnection pooledConnection;
 
     public JDBCExecutionContext(@NotNull JDBCRemoteInstance instance, String purpose) {
         super(instance.getDataSource(), purpose);
@@ -75,6 +79,10 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         this.instance = instance;
     }
 
+    void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
     @NotNull
     private Connection getConnection() throws DBCException {
         Connection dbCon = this.connection;
@@ -100,7 +108,7 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
 
         Object exclusiveLock = currentInstance.getExclusiveLock().acquireExclusiveLock();
         try {
-            this.connection = dataSource.openConnection(monitor, this, purpose);
+            this.connection = openConnection(monitor, currentInstance);
             if (this.connection == null) {
                 throw new DBCException("Null connection returned");
             }
@@ -180,6 +188,48 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
 
     }
 
+    private Connection openConnection(@NotNull DBRProgressMonitor monitor, @NotNull JDBCRemoteInstance currentInstance) throws DBCException {
+        if (!pooled) {
+            return dataSource.openConnection(monitor, this, purpose);
+        }
+        JDBCConnectionPool pool = currentInstance.getConnectionPool();
+        JDBCConnectionPool.PooledConnection idleConnection = pool.acquire(monitor);
+        if (idleConnection != null) {
+            this.pooledConnection = idleConnection;
+            return idleConnection.getConnection();
+        }
+        long startTime = System.currentTimeMillis();
+        Connection newConnection = dataSource.openConnection(monitor, this, purpose);
+        if (newConnection != null) {
+            this.pooledConnection = pool.register(newConnection, System.currentTimeMillis() - startTime);
+        }
+        return newConnection;
+    }
+
+    /**
+     * Returns connection to the instance pool
+     *
+     * @return false if connection wasn't pooled and must be closed
+     */
+    private boolean releaseConnection() {
+        JDBCConnectionPool.PooledConnection curConnection = this.pooledConnection;
+        if (curConnection == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (connection != curConnection.getConnection() ||
+                !instance.getConnectionPool().release(curConnection, !isAutoCommit(false)))
+            {
+                return false;
+            }
+            this.connection = null;
+            this.pooledConnection = null;
+        }
+        // Notify QM
+        super.closeContext();
+        return true;
+    }
+
     protected void disconnect() {
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
@@ -189,6 +239,7 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
                 log.debug("Connection close timeout");
             }
             this.connection = null;
+            this.pooledConnection = null;
         }
         // Notify QM
         super.closeContext();
@@ -260,6 +311,9 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         if (removeContext) {
             // Remove self from context list
             this.instance.removeContext(this);
+            if (releaseConnection()) {
+                return;
+            }
         }
 
         disconnect();
@@ -459,6 +513,8 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     }
 
     public void reconnect(DBRProgressMonitor monitor) throws DBCException {
+        // Current connection may be broken - do not return it to the pool
+        this.pooledConnection = null;
         close();
         connect(monitor, null, null, this, true);
     }
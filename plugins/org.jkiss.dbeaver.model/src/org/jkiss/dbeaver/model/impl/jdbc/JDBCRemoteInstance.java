@@ -53,10 +53,13 @@ public class JDBCRemoteInstance implements DBSInstance {
     @NotNull
     private final List<JDBCExecutionContext> allContexts = new ArrayList<>();
     private final DBPExclusiveResource exclusiveLock = new SimpleExclusiveLock();
+    @NotNull
+    private final JDBCConnectionPool connectionPool;
 
     protected JDBCRemoteInstance(@NotNull DBRProgressMonitor monitor, @NotNull JDBCDataSource dataSource, boolean initContext)
         throws DBException {
         this.dataSource = dataSource;
+        this.connectionPool = new JDBCConnectionPool(dataSource);
         if (initContext) {
             initializeMainContext(monitor);
         }
@@ -64,6 +67,7 @@ public class JDBCRemoteInstance implements DBSInstance {
 
     protected JDBCRemoteInstance(@NotNull JDBCDataSource dataSource) {
         this.dataSource = dataSource;
+        this.connectionPool = new JDBCConnectionPool(dataSource);
     }
 
     @Override
@@ -159,6 +163,7 @@ public class JDBCRemoteInstance implements DBSInstance {
             return sharedInstance.openIsolatedContext(monitor, purpose, initFrom);
         }
         JDBCExecutionContext context = dataSource.createExecutionContext(this, purpose);
+        context.setPooled(true);
         DBExecUtils.tryExecuteRecover(monitor, getDataSource(), monitor1 -> {
             try {
                 context.connect(monitor1, null, null, (JDBCExecutionContext) initFrom, true);
@@ -169,6 +174,17 @@ public class JDBCRemoteInstance implements DBSInstance {
         return context;
     }
 
+    /**
+     * Pool of isolated contexts connections
+     */
+    @NotNull
+    public JDBCConnectionPool getConnectionPool() {
+        if (sharedInstance != null) {
+            return sharedInstance.getConnectionPool();
+        }
+        return connectionPool;
+    }
+
     @NotNull
     @Override
     public JDBCExecutionContext[] getAllContexts() {
@@ -239,6 +255,11 @@ public class JDBCRemoteInstance implements DBSInstance {
             context.close();
             monitor.worked(1);
         }
+        // Isolated contexts could return their connections to the pool
+        if (connectionPool.getOpenCount() > 0) {
+            log.debug(connectionPool.toString());
+        }
+        connectionPool.close();
     }
 
     void addContext(JDBCExecutionContext context) {
@@ -0,0 +1,95 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tracks cache loads which are in progress.
+ * Data for the same key is loaded by one thread at a time, other threads wait for it instead of running the same query.
+ * Loads of different keys run in parallel.
+ */
+final class CacheLoadTracker {
+
+    interface Loader {
+        void load() throws DBException;
+    }
+
+    private static final long WAIT_CHECK_PERIOD = 100;
+
+    private final Map<Object, Load> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Runs loader unless the same key is being loaded by another thread.
+     * Otherwise waits until the other load ends. In this case cache state must be checked again
+     * because the other load may fail or be canceled.
+     *
+     * @return true if loader was executed by this thread
+     */
+    boolean runLoad(@NotNull DBRProgressMonitor monitor, @NotNull Object key, @NotNull Loader loader) throws DBException {
+        Load newLoad = new Load();
+        Load activeLoad = loads.putIfAbsent(key, newLoad);
+        if (activeLoad != null) {
+            if (activeLoad.thread == Thread.currentThread()) {
+                // Nested load of the same key
+                loader.load();
+                return true;
+            }
+            waitForLoad(monitor, activeLoad);
+            return false;
+        }
+        try {
+            loader.load();
+        } finally {
+            loads.remove(key, newLoad);
+            newLoad.result.complete(null);
+        }
+        return true;
+    }
+
+    private static void waitForLoad(@NotNull DBRProgressMonitor monitor, @NotNull Load load) {
+        while (!monitor.isCanceled()) {
+            try {
+                load.result.get(WAIT_CHECK_PERIOD, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // Check for cancel and wait again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // Never happens, errors are reported by the loading thread
+                return;
+            }
+        }
+    }
+
+    private static class Load {
+        private final Thread thread = Thread.currentThread();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPPersistedObject;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metadata cache budget of a data source.
+ * <p>
+ * Tracks children lists cached by struct and composite caches (columns, constraints, indexes) in LRU order.
+ * If total number of cached child objects exceeds the limit ({@link ModelPreferences#META_CACHE_MAX_OBJECTS})
+ * then the least recently used lists are evicted. Evicted children are read again on the next access.
+ * <p>
+ * Eviction replaces children with new instances, so lists which may be referenced are never evicted:
+ * <ul>
+ *     <li>parent or some children are not persisted (new objects which were not saved yet)</li>
+ *     <li>navigator has nodes of children (they are shown in navigator tree or in editors)</li>
+ *     <li>lists which are referenced by other lists of the same parent (columns are referenced by constraints and indexes)
+ *     are evicted only after them</li>
+ * </ul>
+ * Also collects cache hit statistics.
+ */
+public class JDBCCacheBudget {
+
+    private static final Log log = Log.getLog(JDBCCacheBudget.class);
+
+    private final DBPDataSourceContainer container;
+    // Guarded by this
+    private final LinkedHashMap<EntryKey, CachedList> entries = new LinkedHashMap<>(1000, 0.75f, true);
+    // Number of cached lists of each parent
+    private final Map<Object, Integer> parentLists = new IdentityHashMap<>();
+    private long cachedObjects;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public JDBCCacheBudget(@NotNull DBPDataSourceContainer container) {
+        this.container = container;
+    }
+
+    @Nullable
+    static JDBCCacheBudget getBudget(@Nullable DBSObject object) {
+        DBPDataSource dataSource = object == null ? null : object.getDataSource();
+        return dataSource instanceof JDBCDataSource ? ((JDBCDataSource) dataSource).getMetadataCacheBudget() : null;
+    }
+
+    /**
+     * Maximum number of cached child objects. Zero means no limit.
+     */
+    public int getMaxObjects() {
+        return container.getPreferenceStore().getInt(ModelPreferences.META_CACHE_MAX_OBJECTS);
+    }
+
+    public synchronized long getCachedObjects() {
+        return cachedObjects;
+    }
+
+    public synchronized int getCachedLists() {
+        return entries.size();
+    }
+
+    /**
+     * Number of children lists requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Number of children lists requests served without reading from database
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Percentage of children requests served from cache
+     */
+    public double getHitRate() {
+        long total = requests.get();
+        return total == 0 ? 0 : getHits() * 100.0 / total;
+    }
+
+    /**
+     * Registers cached children list. Evicts least recently used lists if the budget is exceeded.
+     *
+     * @param referencedBySiblings children may be referenced by other lists of the same parent
+     * @param evictor removes children from the cache
+     */
+    void addChildren(
+        @NotNull Object cache,
+        @NotNull DBSObject parent,
+        int size,
+        boolean referencedBySiblings,
+        @NotNull ChildrenEvictor evictor)
+    {
+        loads.incrementAndGet();
+        int maxObjects = getMaxObjects();
+        List<CachedList> evicted = null;
+        synchronized (this) {
+            EntryKey key = new EntryKey(cache, parent);
+            CachedList oldEntry = entries.put(key, new CachedList(parent, size, referencedBySiblings, evictor));
+            if (oldEntry != null) {
+                cachedObjects -= oldEntry.size;
+            } else {
+                parentLists.merge(parent, 1, Integer::sum);
+            }
+            cachedObjects += size;
+            if (maxObjects > 0 && cachedObjects > maxObjects) {
+                DBNModel navigatorModel = getNavigatorModel();
+                for (Iterator<Map.Entry<EntryKey, CachedList>> iter = entries.entrySet().iterator();
+                     cachedObjects > maxObjects && iter.hasNext(); )
+                {
+                    Map.Entry<EntryKey, CachedList> eldest = iter.next();
+                    CachedList entry = eldest.getValue();
+                    if (eldest.getKey().equals(key) || isInUse(entry, navigatorModel)) {
+                        // Do not evict what we've just read or what is used
+                        continue;
+                    }
+                    iter.remove();
+                    releaseEntry(entry);
+                    if (evicted == null) {
+                        evicted = new ArrayList<>();
+                    }
+                    evicted.add(entry);
+                }
+            }
+        }
+        if (evicted != null) {
+            // Evict outside of the budget lock, caches use their own locks
+            evictions.addAndGet(evicted.size());
+            for (CachedList entry : evicted) {
+                try {
+                    entry.evictor.evictChildren();
+                } catch (Exception e) {
+                    log.debug("Error evicting metadata cache", e);
+                }
+            }
+            log.debug("Evicted " + evicted.size() + " metadata lists from '" + container.getName() + "' cache");
+        }
+    }
+
+    /**
+     * Marks children list as recently used
+     *
+     * @param hit children were in the cache before the request
+     */
+    void touchChildren(@NotNull Object cache, @NotNull Object parent, boolean hit) {
+        requests.incrementAndGet();
+        if (hit) {
+            hits.incrementAndGet();
+        }
+        if (getMaxObjects() > 0) {
+            synchronized (this) {
+                entries.get(new EntryKey(cache, parent));
+            }
+        }
+    }
+
+    /**
+     * Forgets children list which was removed from the cache
+     */
+    synchronized void removeChildren(@NotNull Object cache, @Nullable Object parent) {
+        if (parent != null) {
+            CachedList entry = entries.remove(new EntryKey(cache, parent));
+            if (entry != null) {
+                releaseEntry(entry);
+            }
+        } else {
+            for (Iterator<Map.Entry<EntryKey, CachedList>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<EntryKey, CachedList> entry = iter.next();
+                if (entry.getKey().cache == cache) {
+                    iter.remove();
+                    releaseEntry(entry.getValue());
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        parentLists.clear();
+        cachedObjects = 0;
+    }
+
+    private void releaseEntry(@NotNull CachedList entry) {
+        cachedObjects -= entry.size;
+        parentLists.computeIfPresent(entry.parent, (parent, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean isInUse(@NotNull CachedList entry, @Nullable DBNModel navigatorModel) {
+        if (entry.referencedBySiblings && parentLists.getOrDefault(entry.parent, 0) > 1) {
+            return true;
+        }
+        if (entry.parent instanceof DBPPersistedObject && !((DBPPersistedObject) entry.parent).isPersisted()) {
+            return true;
+        }
+        Collection<? extends DBSObject> children = entry.evictor.getCachedChildren();
+        if (children == null) {
+            return false;
+        }
+        for (DBSObject child : children) {
+            if ((child instanceof DBPPersistedObject && !((DBPPersistedObject) child).isPersisted()) ||
+                (navigatorModel != null && navigatorModel.getNodeByObject(child) != null))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private static DBNModel getNavigatorModel() {
+        try {
+            return DBWorkbench.getPlatform().getNavigatorModel();
+        } catch (Exception e) {
+            // No navigator in this runtime
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Metadata cache of '" + container.getName() + "': " +
+            getCachedObjects() + " objects in " + getCachedLists() + " lists, " +
+            String.format("hit rate %.1f%%", getHitRate()) + " (" + requests.get() + " requests, " + hits.get() + " hits, " + loads.get() + " loads), " +
+            evictions.get() + " evictions";
+    }
+
+    private static class EntryKey {
+        private final Object cache;
+        private final Object parent;
+
+        EntryKey(@NotNull Object cache, @NotNull Object parent) {
+            this.cache = cache;
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EntryKey && ((EntryKey) obj).cache == cache && ((EntryKey) obj).parent == parent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(cache) * 31 + System.identityHashCode(parent);
+        }
+    }
+
+    private static class CachedList {
+        private final DBSObject parent;
+        private final int size;
+        private final boolean referencedBySiblings;
+        private final ChildrenEvictor evictor;
+
+        CachedList(@NotNull DBSObject parent, int size, boolean referencedBySiblings, @NotNull ChildrenEvictor evictor) {
+            this.parent = parent;
+            this.size = size;
+            this.referencedBySiblings = referencedBySiblings;
+            this.evictor = evictor;
+        }
+    }
+
+    interface ChildrenEvictor {
+        /**
+         * Currently cached children. Null if children are not cached anymore
+         */
+        @Nullable
+        Collection<? extends DBSObject> getCachedChildren();
+
+        void evictChildren();
+    }
+
+}
@@ -56,6 +56,8 @@ public abstract class JDBCCompositeCache<
 {
     protected static final Log log = Log.getLog(JDBCCompositeCache.class);
     private static final String DEFAULT_OBJECT_NAME = "#DBOBJ";
+    // Load key of objects of all parents
+    private static final Object ALL_PARENTS = new Object();
 
     private final JDBCStructCache<OWNER,?,?> parentCache;
     private final Class<PARENT> parentType;
@@ -63,6 +65,7 @@ public abstract class JDBCCompositeCache<
     private final Object objectColumnName;
 
     private final Map<PARENT, List<OBJECT>> objectCache = new IdentityHashMap<>();
+    private final CacheLoadTracker objectLoads = new CacheLoadTracker();
 
     protected JDBCCompositeCache(
         JDBCStructCache<OWNER,?,?> parentCache,
@@ -117,7 +120,9 @@ public abstract class JDBCCompositeCache<
     public List<OBJECT> getObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
         throws DBException
     {
+        boolean cached = isObjectsLoaded(forParent);
         loadObjects(monitor, owner, forParent);
+        touchObjects(forParent, cached);
         return getCachedObjects(forParent);
     }
 
@@ -160,10 +165,12 @@ public abstract class JDBCCompositeCache<
     public OBJECT getObject(DBRProgressMonitor monitor, OWNER owner, PARENT forParent, String objectName)
         throws DBException
     {
+        boolean cached = isObjectsLoaded(forParent);
         loadObjects(monitor, owner, forParent);
         if (forParent == null) {
             return getCachedObject(objectName);
         } else {
+            touchObjects(forParent, cached);
             synchronized (objectCache) {
                 return DBUtils.findObject(objectCache.get(forParent), objectName);
             }
@@ -193,6 +200,7 @@ public abstract class JDBCCompositeCache<
             PARENT parent = getParent(object);
             if (resetFullCache) {
                 objectCache.remove(parent);
+                removeFromBudget(parent);
             } else {
                 List<OBJECT> subCache = objectCache.get(parent);
                 if (subCache != null) {
@@ -205,6 +213,7 @@ public abstract class JDBCCompositeCache<
     @Override
     public void clearObjectCache(PARENT forParent)
     {
+        removeFromBudget(forParent);
         if (forParent == null) {
             super.clearCache();
             objectCache.clear();
@@ -225,6 +234,7 @@ public abstract class JDBCCompositeCache<
     @Override
     public void clearCache()
     {
+        removeFromBudget(null);
         synchronized (objectCache) {
             this.objectCache.clear();
         }
@@ -233,6 +243,7 @@ public abstract class JDBCCompositeCache<
 
     @Override
     public void setCache(List<OBJECT> objects) {
+        removeFromBudget(null);
         super.setCache(objects);
         synchronized (objectCache) {
             objectCache.clear();
@@ -248,6 +259,49 @@ public abstract class JDBCCompositeCache<
         }
     }
 
+    private void touchObjects(@Nullable PARENT forParent, boolean hit) {
+        if (forParent != null) {
+            JDBCCacheBudget budget = JDBCCacheBudget.getBudget(forParent);
+            if (budget != null) {
+                budget.touchChildren(this, forParent, hit);
+            }
+        }
+    }
+
+    private void removeFromBudget(@Nullable PARENT forParent) {
+        JDBCCacheBudget budget;
+        if (forParent != null) {
+            budget = JDBCCacheBudget.getBudget(forParent);
+        } else {
+            List<OBJECT> cachedObjects = getCachedObjects();
+            budget = cachedObjects.isEmpty() ? null : JDBCCacheBudget.getBudget(cachedObjects.get(0));
+        }
+        if (budget != null) {
+            budget.removeChildren(this, forParent);
+        }
+    }
+
+    @Nullable
+    private List<OBJECT> getParentObjects(PARENT parent) {
+        synchronized (objectCache) {
+            List<OBJECT> objects = objectCache.get(parent);
+            return objects == null ? null : new ArrayList<>(objects);
+        }
+    }
+
+    private void evictObjects(PARENT parent) {
+        synchronized (objectCache) {
+            List<OBJECT> removedObjects = objectCache.remove(parent);
+            if (removedObjects != null) {
+                for (OBJECT obj : removedObjects) {
+                    super.removeObject(obj, false);
+                }
+            }
+        }
+        // Global list is incomplete now
+        setFullCache(false);
+    }
+
     private class ObjectInfo {
         final OBJECT object;
         final List<ROW_REF> rows = new ArrayList<>();
@@ -263,13 +317,31 @@ public abstract class JDBCCompositeCache<
     protected void loadObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
         throws DBException
     {
-        synchronized (objectCache) {
-            if ((forParent == null && isFullyCached()) ||
-                (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent))))
-            {
-                return;
+        // Objects of different parents are loaded in parallel.
+        // If objects of the same parent are being loaded by another thread then wait for it and check the cache again.
+        while (!isObjectsLoaded(forParent)) {
+            if (objectLoads.runLoad(monitor, forParent == null ? ALL_PARENTS : forParent, () -> readObjects(monitor, owner, forParent))) {
+                break;
+            }
+            if (monitor.isCanceled()) {
+                break;
             }
         }
+    }
+
+    private boolean isObjectsLoaded(PARENT forParent) {
+        synchronized (objectCache) {
+            return (forParent == null && isFullyCached()) ||
+                (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent)));
+        }
+    }
+
+    private void readObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
+        throws DBException
+    {
+        if (isObjectsLoaded(forParent)) {
+            return;
+        }
 
         // Load tables and columns first
         if (forParent == null) {
@@ -456,6 +528,33 @@ public abstract class JDBCCompositeCache<
                     }
                 }
             }
+            // Register in the data source budget. Least recently used parents are evicted and read again on demand
+            JDBCCacheBudget budget = JDBCCacheBudget.getBudget(owner);
+            if (budget != null) {
+                for (Map.Entry<PARENT, Map<String, ObjectInfo>> colEntry : parentObjectMap.entrySet()) {
+                    int size = 0;
+                    for (ObjectInfo objectInfo : colEntry.getValue().values()) {
+                        if (objectInfo.needsCaching) {
+                            size += 1 + objectInfo.rows.size();
+                        }
+                    }
+                    if (size > 0) {
+                        PARENT parent = colEntry.getKey();
+                        budget.addChildren(this, parent, size, false, new JDBCCacheBudget.ChildrenEvictor() {
+                            @Nullable
+                            @Override
+                            public Collection<? extends DBSObject> getCachedChildren() {
+                                return getParentObjects(parent);
+                            }
+
+                            @Override
+                            public void evictChildren() {
+                                evictObjects(parent);
+                            }
+                        });
+                    }
+                }
+            }
         }
 
     }
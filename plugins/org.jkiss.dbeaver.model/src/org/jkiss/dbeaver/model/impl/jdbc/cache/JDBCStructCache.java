@@ -47,9 +47,13 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
 {
     private static final Log log = Log.getLog(JDBCStructCache.class);
 
+    // Load key of children of all objects
+    private static final Object ALL_CHILDREN = new Object();
+
     private final Object objectNameColumn;
     private volatile boolean childrenCached = false;
     private final Map<OBJECT, SimpleObjectCache<OBJECT, CHILD>> childrenCache = new IdentityHashMap<>();
+    private final CacheLoadTracker childrenLoads = new CacheLoadTracker();
 
     abstract protected JDBCStatement prepareChildrenStatement(@NotNull JDBCSession session, @NotNull OWNER owner, @Nullable OBJECT forObject)
         throws SQLException;
@@ -72,10 +76,26 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
      * @throws org.jkiss.dbeaver.DBException
      *             on error
      */
-    public synchronized void loadChildren(DBRProgressMonitor monitor, OWNER owner, @Nullable final OBJECT forObject) throws DBException
+    public void loadChildren(DBRProgressMonitor monitor, OWNER owner, @Nullable final OBJECT forObject) throws DBException
+    {
+        // Children of different objects are loaded in parallel.
+        // If the same children are being loaded by another thread then wait for it and check the cache again.
+        while (!isChildrenLoaded(monitor, forObject)) {
+            if (childrenLoads.runLoad(monitor, forObject == null ? ALL_CHILDREN : forObject, () -> readChildren(monitor, owner, forObject))) {
+                break;
+            }
+        }
+    }
+
+    private boolean isChildrenLoaded(DBRProgressMonitor monitor, @Nullable OBJECT forObject) {
+        return (forObject == null && this.childrenCached)
+            || (forObject != null && (!forObject.isPersisted() || isChildrenCached(forObject)))
+            || monitor.isCanceled();
+    }
+
+    private void readChildren(DBRProgressMonitor monitor, OWNER owner, @Nullable final OBJECT forObject) throws DBException
     {
-        if ((forObject == null && this.childrenCached)
-            || (forObject != null && (!forObject.isPersisted() || isChildrenCached(forObject))) || monitor.isCanceled()) {
+        if (isChildrenLoaded(monitor, forObject)) {
             return;
         }
         if (forObject == null) {
@@ -218,21 +238,35 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
     @Nullable
     public List<CHILD> getChildren(DBRProgressMonitor monitor, OWNER owner, final OBJECT forObject) throws DBException
     {
+        boolean cached = isChildrenCached(forObject);
         loadChildren(monitor, owner, forObject);
-        synchronized (childrenCache) {
-            SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(forObject);
-            return nestedCache == null ? null : nestedCache.getAllObjects(monitor, null);
-        }
+        SimpleObjectCache<OBJECT, CHILD> nestedCache = getCachedChildren(forObject, cached);
+        return nestedCache == null ? null : nestedCache.getAllObjects(monitor, null);
     }
 
     @Nullable
     public CHILD getChild(DBRProgressMonitor monitor, OWNER owner, final OBJECT forObject, String objectName) throws DBException
     {
+        boolean cached = isChildrenCached(forObject);
         loadChildren(monitor, owner, forObject);
+        SimpleObjectCache<OBJECT, CHILD> nestedCache = getCachedChildren(forObject, cached);
+        return nestedCache == null ? null : nestedCache.getObject(monitor, forObject, objectName);
+    }
+
+    @Nullable
+    private SimpleObjectCache<OBJECT, CHILD> getCachedChildren(OBJECT forObject, boolean hit)
+    {
+        SimpleObjectCache<OBJECT, CHILD> nestedCache;
         synchronized (childrenCache) {
-            SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(forObject);
-            return nestedCache == null ? null : nestedCache.getObject(monitor, forObject, objectName);
+            nestedCache = childrenCache.get(forObject);
+        }
+        if (nestedCache != null && forObject != null) {
+            JDBCCacheBudget budget = JDBCCacheBudget.getBudget(forObject);
+            if (budget != null) {
+                budget.touchChildren(this, forObject, hit);
+            }
         }
+        return nestedCache;
     }
 
     public void clearChildrenCache(OBJECT forParent)
@@ -245,6 +279,19 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
             }
             childrenCached = false;
         }
+        JDBCCacheBudget budget = forParent == null ? getBudget() : JDBCCacheBudget.getBudget(forParent);
+        if (budget != null) {
+            budget.removeChildren(this, forParent);
+        }
+    }
+
+    @Nullable
+    private JDBCCacheBudget getBudget()
+    {
+        for (OBJECT object : getCachedObjects()) {
+            return JDBCCacheBudget.getBudget(object);
+        }
+        return null;
     }
 
     protected boolean isChildrenCached(OBJECT parent)
@@ -267,6 +314,29 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
             }
             nestedCache.setCache(children);
         }
+        // Register in the data source budget. Least recently used children lists are evicted and read again on demand.
+        // Children (columns) may be referenced by composite caches of the same parent (constraints, indexes)
+        JDBCCacheBudget budget = JDBCCacheBudget.getBudget(parent);
+        if (budget != null) {
+            budget.addChildren(this, parent, children.size(), true, new JDBCCacheBudget.ChildrenEvictor() {
+                @Nullable
+                @Override
+                public Collection<? extends DBSObject> getCachedChildren() {
+                    synchronized (childrenCache) {
+                        SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(parent);
+                        return nestedCache == null ? null : nestedCache.getCachedObjects();
+                    }
+                }
+
+                @Override
+                public void evictChildren() {
+                    synchronized (childrenCache) {
+                        childrenCache.remove(parent);
+                        childrenCached = false;
+                    }
+                }
+            });
+        }
     }
 
 }
\ No newline at end of file
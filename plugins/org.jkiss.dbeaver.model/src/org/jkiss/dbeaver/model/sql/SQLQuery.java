@@ -35,10 +35,12 @@ import net.sf.jsqlparser.statement.update.Update;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCAttributeMetaData;
 import org.jkiss.dbeaver.model.exec.DBCEntityMetaData;
+import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.sql.parser.SQLSemanticProcessor;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.StandardConstants;
@@ -55,6 +57,8 @@ import java.util.stream.Collectors;
  */
 public class SQLQuery implements SQLScriptElement {
 
+    private static final Log log = Log.getLog(SQLQuery.class);
+
     private static final Pattern QUERY_TITLE_PATTERN = Pattern.compile("^\\s*(?:--|//|/\\*)\\s*(?:name|title)\\s*:\\s*(.+)$", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
 
     @Nullable
@@ -76,6 +80,8 @@ public class SQLQuery implements SQLScriptElement {
     @NotNull
     private SQLQueryType type;
     private Statement statement;
+    // Statement is taken from the shared parse cache and must not be modified
+    private boolean sharedStatement;
     private SingleTableMeta singleTableMeta, rawSingleTableMetadata;
     private List<SQLSelectItem> selectItems;
     private String queryTitle;
@@ -132,7 +138,8 @@ public class SQLQuery implements SQLScriptElement {
                 this.parseError = new DBException("Empty query");
                 return;
             }
-            statement = SQLSemanticProcessor.parseQuery(dataSource == null ? null : dataSource.getSQLDialect(), text);
+            statement = SQLSemanticProcessor.parseQueryCached(dataSource == null ? null : dataSource.getSQLDialect(), text);
+            sharedStatement = true;
             if (statement instanceof Select) {
                 type = SQLQueryType.SELECT;
                 // Detect single source table (no joins, no group by, no sub-selects)
@@ -340,9 +347,22 @@ public class SQLQuery implements SQLScriptElement {
         return queryTitle;
     }
 
+    /**
+     * Returns parsed statement. Statement is owned by this query and may be modified by caller.
+     */
     @Nullable
     public Statement getStatement() {
         parseQuery();
+        if (sharedStatement) {
+            // Make own copy of the cached statement
+            try {
+                statement = SQLSemanticProcessor.parseQuery(dataSource == null ? null : dataSource.getSQLDialect(), text);
+                sharedStatement = false;
+            } catch (DBCException e) {
+                log.debug("Error parsing query copy", e);
+                return null;
+            }
+        }
         return statement;
     }
 
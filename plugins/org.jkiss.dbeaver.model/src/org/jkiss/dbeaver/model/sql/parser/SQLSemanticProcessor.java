@@ -23,6 +23,7 @@ import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.parser.CCJSqlParser;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.parser.ParseException;
 import net.sf.jsqlparser.parser.StringProvider;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
@@ -51,7 +52,12 @@ import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Semantic SQL processor
@@ -64,23 +70,162 @@ public class SQLSemanticProcessor {
 
     private static final boolean ALLOW_COMPLEX_PARSING = false;
 
+    private static final int PARSE_CACHE_SIZE = 1000;
+    private static final int PARSE_CACHE_MAX_QUERY_LENGTH = 64 * 1024;
+    public static final long DEFAULT_PARSE_TIMEOUT_MS = 5000;
+
+    private static volatile long parseTimeoutMs = DEFAULT_PARSE_TIMEOUT_MS;
+
+    // Parsed statements (or syntax errors) by parser configuration and query text. Access ordered (LRU).
+    private static final Map<ParseKey, Object> parseCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ParseKey, Object> eldest) {
+            return size() > PARSE_CACHE_SIZE;
+        }
+    };
+    private static final AtomicLong parseCacheHits = new AtomicLong();
+    private static final AtomicLong parseCacheMisses = new AtomicLong();
+    private static final int PARSE_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final ThreadPoolExecutor parseExecutor = new ThreadPoolExecutor(
+        PARSE_THREADS, PARSE_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "SQL query parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        parseExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Parses query. Returned statement belongs to the caller and may be modified.
+     * Queries with syntax errors which failed to parse recently fail immediately.
+     */
     public static Statement parseQuery(@Nullable SQLDialect dialect, @NotNull String sql) throws DBCException {
-        CCJSqlParser parser = new CCJSqlParser(new StringProvider(sql));
+        ParseKey key = new ParseKey(isSquareBracketQuotation(dialect), sql);
+        Object cached = getCachedParseResult(key);
+        if (cached instanceof DBCException) {
+            throw new DBCException(((DBCException) cached).getMessage(), ((DBCException) cached).getCause());
+        }
         try {
-            parser.withAllowComplexParsing(ALLOW_COMPLEX_PARSING);
-            if (dialect != null) {
-                // Enable square brackets
-                for (String[] qs : ArrayUtils.safeArray(dialect.getIdentifierQuoteStrings())) {
-                    if (qs.length == 2 && "[".equals(qs[0]) && "]".equals(qs[1])) {
-                        parser.withSquareBracketQuotation(true);
-                        break;
-                    }
+            return parseStatement(key);
+        } catch (SyntaxErrorException e) {
+            cacheParseResult(key, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parses query or returns previously parsed statement for the same query text and dialect.
+     * Returned statement is shared and must not be modified.
+     */
+    public static Statement parseQueryCached(@Nullable SQLDialect dialect, @NotNull String sql) throws DBCException {
+        ParseKey key = new ParseKey(isSquareBracketQuotation(dialect), sql);
+        Object cached = getCachedParseResult(key);
+        if (cached == null) {
+            parseCacheMisses.incrementAndGet();
+        } else {
+            parseCacheHits.incrementAndGet();
+        }
+        if (cached instanceof DBCException) {
+            throw new DBCException(((DBCException) cached).getMessage(), ((DBCException) cached).getCause());
+        } else if (cached != null) {
+            return (Statement) cached;
+        }
+        try {
+            Statement statement = parseStatement(key);
+            cacheParseResult(key, statement);
+            return statement;
+        } catch (SyntaxErrorException e) {
+            cacheParseResult(key, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sets maximum parse time of one query. Time spent waiting for a free parser thread is not counted.
+     */
+    public static void setParseTimeout(long timeoutMs) {
+        parseTimeoutMs = timeoutMs;
+    }
+
+    public static long getParseCacheHits() {
+        return parseCacheHits.get();
+    }
+
+    public static long getParseCacheMisses() {
+        return parseCacheMisses.get();
+    }
+
+    public static void clearParseCache() {
+        synchronized (parseCache) {
+            parseCache.clear();
+        }
+    }
+
+    @Nullable
+    private static Object getCachedParseResult(@NotNull ParseKey key) {
+        synchronized (parseCache) {
+            return parseCache.get(key);
+        }
+    }
+
+    private static void cacheParseResult(@NotNull ParseKey key, @NotNull Object result) {
+        if (key.sql.length() > PARSE_CACHE_MAX_QUERY_LENGTH) {
+            return;
+        }
+        synchronized (parseCache) {
+            parseCache.put(key, result);
+        }
+    }
+
+    @NotNull
+    private static Statement parseStatement(@NotNull ParseKey key) throws DBCException {
+        CCJSqlParser parser = new CCJSqlParser(new StringProvider(key.sql));
+        parser.withAllowComplexParsing(ALLOW_COMPLEX_PARSING);
+        if (key.squareBrackets) {
+            parser.withSquareBracketQuotation(true);
+        }
+        // Parse in a separate thread to limit parse time of huge generated queries
+        CountDownLatch started = new CountDownLatch(1);
+        Future<Statement> future = parseExecutor.submit(() -> {
+            started.countDown();
+            return parser.Statement();
+        });
+        long timeoutMs = parseTimeoutMs;
+        try {
+            // Time spent in the executor queue doesn't count
+            started.await();
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Parser doesn't check thread interruption, it stops on its own flag (like CCJSqlParserUtil does)
+            parser.interrupted = true;
+            future.cancel(true);
+            log.debug("SQL query parse timeout (" + key.sql.length() + " chars)");
+            throw new DBCException("SQL query parse timeout (" + timeoutMs + "ms)", e);
+        } catch (InterruptedException e) {
+            parser.interrupted = true;
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DBCException("SQL query parse interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ParseException) {
+                throw new SyntaxErrorException("Error parsing SQL query: " + cause.getMessage(), cause);
+            }
+            throw new DBCException("Error parsing SQL query: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static boolean isSquareBracketQuotation(@Nullable SQLDialect dialect) {
+        if (dialect != null) {
+            for (String[] qs : ArrayUtils.safeArray(dialect.getIdentifierQuoteStrings())) {
+                if (qs.length == 2 && "[".equals(qs[0]) && "]".equals(qs[1])) {
+                    return true;
                 }
             }
-            return parser.Statement();
-        } catch (Exception e) {
-            throw new DBCException("Error parsing SQL query: " + e.getMessage(), e);
         }
+        return false;
     }
 
     public static Statement parseQuery(@NotNull String sql) throws DBCException {
@@ -114,7 +259,7 @@ public class SQLSemanticProcessor {
     public static boolean isSelectQuery(SQLDialect dialect, String query)
     {
         try {
-            Statement statement = parseQuery(dialect, query);
+            Statement statement = parseQueryCached(dialect, query);
             return
                 statement instanceof Select &&
                 ((Select) statement).getSelectBody() instanceof PlainSelect &&
@@ -394,4 +539,40 @@ public class SQLSemanticProcessor {
         }
     }
 
+    /**
+     * Syntax error of the query. Only these errors are cached, timeouts and interruptions are not.
+     */
+    private static final class SyntaxErrorException extends DBCException {
+        SyntaxErrorException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Parse cache key. Dialects are distinguished by the parser configuration they produce.
+     */
+    private static final class ParseKey {
+        private final boolean squareBrackets;
+        private final String sql;
+
+        ParseKey(boolean squareBrackets, @NotNull String sql) {
+            this.squareBrackets = squareBrackets;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ParseKey)) {
+                return false;
+            }
+            ParseKey key = (ParseKey) obj;
+            return squareBrackets == key.squareBrackets && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(squareBrackets, sql);
+        }
+    }
+
 }
@@ -0,0 +1,60 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Data bulk exporter.
+ * Streams whole data container content in CSV format using database native facilities.
+ */
+public interface DBSDataBulkExporter {
+
+    // Single character value delimiter
+    String OPTION_DELIMITER = "delimiter";
+    // Single character quote
+    String OPTION_QUOTE_CHAR = "quoteChar";
+    // Boolean. Write column names in the first line
+    String OPTION_HEADER = "header";
+    // String which represents NULL values
+    String OPTION_NULL_STRING = "nullString";
+    // Output charset name
+    String OPTION_ENCODING = "encoding";
+
+    /**
+     * Checks whether data container can be exported with specified options.
+     */
+    boolean isBulkExportSupported(@NotNull DBSDataContainer dataContainer, @NotNull Map<String, Object> options);
+
+    /**
+     * Writes all rows of data container into the stream. Rows are delimited with a new line.
+     *
+     * @return number of exported rows
+     */
+    long exportBulkData(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull OutputStream stream,
+        @NotNull Map<String, Object> options)
+        throws DBCException;
+
+}
@@ -29,6 +29,9 @@ import java.util.Map;
  */
 public interface DBSDataBulkLoader {
 
+    // Commit loaded data in the end of bulk load. Loaders which are not bound to transactions may ignore it
+    String OPTION_USE_TRANSACTIONS = "data.bulkLoad.useTransactions";//$NON-NLS-1$
+
     interface BulkLoadManager extends AutoCloseable {
         void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException;
 
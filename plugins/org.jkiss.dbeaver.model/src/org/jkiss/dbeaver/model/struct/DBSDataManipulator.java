@@ -48,6 +48,8 @@ public interface DBSDataManipulator extends DBSDataContainer {
     String OPTION_DISABLE_BATCHES = "data.manipulate.disableBatches";//$NON-NLS-1$
     String OPTION_INSERT_REPLACE_METHOD = "data.manipulate.insertReplaceMethod";//$NON-NLS-1$
     String OPTION_USE_CURRENT_DIALECT_SETTINGS = "data.manipulate.useCurrentDialect";//$NON-NLS-1$
+    // Bind NULL values of attributes without defaults as typed NULLs instead of excluding them from statement
+    String OPTION_BIND_TYPED_NULLS = "data.manipulate.bindTypedNulls";//$NON-NLS-1$
 
     interface ExecuteBatch extends AutoCloseable {
         void add(@NotNull Object[] attributeValues) throws DBCException;
@@ -31,17 +31,25 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Various objects cache
+ * Various objects cache.
+ * <p>
+ * Readers do not lock the cache: object list is read from the snapshot and objects are looked up in the concurrent name index.
+ * Modifications are made under the cache monitor and reset the snapshot, so it is rebuilt by the next reader.
+ * Lists returned by {@link #getCachedObjects()} are unmodifiable snapshots shared between readers.
  */
 public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extends DBSObject>
     implements DBSObjectCache<OWNER, OBJECT>
 {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
+    // Guarded by cacheSync
     private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
+    // Copy of objectList for readers. Null if objectList was modified
+    private volatile List<OBJECT> objectListSnapshot = Collections.emptyList();
+    private volatile Map<String, OBJECT> objectMap;
     protected volatile boolean fullCache = false;
     protected volatile boolean caseSensitive = true;
 
@@ -75,8 +83,17 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public List<OBJECT> getCachedObjects()
     {
+        List<OBJECT> snapshot = objectListSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
         synchronized (cacheSync) {
-            return objectList == null ? Collections.emptyList() : objectList;
+            snapshot = objectListSnapshot;
+            if (snapshot == null) {
+                snapshot = objectList == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(objectList));
+                objectListSnapshot = snapshot;
+            }
+            return snapshot;
         }
     }
 
@@ -96,12 +113,25 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public OBJECT getCachedObject(@NotNull String name)
     {
-        synchronized (cacheSync) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
+        if (name == null) {
+            return null;
+        }
+        Map<String, OBJECT> map = objectMap;
+        if (map == null) {
+            map = getObjectMap();
+            if (map == null) {
+                return null;
+            }
         }
+        return map.get(caseSensitive ? name : name.toUpperCase());
     }
 
     public int getCacheSize() {
+        List<OBJECT> snapshot = objectListSnapshot;
+        if (snapshot != null) {
+            return snapshot.size();
+        }
+        // Do not make a snapshot just to count objects
         synchronized (cacheSync) {
             return objectList == null ? 0 : objectList.size();
         }
@@ -116,10 +146,13 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
             }
             detectCaseSensitivity(object);
             this.objectList.add(object);
+            this.objectListSnapshot = null;
             if (this.objectMap != null) {
                 String name = getObjectName(object);
-                checkDuplicateName(name, object);
-                this.objectMap.put(name, object);
+                if (name != null) {
+                    checkDuplicateName(name, object);
+                    this.objectMap.put(name, object);
+                }
             }
         }
     }
@@ -131,9 +164,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
             if (this.objectList != null) {
                 detectCaseSensitivity(object);
                 this.objectList.remove(object);
-                if (this.objectMap != null) {
-                    this.objectMap.remove(getObjectName(object));
-                }
+                this.objectListSnapshot = null;
+                removeFromObjectMap(object);
             }
             if (resetFullCache) {
                 fullCache = false;
@@ -149,10 +181,12 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
                     oldName = oldName.toUpperCase(Locale.ENGLISH);
                     newName = newName.toUpperCase(Locale.ENGLISH);
                 }
-                if (this.objectMap.remove(oldName) == object) {
+                if (this.objectMap.remove(oldName, object)) {
                     this.objectMap.put(newName, object);
                 }
             }
+            // New snapshot instance tells snapshot readers (e.g. completion name index) that names were changed
+            this.objectListSnapshot = null;
         }
     }
 
@@ -165,7 +199,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     }
 
     public boolean isEmpty() {
-        return CommonUtils.isEmpty(objectList);
+        return getCacheSize() == 0;
     }
 
     public boolean isFullyCached() {
@@ -181,6 +215,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     {
         synchronized (cacheSync) {
             this.objectList = null;
+            this.objectListSnapshot = Collections.emptyList();
             this.objectMap = null;
             this.fullCache = false;
         }
@@ -190,6 +225,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     {
         synchronized (cacheSync) {
             this.objectList = objects;
+            this.objectListSnapshot = null;
             this.objectMap = null;
             this.fullCache = true;
         }
@@ -212,19 +248,21 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     protected void mergeCache(List<OBJECT> objects)
     {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
+            if (!CommonUtils.isEmpty(this.objectList)) {
                 // Merge lists
+                Map<String, OBJECT> oldObjects = new HashMap<>(objectList.size());
+                for (OBJECT oldObject : objectList) {
+                    String oldObjectName = getObjectName(oldObject);
+                    if (oldObjectName != null) {
+                        oldObjects.putIfAbsent(oldObjectName, oldObject);
+                    }
+                }
                 objects = new ArrayList<>(objects);
                 for (int i = 0; i < objects.size(); i++) {
-                    OBJECT newObject = objects.get(i);
-                    String newObjectName = getObjectName(newObject);
-                    for (int k = 0; k < objectList.size(); k++) {
-                        OBJECT oldObject = objectList.get(k);
-                        String oldObjectName = getObjectName(oldObject);
-                        if (newObjectName.equals(oldObjectName)) {
-                            objects.set(i, oldObject);
-                            break;
-                        }
+                    String newObjectName = getObjectName(objects.get(i));
+                    OBJECT oldObject = newObjectName == null ? null : oldObjects.get(newObjectName);
+                    if (oldObject != null) {
+                        objects.set(i, oldObject);
                     }
                 }
             }
@@ -232,31 +270,54 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         setCache(objects);
     }
 
+    @Nullable
     private Map<String, OBJECT> getObjectMap()
     {
         synchronized (cacheSync) {
             if (this.objectMap == null) {
-                this.objectMap = new HashMap<>();
+                if (objectList == null) {
+                    return null;
+                }
+                Map<String, OBJECT> newMap = new ConcurrentHashMap<>(objectList.size());
                 if (objectList.size() > 0) {
                     detectCaseSensitivity(objectList.get(0));
                 }
 
                 for (OBJECT object : objectList) {
                     String name = getObjectName(object);
-                    checkDuplicateName(name, object);
-                    this.objectMap.put(name, object);
+                    if (name == null) {
+                        continue;
+                    }
+                    if (newMap.containsKey(name)) {
+                        logDuplicateName(name, object);
+                    }
+                    newMap.put(name, object);
                 }
+                this.objectMap = newMap;
             }
             return this.objectMap;
         }
     }
 
+    private void removeFromObjectMap(OBJECT object) {
+        if (this.objectMap != null) {
+            String name = getObjectName(object);
+            if (name != null) {
+                this.objectMap.remove(name);
+            }
+        }
+    }
+
     private void checkDuplicateName(String name, OBJECT object) {
         if (this.objectMap.containsKey(name)) {
-            log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
+            logDuplicateName(name, object);
         }
     }
 
+    private void logDuplicateName(String name, OBJECT object) {
+        log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
+    }
+
     protected void detectCaseSensitivity(DBSObject object) {
         if (this.caseSensitive) {
             DBPDataSource dataSource = object.getDataSource();
@@ -285,9 +346,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
                 OBJECT object = objectList.get(i);
                 if (object.getParentObject() == parent) {
                     this.objectList.remove(object);
-                    if (this.objectMap != null) {
-                        this.objectMap.remove(getObjectName(object));
-                    }
+                    this.objectListSnapshot = null;
+                    removeFromObjectMap(object);
                     fullCache = false;
                 } else {
                     i++;
@@ -385,9 +445,10 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         @Override
         public void remove()
         {
-            listIterator.remove();
-            if (objectMap != null) {
-                objectMap.remove(getObjectName(curObject));
+            synchronized (cacheSync) {
+                listIterator.remove();
+                objectListSnapshot = null;
+                removeFromObjectMap(curObject);
             }
         }
     }
@@ -30,6 +30,7 @@ import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCRemoteInstance;
 import org.jkiss.dbeaver.model.qm.QMTransactionState;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
@@ -112,6 +113,9 @@ public class DataSourceMonitorJob extends AbstractJob {
             endIdleTransactions(dataSourceDescriptor);
         }
 
+        // Close expired pooled connections
+        closeIdlePooledConnections(dataSourceDescriptor);
+
         // Perform keep alive request
         final int keepAliveInterval = dataSourceDescriptor.getConnectionConfiguration().getKeepAliveInterval();
         if (keepAliveInterval <= 0) {
@@ -226,6 +230,18 @@ public class DataSourceMonitorJob extends AbstractJob {
         }
     }
 
+    private void closeIdlePooledConnections(DBPDataSourceContainer dsDescriptor) {
+        DBPDataSource dataSource = dsDescriptor.getDataSource();
+        if (dataSource == null) {
+            return;
+        }
+        for (DBSInstance instance : dataSource.getAvailableInstances()) {
+            if (instance instanceof JDBCRemoteInstance) {
+                ((JDBCRemoteInstance) instance).getConnectionPool().evictIdle();
+            }
+        }
+    }
+
     public void scheduleMonitor() {
         schedule(MONITOR_INTERVAL);
     }
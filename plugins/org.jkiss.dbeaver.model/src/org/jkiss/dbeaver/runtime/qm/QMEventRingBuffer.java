@@ -0,0 +1,108 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue with multiple producers and a single consumer.
+ * <p>
+ * Each slot has a sequence number. Producer claims a slot with CAS on the tail counter, writes element
+ * and then publishes it by advancing slot sequence. Consumer reads published slots only, so it never waits for producers.
+ * Producers never block: if buffer is full then {@link #offer(Object)} returns false.
+ */
+class QMEventRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Consumer position. Accessed by consumer only
+    private long head;
+
+    /**
+     * @param capacity buffer capacity. Rounded up to the power of two.
+     */
+    QMEventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds element to the buffer. Can be called from any thread.
+     *
+     * @return false if buffer is full
+     */
+    boolean offer(@NotNull T element) {
+        for (;;) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publish slot
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // Slot wasn't consumed yet - buffer is full
+                return false;
+            }
+            // Another producer took this slot. Retry with the new tail
+        }
+    }
+
+    /**
+     * Moves published elements to the specified list in order of their addition.
+     * Must be called by one consumer at a time.
+     *
+     * @return number of drained elements
+     */
+    synchronized int drain(@NotNull List<T> target, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                // Slot is empty or not published yet
+                break;
+            }
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            // Release slot for the next round
+            sequences.set(index, head + mask + 1);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,799 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import com.google.gson.Gson;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.filters.QMDateRange;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Persistent query manager history.
+ * <p>
+ * Events are appended to segment files in the workspace metadata folder. Record header keeps event time,
+ * object type, query purpose, connection id and event text, so indexes can be rebuilt without parsing of serialized events.
+ * Indexes (time, connection and words of event text) are kept in memory and built on the first history read.
+ * Cursor filters records by indexes and reads from disk only those events which are returned to the caller.
+ * <p>
+ * Events of the current session are taken from the meta collector, store returns only older events.
+ */
+public class QMHistoryStore implements QMMetaListener, QMEventBrowser, DBPPreferenceListener {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    private static final String HISTORY_FOLDER = "query-history";
+    private static final String SEGMENT_PREFIX = "qh-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final long MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final byte TYPE_SESSION = 1;
+    private static final byte TYPE_TRANSACTION = 2;
+    private static final byte TYPE_QUERY = 3;
+
+    private static final Gson gson = new Gson();
+
+    private final QMRegistryImpl registry;
+    private final Path historyFolder;
+    private boolean enabled;
+    private int historyDays;
+
+    // Segment files ordered by creation time
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment currentSegment;
+    private OutputStream segmentOutput;
+    // Lazily loaded index
+    private HistoryIndex index;
+    // Incremented each time the index becomes invalid (record positions have changed)
+    private int indexGeneration;
+    // Records written while the index is being built. Null if there is no index build in progress
+    private List<PendingRecord> pendingRecords;
+
+    public QMHistoryStore(@NotNull QMRegistryImpl registry) {
+        this.registry = registry;
+        this.historyFolder = GeneralUtils.getMetadataFolder().resolve(HISTORY_FOLDER);
+        ModelPreferences.getPreferences().addPropertyChangeListener(this);
+        loadSettings();
+    }
+
+    public synchronized void dispose() {
+        ModelPreferences.getPreferences().removePropertyChangeListener(this);
+        closeSegment();
+        resetIndex();
+    }
+
+    private synchronized void loadSettings() {
+        DBPPreferenceStore preferences = ModelPreferences.getPreferences();
+        boolean wasEnabled = enabled;
+        int oldHistoryDays = historyDays;
+        enabled = preferences.getBoolean(QMConstants.PROP_STORE_HISTORY);
+        historyDays = Math.max(1, preferences.getInt(QMConstants.PROP_HISTORY_DAYS));
+        if (enabled) {
+            if (!wasEnabled) {
+                readSegments();
+            }
+            if (!wasEnabled || historyDays != oldHistoryDays) {
+                purgeOldSegments();
+            }
+        } else {
+            closeSegment();
+            segments.clear();
+            resetIndex();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event) {
+        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
+            loadSettings();
+        }
+    }
+
+    ///////////////////////////////////////////////////////
+    // Writer
+
+    @Override
+    public synchronized void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (QMMetaEvent event : events) {
+                if (!isPersistentEvent(event)) {
+                    continue;
+                }
+                HistoryRecord record;
+                try {
+                    record = HistoryRecord.fromEvent(event);
+                } catch (Exception e) {
+                    log.debug("Error serializing QM event '" + event + "': " + e.getMessage());
+                    continue;
+                }
+                writeRecord(record);
+            }
+            if (segmentOutput != null) {
+                segmentOutput.flush();
+            }
+        } catch (IOException e) {
+            log.warn("IO error writing query history. Disable history store", e);
+            closeSegment();
+            enabled = false;
+        }
+    }
+
+    /**
+     * Same events as in the QM log file: completed queries, transactions and sessions
+     */
+    private static boolean isPersistentEvent(@NotNull QMMetaEvent event) {
+        QMMObject object = event.getObject();
+        if (object instanceof QMMStatementExecuteInfo) {
+            return event.getAction() == QMEventAction.END;
+        }
+        return object instanceof QMMTransactionInfo || object instanceof QMMConnectionInfo;
+    }
+
+    private void writeRecord(@NotNull HistoryRecord record) throws IOException {
+        if (currentSegment == null || currentSegment.size >= MAX_SEGMENT_SIZE) {
+            openSegment();
+        }
+        byte[] data = record.serialize();
+        int offset = (int) currentSegment.size;
+        segmentOutput.write(data);
+        currentSegment.size += data.length;
+        if (index != null) {
+            index.addRecord(record, segments.size() - 1, offset);
+        } else if (pendingRecords != null) {
+            pendingRecords.add(new PendingRecord(record, segments.size() - 1, offset));
+        }
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        if (!Files.exists(historyFolder)) {
+            Files.createDirectories(historyFolder);
+        }
+        long segmentId = System.currentTimeMillis();
+        if (!segments.isEmpty()) {
+            segmentId = Math.max(segmentId, segments.get(segments.size() - 1).id + 1);
+        }
+        Path segmentFile = historyFolder.resolve(SEGMENT_PREFIX + segmentId + SEGMENT_SUFFIX);
+        segmentOutput = new BufferedOutputStream(
+            Files.newOutputStream(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        currentSegment = new Segment(segmentId, segmentFile, 0);
+        segments.add(currentSegment);
+        purgeOldSegments();
+    }
+
+    private void closeSegment() {
+        if (segmentOutput != null) {
+            ContentUtils.close(segmentOutput);
+            segmentOutput = null;
+        }
+        currentSegment = null;
+    }
+
+    private void readSegments() {
+        segments.clear();
+        resetIndex();
+        if (!Files.exists(historyFolder)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(historyFolder)) {
+            files.forEach(file -> {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX)) {
+                    long segmentId = CommonUtils.toLong(
+                        fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()), -1);
+                    if (segmentId >= 0) {
+                        try {
+                            segments.add(new Segment(segmentId, file, Files.size(file)));
+                        } catch (IOException e) {
+                            log.debug("Can't read query history segment '" + file + "': " + e.getMessage());
+                        }
+                    }
+                }
+            });
+        } catch (IOException e) {
+            log.error("Error reading query history folder", e);
+        }
+        segments.sort(Comparator.comparingLong(s -> s.id));
+    }
+
+    private void purgeOldSegments() {
+        long minTime = System.currentTimeMillis() - historyDays * 24L * 60 * 60 * 1000;
+        boolean purged = false;
+        for (Iterator<Segment> iter = segments.iterator(); iter.hasNext(); ) {
+            Segment segment = iter.next();
+            if (segment == currentSegment) {
+                continue;
+            }
+            try {
+                // Segment is append-only, so modification time is the time of its last record
+                if (Files.getLastModifiedTime(segment.file).toMillis() < minTime) {
+                    Files.delete(segment.file);
+                    iter.remove();
+                    purged = true;
+                }
+            } catch (IOException e) {
+                log.debug("Unable to purge query history segment '" + segment.file + "': " + e.getMessage());
+            }
+        }
+        if (purged) {
+            // Record positions have changed
+            resetIndex();
+        }
+    }
+
+    private void resetIndex() {
+        index = null;
+        pendingRecords = null;
+        indexGeneration++;
+    }
+
+    ///////////////////////////////////////////////////////
+    // Browser
+
+    @Override
+    public QMEventCursor getQueryHistoryCursor(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull QMEventCriteria criteria,
+        @Nullable QMEventFilter filter)
+        throws DBException
+    {
+        QMEventCursor sessionCursor = registry.getDefaultEventBrowser().getQueryHistoryCursor(monitor, criteria, filter);
+        if (!enabled) {
+            return sessionCursor;
+        }
+        // Older events are in the store
+        long sessionStartTime = registry.getOldestEventTime();
+        for (;;) {
+            Segment[] indexSegments;
+            long[] indexSizes;
+            int generation;
+            synchronized (this) {
+                if (!enabled) {
+                    return sessionCursor;
+                }
+                if (index != null) {
+                    return new HistoryCursor(
+                        sessionCursor,
+                        index,
+                        index.findRecords(criteria, sessionStartTime),
+                        new ArrayList<>(segments),
+                        criteria.getSearchString(),
+                        filter);
+                }
+                if (segmentOutput != null) {
+                    try {
+                        segmentOutput.flush();
+                    } catch (IOException e) {
+                        log.debug(e);
+                    }
+                }
+                indexSegments = segments.toArray(new Segment[0]);
+                indexSizes = new long[indexSegments.length];
+                for (int i = 0; i < indexSegments.length; i++) {
+                    indexSizes[i] = indexSegments[i].size;
+                }
+                generation = indexGeneration;
+                if (pendingRecords == null) {
+                    pendingRecords = new ArrayList<>();
+                }
+            }
+            // Segments are read without lock, otherwise QM events dispatch would wait for the whole index load.
+            // Records written meanwhile are collected in pendingRecords.
+            monitor.subTask("Load query history index");
+            HistoryIndex newIndex = loadIndex(indexSegments, indexSizes);
+            synchronized (this) {
+                if (index == null && generation == indexGeneration && pendingRecords != null) {
+                    for (PendingRecord pending : pendingRecords) {
+                        if (pending.segment >= indexSizes.length || pending.offset >= indexSizes[pending.segment]) {
+                            newIndex.addRecord(pending.record, pending.segment, pending.offset);
+                        }
+                    }
+                    pendingRecords = null;
+                    index = newIndex;
+                }
+            }
+            if (monitor.isCanceled()) {
+                return sessionCursor;
+            }
+        }
+    }
+
+    @NotNull
+    private static HistoryIndex loadIndex(@NotNull Segment[] indexSegments, @NotNull long[] indexSizes) {
+        HistoryIndex newIndex = new HistoryIndex();
+        for (int i = 0; i < indexSegments.length; i++) {
+            Segment segment = indexSegments[i];
+            long segmentSize = indexSizes[i];
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.file), 64 * 1024))) {
+                long offset = 0;
+                while (offset < segmentSize) {
+                    int length = input.readInt();
+                    if (length <= 0 || offset + Integer.BYTES + length > segmentSize) {
+                        // Unfinished write
+                        log.debug("Broken record in query history segment '" + segment.file + "' at " + offset);
+                        break;
+                    }
+                    byte[] body = new byte[length];
+                    input.readFully(body);
+                    newIndex.addRecord(HistoryRecord.readHeader(body), i, (int) offset);
+                    offset += Integer.BYTES + length;
+                }
+            } catch (EOFException e) {
+                log.debug("Unexpected end of query history segment '" + segment.file + "'");
+            } catch (IOException e) {
+                log.debug("Error reading query history segment '" + segment.file + "': " + e.getMessage());
+            }
+        }
+        return newIndex;
+    }
+
+    private static class PendingRecord {
+        private final HistoryRecord record;
+        private final int segment;
+        private final int offset;
+
+        PendingRecord(@NotNull HistoryRecord record, int segment, int offset) {
+            this.record = record;
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path file;
+        private long size;
+
+        Segment(long id, @NotNull Path file, long size) {
+            this.id = id;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Record layout: length, time, object type, purpose id, container id, text, serialized event
+     */
+    private static class HistoryRecord {
+        private long time;
+        private byte type;
+        private int purpose;
+        private String containerId;
+        private String text;
+        private String body;
+
+        @NotNull
+        static HistoryRecord fromEvent(@NotNull QMMetaEvent event) {
+            QMMObject object = event.getObject();
+            HistoryRecord record = new HistoryRecord();
+            record.time = event.getAction() == QMEventAction.END && object.getCloseTime() > 0 ? object.getCloseTime() : object.getOpenTime();
+            if (object instanceof QMMStatementExecuteInfo) {
+                record.type = TYPE_QUERY;
+                record.purpose = ((QMMStatementExecuteInfo) object).getStatement().getPurpose().getId();
+            } else if (object instanceof QMMTransactionInfo) {
+                record.type = TYPE_TRANSACTION;
+            } else {
+                record.type = TYPE_SESSION;
+            }
+            QMMConnectionInfo connection = object.getConnection();
+            record.containerId = connection == null ? "" : CommonUtils.notEmpty(connection.getContainerId());
+            record.text = CommonUtils.notEmpty(object.getText());
+            record.body = gson.toJson(event.toMap());
+            return record;
+        }
+
+        @NotNull
+        static HistoryRecord readHeader(@NotNull byte[] data) throws IOException {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+            HistoryRecord record = new HistoryRecord();
+            record.time = input.readLong();
+            record.type = input.readByte();
+            record.purpose = input.readInt();
+            record.containerId = input.readUTF();
+            record.text = readString(input);
+            return record;
+        }
+
+        @NotNull
+        static QMMetaEvent readEvent(@NotNull byte[] data) throws IOException {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+            input.readLong();
+            input.readByte();
+            input.readInt();
+            input.readUTF();
+            skipString(input);
+            String body = readString(input);
+            QMMetaEvent event = QMMetaEvent.fromMap(JSONUtils.parseMap(gson, new StringReader(body)));
+            if (event == null) {
+                throw new IOException("Unsupported event type");
+            }
+            return event;
+        }
+
+        @NotNull
+        byte[] serialize() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length() + text.length() + 100);
+            DataOutputStream output = new DataOutputStream(buffer);
+            output.writeInt(0);
+            output.writeLong(time);
+            output.writeByte(type);
+            output.writeInt(purpose);
+            output.writeUTF(containerId);
+            writeString(output, text);
+            writeString(output, body);
+            output.flush();
+            byte[] data = buffer.toByteArray();
+            ByteBuffer.wrap(data).putInt(0, data.length - Integer.BYTES);
+            return data;
+        }
+
+        private static void writeString(@NotNull DataOutputStream output, @NotNull String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        @NotNull
+        private static String readString(@NotNull DataInputStream input) throws IOException {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void skipString(@NotNull DataInputStream input) throws IOException {
+            input.skipBytes(input.readInt());
+        }
+    }
+
+    /**
+     * In-memory indexes. Arrays are append-only, so cursors may read them without locks
+     * (they never access records added after their creation).
+     */
+    private static class HistoryIndex {
+        private int count;
+        private long[] times = new long[1024];
+        private byte[] types = new byte[1024];
+        private int[] purposes = new int[1024];
+        private int[] containers = new int[1024];
+        private int[] segments = new int[1024];
+        private int[] offsets = new int[1024];
+
+        private final Map<String, Integer> containerIds = new HashMap<>();
+        // Word -> numbers of records which contain this word
+        private final Map<String, Postings> words = new HashMap<>();
+
+        void addRecord(@NotNull HistoryRecord record, int segment, int offset) {
+            if (count == times.length) {
+                int newSize = count * 2;
+                times = Arrays.copyOf(times, newSize);
+                types = Arrays.copyOf(types, newSize);
+                purposes = Arrays.copyOf(purposes, newSize);
+                containers = Arrays.copyOf(containers, newSize);
+                segments = Arrays.copyOf(segments, newSize);
+                offsets = Arrays.copyOf(offsets, newSize);
+            }
+            // Keep times ordered for binary search. Events are written in order they were fired,
+            // so this may only shift time of an event for a few milliseconds.
+            times[count] = count > 0 ? Math.max(times[count - 1], record.time) : record.time;
+            types[count] = record.type;
+            purposes[count] = record.purpose;
+            containers[count] = containerIds.computeIfAbsent(record.containerId, id -> containerIds.size());
+            segments[count] = segment;
+            offsets[count] = offset;
+            for (String word : splitWords(record.text)) {
+                words.computeIfAbsent(word, w -> new Postings()).add(count);
+            }
+            count++;
+        }
+
+        /**
+         * Finds records which match the criteria and were added before the specified time.
+         * Search string is matched by words, records must be checked for exact match afterwards.
+         */
+        @NotNull
+        BitSet findRecords(@NotNull QMEventCriteria criteria, long maxTime) {
+            int fromRecord = 0;
+            int toRecord = findTime(maxTime);
+            QMDateRange dateRange = criteria.getStartDateRange();
+            if (dateRange != null) {
+                try {
+                    Date fromDate = JSONUtils.parseDate(dateRange.getFrom());
+                    if (fromDate != null) {
+                        fromRecord = findTime(fromDate.getTime());
+                    }
+                    Date toDate = JSONUtils.parseDate(dateRange.getTo());
+                    if (toDate != null) {
+                        toRecord = Math.min(toRecord, findTime(toDate.getTime() + 1));
+                    }
+                } catch (Exception e) {
+                    log.debug("Bad date range: " + e.getMessage());
+                }
+            }
+            BitSet result = new BitSet(toRecord);
+            if (fromRecord >= toRecord) {
+                return result;
+            }
+            result.set(fromRecord, toRecord);
+
+            if (!CommonUtils.isEmpty(criteria.getSearchString())) {
+                for (String searchWord : splitWords(criteria.getSearchString())) {
+                    BitSet matches = new BitSet(toRecord);
+                    for (Map.Entry<String, Postings> entry : words.entrySet()) {
+                        if (entry.getKey().contains(searchWord)) {
+                            entry.getValue().fill(matches, toRecord);
+                        }
+                    }
+                    result.and(matches);
+                }
+            }
+
+            Integer containerIndex = null;
+            if (!CommonUtils.isEmpty(criteria.getContainerId())) {
+                containerIndex = containerIds.get(criteria.getContainerId());
+                if (containerIndex == null) {
+                    result.clear();
+                    return result;
+                }
+            }
+            QMObjectType[] objectTypes = criteria.getObjectTypes();
+            DBCExecutionPurpose[] queryTypes = criteria.getQueryTypes();
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                if (containerIndex != null && containers[i] != containerIndex) {
+                    result.clear(i);
+                } else if (objectTypes != null && !ArrayUtils.contains(objectTypes, getObjectType(types[i]))) {
+                    result.clear(i);
+                } else if (queryTypes != null && types[i] == TYPE_QUERY &&
+                    !ArrayUtils.contains(queryTypes, DBCExecutionPurpose.getById(purposes[i])))
+                {
+                    result.clear(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns number of the first record with time greater or equal to the specified time
+         */
+        private int findTime(long time) {
+            int low = 0, high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @NotNull
+        private static QMObjectType getObjectType(byte type) {
+            switch (type) {
+                case TYPE_QUERY:
+                    return QMObjectType.query;
+                case TYPE_TRANSACTION:
+                    return QMObjectType.txn;
+                default:
+                    return QMObjectType.session;
+            }
+        }
+    }
+
+    private static class Postings {
+        private int[] records = new int[4];
+        private int size;
+
+        void add(int record) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+
+        void fill(@NotNull BitSet target, int maxRecord) {
+            for (int i = 0; i < size && records[i] < maxRecord; i++) {
+                target.set(records[i]);
+            }
+        }
+    }
+
+    @NotNull
+    private static Set<String> splitWords(@NotNull String text) {
+        Set<String> result = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_');
+            if (wordChar) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                result.add(text.substring(start, i).toLowerCase(Locale.ENGLISH));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns current session events first and then stored events starting from the most recent.
+     */
+    private static class HistoryCursor implements QMEventCursor {
+        private final QMEventCursor sessionCursor;
+        private final int[] recordSegments;
+        private final int[] recordOffsets;
+        private final BitSet records;
+        private final List<Segment> segments;
+        private final String searchString;
+        private final QMEventFilter filter;
+        private final long totalSize;
+        private final Map<Integer, FileChannel> channels = new HashMap<>();
+        // Next record to check, in reverse order
+        private int nextRecord;
+        private QMMetaEventEntity nextEvent;
+
+        HistoryCursor(
+            @NotNull QMEventCursor sessionCursor,
+            @NotNull HistoryIndex index,
+            @NotNull BitSet records,
+            @NotNull List<Segment> segments,
+            @Nullable String searchString,
+            @Nullable QMEventFilter filter)
+        {
+            this.sessionCursor = sessionCursor;
+            // Index arrays may be reallocated by writer, keep current ones
+            this.recordSegments = index.segments;
+            this.recordOffsets = index.offsets;
+            this.records = records;
+            this.segments = segments;
+            this.searchString = CommonUtils.isEmpty(searchString) ? null : searchString.toLowerCase();
+            this.filter = filter;
+            // Upper bound: search string and filter are checked on read
+            this.totalSize = sessionCursor.getTotalSize() + records.cardinality();
+            this.nextRecord = records.length() - 1;
+        }
+
+        @Override
+        public long getTotalSize() {
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            if (position < 0 || position >= totalSize) {
+                throw new DBException("Position is out of range (" + getTotalSize() + ")");
+            }
+            for (int i = 0; i < position && hasNextEvent(monitor); i++) {
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (nextEvent != null) {
+                return true;
+            }
+            if (sessionCursor.hasNextEvent(monitor)) {
+                nextEvent = sessionCursor.nextEvent(monitor);
+                return true;
+            }
+            while (nextRecord >= 0 && !monitor.isCanceled()) {
+                int record = records.previousSetBit(nextRecord);
+                if (record < 0) {
+                    break;
+                }
+                nextRecord = record - 1;
+                QMMetaEvent event = readEvent(record);
+                if (event == null) {
+                    continue;
+                }
+                if (searchString != null && !event.getObject().getText().toLowerCase().contains(searchString)) {
+                    continue;
+                }
+                if (filter != null && !filter.accept(event)) {
+                    continue;
+                }
+                nextEvent = new QMMetaEventEntity(event.getObject(), event.getAction(), record + 1, "", null);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more events");
+            }
+            QMMetaEventEntity event = nextEvent;
+            nextEvent = null;
+            return event;
+        }
+
+        @Nullable
+        private QMMetaEvent readEvent(int record) {
+            int segmentNumber = recordSegments[record];
+            Segment segment = segments.get(segmentNumber);
+            try {
+                FileChannel channel = channels.get(segmentNumber);
+                if (channel == null) {
+                    channel = FileChannel.open(segment.file, StandardOpenOption.READ);
+                    channels.put(segmentNumber, channel);
+                }
+                long offset = recordOffsets[record];
+                ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+                readFully(channel, lengthBuffer, offset);
+                ByteBuffer body = ByteBuffer.allocate(lengthBuffer.getInt(0));
+                readFully(channel, body, offset + Integer.BYTES);
+                return HistoryRecord.readEvent(body.array());
+            } catch (Exception e) {
+                // Segment may be purged meanwhile
+                log.debug("Error reading query history record from '" + segment.file + "': " + e.getMessage());
+                return null;
+            }
+        }
+
+        private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            sessionCursor.close();
+            for (FileChannel channel : channels.values()) {
+                ContentUtils.close(channel);
+            }
+            channels.clear();
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ package org.jkiss.dbeaver.runtime.qm;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBUtils;
@@ -38,36 +39,56 @@ import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.LoggingProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
-import org.jkiss.utils.LongKeyMap;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Query manager execution handler implementation
+ * Query manager execution handler implementation.
+ * <p>
+ * Handlers are called from all threads which work with databases, so they don't use any global lock.
+ * Connection meta info is synchronized per connection. Events are put in a lock-free ring buffer
+ * which is drained by the event dispatcher job. If the buffer is full then update events are coalesced
+ * (object state is delivered by its next event), other events wait briefly for the dispatcher.
+ * End events which still don't fit go to the unbounded overflow queue, so they are never lost.
  */
 public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMCollector {
 
     private static final Log log = Log.getLog(QMMCollectorImpl.class);
 
     private static final int MAX_HISTORY_EVENTS = 10000;
+    private static final int EVENT_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_DISPATCH_BATCH = 1000;
+    // How long event producer waits for free space in the full buffer
+    private static final long MAX_OFFER_WAIT_NANOS = 10_000_000;
+    private static final long OFFER_RETRY_NANOS = 100_000;
 
     // Session map
-    private LongKeyMap<QMMConnectionInfo> connectionMap = new LongKeyMap<>();
-    private List<Long> closedConnections = new ArrayList<>();
+    private final Map<Long, QMMConnectionInfo> connectionMap = new ConcurrentHashMap<>();
+    private final Queue<Long> closedConnections = new ConcurrentLinkedQueue<>();
 
     // External listeners
     private final List<QMMetaListener> listeners = new ArrayList<>();
 
-    // Temporary event pool
-    private List<QMMetaEvent> eventPool = new ArrayList<>();
-    // Sync object
-    private final Object historySync = new Object();
-    // History (may be purged when limit reached)
-    private List<QMMetaEvent> pastEvents = new ArrayList<>();
-    private boolean running = true;
+    // Events which weren't dispatched yet
+    private final QMEventRingBuffer<QMMetaEvent> eventBuffer = new QMEventRingBuffer<>(EVENT_BUFFER_SIZE);
+    // End events which didn't fit in the buffer
+    private final Queue<QMMetaEvent> overflowEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong deferredEvents = new AtomicLong();
+    private final AtomicLong lostEvents = new AtomicLong();
+    // History (oldest events are overwritten when limit reached)
+    private final EventHistory pastEvents = new EventHistory(MAX_HISTORY_EVENTS);
+    private volatile boolean running = true;
     private long eventDispatchPeriod = 250;
+    private final EventDispatcher eventDispatcher;
 
     public QMMCollectorImpl() {
         var application = DBWorkbench.getPlatform().getApplication();
@@ -75,10 +96,11 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         if (qmConfigurationProvider != null) {
             eventDispatchPeriod = qmConfigurationProvider.getEventDispatchPeriod();
         }
-        new EventDispatcher().schedule(eventDispatchPeriod);
+        eventDispatcher = new EventDispatcher();
+        eventDispatcher.schedule(eventDispatchPeriod);
     }
 
-    public synchronized void dispose() {
+    public void dispose() {
         if (!connectionMap.isEmpty()) {
             List<QMMConnectionInfo> openSessions = new ArrayList<>();
             for (QMMConnectionInfo connection : connectionMap.values()) {
@@ -135,7 +157,7 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
-    private synchronized void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
+    private void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
         try {
             DBRProgressMonitor monitor = new LoggingProgressMonitor();
             DBPProject project = context.getDataSource().getContainer().getProject();
@@ -157,19 +179,38 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
                 return;
             }
 
-            eventPool.add(new QMMetaEvent(object, action, sessionPersistent.getAttribute(QMConstants.QM_SESSION_ID_ATTR)));
+            QMMetaEvent event = new QMMetaEvent(object, action, sessionPersistent.getAttribute(QMConstants.QM_SESSION_ID_ATTR));
+            if (!eventBuffer.offer(event)) {
+                offerToFullBuffer(event);
+            }
         } catch (DBException e) {
             log.error("Failed to fire qm meta event", e);
         }
     }
 
-    private synchronized List<QMMetaEvent> obtainEvents() {
-        if (eventPool.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * Dispatcher can't keep up. Database operations are blocked for a short time at most.
+     */
+    private void offerToFullBuffer(@NotNull QMMetaEvent event) {
+        if (event.getAction() == QMEventAction.UPDATE) {
+            // Updated object state will be delivered by its next event
+            coalescedEvents.incrementAndGet();
+            return;
+        }
+        eventDispatcher.wakeUp();
+        long deadline = System.nanoTime() + MAX_OFFER_WAIT_NANOS;
+        do {
+            LockSupport.parkNanos(OFFER_RETRY_NANOS);
+            if (eventBuffer.offer(event)) {
+                return;
+            }
+        } while (System.nanoTime() < deadline);
+        if (event.getAction() == QMEventAction.END) {
+            overflowEvents.add(event);
+            deferredEvents.incrementAndGet();
+        } else {
+            lostEvents.incrementAndGet();
         }
-        List<QMMetaEvent> events = eventPool;
-        eventPool = new ArrayList<>();
-        return events;
     }
 
     public QMMConnectionInfo getConnectionInfo(DBCExecutionContext context) {
@@ -181,13 +222,23 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     public List<QMMetaEvent> getPastEvents() {
-        synchronized (historySync) {
-            return new ArrayList<>(pastEvents);
+        return pastEvents.getEvents();
+    }
+
+    /**
+     * Returns time of the oldest event kept in memory or Long.MAX_VALUE if there are no events
+     */
+    long getOldestEventTime() {
+        QMMetaEvent event = pastEvents.getOldestEvent();
+        if (event == null) {
+            return Long.MAX_VALUE;
         }
+        QMMObject object = event.getObject();
+        return event.getAction() == QMEventAction.END && object.getCloseTime() > 0 ? object.getCloseTime() : object.getOpenTime();
     }
 
     @Override
-    public synchronized void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
+    public void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
         final long contextId = context.getContextId();
         QMMConnectionInfo connection = connectionMap.get(contextId);
         if (connection == null) {
@@ -198,7 +249,9 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         } else {
             // This session may already be in cache in case of reconnect/invalidate
             // (when context closed and reopened without new context object creation)
-            connection.reopen(context);
+            synchronized (connection) {
+                connection.reopen(context);
+            }
         }
 
         // Remove from closed sessions (in case of re-opened connection)
@@ -208,20 +261,25 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleContextClose(@NotNull DBCExecutionContext context) {
+    public void handleContextClose(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            session.close();
+            synchronized (session) {
+                session.close();
+            }
             tryFireMetaEvent(session, QMEventAction.END, context);
         }
         closedConnections.add(context.getContextId());
     }
 
     @Override
-    public synchronized void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
+            QMMTransactionInfo oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.changeTransactional(!autoCommit);
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -230,10 +288,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleTransactionCommit(@NotNull DBCExecutionContext context) {
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.commit();
+            QMMTransactionInfo oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.commit();
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -241,10 +302,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMObject oldTxn = sessionInfo.rollback(savepoint);
+            QMMObject oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.rollback(savepoint);
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -252,19 +316,25 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementOpen(@NotNull DBCStatement statement) {
+    public void handleStatementOpen(@NotNull DBCStatement statement) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.openStatement(statement);
+            QMMStatementInfo stat;
+            synchronized (session) {
+                stat = session.openStatement(statement);
+            }
             tryFireMetaEvent(stat, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
         }
     }
 
     @Override
-    public synchronized void handleStatementClose(@NotNull DBCStatement statement, long rows) {
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.closeStatement(statement, rows);
+            QMMStatementInfo stat;
+            synchronized (session) {
+                stat = session.closeStatement(statement, rows);
+            }
             if (stat == null) {
                 log.warn("Can't properly handle statement close");
             } else {
@@ -274,10 +344,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginExecution(statement);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.beginExecution(statement);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
             }
@@ -285,10 +358,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.endExecution(statement, rows, error);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.END, statement.getSession().getExecutionContext());
             }
@@ -296,10 +372,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
         QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.beginFetch(resultSet);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
             }
@@ -307,10 +386,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
         QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.endFetch(resultSet, rowCount);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
             }
@@ -327,53 +409,97 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
 
         @Override
         protected IStatus run(DBRProgressMonitor monitor) {
-            final List<QMMetaEvent> events;
-            List<Long> sessionsToClose;
-            synchronized (QMMCollectorImpl.this) {
-                events = obtainEvents();
-                sessionsToClose = closedConnections;
-                closedConnections.clear();
+            final List<QMMetaEvent> events = new ArrayList<>();
+            int drained = eventBuffer.drain(events, MAX_DISPATCH_BATCH);
+            // Overflow contains end events only, they are dispatched after the events of their objects
+            for (QMMetaEvent event = overflowEvents.poll(); event != null; event = overflowEvents.poll()) {
+                events.add(event);
             }
+            logOverflow();
             if (!events.isEmpty()) {
+                // Reverse collection. Fresh events must come first.
+                Collections.reverse(events);
                 final List<QMMetaListener> listeners = getListeners();
-                if (!listeners.isEmpty() && !events.isEmpty()) {
-                    // Reverse collection. Fresh events must come first.
-                    Collections.reverse(events);
-                    // Dispatch all events
-                    for (QMMetaListener listener : listeners) {
-                        try {
-                            listener.metaInfoChanged(monitor, events);
-                        } catch (Throwable e) {
-                            log.error("Error notifying event listener", e);
-                        }
-                    }
-                }
-                synchronized (historySync) {
-                    pastEvents.addAll(events);
-                    int size = pastEvents.size();
-                    if (size > MAX_HISTORY_EVENTS) {
-                        pastEvents = new ArrayList<>(pastEvents.subList(
-                            size - MAX_HISTORY_EVENTS,
-                            size));
+                // Dispatch all events
+                for (QMMetaListener listener : listeners) {
+                    try {
+                        listener.metaInfoChanged(monitor, events);
+                    } catch (Throwable e) {
+                        log.error("Error notifying event listener", e);
                     }
                 }
+                pastEvents.addAll(events);
             }
             // Cleanup closed sessions
-            synchronized (QMMCollectorImpl.this) {
-                for (Long sessionId : sessionsToClose) {
-                    final QMMConnectionInfo session = connectionMap.get(sessionId);
-                    if (session != null && !session.isClosed()) {
-                        // It is possible (rarely) that session was reopened before event dispatcher run
-                        // In that case just ignore it
-                        connectionMap.remove(sessionId);
-                    }
+            for (Long sessionId = closedConnections.poll(); sessionId != null; sessionId = closedConnections.poll()) {
+                final QMMConnectionInfo session = connectionMap.get(sessionId);
+                // It is possible (rarely) that session was reopened before event dispatcher run
+                // In that case just ignore it
+                if (session != null && session.isClosed()) {
+                    connectionMap.remove(sessionId, session);
                 }
             }
             if (isRunning()) {
-                this.schedule(eventDispatchPeriod);
+                // Buffer has more events - dispatch next batch immediately
+                this.schedule(drained < MAX_DISPATCH_BATCH ? eventDispatchPeriod : 0);
             }
             return Status.OK_STATUS;
         }
     }
 
+    private void logOverflow() {
+        long coalesced = coalescedEvents.getAndSet(0);
+        long deferred = deferredEvents.getAndSet(0);
+        long lost = lostEvents.getAndSet(0);
+        if (coalesced > 0 || deferred > 0 || lost > 0) {
+            log.warn("QM event buffer overflow: " + coalesced + " update(s) coalesced, " +
+                deferred + " end event(s) deferred, " + lost + " event(s) lost");
+        }
+    }
+
+    /**
+     * Fixed-size circular buffer of dispatched events
+     */
+    private static class EventHistory {
+        private final QMMetaEvent[] events;
+        // Position of the next event
+        private int position;
+        private int size;
+
+        EventHistory(int capacity) {
+            this.events = new QMMetaEvent[capacity];
+        }
+
+        synchronized void addAll(@NotNull List<QMMetaEvent> newEvents) {
+            for (QMMetaEvent event : newEvents) {
+                events[position] = event;
+                position = (position + 1) % events.length;
+                if (size < events.length) {
+                    size++;
+                }
+            }
+        }
+
+        @Nullable
+        synchronized QMMetaEvent getOldestEvent() {
+            if (size == 0) {
+                return null;
+            }
+            return events[size < events.length ? 0 : position];
+        }
+
+        /**
+         * Returns events in order of their addition
+         */
+        @NotNull
+        synchronized List<QMMetaEvent> getEvents() {
+            List<QMMetaEvent> result = new ArrayList<>(size);
+            int first = size < events.length ? 0 : position;
+            for (int i = 0; i < size; i++) {
+                result.add(events[(first + i) % events.length]);
+            }
+            return result;
+        }
+    }
+
 }
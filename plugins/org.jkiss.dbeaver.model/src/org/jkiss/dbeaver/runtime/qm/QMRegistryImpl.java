@@ -49,6 +49,7 @@ public class QMRegistryImpl implements QMRegistry {
     private final List<QMExecutionHandler> handlers = new ArrayList<>();
     private QMEventBrowser eventBrowser;
     private DefaultEventBrowser defaultEventBrowser = new DefaultEventBrowser();
+    private QMHistoryStore historyStore;
 
     public QMRegistryImpl() {
         defaultHandler = (QMExecutionHandler) Proxy.newProxyInstance(
@@ -97,13 +98,30 @@ public class QMRegistryImpl implements QMRegistry {
             eventBrowser = GeneralUtils.adapt(this, QMEventBrowser.class);
             if (eventBrowser == null) {
                 // Default browser
-                this.eventBrowser = defaultEventBrowser;
+                this.eventBrowser = historyStore != null ? historyStore : defaultEventBrowser;
             }
         }
 
         return eventBrowser;
     }
 
+    /**
+     * Sets persistent history store. It is used as event browser for all sessions unless some other browser is provided.
+     */
+    public synchronized void setHistoryStore(@Nullable QMHistoryStore historyStore) {
+        this.historyStore = historyStore;
+        this.eventBrowser = null;
+    }
+
+    QMEventBrowser getDefaultEventBrowser() {
+        return defaultEventBrowser;
+    }
+
+    long getOldestEventTime() {
+        QMMCollectorImpl collector = metaHandler;
+        return collector == null ? Long.MAX_VALUE : collector.getOldestEventTime();
+    }
+
     @Override
     public void registerHandler(QMExecutionHandler handler) {
         synchronized (handlers) {
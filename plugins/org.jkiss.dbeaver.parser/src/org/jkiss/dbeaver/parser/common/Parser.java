@@ -31,6 +31,9 @@ import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 public class Parser {
+    // Number of steps or queued transitions compared one by one when looking for the ones to merge
+    private static final int MAX_MERGE_SCAN = 32;
+
     private final GrammarInfo grammar;
     private final NfaFragment nfa;
 
@@ -60,9 +63,9 @@ public class Parser {
         ImmList<ParsingStep> prevSteps = allPrevSteps.filter(
             s -> s.stack.exprId == transition.getOperation().getExprId() && condition.test(s.stack)
         );
-        return prevSteps.flatMap(prevStep -> prevStep.stack.pop().map(stack -> new ParsingStep(
+        return mergeSteps(prevSteps.flatMap(prevStep -> prevStep.stack.pop().map(stack -> new ParsingStep(
             ImmList.of(prevStep), transition, stack
-        )));
+        ))));
     }
 
     private static ImmList<ParsingStep> performPopAndPush(
@@ -100,9 +103,12 @@ public class Parser {
         ImmList<ParsingStep> result;
         switch (op.getKind()) {
             case CALL:
+                result = prevSteps.map(s -> new ParsingStep(ImmList.of(s), transition, s.stack));
+                break;
             case RESUME:
             case NONE:
-                result = prevSteps.map(s -> new ParsingStep(ImmList.of(s), transition, s.stack));
+                // such steps don't affect the stack and the tree, so they are not recorded
+                result = prevSteps;
                 break;
             case RULE_START:
             case LOOP_ENTER:
@@ -140,6 +146,66 @@ public class Parser {
         return result;
     }
 
+    /**
+     * Merge steps made by the same transition with the same stack top (graph-structured stack).
+     * Merged step refers to all the previous steps and its stack frame refers to all the underlying frames,
+     * so equivalent alternatives are advanced once instead of being advanced along each path separately.
+     */
+    private static ImmList<ParsingStep> mergeSteps(ImmList<ParsingStep> steps) {
+        if (steps.isEmpty() || steps.pop().isEmpty() || !hasMergeableSteps(steps)) {
+            return steps;
+        }
+        LinkedHashMap<StepKey, ImmList<ParsingStep>> groups = new LinkedHashMap<>();
+        int count = 0;
+        for (ParsingStep step : steps) {
+            groups.merge(new StepKey(step), ImmList.of(step), (group, added) -> group.any(g -> g == step) ? group : group.push(step));
+            count++;
+        }
+        if (groups.size() == count) {
+            return steps;
+        }
+        ImmList<ParsingStep> result = ImmList.empty();
+        for (ImmList<ParsingStep> group : groups.values()) {
+            if (group.pop().isEmpty()) {
+                result = result.push(group.peek());
+            } else {
+                ParsingStep first = group.peek();
+                boolean sameStack = group.all(s -> s.stack == first.stack);
+                StackFrame stack = sameStack ? first.stack : StackFrame.push(
+                    first.stack.exprId,
+                    first.stack.exprPosition,
+                    first.stack.rule,
+                    group.aggregate(ImmList.<StackFrame>empty(), (frames, s) -> frames.mergeDistinct(s.stack.pop()))
+                );
+                ImmList<ParsingStep> prev = group.aggregate(ImmList.<ParsingStep>empty(), (prevSteps, s) -> prevSteps.mergeDistinct(s.prev));
+                result = result.push(new ParsingStep(prev, first.transition, stack));
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasMergeableSteps(ImmList<ParsingStep> steps) {
+        for (ImmList<ParsingStep> item = steps; !item.isEmpty(); item = item.pop()) {
+            ParsingStep step = item.peek();
+            int checked = 0;
+            for (ImmList<ParsingStep> other = item.pop(); !other.isEmpty(); other = other.pop()) {
+                if (++checked > MAX_MERGE_SCAN) {
+                    // Too many steps, let hash grouping find them
+                    return true;
+                }
+                ParsingStep otherStep = other.peek();
+                if (otherStep == step || (otherStep.transition == step.transition
+                    && otherStep.stack.exprId == step.stack.exprId
+                    && otherStep.stack.exprPosition == step.stack.exprPosition
+                    && otherStep.stack.rule == step.stack.rule)
+                ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Parse text
      *
@@ -149,11 +215,24 @@ public class Parser {
         return parse(text, false, () -> false);
     }
 
+    /**
+     * Parse independent texts, e.g. top-level statements of a script.
+     * Parser doesn't modify the grammar graph, so the texts may be parsed concurrently.
+     *
+     * @param parallel parse texts in the common fork-join pool
+     * @return results of parsing in the order of texts
+     */
+    public List<ParseResult> parse(List<String> texts, boolean parallel, BooleanSupplier cancellationChecker) {
+        return (parallel ? texts.parallelStream() : texts.stream())
+            .map(text -> parse(text, false, cancellationChecker))
+            .collect(Collectors.toList());
+    }
+
     public ParseResult parse(String text, boolean firstResult, BooleanSupplier cancellationChecker) {
         PositionsQueue queue = new PositionsQueue(text.length(), nfa.getFrom());
 
         ArrayList<ParserState> results = new ArrayList<>();
-        ArrayDeque<LocalState> localStates = new ArrayDeque<>();
+        LocalStatesQueue localStates = new LocalStatesQueue();
         while (queue.isNotEmpty()) { // stepping through positions as terms are being discovered
             for (ParserState state : queue.dequeue()) { // for each local context
                 if (state.nfaState == nfa.getTo()) {
@@ -163,7 +242,7 @@ public class Parser {
                 if (dispatchResult != null) {
                     localStates.clear();
                     for (GrammarNfaTransition t : dispatchResult.transitions) {
-                        localStates.offer(new LocalState(state.paths, t));
+                        localStates.offer(state.paths, t);
                     }
                     while (!localStates.isEmpty()) { // advance the context as far as possible till next term
                         LocalState localState = localStates.remove();
@@ -186,10 +265,10 @@ public class Parser {
                                                 s -> new ParsingStep(ImmList.of(s), t, s.stack)
                                             )));
                                         } else {
-                                            localStates.offer(new LocalState(stepsDone, t));
+                                            localStates.offer(stepsDone, t);
                                         }
                                     } else {
-                                        localStates.offer(new LocalState(stepsDone, t));
+                                        localStates.offer(stepsDone, t);
                                     }
                                 }
                             }
@@ -287,6 +366,20 @@ public class Parser {
             return false;
         }
 
+        /**
+         * Add items of the other list which are not contained in this list (by reference)
+         */
+        public ImmList<T> mergeDistinct(ImmList<T> other) {
+            ImmList<T> result = this;
+            for (ImmList<T> item = other; item != SENTINEL; item = item.next) {
+                T data = item.data;
+                if (!result.any(d -> d == data)) {
+                    result = result.push(data);
+                }
+            }
+            return result;
+        }
+
         public <R> ImmList<R> flatMap(Function<T, ImmList<R>> action) {
             ImmList<R> result = ImmList.empty();
             for (ImmList<T> item = this; item != SENTINEL; item = item.next) {
@@ -472,6 +565,34 @@ public class Parser {
         }
     }
 
+    private static class StepKey {
+        private final GrammarNfaTransition transition;
+        private final int exprId;
+        private final int exprPosition;
+        private final GrammarRule rule;
+
+        public StepKey(ParsingStep step) {
+            this.transition = step.transition;
+            this.exprId = step.stack.exprId;
+            this.exprPosition = step.stack.exprPosition;
+            this.rule = step.stack.rule;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof StepKey)) {
+                return false;
+            }
+            StepKey other = (StepKey) obj;
+            return transition == other.transition && exprId == other.exprId && exprPosition == other.exprPosition && rule == other.rule;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(transition) * 31 + exprId) * 31 + exprPosition;
+        }
+    }
+
     private static class ParserState {
         public final ImmList<ParserState> prev;
         public final int position;
@@ -484,16 +605,20 @@ public class Parser {
             this.nfaState = nfaState;
             this.paths = paths;
 
-            ImmList<ParsingStep> q = this.paths.flatMap(p -> p.prev);
+            ArrayDeque<ParsingStep> q = new ArrayDeque<>();
+            for (ParsingStep p : this.paths) {
+                for (ParsingStep ps : p.prev) {
+                    q.push(ps);
+                }
+            }
             while (!q.isEmpty()) {
-                ParsingStep s = q.peek();
-                q = q.pop();
+                ParsingStep s = q.pop();
 
                 if (s.stack != null) {
                     s.stack = null;
 
                     for (ParsingStep ps : s.prev) {
-                        q = q.push(ps);
+                        q.push(ps);
                     }
                 }
             }
@@ -509,14 +634,14 @@ public class Parser {
         }
 
         public ParserState makeNext(int position, GrammarNfaState nfaState, ImmList<ParsingStep> path) {
-            return new ParserState(ImmList.of(this), position, nfaState, path);
+            return new ParserState(ImmList.of(this), position, nfaState, mergeSteps(path));
         }
 
         public ParserState merge(ParserState other) {
             if (other == null) {
                 return this;
             } else if (other.position == this.position && other.nfaState == this.nfaState) {
-                return new ParserState(this.prev.merge(other.prev), position, nfaState, this.paths.merge(other.paths));
+                return new ParserState(this.prev.merge(other.prev), position, nfaState, mergeSteps(this.paths.merge(other.paths)));
             } else {
                 throw new IllegalArgumentException();
             }
@@ -588,7 +713,7 @@ public class Parser {
     }
 
     private static class LocalState {
-        public final ImmList<ParsingStep> prevSteps;
+        public ImmList<ParsingStep> prevSteps;
         public final GrammarNfaTransition transitionToGo;
 
         public LocalState(ImmList<ParsingStep> prevSteps, GrammarNfaTransition transitionToGo) {
@@ -597,6 +722,39 @@ public class Parser {
         }
     }
 
+    /**
+     * Queue of transitions to evaluate between two terms.
+     * Steps going to the transition which is already queued are merged with the queued ones,
+     * so the transition is evaluated once for all of them.
+     */
+    private static class LocalStatesQueue {
+        private final ArrayDeque<LocalState> localStates = new ArrayDeque<>();
+
+        public void offer(ImmList<ParsingStep> prevSteps, GrammarNfaTransition transition) {
+            if (localStates.size() <= MAX_MERGE_SCAN) {
+                for (LocalState localState : localStates) {
+                    if (localState.transitionToGo == transition) {
+                        localState.prevSteps = mergeSteps(localState.prevSteps.merge(prevSteps));
+                        return;
+                    }
+                }
+            }
+            localStates.offer(new LocalState(prevSteps, transition));
+        }
+
+        public boolean isEmpty() {
+            return localStates.isEmpty();
+        }
+
+        public LocalState remove() {
+            return localStates.remove();
+        }
+
+        public void clear() {
+            localStates.clear();
+        }
+    }
+
     private static class PathStep {
         public final PathStep next;
         public final ParserState state;
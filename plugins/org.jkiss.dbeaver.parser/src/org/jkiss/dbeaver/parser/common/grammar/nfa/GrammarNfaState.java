@@ -142,8 +142,13 @@ public class GrammarNfaState {
                 return new DispatchResult(eofGroup.term, position, eofGroup.transitions);
             }
         } else {
-            Matcher matcher = this.pattern.matcher(text);
-            if (matcher.find(position)) {
+            // Only a term starting exactly at the position is accepted, so do not search the rest of the text.
+            // Transparent and non-anchoring bounds keep lookarounds, word boundaries and anchors consistent with the whole text.
+            Matcher matcher = this.pattern.matcher(text)
+                .region(position, text.length())
+                .useTransparentBounds(true)
+                .useAnchoringBounds(false);
+            if (matcher.lookingAt()) {
                 for (TermGroup g : this.termGroupByName.values()) {
                     int end = matcher.end(g.groupName);
                     if (end > 0 && end - position > 0 && matcher.start(g.groupName) == position) {
@@ -24,6 +24,7 @@ import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.data.DBDDataReceiverInteractive;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
@@ -46,7 +47,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBinding[] metaColumns;
-    private List<Object[]> rows = new ArrayList<>();
+    private ResultSetValueStore rows = new ResultSetValueStore(0);
     private boolean hasMoreData;
     private boolean nextSegmentRead;
     private long offset;
@@ -93,7 +94,6 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     public void fetchStart(DBCSession session, final DBCResultSet resultSet, long offset, long maxRows)
         throws DBCException {
         this.errorList.clear();
-        this.rows.clear();
         this.offset = offset;
         this.maxRows = maxRows;
 
@@ -112,28 +112,34 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
             resultSetViewer.setMetaData(resultSet, metaColumns);
         }
+        DBPPreferenceStore preferenceStore = resultSetViewer.getPreferenceStore();
+        this.rows = new ResultSetValueStore(
+            columnsCount,
+            preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK) ?
+                preferenceStore.getInt(ResultSetPreferences.RESULT_SET_SPILL_RESIDENT_ROWS) : 0);
     }
 
     @Override
     public void fetchRow(DBCSession session, DBCResultSet resultSet) {
-        Object[] row = new Object[columnsCount];
+        // Values are written directly into the columnar storage
+        int row = rows.addRow();
         for (int i = 0; i < columnsCount; i++) {
             try {
                 DBSAttributeBase metaAttribute = metaColumns[i].getAttribute();
                 if (metaAttribute == null) {
                     continue;
                 }
-                row[i] = metaColumns[i].getValueHandler().fetchValueObject(
+                rows.setValue(row, i, metaColumns[i].getValueHandler().fetchValueObject(
                     session,
                     resultSet,
                     metaAttribute,
-                    metaColumns[i].getOrdinalPosition());
+                    metaColumns[i].getOrdinalPosition()));
             } catch (Throwable e) {
                 // Do not reports the same error multiple times
                 // There are a lot of error could occur during result set fetch
                 // We report certain error only once
 
-                row[i] = new DBDValueError(e);
+                rows.setValue(row, i, new DBDValueError(e));
 
                 List<String> attrErrors = this.attrErrors.computeIfAbsent(
                     metaColumns[i].getMetaAttribute(),
@@ -149,7 +155,6 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 }
             }
         }
-        rows.add(row);
     }
 
     @Override
@@ -162,13 +167,16 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 if (dataContainer instanceof DBSEntity) {
                     entity = (DBSEntity) dataContainer;
                 }
-                DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
+                // Binders work with plain row arrays. They are materialized page by page, changed values are written back.
+                ResultSetValueStore.RowsView rowList = rows.getRowsView();
+                DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rowList);
+                rowList.flush();
             } catch (Throwable e) {
                 errorList.add(e);
             }
         }
 
-        final List<Object[]> tmpRows = rows;
+        final ResultSetValueStore tmpRows = rows;
 
         final boolean nextSegmentRead = this.nextSegmentRead;
 
@@ -184,7 +192,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             resultSetViewer.appendData(tmpRows, resetOldRows);
         }
         // Check for more data
-        hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
+        hasMoreData = maxRows > 0 && tmpRows.getRowCount() >= maxRows;
         monitor.done();
 
         UIUtils.asyncExec(() -> {
@@ -209,7 +217,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         nextSegmentRead = false;
 
         attrErrors.clear();
-        rows = new ArrayList<>();
+        rows = new ResultSetValueStore(0);
     }
 
     @Override
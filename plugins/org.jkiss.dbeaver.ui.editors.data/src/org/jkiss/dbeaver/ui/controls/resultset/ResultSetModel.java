@@ -58,6 +58,8 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    // Columnar storage of current rows values
+    private ResultSetValueStore valueStore;
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -362,7 +364,15 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
+    }
+
+    /**
+     * Returns values of rows which are kept in heap. Spilled rows are not read back from disk.
+     */
+    @NotNull
+    public List<Object[]> getResidentRowData() {
+        return valueStore == null ? Collections.emptyList() : valueStore.getResidentRows();
     }
 
     @NotNull
@@ -380,31 +390,34 @@ public class ResultSetModel {
 
     @Nullable
     public Object getCellValue(@NotNull ResultSetCellLocation cellLocation) {
-        return DBUtils.getAttributeValue(
+        return getCellValue(
             cellLocation.getAttribute(),
-            attributes,
-            cellLocation.getRow().values,
+            cellLocation.getRow(),
             cellLocation.getRowIndexes());
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
-        return DBUtils.getAttributeValue(
-            attribute,
-            attributes,
-            row.values,
-            null);
+        return getCellValue(attribute, row, null);
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row, @Nullable int[] rowIndexes) {
+        if (rowIndexes == null && isPlainAttribute(attribute)) {
+            // Plain top-level attribute. Read directly from the values storage
+            return row.getValue(attribute.getOrdinalPosition());
+        }
         return DBUtils.getAttributeValue(
             attribute,
             attributes,
-            row.values,
+            row.readValues(),
             rowIndexes);
     }
 
+    private static boolean isPlainAttribute(@NotNull DBDAttributeBinding attribute) {
+        return attribute.getLevel() == 0 && !attribute.isCustom() && attribute.getTopParent() == attribute;
+    }
+
     /**
      * Updates cell value. Saves previous value.
      *
@@ -446,7 +459,7 @@ public class ResultSetModel {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
         int rowIndex = 0;
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -556,7 +569,7 @@ public class ResultSetModel {
                     e.printStackTrace();
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -700,7 +713,7 @@ public class ResultSetModel {
         }
     }
 
-    public void setData(@NotNull List<Object[]> rows) {
+    public void setData(@NotNull ResultSetValueStore rows) {
         // Clear previous data
         this.releaseAllData();
         this.clearData();
@@ -862,16 +875,24 @@ public class ResultSetModel {
         }
     }
 
-    void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
-        if (resetOldRows) {
+    void appendData(@NotNull ResultSetValueStore rows, boolean resetOldRows) {
+        int firstStoreIndex;
+        if (resetOldRows || valueStore == null || valueStore.getColumnCount() != rows.getColumnCount()) {
             curRows.clear();
+            if (valueStore != null && valueStore != rows) {
+                valueStore.dispose();
+            }
+            valueStore = rows;
+            firstStoreIndex = 0;
+        } else {
+            firstStoreIndex = valueStore.addRows(rows);
         }
-        int rowCount = rows.size();
+        int rowCount = rows.getRowCount();
         int firstRowNum = curRows.size();
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
         for (int i = 0; i < rowCount; i++) {
             newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+                new ResultSetRow(firstRowNum + i, valueStore, firstStoreIndex + i));
         }
         curRows.addAll(newRows);
 
@@ -881,6 +902,11 @@ public class ResultSetModel {
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        if (this.valueStore != null) {
+            // Spilled rows hold only plain values, so nothing is lost for rows release
+            this.valueStore.dispose();
+            this.valueStore = null;
+        }
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -909,7 +935,10 @@ public class ResultSetModel {
 
     @NotNull
     ResultSetRow addNewRow(int rowNum, @NotNull Object[] data) {
-        ResultSetRow newRow = new ResultSetRow(curRows.size(), data);
+        if (valueStore == null) {
+            valueStore = new ResultSetValueStore(data.length);
+        }
+        ResultSetRow newRow = new ResultSetRow(curRows.size(), valueStore, valueStore.addRow(data));
         newRow.setVisualNumber(rowNum);
         newRow.setState(ResultSetRow.STATE_ADDED);
         shiftRows(newRow, 1);
@@ -1121,9 +1150,13 @@ public class ResultSetModel {
                     if (binding == null) {
                         continue;
                     }
-                    Object cell1 = getCellValue(new ResultSetCellLocation(binding, row1));
-                    Object cell2 = getCellValue(new ResultSetCellLocation(binding, row2));
-                    result = DBUtils.compareDataValues(cell1, cell2);
+                    if (isPlainAttribute(binding)) {
+                        result = row1.compareValue(binding.getOrdinalPosition(), row2);
+                    } else {
+                        Object cell1 = getCellValue(new ResultSetCellLocation(binding, row1));
+                        Object cell2 = getCellValue(new ResultSetCellLocation(binding, row2));
+                        result = DBUtils.compareDataValues(cell1, cell2);
+                    }
                     if (co.isOrderDescending()) {
                         result = -result;
                     }
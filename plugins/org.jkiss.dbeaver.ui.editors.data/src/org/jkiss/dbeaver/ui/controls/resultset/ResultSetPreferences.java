@@ -39,6 +39,8 @@ public final class ResultSetPreferences {
 
     public static final String RESULT_SET_AUTO_FETCH_NEXT_SEGMENT = "resultset.autofetch.next.segment"; //$NON-NLS-1$
     public static final String RESULT_SET_CANCEL_TIMEOUT = "resultset.cancel.timeout"; //$NON-NLS-1$
+    public static final String RESULT_SET_SPILL_TO_DISK = "resultset.spill.enabled"; //$NON-NLS-1$
+    public static final String RESULT_SET_SPILL_RESIDENT_ROWS = "resultset.spill.residentRows"; //$NON-NLS-1$
     public static final String RESULT_SET_BINARY_EDITOR_TYPE = "resultset.binary.editor"; //$NON-NLS-1$
     public static final String RESULT_SET_ORDERING_MODE = "resultset.order.mode"; //$NON-NLS-1$
     public static final String RESULT_SET_SHOW_ODD_ROWS = "resultset.show.oddRows"; //$NON-NLS-1$
@@ -49,9 +49,14 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
+    // Column values storage
     @NotNull
-    public Object[] values;
+    private ResultSetValueStore store;
+    // Row index in values storage
+    private int storeIndex;
+    // Values array returned by getValues(). Once it is requested it keeps actual row values
+    @Nullable
+    private Object[] values;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -59,18 +64,74 @@ public class ResultSetRow {
     @Nullable
     public ColorInfo colorInfo;
 
-    ResultSetRow(int rowNumber, @NotNull Object[] values) {
+    ResultSetRow(int rowNumber, @NotNull ResultSetValueStore store, int storeIndex) {
         this.rowNumber = rowNumber;
         this.visualNumber = rowNumber;
-        this.values = values;
+        this.store = store;
+        this.storeIndex = storeIndex;
         this.state = STATE_NORMAL;
     }
 
+    /**
+     * Returns row values. Array is kept by the row, so changes in it are visible in the row.
+     * Values are materialized from the values storage on the first call,
+     * use {@link #getValue(int)} to read single values without materialization.
+     */
     @NotNull
     public Object[] getValues() {
+        if (values == null) {
+            values = store.getRow(storeIndex);
+        }
         return values;
     }
 
+    /**
+     * Returns actual row values without keeping them in the row. Returned array must not be modified.
+     */
+    @NotNull
+    Object[] readValues() {
+        return values != null ? values : store.getRow(storeIndex);
+    }
+
+    void setValues(@NotNull Object[] newValues) {
+        store.setRow(storeIndex, newValues);
+        if (values != null) {
+            System.arraycopy(newValues, 0, values, 0, Math.min(values.length, newValues.length));
+        }
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        if (index < 0 || index >= store.getColumnCount()) {
+            return null;
+        }
+        if (values != null) {
+            return values[index];
+        }
+        return store.getValue(storeIndex, index);
+    }
+
+    void setValue(int index, @Nullable Object value) {
+        store.setValue(storeIndex, index, value);
+        if (values != null) {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Compares values of the specified column. Values kept in primitive columns are compared without materialization.
+     */
+    int compareValue(int index, @NotNull ResultSetRow row) {
+        if (values == null && row.values == null && store == row.store) {
+            return store.compareValues(storeIndex, row.storeIndex, index);
+        }
+        return DBUtils.compareDataValues(getValue(index), row.getValue(index));
+    }
+
+    int getColumnCount() {
+        return store.getColumnCount();
+    }
+
     public boolean isChanged() {
         return changes != null && !changes.isEmpty();
     }
@@ -127,9 +188,7 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
-        }
+        store.releaseRow(storeIndex);
         if (changes != null) {
             for (Object oldValue : changes.values()) {
                 DBUtils.releaseValue(oldValue);
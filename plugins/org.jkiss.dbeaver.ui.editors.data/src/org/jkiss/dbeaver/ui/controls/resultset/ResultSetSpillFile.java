@@ -0,0 +1,107 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Temporary file which keeps spilled pages of result set values.
+ * Data is only appended. Pages are read back with positional reads into the caller's buffer.
+ * File is deleted on close.
+ */
+class ResultSetSpillFile implements Closeable {
+
+    private static final String SPILL_FOLDER = "resultset-spill"; //$NON-NLS-1$
+
+    private final FileChannel channel;
+    private long size;
+    private boolean closed;
+
+    /**
+     * @param folder folder for the temporary file. If null then workbench temp folder is used.
+     */
+    ResultSetSpillFile(@Nullable Path folder) throws IOException {
+        if (folder == null) {
+            folder = DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), SPILL_FOLDER);
+        }
+        Path path = Files.createTempFile(folder, "rs-", ".dat");
+        this.channel = FileChannel.open(
+            path,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Appends data to the end of file
+     *
+     * @return data offset
+     */
+    synchronized long write(@NotNull ByteBuffer data) throws IOException {
+        if (closed) {
+            throw new IOException("Spill file is closed");
+        }
+        long offset = size;
+        long position = offset;
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+        size = position;
+        return offset;
+    }
+
+    /**
+     * Reads data from the specified offset. Buffer is filled up to its limit and then flipped.
+     */
+    synchronized void read(long offset, @NotNull ByteBuffer buffer) throws IOException {
+        if (closed) {
+            throw new IOException("Spill file is closed");
+        }
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new IOException("Unexpected end of spill file at " + position);
+            }
+            position += count;
+        }
+        buffer.flip();
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,1447 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Columnar storage of result set values.
+ * <p>
+ * Rows are split into pages. Each page column is backed by the most compact representation which fits all its values.
+ * Column kind is chosen by the first non-null value: longs, integers, doubles, floats, booleans and
+ * JDBC temporals are kept in primitive arrays, strings are dictionary-encoded.
+ * If some value doesn't fit the column (e.g. fetch error or mixed numeric types) the column
+ * is converted to plain object storage. Nulls are tracked in a bitmap.
+ * <p>
+ * If spilling is enabled then only a limited number of rows is kept in heap.
+ * Least recently used pages are serialized to a temporary file and are read back on access.
+ * Budget is counted in rows because pages adopted from fetched segments may be much smaller than {@link #PAGE_SIZE}.
+ * Pages with values which can't be serialized (LOBs, complex values, etc) always stay in heap.
+ * <p>
+ * Store is not thread-safe for writes. Row indexes are stable: rows are only appended.
+ */
+public class ResultSetValueStore {
+
+    private static final Log log = Log.getLog(ResultSetValueStore.class);
+
+    static final int PAGE_SIZE = 1 << 12;
+
+    private static final int INITIAL_CAPACITY = 64;
+    // Strings dictionary is dropped when it grows above this size and holds mostly unique values
+    private static final int MAX_DICTIONARY_SIZE = 1 << 12;
+
+    private final int columnCount;
+    // Maximum number of rows kept in heap. 0 means no limit
+    private final int maxResidentRows;
+    // Folder for spill files. Null means workbench temp folder
+    @Nullable
+    private final Path spillFolder;
+
+    private final List<Page> pages = new ArrayList<>();
+    private int[] pageStarts = new int[16];
+    private int rowCount;
+    private Page lastAccessedPage;
+
+    private ResultSetSpillFile spillFile;
+    private final List<ResultSetSpillFile> adoptedSpillFiles = new ArrayList<>();
+    private boolean spillFailed;
+    private int residentRows;
+    // Resident pages which may be spilled
+    private final Set<Page> spillCandidates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long accessClock;
+    // Reused for reading of spilled pages
+    private ByteBuffer readBuffer;
+
+    public ResultSetValueStore(int columnCount) {
+        this(columnCount, 0);
+    }
+
+    /**
+     * @param columnCount      number of columns
+     * @param maxResidentRows  maximum number of rows kept in heap. Other rows are spilled to disk. 0 disables spilling.
+     */
+    public ResultSetValueStore(int columnCount, int maxResidentRows) {
+        this(columnCount, maxResidentRows, null);
+    }
+
+    /**
+     * @param spillFolder folder for spill files. If null then workbench temp folder is used.
+     */
+    public ResultSetValueStore(int columnCount, int maxResidentRows, @Nullable Path spillFolder) {
+        this.columnCount = columnCount;
+        this.maxResidentRows = Math.max(0, maxResidentRows);
+        this.spillFolder = spillFolder;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isSpillEnabled() {
+        return maxResidentRows > 0;
+    }
+
+    /**
+     * Number of rows currently kept in spill file
+     */
+    public synchronized int getSpilledRowCount() {
+        int count = 0;
+        for (Page page : pages) {
+            if (page.columns == null) {
+                count += page.rowCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds new row with all values set to null.
+     *
+     * @return new row index
+     */
+    public synchronized int addRow() {
+        Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        if (page == null || page.rowCount >= PAGE_SIZE) {
+            page = addPage(new Page(rowCount));
+            page.columns = new Column[columnCount];
+            page.capacity = Math.min(INITIAL_CAPACITY, PAGE_SIZE);
+            spillCandidates.add(page);
+            evictPages(page);
+        } else {
+            Column[] columns = loadPage(page);
+            if (page.rowCount >= page.capacity) {
+                page.resize(columns, Math.min(PAGE_SIZE, page.capacity * 2));
+            }
+        }
+        page.dirty = true;
+        page.rowCount++;
+        residentRows++;
+        return rowCount++;
+    }
+
+    /**
+     * Adds new row and fills it with specified values.
+     *
+     * @return new row index
+     */
+    public int addRow(@NotNull Object[] values) {
+        int row = addRow();
+        setRow(row, values);
+        return row;
+    }
+
+    /**
+     * Moves all rows of the specified store to the end of this store.
+     * Source store pages are adopted as is (without copying), so source store becomes empty.
+     *
+     * @return index of the first moved row
+     */
+    public synchronized int addRows(@NotNull ResultSetValueStore store) {
+        int firstRow = rowCount;
+        if (store.columnCount != columnCount) {
+            throw new IllegalArgumentException("Column count mismatch: " + store.columnCount + " <> " + columnCount);
+        }
+        synchronized (store) {
+            for (Page page : store.pages) {
+                page.firstRow = rowCount;
+                page.lastAccess = ++accessClock;
+                addPage(page);
+                rowCount += page.rowCount;
+                if (page.columns != null) {
+                    residentRows += page.rowCount;
+                    if (page.spillable) {
+                        spillCandidates.add(page);
+                    }
+                }
+            }
+            if (store.spillFile != null) {
+                adoptedSpillFiles.add(store.spillFile);
+            }
+            adoptedSpillFiles.addAll(store.adoptedSpillFiles);
+            store.pages.clear();
+            store.adoptedSpillFiles.clear();
+            store.spillFile = null;
+            store.rowCount = 0;
+            store.residentRows = 0;
+            store.spillCandidates.clear();
+            store.lastAccessedPage = null;
+        }
+        evictPages(null);
+        return firstRow;
+    }
+
+    @Nullable
+    public Object getValue(int row, int column) {
+        Page page = getPage(row);
+        Column col = getColumns(page)[column];
+        int index = row - page.firstRow;
+        if (col == null || !col.hasValue(index)) {
+            return null;
+        }
+        return col.getValue(index);
+    }
+
+    public void setValue(int row, int column, @Nullable Object value) {
+        Page page = getPage(row);
+        Column[] columns = getColumns(page);
+        page.dirty = true;
+        Column col = columns[column];
+        int index = row - page.firstRow;
+        if (col != null) {
+            col.lastValue = null;
+        }
+        if (value == null) {
+            if (col != null) {
+                col.setNull(index);
+            }
+            return;
+        }
+        if (col == null) {
+            col = createColumn(value, page.capacity);
+            columns[column] = col;
+        }
+        if (!col.set(index, value)) {
+            // Value doesn't fit. Switch to the generic storage
+            ObjectColumn objColumn = new ObjectColumn(page.capacity);
+            for (int i = 0; i < page.rowCount; i++) {
+                if (col.hasValue(i)) {
+                    objColumn.values[i] = col.get(i);
+                }
+            }
+            columns[column] = objColumn;
+            objColumn.set(index, value);
+        }
+    }
+
+    public boolean isNull(int row, int column) {
+        Page page = getPage(row);
+        Column col = getColumns(page)[column];
+        return col == null || !col.hasValue(row - page.firstRow);
+    }
+
+    /**
+     * Compares values of two rows in the specified column.
+     * Values kept in primitive columns are compared without materialization.
+     * Nulls go last, the same way as {@link DBUtils#compareDataValues(Object, Object)} does.
+     */
+    public int compareValues(int row1, int row2, int column) {
+        Page page1 = getPage(row1);
+        Column col1 = getColumns(page1)[column];
+        int index1 = row1 - page1.firstRow;
+        Page page2 = getPage(row2);
+        Column col2 = getColumns(page2)[column];
+        int index2 = row2 - page2.firstRow;
+        boolean null1 = col1 == null || !col1.hasValue(index1);
+        boolean null2 = col2 == null || !col2.hasValue(index2);
+        if (null1 || null2) {
+            return null1 == null2 ? 0 : (null1 ? 1 : -1);
+        }
+        if (col1 instanceof LongColumn && col2 instanceof LongColumn) {
+            return Long.compare(((LongColumn) col1).values[index1], ((LongColumn) col2).values[index2]);
+        } else if (col1 instanceof IntColumn && col2 instanceof IntColumn) {
+            return Integer.compare(((IntColumn) col1).values[index1], ((IntColumn) col2).values[index2]);
+        } else if (col1 instanceof DoubleColumn && col2 instanceof DoubleColumn) {
+            return Double.compare(((DoubleColumn) col1).values[index1], ((DoubleColumn) col2).values[index2]);
+        } else if (col1 instanceof TimestampColumn && col2 instanceof TimestampColumn) {
+            return ((TimestampColumn) col1).compare(index1, (TimestampColumn) col2, index2);
+        } else if (col1 instanceof DateColumn && col2 instanceof DateColumn && ((DateColumn) col1).dateType == ((DateColumn) col2).dateType) {
+            return Long.compare(((DateColumn) col1).millis[index1], ((DateColumn) col2).millis[index2]);
+        }
+        return DBUtils.compareDataValues(col1.getValue(index1), col2.getValue(index2));
+    }
+
+    @NotNull
+    public Object[] getRow(int row) {
+        Object[] values = new Object[columnCount];
+        Page page = getPage(row);
+        Column[] columns = getColumns(page);
+        int index = row - page.firstRow;
+        for (int i = 0; i < columnCount; i++) {
+            Column col = columns[i];
+            if (col != null && col.hasValue(index)) {
+                values[i] = col.getValue(index);
+            }
+        }
+        return values;
+    }
+
+    public void setRow(int row, @NotNull Object[] values) {
+        int count = Math.min(values.length, columnCount);
+        for (int i = 0; i < count; i++) {
+            setValue(row, i, values[i]);
+        }
+    }
+
+    /**
+     * Returns list of row arrays for components which work with plain rows (e.g. attribute binders).
+     * Rows are materialized page by page, so only arrays of one page are kept in heap.
+     * Values changed in returned arrays are written back when another page is accessed and on {@link RowsView#flush()}.
+     */
+    @NotNull
+    RowsView getRowsView() {
+        return new RowsView();
+    }
+
+    /**
+     * Materializes rows which are kept in heap. Spilled pages are not read back.
+     * Values which can't be serialized (complex values, LOBs, etc) are never spilled,
+     * so it is enough for binders which inspect such values.
+     */
+    @NotNull
+    public synchronized List<Object[]> getResidentRows() {
+        List<Object[]> rows = new ArrayList<>(Math.min(rowCount, residentRows));
+        for (Page page : pages) {
+            if (page.columns != null) {
+                for (int i = 0; i < page.rowCount; i++) {
+                    rows.add(getRow(page.firstRow + i));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Releases complex values (LOBs, documents, etc) of the specified row.
+     * Primitive columns never hold such values. Spilled pages never hold them too.
+     */
+    public void releaseRow(int row) {
+        Page page = getPage(row);
+        Column[] columns = page.columns;
+        if (columns == null) {
+            return;
+        }
+        int index = row - page.firstRow;
+        for (Column column : columns) {
+            if (column instanceof ObjectColumn) {
+                DBUtils.releaseValue(((ObjectColumn) column).values[index]);
+            }
+        }
+    }
+
+    /**
+     * Deletes spill files. Spilled rows become unavailable (read as nulls).
+     */
+    public synchronized void dispose() {
+        closeSpillFile(spillFile);
+        spillFile = null;
+        for (ResultSetSpillFile file : adoptedSpillFiles) {
+            closeSpillFile(file);
+        }
+        adoptedSpillFiles.clear();
+    }
+
+    @NotNull
+    private Page addPage(@NotNull Page page) {
+        int index = pages.size();
+        if (index >= pageStarts.length) {
+            pageStarts = Arrays.copyOf(pageStarts, pageStarts.length * 2);
+        }
+        pageStarts[index] = page.firstRow;
+        pages.add(page);
+        return page;
+    }
+
+    @NotNull
+    private Page getPage(int row) {
+        Page page = lastAccessedPage;
+        if (page != null && row >= page.firstRow && row < page.firstRow + page.rowCount) {
+            return page;
+        }
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of bounds (" + rowCount + ")");
+        }
+        int index = Arrays.binarySearch(pageStarts, 0, pages.size(), row);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        page = pages.get(index);
+        lastAccessedPage = page;
+        return page;
+    }
+
+    @NotNull
+    private Column[] getColumns(@NotNull Page page) {
+        Column[] columns = page.columns;
+        if (columns == null) {
+            columns = loadPage(page);
+        } else if (maxResidentRows > 0) {
+            page.lastAccess = ++accessClock;
+        }
+        return columns;
+    }
+
+    @NotNull
+    private synchronized Column[] loadPage(@NotNull Page page) {
+        Column[] columns = page.columns;
+        if (columns != null) {
+            return columns;
+        }
+        columns = new Column[columnCount];
+        try {
+            if (page.spillFile != null) {
+                ByteBuffer buffer = readBuffer;
+                if (buffer == null || buffer.capacity() < page.spillLength) {
+                    buffer = ByteBuffer.allocate(Math.max(page.spillLength, buffer == null ? 0 : buffer.capacity() * 2));
+                    readBuffer = buffer;
+                }
+                buffer.clear().limit(page.spillLength);
+                page.spillFile.read(page.spillOffset, buffer);
+                for (int i = 0; i < columnCount; i++) {
+                    columns[i] = readColumn(buffer, page.rowCount);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Error reading spilled result set page", e);
+        }
+        page.capacity = page.rowCount;
+        page.columns = columns;
+        page.dirty = false;
+        page.lastAccess = ++accessClock;
+        residentRows += page.rowCount;
+        spillCandidates.add(page);
+        evictPages(page);
+        return columns;
+    }
+
+    /**
+     * Spills least recently used pages until resident rows count fits the limit.
+     * Last page (which is filled with new rows) and the page which is being accessed are never spilled.
+     */
+    private synchronized void evictPages(@Nullable Page accessedPage) {
+        if (maxResidentRows <= 0 || spillFailed || pages.isEmpty()) {
+            return;
+        }
+        Page lastPage = pages.get(pages.size() - 1);
+        while (residentRows > maxResidentRows) {
+            Page victim = null;
+            for (Page page : spillCandidates) {
+                if (page != accessedPage && page != lastPage && (victim == null || page.lastAccess < victim.lastAccess)) {
+                    victim = page;
+                }
+            }
+            if (victim == null || !spillPage(victim)) {
+                return;
+            }
+        }
+    }
+
+    private boolean spillPage(@NotNull Page page) {
+        Column[] columns = page.columns;
+        if (page.dirty || page.spillFile == null) {
+            for (Column column : columns) {
+                if (column != null && !column.isSpillable(page.rowCount)) {
+                    // Page will stay in heap forever
+                    page.spillable = false;
+                    spillCandidates.remove(page);
+                    return true;
+                }
+            }
+            page.dirty = false;
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(page.rowCount * columnCount * 8);
+                try (DataOutputStream out = new DataOutputStream(buffer)) {
+                    for (Column column : columns) {
+                        writeColumn(out, column, page.rowCount);
+                    }
+                }
+                if (spillFile == null) {
+                    spillFile = new ResultSetSpillFile(spillFolder);
+                }
+                byte[] data = buffer.toByteArray();
+                page.spillOffset = spillFile.write(ByteBuffer.wrap(data));
+                page.spillLength = data.length;
+                page.spillFile = spillFile;
+            } catch (Exception e) {
+                log.warn("Error spilling result set page to disk. Keep all rows in memory.", e);
+                spillFailed = true;
+                page.dirty = true;
+                return false;
+            }
+            if (page.dirty) {
+                // Page was modified during serialization
+                page.spillable = false;
+                spillCandidates.remove(page);
+                return true;
+            }
+        }
+        page.columns = null;
+        if (lastAccessedPage == page) {
+            lastAccessedPage = null;
+        }
+        residentRows -= page.rowCount;
+        spillCandidates.remove(page);
+        return true;
+    }
+
+    private static void closeSpillFile(@Nullable ResultSetSpillFile file) {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.debug("Error closing spill file", e);
+            }
+        }
+    }
+
+    @NotNull
+    private static Column createColumn(@NotNull Object value, int capacity) {
+        Class<?> valueClass = value.getClass();
+        if (valueClass == Long.class) {
+            return new LongColumn(capacity);
+        } else if (valueClass == Integer.class) {
+            return new IntColumn(capacity);
+        } else if (valueClass == Double.class) {
+            return new DoubleColumn(capacity);
+        } else if (valueClass == Float.class) {
+            return new FloatColumn(capacity);
+        } else if (valueClass == Boolean.class) {
+            return new BooleanColumn(capacity);
+        } else if (valueClass == String.class) {
+            return new StringColumn(capacity);
+        } else if (valueClass == java.sql.Timestamp.class) {
+            return new TimestampColumn(capacity);
+        } else if (valueClass == java.sql.Date.class) {
+            return new DateColumn(capacity, DATE_SQL);
+        } else if (valueClass == java.sql.Time.class) {
+            return new DateColumn(capacity, DATE_TIME);
+        } else if (valueClass == java.util.Date.class) {
+            return new DateColumn(capacity, DATE_UTIL);
+        } else {
+            return new ObjectColumn(capacity);
+        }
+    }
+
+    class RowsView extends AbstractList<Object[]> implements RandomAccess {
+        private Page page;
+        private Object[][] rows;
+        // Values as they were read from the store
+        private Object[][] originalRows;
+
+        @Override
+        public Object[] get(int index) {
+            Page rowPage = getPage(index);
+            if (rowPage != page) {
+                flush();
+                page = rowPage;
+                rows = new Object[rowPage.rowCount][];
+                originalRows = new Object[rowPage.rowCount][];
+            }
+            int pageIndex = index - rowPage.firstRow;
+            Object[] row = rows[pageIndex];
+            if (row == null) {
+                row = getRow(index);
+                rows[pageIndex] = row;
+                originalRows[pageIndex] = row.clone();
+            }
+            return row;
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+
+        /**
+         * Writes changed values of the current page back to the store
+         */
+        void flush() {
+            if (page == null) {
+                return;
+            }
+            for (int i = 0; i < rows.length; i++) {
+                Object[] row = rows[i];
+                if (row == null) {
+                    continue;
+                }
+                Object[] originalRow = originalRows[i];
+                for (int k = 0; k < columnCount; k++) {
+                    if (row[k] != originalRow[k]) {
+                        setValue(page.firstRow + i, k, row[k]);
+                    }
+                }
+            }
+            page = null;
+            rows = null;
+            originalRows = null;
+        }
+    }
+
+    private static class Page {
+        int firstRow;
+        int rowCount;
+        int capacity;
+        // Null if page is spilled
+        volatile Column[] columns;
+        volatile boolean dirty;
+        boolean spillable = true;
+        long lastAccess;
+
+        ResultSetSpillFile spillFile;
+        long spillOffset;
+        int spillLength;
+
+        Page(int firstRow) {
+            this.firstRow = firstRow;
+        }
+
+        void resize(@NotNull Column[] columns, int newCapacity) {
+            for (Column column : columns) {
+                if (column != null) {
+                    column.resize(newCapacity);
+                }
+            }
+            capacity = newCapacity;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Columns
+
+    private static final byte TAG_EMPTY = 0;
+    private static final byte TAG_LONG = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_DOUBLE = 3;
+    private static final byte TAG_FLOAT = 4;
+    private static final byte TAG_BOOLEAN = 5;
+    private static final byte TAG_TIMESTAMP = 6;
+    private static final byte TAG_DATE = 7;
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_OBJECT = 9;
+
+    private static final byte DATE_UTIL = 0;
+    private static final byte DATE_SQL = 1;
+    private static final byte DATE_TIME = 2;
+
+    private static void writeColumn(@NotNull DataOutputStream out, @Nullable Column column, int count) throws IOException {
+        if (column == null) {
+            out.writeByte(TAG_EMPTY);
+            return;
+        }
+        out.writeByte(column.getTag());
+        if (!(column instanceof ObjectColumn)) {
+            int bitmapSize = Column.bitmapSize(count);
+            for (int i = 0; i < bitmapSize; i++) {
+                out.writeLong(column.nonNulls[i]);
+            }
+        }
+        column.write(out, count);
+    }
+
+    @Nullable
+    private static Column readColumn(@NotNull ByteBuffer in, int count) {
+        byte tag = in.get();
+        Column column;
+        switch (tag) {
+            case TAG_EMPTY: return null;
+            case TAG_LONG: column = new LongColumn(count); break;
+            case TAG_INT: column = new IntColumn(count); break;
+            case TAG_DOUBLE: column = new DoubleColumn(count); break;
+            case TAG_FLOAT: column = new FloatColumn(count); break;
+            case TAG_BOOLEAN: column = new BooleanColumn(count); break;
+            case TAG_TIMESTAMP: column = new TimestampColumn(count); break;
+            case TAG_DATE: column = new DateColumn(count, DATE_UTIL); break;
+            case TAG_STRING: column = new StringColumn(count); break;
+            case TAG_OBJECT: column = new ObjectColumn(count); break;
+            default:
+                throw new IllegalStateException("Bad spilled column tag: " + tag);
+        }
+        if (!(column instanceof ObjectColumn)) {
+            int bitmapSize = Column.bitmapSize(count);
+            for (int i = 0; i < bitmapSize; i++) {
+                column.nonNulls[i] = in.getLong();
+            }
+        }
+        column.read(in, count);
+        return column;
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        out.writeInt(value.length());
+        out.writeChars(value);
+    }
+
+    @NotNull
+    private static String readString(@NotNull ByteBuffer in) {
+        char[] chars = new char[in.getInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.getChar();
+        }
+        return new String(chars);
+    }
+
+    private static abstract class Column {
+        // Bit is set for non-null cells
+        long[] nonNulls;
+        // Last materialized value. The same cell is usually read several times in a row (e.g. on grid repaint)
+        CachedValue lastValue;
+
+        Column(int capacity) {
+            nonNulls = new long[bitmapSize(capacity)];
+        }
+
+        /**
+         * Returns value of non-null cell. Value object is reused for repeated reads of the same cell.
+         */
+        final Object getValue(int row) {
+            CachedValue cached = lastValue;
+            if (cached != null && cached.row == row) {
+                return cached.value;
+            }
+            Object value = get(row);
+            if (isValueCacheable()) {
+                lastValue = new CachedValue(row, value);
+            }
+            return value;
+        }
+
+        /**
+         * Returns false if {@link #get(int)} doesn't create new objects
+         */
+        boolean isValueCacheable() {
+            return true;
+        }
+
+        boolean hasValue(int row) {
+            return (nonNulls[row >> 6] & (1L << row)) != 0;
+        }
+
+        void setNull(int row) {
+            nonNulls[row >> 6] &= ~(1L << row);
+        }
+
+        void markValue(int row) {
+            nonNulls[row >> 6] |= 1L << row;
+        }
+
+        void resize(int capacity) {
+            nonNulls = Arrays.copyOf(nonNulls, bitmapSize(capacity));
+        }
+
+        boolean isSpillable(int count) {
+            return true;
+        }
+
+        abstract byte getTag();
+
+        abstract Object get(int row);
+
+        /**
+         * Sets non-null value. Returns false if value can't be stored in this column.
+         */
+        abstract boolean set(int row, @NotNull Object value);
+
+        abstract void write(@NotNull DataOutputStream out, int count) throws IOException;
+
+        abstract void read(@NotNull ByteBuffer in, int count);
+
+        static int bitmapSize(int capacity) {
+            return (capacity + 63) >> 6;
+        }
+    }
+
+    private static class CachedValue {
+        final int row;
+        final Object value;
+
+        CachedValue(int row, Object value) {
+            this.row = row;
+            this.value = value;
+        }
+    }
+
+    private static class LongColumn extends Column {
+        long[] values;
+
+        LongColumn(int capacity) {
+            super(capacity);
+            values = new long[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_LONG;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != Long.class) {
+                return false;
+            }
+            values[row] = (Long) value;
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(values[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            in.asLongBuffer().get(values, 0, count);
+            in.position(in.position() + count * Long.BYTES);
+        }
+    }
+
+    private static class IntColumn extends Column {
+        int[] values;
+
+        IntColumn(int capacity) {
+            super(capacity);
+            values = new int[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_INT;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != Integer.class) {
+                return false;
+            }
+            values[row] = (Integer) value;
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeInt(values[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            in.asIntBuffer().get(values, 0, count);
+            in.position(in.position() + count * Integer.BYTES);
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        double[] values;
+
+        DoubleColumn(int capacity) {
+            super(capacity);
+            values = new double[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_DOUBLE;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != Double.class) {
+                return false;
+            }
+            values[row] = (Double) value;
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeDouble(values[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            in.asDoubleBuffer().get(values, 0, count);
+            in.position(in.position() + count * Double.BYTES);
+        }
+    }
+
+    private static class FloatColumn extends Column {
+        float[] values;
+
+        FloatColumn(int capacity) {
+            super(capacity);
+            values = new float[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_FLOAT;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != Float.class) {
+                return false;
+            }
+            values[row] = (Float) value;
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeFloat(values[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            in.asFloatBuffer().get(values, 0, count);
+            in.position(in.position() + count * Float.BYTES);
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        // Bit is set for TRUE values
+        long[] values;
+
+        BooleanColumn(int capacity) {
+            super(capacity);
+            values = new long[nonNulls.length];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_BOOLEAN;
+        }
+
+        @Override
+        boolean isValueCacheable() {
+            return false;
+        }
+
+        @Override
+        Object get(int row) {
+            return (values[row >> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != Boolean.class) {
+                return false;
+            }
+            if ((Boolean) value) {
+                values[row >> 6] |= 1L << row;
+            } else {
+                values[row >> 6] &= ~(1L << row);
+            }
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, nonNulls.length);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            int size = bitmapSize(count);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(values[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            int size = bitmapSize(count);
+            for (int i = 0; i < size; i++) {
+                values[i] = in.getLong();
+            }
+        }
+    }
+
+    /**
+     * Keeps java.sql.Timestamp as epoch millis and nanos. Nanos array is created only when needed.
+     */
+    private static class TimestampColumn extends Column {
+        long[] millis;
+        int[] nanos;
+
+        TimestampColumn(int capacity) {
+            super(capacity);
+            millis = new long[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_TIMESTAMP;
+        }
+
+        @Override
+        Object get(int row) {
+            java.sql.Timestamp ts = new java.sql.Timestamp(millis[row]);
+            if (nanos != null) {
+                ts.setNanos(nanos[row]);
+            }
+            return ts;
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != java.sql.Timestamp.class) {
+                return false;
+            }
+            java.sql.Timestamp ts = (java.sql.Timestamp) value;
+            millis[row] = ts.getTime();
+            int tsNanos = ts.getNanos();
+            if (nanos == null && tsNanos % 1000000 != 0) {
+                nanos = new int[millis.length];
+                for (int i = 0; i < millis.length; i++) {
+                    if (i != row && hasValue(i)) {
+                        nanos[i] = (int) Math.floorMod(millis[i], 1000L) * 1000000;
+                    }
+                }
+            }
+            if (nanos != null) {
+                nanos[row] = tsNanos;
+            }
+            markValue(row);
+            return true;
+        }
+
+        int compare(int row, @NotNull TimestampColumn other, int otherRow) {
+            int result = Long.compare(millis[row], other.millis[otherRow]);
+            if (result == 0 && (nanos != null || other.nanos != null)) {
+                result = Integer.compare(getNanos(row), other.getNanos(otherRow));
+            }
+            return result;
+        }
+
+        private int getNanos(int row) {
+            return nanos != null ? nanos[row] : (int) Math.floorMod(millis[row], 1000L) * 1000000;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            millis = Arrays.copyOf(millis, capacity);
+            if (nanos != null) {
+                nanos = Arrays.copyOf(nanos, capacity);
+            }
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(millis[i]);
+            }
+            out.writeBoolean(nanos != null);
+            if (nanos != null) {
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(nanos[i]);
+                }
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            for (int i = 0; i < count; i++) {
+                millis[i] = in.getLong();
+            }
+            if (in.get() != 0) {
+                nanos = new int[millis.length];
+                for (int i = 0; i < count; i++) {
+                    nanos[i] = in.getInt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps java.util.Date, java.sql.Date and java.sql.Time (exactly one of them) as epoch millis.
+     */
+    private static class DateColumn extends Column {
+        private byte dateType;
+        long[] millis;
+
+        DateColumn(int capacity, byte dateType) {
+            super(capacity);
+            this.dateType = dateType;
+            this.millis = new long[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_DATE;
+        }
+
+        @Override
+        Object get(int row) {
+            long time = millis[row];
+            switch (dateType) {
+                case DATE_SQL: return new java.sql.Date(time);
+                case DATE_TIME: return new java.sql.Time(time);
+                default: return new java.util.Date(time);
+            }
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            Class<?> valueClass = value.getClass();
+            boolean matches;
+            switch (dateType) {
+                case DATE_SQL: matches = valueClass == java.sql.Date.class; break;
+                case DATE_TIME: matches = valueClass == java.sql.Time.class; break;
+                default: matches = valueClass == java.util.Date.class; break;
+            }
+            if (!matches) {
+                return false;
+            }
+            millis[row] = ((java.util.Date) value).getTime();
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            millis = Arrays.copyOf(millis, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            out.writeByte(dateType);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(millis[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            dateType = in.get();
+            for (int i = 0; i < count; i++) {
+                millis[i] = in.getLong();
+            }
+        }
+    }
+
+    /**
+     * Dictionary-encoded strings. Turns into plain object column once dictionary becomes too big
+     * for the number of rows (i.e. values are mostly unique).
+     */
+    private static class StringColumn extends Column {
+        int[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> dictionaryIndex = new HashMap<>();
+        int valueCount;
+
+        StringColumn(int capacity) {
+            super(capacity);
+            codes = new int[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_STRING;
+        }
+
+        @Override
+        boolean isValueCacheable() {
+            return false;
+        }
+
+        @Override
+        Object get(int row) {
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            if (value.getClass() != String.class) {
+                return false;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                if (dictionary.size() >= MAX_DICTIONARY_SIZE && dictionary.size() * 2 > valueCount) {
+                    return false;
+                }
+                code = addToDictionary((String) value);
+            }
+            if (!hasValue(row)) {
+                valueCount++;
+            }
+            codes[row] = code;
+            markValue(row);
+            return true;
+        }
+
+        @Override
+        void setNull(int row) {
+            if (hasValue(row)) {
+                valueCount--;
+            }
+            super.setNull(row);
+        }
+
+        private int addToDictionary(@NotNull String value) {
+            int code = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndex.put(value, code);
+            return code;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+            out.writeInt(valueCount);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(codes[i]);
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            int dictSize = in.getInt();
+            for (int i = 0; i < dictSize; i++) {
+                addToDictionary(readString(in));
+            }
+            valueCount = in.getInt();
+            for (int i = 0; i < count; i++) {
+                codes[i] = in.getInt();
+            }
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private static final byte VALUE_NULL = 0;
+        private static final byte VALUE_STRING = 1;
+        private static final byte VALUE_LONG = 2;
+        private static final byte VALUE_INT = 3;
+        private static final byte VALUE_SHORT = 4;
+        private static final byte VALUE_BYTE = 5;
+        private static final byte VALUE_DOUBLE = 6;
+        private static final byte VALUE_FLOAT = 7;
+        private static final byte VALUE_BOOLEAN = 8;
+        private static final byte VALUE_DECIMAL = 9;
+        private static final byte VALUE_BIGINT = 10;
+        private static final byte VALUE_BYTES = 11;
+
+        Object[] values;
+
+        ObjectColumn(int capacity) {
+            super(0);
+            values = new Object[capacity];
+        }
+
+        @Override
+        byte getTag() {
+            return TAG_OBJECT;
+        }
+
+        @Override
+        boolean isValueCacheable() {
+            return false;
+        }
+
+        @Override
+        boolean hasValue(int row) {
+            return values[row] != null;
+        }
+
+        @Override
+        void setNull(int row) {
+            values[row] = null;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean set(int row, @NotNull Object value) {
+            values[row] = value;
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        boolean isSpillable(int count) {
+            for (int i = 0; i < count; i++) {
+                Object value = values[i];
+                if (value != null && getValueType(value) == VALUE_NULL) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void write(@NotNull DataOutputStream out, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                Object value = values[i];
+                byte type = value == null ? VALUE_NULL : getValueType(value);
+                out.writeByte(type);
+                switch (type) {
+                    case VALUE_STRING: writeString(out, (String) value); break;
+                    case VALUE_LONG: out.writeLong((Long) value); break;
+                    case VALUE_INT: out.writeInt((Integer) value); break;
+                    case VALUE_SHORT: out.writeShort((Short) value); break;
+                    case VALUE_BYTE: out.writeByte((Byte) value); break;
+                    case VALUE_DOUBLE: out.writeDouble((Double) value); break;
+                    case VALUE_FLOAT: out.writeFloat((Float) value); break;
+                    case VALUE_BOOLEAN: out.writeBoolean((Boolean) value); break;
+                    case VALUE_DECIMAL: {
+                        BigDecimal decimal = (BigDecimal) value;
+                        out.writeInt(decimal.scale());
+                        writeBytes(out, decimal.unscaledValue().toByteArray());
+                        break;
+                    }
+                    case VALUE_BIGINT: writeBytes(out, ((BigInteger) value).toByteArray()); break;
+                    case VALUE_BYTES: writeBytes(out, (byte[]) value); break;
+                }
+            }
+        }
+
+        @Override
+        void read(@NotNull ByteBuffer in, int count) {
+            for (int i = 0; i < count; i++) {
+                Object value;
+                switch (in.get()) {
+                    case VALUE_STRING: value = readString(in); break;
+                    case VALUE_LONG: value = in.getLong(); break;
+                    case VALUE_INT: value = in.getInt(); break;
+                    case VALUE_SHORT: value = in.getShort(); break;
+                    case VALUE_BYTE: value = in.get(); break;
+                    case VALUE_DOUBLE: value = in.getDouble(); break;
+                    case VALUE_FLOAT: value = in.getFloat(); break;
+                    case VALUE_BOOLEAN: value = in.get() != 0; break;
+                    case VALUE_DECIMAL: {
+                        int scale = in.getInt();
+                        value = new BigDecimal(new BigInteger(readBytes(in)), scale);
+                        break;
+                    }
+                    case VALUE_BIGINT: value = new BigInteger(readBytes(in)); break;
+                    case VALUE_BYTES: value = readBytes(in); break;
+                    default: value = null; break;
+                }
+                values[i] = value;
+            }
+        }
+
+        private static byte getValueType(@NotNull Object value) {
+            Class<?> valueClass = value.getClass();
+            if (valueClass == String.class) return VALUE_STRING;
+            if (valueClass == Long.class) return VALUE_LONG;
+            if (valueClass == Integer.class) return VALUE_INT;
+            if (valueClass == Short.class) return VALUE_SHORT;
+            if (valueClass == Byte.class) return VALUE_BYTE;
+            if (valueClass == Double.class) return VALUE_DOUBLE;
+            if (valueClass == Float.class) return VALUE_FLOAT;
+            if (valueClass == Boolean.class) return VALUE_BOOLEAN;
+            if (valueClass == BigDecimal.class) return VALUE_DECIMAL;
+            if (valueClass == BigInteger.class) return VALUE_BIGINT;
+            if (valueClass == byte[].class) return VALUE_BYTES;
+            // Can't be serialized
+            return VALUE_NULL;
+        }
+
+        private static void writeBytes(@NotNull DataOutputStream out, @NotNull byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @NotNull
+        private static byte[] readBytes(@NotNull ByteBuffer in) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return bytes;
+        }
+    }
+
+}
@@ -2291,7 +2291,7 @@ public class ResultSetViewer extends Viewer
         activePresentation.clearMetaData();
     }
 
-    void setData(List<Object[]> rows, int focusRow)
+    void setData(ResultSetValueStore rows, int focusRow)
     {
         if (viewerPanel.isDisposed()) {
             return;
@@ -2303,7 +2303,7 @@ public class ResultSetViewer extends Viewer
             this.curRow = model.getRow(focusRow);
         }
         if (this.selectedRecords.length > 1) {
-            this.selectedRecords = Arrays.stream(this.selectedRecords).filter(value -> value < rows.size()).toArray();
+            this.selectedRecords = Arrays.stream(this.selectedRecords).filter(value -> value < rows.getRowCount()).toArray();
             if (this.selectedRecords.length == 0) {
                 this.selectedRecords = this.curRow == null ? new int[0] : new int[]{curRow.getVisualNumber()};
             }
@@ -2319,13 +2319,13 @@ public class ResultSetViewer extends Viewer
             {
                 boolean newRecordMode;
                 if (autoRecordMode != null) {
-                    if (rows.size() <= 1) {
+                    if (rows.getRowCount() <= 1) {
                         newRecordMode = autoRecordMode;
                     } else {
                         newRecordMode = false;
                     }
                 } else {
-                    newRecordMode = (rows.size() <= 1);
+                    newRecordMode = (rows.getRowCount() <= 1);
                 }
                 if (newRecordMode != recordMode) {
                     UIUtils.asyncExec(this::toggleMode);
@@ -2334,14 +2334,15 @@ public class ResultSetViewer extends Viewer
         }
     }
 
-    void appendData(List<Object[]> rows, boolean resetOldRows) {
+    void appendData(ResultSetValueStore rows, boolean resetOldRows) {
         model.appendData(rows, resetOldRows);
+        final int rowsCount = rows.getRowCount();
 
         UIUtils.asyncExec(() -> {
             String message = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(false);
+                rowsCount) + getExecutionTimeMessage(false);
             String tooltip = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(true);
+                rowsCount) + getExecutionTimeMessage(true);
             setStatus(message, DBPMessageType.INFORMATION);
             setStatusTooltip(tooltip);
             updateEditControls();
@@ -3798,11 +3799,8 @@ public class ResultSetViewer extends Viewer
         if (newAttributes.length > curAttributes.length) {
             // Bind custom attributes
             try (DBCSession session = DBUtils.openMetaSession(new VoidProgressMonitor(), dataContainer, "Bind custom attributes")) {
-                int rowCount = model.getRowCount();
-                List<Object[]> rows = new ArrayList<>(rowCount);
-                for (int i = 0; i < rowCount; i++) {
-                    rows.add(model.getRowData(i));
-                }
+                // Spilled rows hold only plain values which don't need binding
+                List<Object[]> rows = model.getResidentRowData();
                 for (DBDAttributeBinding attr : newAttributes) {
                     if (attr instanceof DBDAttributeBindingCustom) {
                         attr.lateBinding(session, rows);
@@ -336,6 +336,10 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_resultsets_label_read_metadata_tip;
     public static String pref_page_database_resultsets_label_read_references_tip;
     public static String pref_page_database_resultsets_label_fetch_size_tip;
+    public static String pref_page_database_resultsets_label_spill_to_disk;
+    public static String pref_page_database_resultsets_label_spill_to_disk_tip;
+    public static String pref_page_database_resultsets_label_spill_resident_rows;
+    public static String pref_page_database_resultsets_label_spill_resident_rows_tip;
 
     public static String pref_page_content_cache_clob;
     public static String pref_page_content_cache_blob;
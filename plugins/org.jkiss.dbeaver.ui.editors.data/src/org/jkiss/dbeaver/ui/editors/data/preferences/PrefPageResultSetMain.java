@@ -69,6 +69,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
     private Button markCellValueOccurrences;
 
     private Button advUseFetchSize;
+    private Button spillToDiskCheck;
+    private Text spillResidentRowsText;
 
     private Button ignoreColumnLabelCheck;
     private Button useDateTimeEditor;
@@ -96,6 +98,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ResultSetPreferences.KEEP_STATEMENT_OPEN) ||
             store.contains(ResultSetPreferences.RESULT_SET_ORDERING_MODE) ||
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_RESIDENT_ROWS) ||
             store.contains(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS) ||
             store.contains(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG) ||
             store.contains(ResultSetPreferences.RESULT_SET_MARK_CELL_VALUE_OCCURRENCES) ||
@@ -166,6 +170,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             ignoreColumnLabelCheck = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_general_use_column_names, ResultSetMessages.pref_page_database_general_use_column_names_tip, false, 1);
             advUseFetchSize = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_fetch_size, ResultSetMessages.pref_page_database_resultsets_label_fetch_size_tip, false, 1);
+            spillToDiskCheck = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_spill_to_disk, ResultSetMessages.pref_page_database_resultsets_label_spill_to_disk_tip, false, 1);
+            spillToDiskCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    updateOptionsEnablement();
+                }
+            });
+            Composite spillComposite = UIUtils.createComposite(advGroup, 2);
+            spillResidentRowsText = UIUtils.createLabelText(spillComposite, ResultSetMessages.pref_page_database_resultsets_label_spill_resident_rows, "0", SWT.BORDER);
+            spillResidentRowsText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_spill_resident_rows_tip);
+            spillResidentRowsText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
         }
 
 
@@ -195,6 +210,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
     private void updateOptionsEnablement() {
         readQueryReferences.setEnabled(readQueryMetadata.isEnabled() && readQueryMetadata.getSelection());
+        spillResidentRowsText.setEnabled(spillToDiskCheck.isEnabled() && spillToDiskCheck.getSelection());
     }
 
     @Override
@@ -223,6 +239,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             useNavigatorFilters.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS));
 
             advUseFetchSize.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE));
+            spillToDiskCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK));
+            spillResidentRowsText.setText(String.valueOf(store.getInt(ResultSetPreferences.RESULT_SET_SPILL_RESIDENT_ROWS)));
             ignoreColumnLabelCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL));
 
             showErrorsInDialog.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG));
@@ -256,6 +274,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.setValue(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS, useNavigatorFilters.getSelection());
 
             store.setValue(ModelPreferences.RESULT_SET_USE_FETCH_SIZE, advUseFetchSize.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK, spillToDiskCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_RESIDENT_ROWS, CommonUtils.toInt(spillResidentRowsText.getText()));
             store.setValue(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL, ignoreColumnLabelCheck.getSelection());
 
             store.setValue(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG, showErrorsInDialog.getSelection());
@@ -287,6 +307,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS);
 
         store.setToDefault(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_RESIDENT_ROWS);
         store.setToDefault(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL);
 
         store.setToDefault(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG);
@@ -220,6 +220,7 @@ public class SQLEditor extends SQLEditorBase implements
     private final List<SQLEditorListener> listeners = new ArrayList<>();
     private final List<ServerOutputInfo> serverOutputs = new ArrayList<>();
     private ScriptAutoSaveJob scriptAutoSavejob;
+    private final SQLMetadataPrefetcher metadataPrefetcher = new SQLMetadataPrefetcher(this);
     private boolean isResultSetAutoFocusEnabled = true;
     
     private final ArrayList<SQLEditorAddIn> addIns = new ArrayList<>();
@@ -382,6 +383,7 @@ public class SQLEditor extends SQLEditorBase implements
         // Release ds container
         releaseContainer();
         closeAllJobs();
+        metadataPrefetcher.dispose();
 
         dataSourceContainer = container;
         if (dataSourceContainer != null) {
@@ -980,6 +982,7 @@ public class SQLEditor extends SQLEditorBase implements
         if (getActivePreferenceStore().getBoolean(SQLPreferenceConstants.AUTO_SAVE_ON_CHANGE)) {
             doScriptAutoSave();
         }
+        metadataPrefetcher.scriptChanged();
     }
     
     private void createControlsBar(Composite sqlEditorPanel) {
@@ -2717,6 +2720,8 @@ public class SQLEditor extends SQLEditorBase implements
             EditorUtils.setInputDataSource(getEditorInput(), new SQLNavigatorContext(executionContext));
         }
         refreshActions();
+        // Also called on default schema change
+        metadataPrefetcher.setExecutionContext(executionContext);
 
         if (syntaxLoaded && lastExecutionContext == executionContext) {
             return;
@@ -2783,6 +2788,7 @@ public class SQLEditor extends SQLEditorBase implements
         // Release ds container
         releaseContainer();
         closeAllJobs();
+        metadataPrefetcher.dispose();
 
         final IEditorInput editorInput = getEditorInput();
         IFile sqlFile = EditorUtils.getFileFromInput(editorInput);
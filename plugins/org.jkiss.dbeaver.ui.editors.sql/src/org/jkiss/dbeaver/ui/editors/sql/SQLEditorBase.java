@@ -114,6 +114,8 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
     private final SQLRuleScanner ruleScanner;
     @Nullable
     private SQLParserContext parserContext;
+    @Nullable
+    private SQLScriptElementIndex scriptElementIndex;
     private ProjectionSupport projectionSupport;
 
     //private Map<Annotation, Position> curAnnotations;
@@ -578,6 +580,11 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
             viewerConfiguration.saveFoldingState();
         }
 
+        if (scriptElementIndex != null) {
+            scriptElementIndex.disconnect();
+            scriptElementIndex = null;
+        }
+
         super.dispose();
     }
 
@@ -678,6 +685,17 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         ruleScanner.refreshRules(getDataSource(), ruleManager);
         parserContext = new SQLParserContext(getDataSource(), syntaxManager, ruleManager, document != null ? document : new Document());
 
+        if (scriptElementIndex != null) {
+            scriptElementIndex.disconnect();
+            scriptElementIndex = null;
+        }
+        if (document != null) {
+            // Index has its own context because it may be updated from the reconciler thread
+            scriptElementIndex = new SQLScriptElementIndex(
+                new SQLParserContext(getDataSource(), syntaxManager, ruleManager, document), false, true);
+            scriptElementIndex.connect();
+        }
+
         if (document instanceof IDocumentExtension3) {
             IDocumentPartitioner partitioner = new FastPartitioner(
                 new SQLPartitionScanner(getDataSource(), dialect, ruleManager),
@@ -783,6 +801,14 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         return SQLScriptParser.extractScriptQueries(parserContext, startOffset, length, scriptMode, keepDelimiters, parseParameters);
     }
 
+    /**
+     * Returns incrementally updated index of script elements (in non-script mode with delimiters).
+     */
+    @Nullable
+    public SQLScriptElementIndex getScriptElementIndex() {
+        return scriptElementIndex;
+    }
+
     public SQLCompletionContext getCompletionContext() {
         return completionContext;
     }
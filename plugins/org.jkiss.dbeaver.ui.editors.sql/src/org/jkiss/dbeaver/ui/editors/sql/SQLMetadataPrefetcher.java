@@ -0,0 +1,248 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.editors.sql;
+
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptElementIndex;
+import org.jkiss.dbeaver.model.sql.parser.SQLSemanticProcessor;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.*;
+
+/**
+ * Loads metadata needed by SQL completion and semantic analysis in background.
+ * <p>
+ * When editor context (data source or default schema) changes, tables of the default container are loaded
+ * together with their attributes. After script modifications attributes of tables referenced in the script
+ * queries are loaded.
+ * Metadata is read by object caches in the data source metadata context, so prefetch doesn't block
+ * queries executed in the editor context.
+ */
+public class SQLMetadataPrefetcher {
+
+    private static final Log log = Log.getLog(SQLMetadataPrefetcher.class);
+
+    private static final long CONTEXT_PREFETCH_DELAY = 100;
+    private static final long SCRIPT_PREFETCH_DELAY = 1000;
+    // Attributes of bigger containers are loaded on demand
+    private static final int MAX_CONTAINER_ATTRIBUTES_PREFETCH = 1000;
+    private static final int MAX_SCRIPT_TABLES_PREFETCH = 100;
+
+    @NotNull
+    private final SQLEditorBase editor;
+    @NotNull
+    private final PrefetchJob prefetchJob = new PrefetchJob();
+    @Nullable
+    private volatile DBCExecutionContext executionContext;
+
+    // Fields below are accessed by the prefetch job only
+    @Nullable
+    private DBPDataSource prefetchedDataSource;
+    @Nullable
+    private DBSObject prefetchedContainer;
+    private final Set<String> prefetchedTables = new HashSet<>();
+
+    public SQLMetadataPrefetcher(@NotNull SQLEditorBase editor) {
+        this.editor = editor;
+    }
+
+    /**
+     * Schedules prefetch of the default container of the specified context.
+     * Does nothing if the default container was already loaded.
+     */
+    public void setExecutionContext(@Nullable DBCExecutionContext executionContext) {
+        this.executionContext = executionContext;
+        if (executionContext != null) {
+            schedule(CONTEXT_PREFETCH_DELAY);
+        }
+    }
+
+    /**
+     * Schedules prefetch of tables referenced in the script. Should be called on script modification.
+     */
+    public void scriptChanged() {
+        if (executionContext != null) {
+            schedule(SCRIPT_PREFETCH_DELAY);
+        }
+    }
+
+    public void dispose() {
+        executionContext = null;
+        prefetchJob.cancel();
+    }
+
+    private void schedule(long delay) {
+        if (!isPrefetchEnabled()) {
+            return;
+        }
+        if (prefetchJob.getState() == Job.SLEEPING) {
+            // Postpone while script is modified
+            prefetchJob.cancel();
+        }
+        prefetchJob.schedule(delay);
+    }
+
+    private boolean isPrefetchEnabled() {
+        return editor.getActivePreferenceStore().getBoolean(SQLPreferenceConstants.PREFETCH_METADATA);
+    }
+
+    private void prefetchMetadata(@NotNull DBRProgressMonitor monitor, @NotNull DBCExecutionContext context) throws DBException {
+        DBPDataSource dataSource = context.getDataSource();
+        if (dataSource != prefetchedDataSource) {
+            prefetchedDataSource = dataSource;
+            prefetchedContainer = null;
+            prefetchedTables.clear();
+        }
+        DBSObject selectedObject = DBUtils.getSelectedObject(context);
+        if (selectedObject == null && dataSource instanceof DBSObjectContainer) {
+            selectedObject = dataSource;
+        }
+        if (selectedObject != prefetchedContainer) {
+            prefetchedContainer = selectedObject;
+            // Unqualified script tables are resolved in the default container
+            prefetchedTables.clear();
+            if (selectedObject instanceof DBSObjectContainer) {
+                prefetchContainer(monitor, (DBSObjectContainer) selectedObject);
+            }
+        }
+        if (!monitor.isCanceled() && dataSource instanceof DBSObjectContainer) {
+            prefetchScriptTables(monitor, context, (DBSObjectContainer) dataSource);
+        }
+    }
+
+    private void prefetchContainer(@NotNull DBRProgressMonitor monitor, @NotNull DBSObjectContainer container) throws DBException {
+        monitor.subTask("Load '" + container.getName() + "' metadata");
+        Collection<? extends DBSObject> children = container.getChildren(monitor);
+        if (children != null && children.size() <= MAX_CONTAINER_ATTRIBUTES_PREFETCH && !monitor.isCanceled()) {
+            container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ENTITIES | DBSObjectContainer.STRUCT_ATTRIBUTES);
+        }
+    }
+
+    private void prefetchScriptTables(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCExecutionContext context,
+        @NotNull DBSObjectContainer rootContainer) throws DBException
+    {
+        SQLScriptElementIndex scriptIndex = editor.getScriptElementIndex();
+        if (scriptIndex == null) {
+            return;
+        }
+        DBPDataSource dataSource = context.getDataSource();
+        Map<String, Table> tables = new LinkedHashMap<>();
+        for (SQLScriptElement element : scriptIndex.getElements()) {
+            if (monitor.isCanceled() || tables.size() >= MAX_SCRIPT_TABLES_PREFETCH) {
+                break;
+            }
+            if (!(element instanceof SQLQuery)) {
+                continue;
+            }
+            String queryText = SQLUtils.trimQueryStatement(editor.getSyntaxManager(), element.getText(), true);
+            if (CommonUtils.isEmptyTrimmed(queryText)) {
+                continue;
+            }
+            Statement statement;
+            try {
+                statement = SQLSemanticProcessor.parseQueryCached(dataSource.getSQLDialect(), queryText);
+            } catch (DBCException e) {
+                // Incomplete or unsupported query
+                continue;
+            }
+            statement.accept(new TablesNamesFinder() {
+                @Override
+                public void visit(Table table) {
+                    if (table != null && table.getName() != null) {
+                        String tableKey = table.getFullyQualifiedName();
+                        if (!prefetchedTables.contains(tableKey)) {
+                            tables.putIfAbsent(tableKey, table);
+                        }
+                    }
+                    super.visit(table);
+                }
+            });
+        }
+
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            prefetchedTables.add(entry.getKey());
+            Table table = entry.getValue();
+            DBSObject object = DBUtils.getObjectByPath(
+                monitor,
+                context,
+                rootContainer,
+                unquoteName(dataSource, table.getDatabase() == null ? null : table.getDatabase().getDatabaseName()),
+                unquoteName(dataSource, table.getSchemaName()),
+                unquoteName(dataSource, table.getName()));
+            if (object instanceof DBSEntity) {
+                monitor.subTask("Load '" + object.getName() + "' attributes");
+                ((DBSEntity) object).getAttributes(monitor);
+            }
+        }
+    }
+
+    @Nullable
+    private static String unquoteName(@NotNull DBPDataSource dataSource, @Nullable String name) {
+        return CommonUtils.isEmpty(name) ? null : DBUtils.getUnQuotedIdentifier(dataSource, name);
+    }
+
+    private class PrefetchJob extends AbstractJob {
+
+        PrefetchJob() {
+            super("Prefetch SQL editor metadata");
+            setSystem(true);
+            setUser(false);
+            setPriority(Job.DECORATE);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBCExecutionContext context = executionContext;
+            if (context == null || !context.isConnected() || !isPrefetchEnabled()) {
+                return Status.OK_STATUS;
+            }
+            try {
+                prefetchMetadata(monitor, context);
+            } catch (Throwable e) {
+                log.debug("Error prefetching metadata", e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
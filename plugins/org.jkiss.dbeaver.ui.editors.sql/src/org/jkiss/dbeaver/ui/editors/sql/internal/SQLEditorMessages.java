@@ -186,6 +186,8 @@ public class SQLEditorMessages extends NLS {
     public static String pref_page_sql_completion_label_use_global_search_tip;
     public static String pref_page_sql_completion_label_show_column_procedures;
     public static String pref_page_sql_completion_label_show_column_procedures_tip;
+    public static String pref_page_sql_completion_label_prefetch_metadata;
+    public static String pref_page_sql_completion_label_prefetch_metadata_tip;
     // SQLFormat
     public static String pref_page_sql_format_group_auto_close;
     public static String pref_page_sql_format_label_single_quotes;
@@ -60,6 +60,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
     private Button csMatchContains;
     private Button csUseGlobalSearch;
     private Button csShowColumnProcedures;
+    private Button csPrefetchMetadata;
     private Button csHippieActivation;
 
     public PrefPageSQLCompletion()
@@ -88,7 +89,8 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             store.contains(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS) ||
             store.contains(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT) ||
             store.contains(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES) ||
-            store.contains(SQLPreferenceConstants.SHOW_SERVER_HELP_TOPICS)
+            store.contains(SQLPreferenceConstants.SHOW_SERVER_HELP_TOPICS) ||
+            store.contains(SQLPreferenceConstants.PREFETCH_METADATA)
         ;
     }
 
@@ -159,6 +161,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             csMatchContains = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_match_contains, SQLEditorMessages.pref_page_sql_completion_label_match_contains_tip, false, 2);
             csUseGlobalSearch = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_use_global_search, SQLEditorMessages.pref_page_sql_completion_label_use_global_search_tip, false, 2);
             csShowColumnProcedures = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_show_column_procedures, SQLEditorMessages.pref_page_sql_completion_label_show_column_procedures_tip, false, 2);
+            csPrefetchMetadata = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_prefetch_metadata, SQLEditorMessages.pref_page_sql_completion_label_prefetch_metadata_tip, false, 2);
         }
 
         return composite;
@@ -187,6 +190,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             csMatchContains.setSelection(store.getBoolean(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS));
             csUseGlobalSearch.setSelection(store.getBoolean(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT));
             csShowColumnProcedures.setSelection(store.getBoolean(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES));
+            csPrefetchMetadata.setSelection(store.getBoolean(SQLPreferenceConstants.PREFETCH_METADATA));
 
         } catch (Exception e) {
             log.warn(e);
@@ -215,6 +219,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             store.setValue(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS, csMatchContains.getSelection());
             store.setValue(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT, csUseGlobalSearch.getSelection());
             store.setValue(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES, csShowColumnProcedures.getSelection());
+            store.setValue(SQLPreferenceConstants.PREFETCH_METADATA, csPrefetchMetadata.getSelection());
         } catch (Exception e) {
             log.warn(e);
         }
@@ -243,6 +248,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
         store.setToDefault(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS);
         store.setToDefault(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT);
         store.setToDefault(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES);
+        store.setToDefault(SQLPreferenceConstants.PREFETCH_METADATA);
     }
 
     @Override
@@ -34,6 +34,7 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptElementIndex;
 import org.jkiss.dbeaver.ui.editors.EditorUtils;
 import org.jkiss.dbeaver.ui.editors.sql.SQLEditorBase;
 import org.jkiss.dbeaver.ui.editors.sql.internal.SQLEditorActivator;
@@ -192,7 +193,8 @@ public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilin
         if (rightBound != null && !parsedQueries.isEmpty()) {
             SQLScriptElement rightmostParsedQuery = parsedQueries.get(parsedQueries.size() - 1);
             if (!rightBound.equals(getExpandedScriptElement(rightmostParsedQuery))) {
-                parsedQueries = extractQueries(damagedRegionOffset, document.getLength());
+                // Elements are taken from the index, so the rest of the script is not parsed again
+                parsedQueries = extractQueries(damagedRegionOffset, document.getLength() - damagedRegionOffset);
                 if (parsedQueries == null) {
                     return;
                 }
@@ -240,7 +242,16 @@ public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilin
 
     @Nullable
     private List<SQLScriptElement> extractQueries(int offset, int length) {
-        return editor.extractScriptQueries(offset, length, false, true, false);
+        SQLScriptElementIndex index = editor.getScriptElementIndex();
+        if (index == null) {
+            return null;
+        }
+        List<SQLScriptElement> elements = index.getElements(offset, length);
+        // Element which starts before the region does not belong to it
+        if (!elements.isEmpty() && elements.get(0).getOffset() < offset) {
+            elements = elements.subList(1, elements.size());
+        }
+        return elements;
     }
 
     private boolean deservesFolding(SQLScriptElement element) {
@@ -0,0 +1,348 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDRowIdentifier;
+import org.jkiss.dbeaver.model.exec.DBCAttributeMetaData;
+import org.jkiss.dbeaver.model.impl.data.DefaultValueHandler;
+import org.jkiss.dbeaver.model.impl.preferences.SimplePreferenceStore;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSEntityReferrer;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-memory data used by benchmarks.
+ * All generators use fixed seed, so all runs process the same data.
+ */
+final class BenchmarkFixtures {
+
+    private static final long SEED = 20221107L;
+
+    private static final String[] WORDS = {
+        "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta", "iota", "kappa", "lambda", "omega"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    @NotNull
+    static DBPPreferenceStore createPreferenceStore() {
+        return new SimplePreferenceStore() {
+            @Override
+            public void save() {
+                // Nothing to save
+            }
+        };
+    }
+
+    /**
+     * SQL script of approximately specified size.
+     * Contains comments, string literals, quoted identifiers and code blocks.
+     */
+    @NotNull
+    static String makeSqlScript(int size) {
+        Random random = new Random(SEED);
+        StringBuilder script = new StringBuilder(size + 1024);
+        for (int i = 0; script.length() < size; i++) {
+            switch (i % 6) {
+                case 0:
+                    script.append("-- Statement ").append(i).append("\n");
+                    script.append("SELECT t.id, t.\"Name\", t.amount * 1.5 AS total\nFROM test_table t\nWHERE t.name = '")
+                        .append(randomWord(random)).append("''s' AND t.id > ").append(random.nextInt(100000)).append(";\n\n");
+                    break;
+                case 1:
+                    script.append("INSERT INTO test_table (id, name, amount) VALUES (")
+                        .append(i).append(", '").append(randomWord(random)).append("', ")
+                        .append(random.nextInt(1000)).append(".").append(random.nextInt(100)).append(");\n");
+                    break;
+                case 2:
+                    script.append("/* Multi-line\n   comment ; with delimiter */\nUPDATE test_table SET amount = amount + 1 WHERE id IN (")
+                        .append(random.nextInt(100)).append(", ").append(random.nextInt(100)).append(");\n");
+                    break;
+                case 3:
+                    script.append("CREATE PROCEDURE proc_").append(i).append("()\nBEGIN\n")
+                        .append("  DECLARE v INT;\n  SET v = ").append(random.nextInt(10)).append(";\n")
+                        .append("  IF v > 5 THEN\n    SELECT 'big';\n  ELSE\n    SELECT 'small';\n  END IF;\nEND;\n\n");
+                    break;
+                case 4:
+                    script.append("DELETE FROM test_table WHERE name LIKE '%").append(randomWord(random)).append("%'\n;\n");
+                    break;
+                default:
+                    script.append("SELECT count(*) FROM test_table t1 JOIN other_table t2 ON t1.id = t2.ref_id GROUP BY t2.category;\n");
+                    break;
+            }
+        }
+        return script.toString();
+    }
+
+    /**
+     * CSV text with header. Some values are quoted and contain delimiters, quotes and line feeds.
+     */
+    @NotNull
+    static String makeCsv(int rowCount, int columnCount) {
+        Random random = new Random(SEED);
+        StringBuilder csv = new StringBuilder(rowCount * columnCount * 12);
+        for (int c = 0; c < columnCount; c++) {
+            if (c > 0) csv.append(',');
+            csv.append("column").append(c);
+        }
+        csv.append('\n');
+        for (int r = 0; r < rowCount; r++) {
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) csv.append(',');
+                switch (c % 4) {
+                    case 0:
+                        csv.append(r);
+                        break;
+                    case 1:
+                        csv.append(randomWord(random));
+                        break;
+                    case 2:
+                        csv.append('"').append(randomWord(random)).append(", \"\"quoted\"\"").append('"');
+                        break;
+                    default:
+                        if (random.nextInt(20) == 0) {
+                            csv.append("\"line1\nline2\"");
+                        } else {
+                            csv.append(random.nextInt(10000)).append('.').append(random.nextInt(100));
+                        }
+                        break;
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Result set rows. Columns are: integer, string, decimal, timestamp, nullable string.
+     */
+    @NotNull
+    static Object[][] makeRows(int rowCount) {
+        Random random = new Random(SEED);
+        long baseTime = Timestamp.valueOf("2022-01-01 00:00:00").getTime();
+        Object[][] rows = new Object[rowCount][];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = new Object[] {
+                (long) i,
+                randomWord(random) + " " + randomWord(random),
+                BigDecimal.valueOf(random.nextInt(1000000), 2),
+                new Timestamp(baseTime + random.nextInt(365 * 24 * 3600) * 1000L),
+                random.nextInt(10) == 0 ? null : "\"" + randomWord(random) + "\", line\n"
+            };
+        }
+        return rows;
+    }
+
+    @NotNull
+    static DBDAttributeBinding[] makeAttributes() {
+        return new DBDAttributeBinding[] {
+            new BenchmarkAttribute("id", DBPDataKind.NUMERIC, "BIGINT", 0),
+            new BenchmarkAttribute("name", DBPDataKind.STRING, "VARCHAR", 1),
+            new BenchmarkAttribute("amount", DBPDataKind.NUMERIC, "DECIMAL", 2),
+            new BenchmarkAttribute("created", DBPDataKind.DATETIME, "TIMESTAMP", 3),
+            new BenchmarkAttribute("comment", DBPDataKind.STRING, "VARCHAR", 4),
+        };
+    }
+
+    @NotNull
+    private static String randomWord(@NotNull Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Result set attribute without data source and meta data
+     */
+    static class BenchmarkAttribute extends DBDAttributeBinding {
+        private final String name;
+        private final DBPDataKind dataKind;
+        private final String typeName;
+        private final int ordinalPosition;
+
+        BenchmarkAttribute(@NotNull String name, @NotNull DBPDataKind dataKind, @NotNull String typeName, int ordinalPosition) {
+            super(DefaultValueHandler.INSTANCE);
+            this.name = name;
+            this.dataKind = dataKind;
+            this.typeName = typeName;
+            this.ordinalPosition = ordinalPosition;
+        }
+
+        @Nullable
+        @Override
+        public DBDAttributeBinding getParentObject() {
+            return null;
+        }
+
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+
+        @Override
+        public int getOrdinalPosition() {
+            return ordinalPosition;
+        }
+
+        @NotNull
+        @Override
+        public String getLabel() {
+            return name;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public DBCAttributeMetaData getMetaAttribute() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBSEntityAttribute getEntityAttribute() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBDRowIdentifier getRowIdentifier() {
+            return null;
+        }
+
+        @Override
+        public String getRowIdentifierStatus() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public List<DBSEntityReferrer> getReferrers() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Object extractNestedValue(@NotNull Object ownerValue, int itemIndex) {
+            return null;
+        }
+
+        @Override
+        public boolean isRequired() {
+            return false;
+        }
+
+        @Override
+        public boolean isAutoGenerated() {
+            return false;
+        }
+
+        @Override
+        public String getTypeName() {
+            return typeName;
+        }
+
+        @Override
+        public String getFullTypeName() {
+            return typeName;
+        }
+
+        @Override
+        public int getTypeID() {
+            return 0;
+        }
+
+        @Override
+        public DBPDataKind getDataKind() {
+            return dataKind;
+        }
+
+        @Override
+        public Integer getScale() {
+            return dataKind == DBPDataKind.NUMERIC ? 2 : null;
+        }
+
+        @Override
+        public Integer getPrecision() {
+            return dataKind == DBPDataKind.NUMERIC ? 18 : null;
+        }
+
+        @Override
+        public long getMaxLength() {
+            return 0;
+        }
+
+        @Override
+        public long getTypeModifiers() {
+            return 0;
+        }
+    }
+
+    /**
+     * Named object without data source
+     */
+    static class BenchmarkObject implements DBSObject {
+        private final String name;
+
+        BenchmarkObject(@NotNull String name) {
+            this.name = name;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+    }
+}
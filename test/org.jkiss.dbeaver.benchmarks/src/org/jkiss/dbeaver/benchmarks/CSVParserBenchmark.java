@@ -0,0 +1,95 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.utils.csv.CSVParser;
+import org.jkiss.utils.csv.CSVReader;
+import org.jkiss.utils.csv.CSVStreamParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing throughput. Score is time of parsing the whole in-memory file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CSVParserBenchmark {
+
+    @Param({"100000"})
+    public int rowCount;
+
+    @Param({"10"})
+    public int columnCount;
+
+    private String csv;
+    private String[] lines;
+
+    @Setup
+    public void setup() {
+        csv = BenchmarkFixtures.makeCsv(rowCount, columnCount);
+        lines = csv.split("\n");
+    }
+
+    @Benchmark
+    public void readerReadNext(Blackhole blackhole) throws IOException {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            for (String[] row = reader.readNext(); row != null; row = reader.readNext()) {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamParserStrings(Blackhole blackhole) throws IOException {
+        try (CSVStreamParser parser = new CSVStreamParser(new StringReader(csv), ',', '"', '\\')) {
+            while (parser.nextRecord()) {
+                blackhole.consume(parser.getStrings());
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamParserSlices(Blackhole blackhole) throws IOException {
+        try (CSVStreamParser parser = new CSVStreamParser(new StringReader(csv), ',', '"', '\\')) {
+            while (parser.nextRecord()) {
+                for (int i = 0; i < parser.getFieldCount(); i++) {
+                    blackhole.consume(parser.getFieldLength(i));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void parserParseLine(Blackhole blackhole) throws IOException {
+        CSVParser parser = new CSVParser();
+        for (String line : lines) {
+            String[] values = parser.parseLineMulti(line);
+            if (!parser.isPending()) {
+                blackhole.consume(values);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPNamedObject;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporter;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.DataExporterCSV;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.DataExporterJSON;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream exporters throughput. Score is rows per second.
+ * Output is encoded but discarded, so file system doesn't affect results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DataExporterBenchmark {
+
+    private static final int ROW_COUNT = 10000;
+
+    private Object[][] rows;
+    private DBDAttributeBinding[] attributes;
+
+    @Setup
+    public void setup() {
+        rows = BenchmarkFixtures.makeRows(ROW_COUNT);
+        attributes = BenchmarkFixtures.makeAttributes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void exportCSV() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("delimiter", ",");
+        properties.put("rowDelimiter", "\\n");
+        properties.put("header", "top");
+        properties.put("quoteChar", "\"");
+        export(new DataExporterCSV(), properties);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void exportJSON() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(DataExporterJSON.PROP_PRINT_TABLE_NAME, true);
+        properties.put(DataExporterJSON.PROP_FORMAT_DATE_ISO, true);
+        export(new DataExporterJSON(), properties);
+    }
+
+    private void export(@NotNull IStreamDataExporter exporter, @NotNull Map<String, Object> properties) throws DBException, IOException {
+        ExporterSite site = new ExporterSite(attributes, properties);
+        exporter.init(site);
+        try {
+            exporter.exportHeader(null);
+            for (Object[] row : rows) {
+                exporter.exportRow(null, null, row);
+            }
+            exporter.exportFooter(new VoidProgressMonitor());
+            site.flush();
+        } finally {
+            exporter.dispose();
+        }
+    }
+
+    private static class ExporterSite implements IStreamDataExporterSite {
+        private final DBDAttributeBinding[] attributes;
+        private final Map<String, Object> properties;
+        private final OutputStream outputStream = OutputStream.nullOutputStream();
+        private final PrintWriter writer = new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 10000));
+
+        ExporterSite(@NotNull DBDAttributeBinding[] attributes, @NotNull Map<String, Object> properties) {
+            this.attributes = attributes;
+            this.properties = properties;
+        }
+
+        @Override
+        public DBPNamedObject getSource() {
+            return () -> "test_table";
+        }
+
+        @Override
+        public DBDDisplayFormat getExportFormat() {
+            return DBDDisplayFormat.UI;
+        }
+
+        @Override
+        public Map<String, Object> getProperties() {
+            return properties;
+        }
+
+        @Override
+        public DBDAttributeBinding[] getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        @Nullable
+        @Override
+        public File getOutputFile() {
+            return null;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            return writer;
+        }
+
+        @Override
+        public void flush() {
+            writer.flush();
+        }
+
+        @Override
+        public void writeBinaryData(@NotNull DBDContentStorage cs) {
+            // No binaries in fixtures
+        }
+
+        @NotNull
+        @Override
+        public String getOutputEncoding() {
+            return StandardCharsets.UTF_8.name();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.benchmarks.BenchmarkFixtures.BenchmarkObject;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.cache.AbstractObjectCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metadata cache lookups from several threads (navigator, editors, completion and background jobs do it concurrently).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ObjectCacheBenchmark {
+
+    private static final int OBJECT_COUNT = 10000;
+
+    private BenchmarkCache cache;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        List<BenchmarkObject> objects = new ArrayList<>(OBJECT_COUNT);
+        names = new String[OBJECT_COUNT];
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            names[i] = "TABLE_" + i;
+            objects.add(new BenchmarkObject(names[i]));
+        }
+        cache = new BenchmarkCache();
+        cache.setCache(objects);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BenchmarkObject getCachedObjectSingleThread() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BenchmarkObject getCachedObjectContended() {
+        return lookup();
+    }
+
+    /**
+     * Readers while another thread adds and removes objects
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public BenchmarkObject readWriteLookup() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWriteModify() {
+        BenchmarkObject object = new BenchmarkObject("NEW_TABLE_" + ThreadLocalRandom.current().nextInt(100));
+        cache.cacheObject(object);
+        cache.removeObject(object, false);
+    }
+
+    private BenchmarkObject lookup() {
+        return cache.getCachedObject(names[ThreadLocalRandom.current().nextInt(OBJECT_COUNT)]);
+    }
+
+    private static class BenchmarkCache extends AbstractObjectCache<BenchmarkObject, BenchmarkObject> {
+        @NotNull
+        @Override
+        public Collection<BenchmarkObject> getAllObjects(@NotNull DBRProgressMonitor monitor, @Nullable BenchmarkObject owner) {
+            return getCachedObjects();
+        }
+
+        @Nullable
+        @Override
+        public BenchmarkObject getObject(@NotNull DBRProgressMonitor monitor, @NotNull BenchmarkObject owner, @NotNull String name) {
+            return getCachedObject(name);
+        }
+    }
+
+}
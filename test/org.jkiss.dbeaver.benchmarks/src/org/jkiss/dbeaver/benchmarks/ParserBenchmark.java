@@ -0,0 +1,135 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.dbeaver.parser.common.ParseResult;
+import org.jkiss.dbeaver.parser.common.Parser;
+import org.jkiss.dbeaver.parser.common.ParserFactory;
+import org.jkiss.dbeaver.parser.common.grammar.GrammarInfo;
+import org.jkiss.dbeaver.parser.common.grammar.GrammarInfoBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.jkiss.dbeaver.parser.common.grammar.ExpressionFactory.*;
+
+/**
+ * Grammar parser (org.jkiss.dbeaver.parser.common).
+ * Script is parsed as a whole and as a list of statements (sequentially and in the fork-join mode).
+ * Ambiguous grammar checks that the number of alternative derivations doesn't affect parsing time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"100", "1000"})
+    public int statementCount;
+
+    private Parser scriptParser;
+    private Parser statementParser;
+    private Parser ambiguousParser;
+    private String script;
+    private List<String> statements;
+    private String words;
+
+    @Setup
+    public void setup() {
+        scriptParser = ParserFactory.getFactory(makeStatementGrammar("script")).createParser();
+        statementParser = ParserFactory.getFactory(makeStatementGrammar("stmt")).createParser();
+        ambiguousParser = ParserFactory.getFactory(makeAmbiguousGrammar()).createParser();
+
+        Random random = new Random(0);
+        statements = new ArrayList<>(statementCount);
+        StringBuilder scriptText = new StringBuilder();
+        for (int i = 0; i < statementCount; i++) {
+            String statement = "select a" + i + ", b, c from t" + i
+                + " where a > " + random.nextInt(100) + " + (b * " + random.nextInt(10) + ") - c";
+            statements.add(statement);
+            scriptText.append(statement).append(";\n");
+        }
+        script = scriptText.toString();
+
+        StringBuilder wordsText = new StringBuilder();
+        for (int i = 0; i < statementCount / 10; i++) {
+            wordsText.append(i == 0 ? "" : " ").append((char) ('a' + i % 26));
+        }
+        words = wordsText.toString();
+    }
+
+    @Benchmark
+    public ParseResult parseScript() {
+        return scriptParser.parse(script);
+    }
+
+    @Benchmark
+    public List<ParseResult> parseStatements() {
+        return statementParser.parse(statements, false, () -> false);
+    }
+
+    @Benchmark
+    public List<ParseResult> parseStatementsParallel() {
+        return statementParser.parse(statements, true, () -> false);
+    }
+
+    @Benchmark
+    public ParseResult parseAmbiguous() {
+        return ambiguousParser.parse(words);
+    }
+
+    private static GrammarInfo makeStatementGrammar(String startRule) {
+        GrammarInfoBuilder gb = new GrammarInfoBuilder("script");
+        gb.setRule("sp", regex("[\\s]*"));
+        gb.setSkipRuleName("sp");
+        gb.setUseSkipRule(true);
+
+        gb.setRule("script", zeroOrMore(call("stmt"), ";"));
+        gb.setRule("stmt", seq("select", call("name"), zeroOrMore(",", call("name")), "from", call("name"), optional("where", call("expr"))));
+        gb.setRule("expr", seq(call("opnd"), zeroOrMore(call("op"), call("opnd"))));
+        gb.setRule("op", alt("+", "-", "/", "*", ">", "<", "="));
+        gb.setRule("opnd", alt(call("brace"), call("numb"), call("name")));
+        gb.setRule("brace", seq("(", call("expr"), ")"));
+        gb.setRule("numb", regex("[0-9]+"));
+        gb.setRule("name", regex("[a-z_][a-z_0-9]*"));
+
+        gb.setStartRuleName(startRule);
+        return gb.buildGrammarInfo();
+    }
+
+    private static GrammarInfo makeAmbiguousGrammar() {
+        GrammarInfoBuilder gb = new GrammarInfoBuilder("list");
+        gb.setRule("sp", regex("[\\s]*"));
+        gb.setSkipRuleName("sp");
+        gb.setUseSkipRule(true);
+
+        // Each word is either an item or a part of a pair
+        gb.setRule("list", zeroOrMore(call("item")));
+        gb.setRule("item", alt(call("word"), call("pair")));
+        gb.setRule("pair", seq(call("word"), call("word")));
+        gb.setRule("word", regex("[a-z]+"));
+
+        gb.setStartRuleName("list");
+        return gb.buildGrammarInfo();
+    }
+
+}
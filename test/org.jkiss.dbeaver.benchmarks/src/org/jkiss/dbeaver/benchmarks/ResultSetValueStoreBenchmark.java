@@ -0,0 +1,90 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.dbeaver.ui.controls.resultset.ResultSetValueStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result set rows storage. This is what ResultSetModel.appendData does with fetched rows.
+ * ResultSetModel itself can't be created without result set viewer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResultSetValueStoreBenchmark {
+
+    @Param({"200", "100000"})
+    public int rowCount;
+
+    private Object[][] rows;
+    private ResultSetValueStore filledStore;
+
+    @Setup
+    public void setup() {
+        rows = BenchmarkFixtures.makeRows(rowCount);
+        filledStore = fillStore();
+    }
+
+    @TearDown
+    public void tearDown() {
+        filledStore.dispose();
+    }
+
+    /**
+     * Fetch of the first page: rows are added to the new store
+     */
+    @Benchmark
+    public ResultSetValueStore appendRows() {
+        return fillStore();
+    }
+
+    /**
+     * Fetch of the next page: rows of the new page are moved to the existing store
+     */
+    @Benchmark
+    public ResultSetValueStore appendPage() {
+        ResultSetValueStore store = fillStore();
+        store.addRows(fillStore());
+        return store;
+    }
+
+    @Benchmark
+    public void readValues(Blackhole blackhole) {
+        int columnCount = filledStore.getColumnCount();
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                blackhole.consume(filledStore.getValue(row, column));
+            }
+        }
+    }
+
+    private ResultSetValueStore fillStore() {
+        ResultSetValueStore store = new ResultSetValueStore(rows[0].length);
+        for (Object[] row : rows) {
+            store.addRow(row);
+        }
+        return store;
+    }
+
+}
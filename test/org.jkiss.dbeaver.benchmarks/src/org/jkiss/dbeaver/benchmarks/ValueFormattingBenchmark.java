@@ -0,0 +1,111 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.benchmarks;
+
+import org.jkiss.dbeaver.model.DBValueFormatting;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDataFormatter;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.impl.data.formatters.DateTimeDataFormatter;
+import org.jkiss.dbeaver.model.impl.data.formatters.NumberDataFormatter;
+import org.jkiss.dbeaver.model.impl.data.formatters.NumberFormatSample;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value to string conversion (grids, exports, SQL generation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ValueFormattingBenchmark {
+
+    private static final int ROW_COUNT = 1000;
+
+    private Object[][] rows;
+    private DBDDataFormatter numberFormatter;
+    private DBDDataFormatter timestampFormatter;
+    private Number[] numbers;
+    private Object[] timestamps;
+
+    @Setup
+    public void setup() {
+        rows = BenchmarkFixtures.makeRows(ROW_COUNT);
+        DBDAttributeBinding[] attributes = BenchmarkFixtures.makeAttributes();
+
+        numberFormatter = new NumberDataFormatter();
+        Map<String, Object> numberProperties = new HashMap<>();
+        numberProperties.put(NumberFormatSample.PROP_USE_GROUPING, true);
+        numberProperties.put(NumberFormatSample.PROP_MAX_FRACT_DIGITS, 10);
+        numberFormatter.init(attributes[2], Locale.US, numberProperties);
+
+        timestampFormatter = new DateTimeDataFormatter();
+        Map<String, Object> timestampProperties = new HashMap<>();
+        timestampProperties.put(DateTimeDataFormatter.PROP_PATTERN, "yyyy-MM-dd HH:mm:ss.SSS");
+        timestampFormatter.init(attributes[3], Locale.US, timestampProperties);
+
+        numbers = new Number[ROW_COUNT];
+        timestamps = new Object[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            numbers[i] = (Number) rows[i][2];
+            timestamps[i] = rows[i][3];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void defaultDisplayString(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                blackhole.consume(DBValueFormatting.getDefaultValueDisplayString(value, DBDDisplayFormat.UI));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void nativeNumberString(Blackhole blackhole) {
+        for (Number number : numbers) {
+            blackhole.consume(DBValueFormatting.convertNumberToNativeString(number, false));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void numberFormatter(Blackhole blackhole) {
+        for (Number number : numbers) {
+            blackhole.consume(numberFormatter.formatValue(number));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void timestampFormatter(Blackhole blackhole) {
+        for (Object timestamp : timestamps) {
+            blackhole.consume(timestampFormatter.formatValue(timestamp));
+        }
+    }
+
+}
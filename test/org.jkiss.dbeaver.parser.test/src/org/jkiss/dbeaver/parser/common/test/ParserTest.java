@@ -317,6 +317,54 @@ public class ParserTest {
         Parser p = ParserFactory.getFactory(gb.buildGrammarInfo()).createParser();
         
         Assert.assertTrue(p.parse("Enum8('hello' = 1, 'world' = 2)").isSuccess());
-        
+
+    }
+
+    @Test
+    public void parseAmbiguousList() {
+        final var gb = new GrammarInfoBuilder("List");
+        gb.setRule("sp", regex("[\\s]*"));
+        gb.setSkipRuleName("sp");
+        gb.setUseSkipRule(true);
+
+        // each word may be an item itself or a part of a pair, so the number of derivations grows exponentially
+        gb.setRule("list", zeroOrMore(call("item")));
+        gb.setRule("item", alt(call("word"), call("pair")));
+        gb.setRule("pair", seq(call("word"), call("word")));
+        gb.setRule("word", regex("[a-z]+"));
+
+        gb.setStartRuleName("list");
+
+        Parser p = ParserFactory.getFactory(gb.buildGrammarInfo()).createParser();
+
+        String text = "a b c d e f g h i j k l m n o p q r s t u v w x y z ".repeat(4).trim();
+        ParseResult result = p.parse(text);
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(text.length(), result.getBoundaryPosition());
+        Assert.assertFalse(result.getTrees(false).isEmpty());
+    }
+
+    @Test
+    public void parseStatementsInParallel() {
+        GrammarCtx c = new GrammarCtx(true);
+
+        Parser p = ParserFactory.getFactory(c.grammar).createParser();
+
+        List<String> texts = List.of("(1 + 2) * 3", "4 / (5 - 6)", "7 +", "((8))", "9 * (10 + 11 * (12 - 13)) / 14");
+        List<ParseResult> sequential = p.parse(texts, false, () -> false);
+        List<ParseResult> parallel = p.parse(texts, true, () -> false);
+
+        Assert.assertEquals(texts.size(), parallel.size());
+        for (int i = 0; i < texts.size(); i++) {
+            Assert.assertEquals(sequential.get(i).isSuccess(), parallel.get(i).isSuccess());
+            Assert.assertEquals(sequential.get(i).getBoundaryPosition(), parallel.get(i).getBoundaryPosition());
+            if (sequential.get(i).isSuccess()) {
+                Assert.assertEquals(
+                    sequential.get(i).getTrees(false).get(0).collectString(),
+                    parallel.get(i).getTrees(false).get(0).collectString()
+                );
+            }
+        }
+        Assert.assertFalse(parallel.get(2).isSuccess());
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SQLIdentifierIndexTest {
+
+    private final Object parent = new Object();
+
+    @Test
+    public void testFindByPrefix() {
+        List<TestObject> children = makeObjects("Alpha", "beta", "ALPINE", "gamma", "al");
+        SQLIdentifierIndex index = SQLIdentifierIndex.getInstance(null);
+
+        Assert.assertEquals(Arrays.asList("Alpha", "ALPINE", "al"), getNames(index.findObjects(parent, new ArrayList<>(children), "al")));
+        Assert.assertEquals(Arrays.asList("Alpha", "ALPINE"), getNames(index.findObjects(parent, new ArrayList<>(children), "ALP")));
+        Assert.assertEquals(Collections.emptyList(), getNames(index.findObjects(parent, new ArrayList<>(children), "delta")));
+        Assert.assertEquals(5, index.findObjects(parent, new ArrayList<>(children), "").size());
+    }
+
+    @Test
+    public void testFindFuzzy() {
+        List<TestObject> children = makeObjects("customer", "orders", "cart_item", "product");
+        SQLIdentifierIndex index = SQLIdentifierIndex.getInstance(null);
+
+        Map<String, Integer> scores = new HashMap<>();
+        Assert.assertEquals(Arrays.asList("customer", "cart_item"), getNames(index.findObjectsFuzzy(parent, children, "ctm", scores)));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("customer", "cart_item")), scores.keySet());
+    }
+
+    @Test
+    public void testRename() {
+        List<TestObject> children = makeObjects("first", "second", "third");
+        SQLIdentifierIndex index = SQLIdentifierIndex.getInstance(null);
+        Assert.assertEquals(Collections.singletonList("second"), getNames(index.findObjects(parent, new ArrayList<>(children), "sec")));
+
+        children.get(1).name = "renamed";
+        // Container returns new list with the same objects
+        Assert.assertEquals(Collections.emptyList(), getNames(index.findObjects(parent, new ArrayList<>(children), "sec")));
+        Assert.assertEquals(Collections.singletonList("renamed"), getNames(index.findObjects(parent, new ArrayList<>(children), "ren")));
+        Map<String, Integer> scores = new HashMap<>();
+        Assert.assertEquals(Collections.singletonList("renamed"), getNames(index.findObjectsFuzzy(parent, new ArrayList<>(children), "rnmd", scores)));
+    }
+
+    @Test
+    public void testReplacedObject() {
+        List<TestObject> children = makeObjects("first", "second", "third");
+        SQLIdentifierIndex index = SQLIdentifierIndex.getInstance(null);
+        Assert.assertEquals(Collections.singletonList("third"), getNames(index.findObjects(parent, children, "th")));
+
+        // Same list instance and size, but different object
+        children.set(2, new TestObject("another"));
+        Assert.assertEquals(Collections.singletonList("another"), getNames(index.findObjects(parent, children, "an")));
+        Assert.assertEquals(Collections.emptyList(), getNames(index.findObjects(parent, children, "th")));
+    }
+
+    private static List<TestObject> makeObjects(String... names) {
+        List<TestObject> objects = new ArrayList<>();
+        for (String name : names) {
+            objects.add(new TestObject(name));
+        }
+        return objects;
+    }
+
+    private static List<String> getNames(List<DBSObject> objects) {
+        List<String> names = new ArrayList<>();
+        for (DBSObject object : objects) {
+            names.add(object.getName());
+        }
+        return names;
+    }
+
+    private static class TestObject implements DBSObject {
+        private String name;
+
+        TestObject(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+    }
+}
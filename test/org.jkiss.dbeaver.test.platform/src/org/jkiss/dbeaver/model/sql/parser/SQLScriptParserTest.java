@@ -16,7 +16,9 @@
  */
 package org.jkiss.dbeaver.model.sql.parser;
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
@@ -527,6 +529,48 @@ public class SQLScriptParserTest {
         }
     }
     
+    @Test
+    public void indexChangeDuringUpdate() throws DBException, BadLocationException {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            script.append("select ").append(i).append(" from dual;\n");
+        }
+        ChangingDocument document = new ChangingDocument(script.toString());
+        SQLParserContext context = createParserContext(setDialect("postgresql"), document);
+        SQLScriptElementIndex index = new SQLScriptElementIndex(context, true, false);
+        index.connect();
+        try {
+            Assert.assertEquals(1000, index.getElements().size());
+
+            document.replace(document.get().indexOf("select 500 "), 0, "select 'new' from dual;\n");
+            // Statement before the parsed range is changed while the first change is parsed
+            document.changeOnRead = () -> {
+                int offset = document.get().indexOf("select 450 ");
+                document.replace(offset, "select 450".length(), "select 450 + 1");
+            };
+            document.readLength = 0;
+            List<SQLScriptElement> elements = index.getElements();
+            Assert.assertNull(document.changeOnRead);
+
+            Assert.assertEquals(1001, elements.size());
+            Assert.assertEquals("select 450 + 1 from dual", elements.get(450).getText());
+            Assert.assertEquals("select 'new' from dual", elements.get(500).getText());
+            ChangingDocument fullDocument = new ChangingDocument(document.get());
+            SQLScriptElementIndex fullIndex = new SQLScriptElementIndex(
+                createParserContext(setDialect("postgresql"), fullDocument), true, false);
+            List<SQLScriptElement> expected = fullIndex.getElements();
+            // Only statements around the changes are parsed again
+            Assert.assertTrue(document.readLength < fullDocument.readLength / 5);
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i).getOffset(), elements.get(i).getOffset());
+                Assert.assertEquals(expected.get(i).getLength(), elements.get(i).getLength());
+                Assert.assertEquals(expected.get(i).getText(), elements.get(i).getText());
+            }
+        } finally {
+            index.disconnect();
+        }
+    }
+
     private void assertParse(String dialectName, String[] expected) throws DBException {
     	String source = Arrays.stream(expected).filter(e -> e != null).collect(Collectors.joining());
     	List<String> expectedParts = new ArrayList<>(expected.length);
@@ -551,11 +595,14 @@ public class SQLScriptParserTest {
     }
 
     private SQLParserContext createParserContext(SQLDialect dialect, String query) {
+        return createParserContext(dialect, new Document(query));
+    }
+
+    private SQLParserContext createParserContext(SQLDialect dialect, IDocument document) {
         SQLSyntaxManager syntaxManager = new SQLSyntaxManager();
         syntaxManager.init(dialect, dataSourceContainer.getPreferenceStore());
         SQLRuleManager ruleManager = new SQLRuleManager(syntaxManager);
         ruleManager.loadRules(dataSource, false);
-        Document document = new Document(query);
         return new SQLParserContext(dataSource, syntaxManager, ruleManager, document);
     }
 
@@ -572,4 +619,31 @@ public class SQLScriptParserTest {
         Mockito.when(dataSource.getSQLDialect()).thenReturn(dialect);
         return dialect;
     }
+
+    /**
+     * Document which is changed while the parser reads it, like a document edited during background reconcile
+     */
+    private static class ChangingDocument extends Document {
+        private ChangeAction changeOnRead;
+        private int readLength;
+
+        ChangingDocument(String text) {
+            super(text);
+        }
+
+        @Override
+        public String get(int offset, int length) throws BadLocationException {
+            ChangeAction action = changeOnRead;
+            if (action != null) {
+                changeOnRead = null;
+                action.run();
+            }
+            readLength += length;
+            return super.get(offset, length);
+        }
+    }
+
+    private interface ChangeAction {
+        void run() throws BadLocationException;
+    }
 }
\ No newline at end of file
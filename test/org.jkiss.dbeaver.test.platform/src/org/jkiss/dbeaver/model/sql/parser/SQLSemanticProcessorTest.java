@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.Top;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SQLSemanticProcessorTest {
+
+    @Test
+    public void testCachedStatementIsShared() throws DBCException {
+        final String sql = "SELECT a, b FROM test_cache_table WHERE a > 1";
+        final Statement first = SQLSemanticProcessor.parseQueryCached(null, sql);
+        final long hits = SQLSemanticProcessor.getParseCacheHits();
+        final Statement second = SQLSemanticProcessor.parseQueryCached(null, sql);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(hits + 1, SQLSemanticProcessor.getParseCacheHits());
+        Assert.assertNotSame(first, SQLSemanticProcessor.parseQuery(null, sql));
+    }
+
+    @Test
+    public void testUncachedParseDoesNotCount() throws DBCException {
+        final String sql = "SELECT c FROM test_count_table";
+        final long hits = SQLSemanticProcessor.getParseCacheHits();
+        final long misses = SQLSemanticProcessor.getParseCacheMisses();
+        SQLSemanticProcessor.parseQuery(null, sql);
+        SQLSemanticProcessor.parseQuery(null, sql);
+        Assert.assertEquals(hits, SQLSemanticProcessor.getParseCacheHits());
+        Assert.assertEquals(misses, SQLSemanticProcessor.getParseCacheMisses());
+    }
+
+    @Test
+    public void testParseErrorIsCached() {
+        final String sql = "SELECT FROM WHERE ((";
+        for (int i = 0; i < 2; i++) {
+            try {
+                SQLSemanticProcessor.parseQuery(null, sql);
+                Assert.fail("Parse error expected");
+            } catch (DBCException e) {
+                // expected
+            }
+        }
+        try {
+            SQLSemanticProcessor.parseQueryCached(null, sql);
+            Assert.fail("Parse error expected");
+        } catch (DBCException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testParseTimeoutIsNotCached() throws DBCException {
+        // Query must be short enough to be cached
+        final StringBuilder sql = new StringBuilder("SELECT id FROM test_timeout_table WHERE id IN (0");
+        for (int i = 1; sql.length() < 60000; i++) {
+            sql.append(",").append(i);
+        }
+        sql.append(")");
+        SQLSemanticProcessor.setParseTimeout(1);
+        try {
+            SQLSemanticProcessor.parseQueryCached(null, sql.toString());
+            Assert.fail("Parse timeout expected");
+        } catch (DBCException e) {
+            // expected
+        } finally {
+            SQLSemanticProcessor.setParseTimeout(SQLSemanticProcessor.DEFAULT_PARSE_TIMEOUT_MS);
+        }
+        Assert.assertTrue(SQLSemanticProcessor.parseQueryCached(null, sql.toString()) instanceof Select);
+        Assert.assertTrue(SQLSemanticProcessor.parseQuery(null, sql.toString()) instanceof Select);
+    }
+
+    @Test
+    public void testQueryStatementModificationDoesNotAffectCache() {
+        final String sql = "SELECT id FROM test_modify_table";
+        final SQLQuery query = new SQLQuery(null, sql);
+        Assert.assertTrue(query.isPlainSelect());
+        final PlainSelect select = (PlainSelect) ((Select) query.getStatement()).getSelectBody();
+        final Top top = new Top();
+        top.setExpression(new LongValue(10));
+        select.setTop(top);
+        Assert.assertFalse(query.isPlainSelect());
+
+        Assert.assertTrue(new SQLQuery(null, sql).isPlainSelect());
+    }
+}
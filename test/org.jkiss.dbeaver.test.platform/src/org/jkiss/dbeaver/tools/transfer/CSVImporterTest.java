@@ -18,21 +18,29 @@ package org.jkiss.dbeaver.tools.transfer;
 
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
 import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterCSV;
+import org.jkiss.utils.csv.CSVStreamParser;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +53,9 @@ public class CSVImporterTest {
     private final StreamEntityMapping mapping = new StreamEntityMapping(DUMMY_FILE);
     private final Map<String, Object> properties = new HashMap<>();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Mock
     private IStreamDataImporterSite site;
 
@@ -118,6 +129,100 @@ public class CSVImporterTest {
         Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(1).getDataKind());
     }
 
+    @Test
+    public void findRangeBoundsQuotedLineFeeds() throws IOException {
+        StringBuilder data = new StringBuilder("id,name,comment\n");
+        for (int i = 0; i < 200; i++) {
+            switch (i % 5) {
+                case 0: data.append(i).append(",\"multi\nline\",plain\n"); break;
+                case 1: data.append(i).append(",\"doubled \"\"quote\"\"\n,\",x\n"); break;
+                case 2: data.append(i).append(",\"escaped \\\"quote\n\\\"\",x\n"); break;
+                case 3: data.append(i).append(",unquoted \\\"escape,\"cr\rlf\r\n\"\n"); break;
+                default: data.append(i).append(",,\n"); break;
+            }
+        }
+        checkRangeBounds(data.toString(), DataImporterCSV.HeaderPosition.top, 50);
+    }
+
+    @Test
+    public void findRangeBoundsCRLF() throws IOException {
+        StringBuilder data = new StringBuilder("id,name\r\n");
+        for (int i = 0; i < 200; i++) {
+            data.append(i).append(",\"value\r\n").append(i).append("\"\r\n");
+            if (i % 10 == 0) {
+                // Empty line
+                data.append("\r\n");
+            }
+        }
+        checkRangeBounds(data.toString(), DataImporterCSV.HeaderPosition.top, 40);
+        checkRangeBounds(data.toString(), DataImporterCSV.HeaderPosition.none, 40);
+    }
+
+    @Test
+    public void findRangeBoundsHeader() throws IOException {
+        String header = "\r\n\n\"multi\nline header\",\"b\"\"\r\n\"\r\n";
+        StringBuilder data = new StringBuilder("\uFEFF").append(header);
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(",\"").append(i).append("\n\"\n");
+        }
+        long[] bounds = checkRangeBounds(data.toString(), DataImporterCSV.HeaderPosition.top, 10);
+        // First range starts right after the header
+        Assert.assertEquals(3 + header.getBytes(StandardCharsets.UTF_8).length, bounds[0]);
+
+        // Header without data or un-terminated quote can't be split
+        Assert.assertNull(findRangeBounds("a,b", DataImporterCSV.HeaderPosition.top, 2));
+        Assert.assertNull(findRangeBounds("a,b\n1,\"2\n3,4\n5,6\n", DataImporterCSV.HeaderPosition.top, 2));
+    }
+
+    /**
+     * Checks that ranges parsed independently give the same records as the whole file
+     */
+    private long[] checkRangeBounds(String data, DataImporterCSV.HeaderPosition header, int rangeCount) throws IOException {
+        long[] bounds = findRangeBounds(data, header, rangeCount);
+        Assert.assertNotNull(bounds);
+        Assert.assertTrue("Ranges: " + (bounds.length - 1), bounds.length > rangeCount / 2);
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(bytes.length, bounds[bounds.length - 1]);
+
+        List<String> expected = readRecords(new String(bytes, StandardCharsets.UTF_8).replace("\uFEFF", ""));
+        if (header == DataImporterCSV.HeaderPosition.top) {
+            expected.remove(0);
+        }
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++) {
+            if (i > 0) {
+                Assert.assertEquals('\n', bytes[(int) bounds[i] - 1]);
+            }
+            actual.addAll(readRecords(new String(bytes, (int) bounds[i], (int) (bounds[i + 1] - bounds[i]), StandardCharsets.UTF_8)));
+        }
+        Assert.assertEquals(expected, actual);
+        return bounds;
+    }
+
+    private long[] findRangeBounds(String data, DataImporterCSV.HeaderPosition header, int rangeCount) throws IOException {
+        properties.put("header", header);
+        properties.put("quoteChar", "\"");
+        Path file = folder.newFile().toPath();
+        Files.write(file, data.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importer.findRangeBounds(new VoidProgressMonitor(), channel, rangeCount);
+        }
+    }
+
+    private static List<String> readRecords(String data) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (CSVStreamParser parser = new CSVStreamParser(new StringReader(data), ',', '"', '\\')) {
+            while (parser.nextRecord()) {
+                StringBuilder record = new StringBuilder();
+                for (int i = 0; i < parser.getFieldCount(); i++) {
+                    record.append('[').append(parser.getFieldBuffer(i), parser.getFieldOffset(i), parser.getFieldLength(i)).append(']');
+                }
+                records.add(record.toString());
+            }
+        }
+        return records;
+    }
+
     private List<StreamDataImporterColumnInfo> readColumnsInfo(String data, boolean isHeaderPresent) throws DBException, IOException {
         properties.put("header", isHeaderPresent ? DataImporterCSV.HeaderPosition.top : DataImporterCSV.HeaderPosition.none);
         try (ByteArrayInputStream is = new ByteArrayInputStream(data.getBytes())) {
@@ -0,0 +1,150 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetConstants;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileReader;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParquetFileTest {
+
+    private static final String[] FIXTURE_NAMES = {"alpha", "beta", "gamma", "дельта", "東京"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        testWriteAndRead(ParquetConstants.CODEC_UNCOMPRESSED);
+        testWriteAndRead(ParquetConstants.CODEC_SNAPPY);
+        testWriteAndRead(ParquetConstants.CODEC_GZIP);
+    }
+
+    private void testWriteAndRead(int codec) throws Exception {
+        List<ParquetColumn> columns = Arrays.asList(
+            new ParquetColumn("id", ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_NONE),
+            new ParquetColumn("name", ParquetConstants.TYPE_BYTE_ARRAY, ParquetConstants.CONVERTED_UTF8),
+            new ParquetColumn("active", ParquetConstants.TYPE_BOOLEAN, ParquetConstants.CONVERTED_NONE),
+            new ParquetColumn("created", ParquetConstants.TYPE_INT32, ParquetConstants.CONVERTED_DATE),
+            ParquetColumn.createDecimal("small_amount", 9, 2),
+            ParquetColumn.createDecimal("big_amount", 30, 5));
+        int rowCount = 10000;
+        File file = folder.newFile("test" + codec + ".parquet");
+        try (OutputStream out = new FileOutputStream(file)) {
+            // Small row group size makes several row groups
+            ParquetFileWriter writer = new ParquetFileWriter(out, columns, codec, 16 * 1024, null);
+            for (int i = 0; i < rowCount; i++) {
+                writer.writeRow(new Object[] {
+                    i,
+                    i % 7 == 0 ? null : "name" + i,
+                    i % 3 == 0,
+                    i % 5 == 0 ? null : 18000 + i,
+                    i * 100 - 12345,
+                    new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) (i >>> 8), (byte) i}
+                });
+            }
+            writer.finish();
+        }
+
+        try (ParquetFileReader reader = new ParquetFileReader(file)) {
+            Assert.assertEquals(rowCount, reader.getRowCount());
+            Assert.assertEquals(columns.size(), reader.getColumns().size());
+            Assert.assertEquals("big_amount", reader.getColumns().get(5).getName());
+            for (int i = 0; i < rowCount; i++) {
+                Object[] row = reader.readRow();
+                Assert.assertNotNull(row);
+                Assert.assertEquals(i, row[0]);
+                Assert.assertEquals(i % 7 == 0 ? null : "name" + i, row[1]);
+                Assert.assertEquals(i % 3 == 0, row[2]);
+                Assert.assertEquals(i % 5 == 0 ? null : Date.valueOf(LocalDate.ofEpochDay(18000 + i)), row[3]);
+                Assert.assertEquals(BigDecimal.valueOf(i * 100L - 12345, 2), row[4]);
+                Assert.assertEquals(BigDecimal.valueOf(i, 5), row[5]);
+            }
+            Assert.assertNull(reader.readRow());
+        }
+    }
+
+    /**
+     * Reads ParquetFileTest.parquet which was not produced by ParquetFileWriter.
+     * It has two row groups: the first one uses Snappy compressed data pages v1, dictionary pages
+     * and fallback from dictionary to PLAIN encoding, the second one uses data pages v2 with
+     * Snappy and GZIP compression and uncompressed pages. Schema contains logical type annotations,
+     * INT96 timestamps, fixed length decimals and unsigned integers.
+     */
+    @Test
+    public void testReadForeignFile() throws Exception {
+        File file = folder.newFile("interop.parquet");
+        try (InputStream in = ParquetFileTest.class.getResourceAsStream("ParquetFileTest.parquet")) {
+            Assert.assertNotNull(in);
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        int rowCount = 300;
+        try (ParquetFileReader reader = new ParquetFileReader(file)) {
+            Assert.assertEquals(rowCount, reader.getRowCount());
+            List<ParquetColumn> columns = reader.getColumns();
+            Assert.assertEquals(10, columns.size());
+            Assert.assertEquals("name", columns.get(1).getName());
+            Assert.assertEquals(ParquetConstants.CONVERTED_UTF8, columns.get(1).getConvertedType());
+            Assert.assertEquals(ParquetConstants.CONVERTED_TIMESTAMP_MICROS, columns.get(5).getConvertedType());
+            Assert.assertEquals(ParquetConstants.TYPE_FIXED_LEN_BYTE_ARRAY, columns.get(6).getType());
+            Assert.assertEquals(10, columns.get(6).getPrecision());
+            Assert.assertEquals(2, columns.get(6).getScale());
+            Assert.assertFalse(columns.get(0).isOptional());
+            for (int i = 0; i < rowCount; i++) {
+                Object[] row = reader.readRow();
+                Assert.assertNotNull(row);
+                Assert.assertEquals(1_000_000_000_000L + i, row[0]);
+                Assert.assertEquals(i % 7 == 0 ? null : FIXTURE_NAMES[i % 5], row[1]);
+                Assert.assertEquals(i % 11 == 0 ? null : i * 0.25, row[2]);
+                Assert.assertEquals(i % 3 == 0, row[3]);
+                Assert.assertEquals(i % 5 == 0 ? null : Date.valueOf(LocalDate.ofEpochDay(19000 + i / 40)), row[4]);
+                Assert.assertEquals(Timestamp.from(Instant.EPOCH.plus(1_700_000_000_000_000L + i * 1_000_001L, ChronoUnit.MICROS)), row[5]);
+                Assert.assertEquals(BigDecimal.valueOf(i * 1001L - 50000, 2), row[6]);
+                Assert.assertEquals(
+                    i % 4 == 0 ? null : Timestamp.from(Instant.ofEpochSecond((2459000 + i % 3 - 2440588) * 86400L, (i * 3_600_000_000_123L) % (86400L * 1_000_000_000L))),
+                    row[7]);
+                Assert.assertEquals(i % 200 - 100, row[8]);
+                Assert.assertEquals(
+                    i % 50 == 0 ? new BigDecimal(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(i + 1))) : (Object) (long) i,
+                    row[9]);
+            }
+            Assert.assertNull(reader.readRow());
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class ResultSetValueStoreTest {
+
+    private static final int COLUMN_COUNT = 7;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpillAndReload() throws Exception {
+        int rowCount = ResultSetValueStore.PAGE_SIZE * 5 + 17;
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT, ResultSetValueStore.PAGE_SIZE, getSpillFolder());
+        try {
+            for (int i = 0; i < rowCount; i++) {
+                store.addRow(makeRow(i));
+            }
+            Assert.assertTrue(store.getSpilledRowCount() > 0);
+            Assert.assertTrue(rowCount - store.getSpilledRowCount() <= ResultSetValueStore.PAGE_SIZE * 2);
+
+            // Random access makes pages to be reloaded and spilled again
+            for (int i = rowCount - 1; i >= 0; i -= 7) {
+                Assert.assertArrayEquals("Row " + i, makeRow(i), store.getRow(i));
+            }
+            for (int i = 0; i < rowCount; i++) {
+                Assert.assertArrayEquals("Row " + i, makeRow(i), store.getRow(i));
+            }
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testModifiedPageIsSpilledAgain() throws Exception {
+        int rowCount = ResultSetValueStore.PAGE_SIZE * 4;
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT, ResultSetValueStore.PAGE_SIZE, getSpillFolder());
+        try {
+            for (int i = 0; i < rowCount; i++) {
+                store.addRow(makeRow(i));
+            }
+            store.setValue(0, 0, 42L);
+            store.setValue(1, 1, null);
+            store.setValue(2, 3, "changed");
+            // Touch other pages so the first one is spilled again
+            for (int i = ResultSetValueStore.PAGE_SIZE; i < rowCount; i++) {
+                store.getRow(i);
+            }
+            Assert.assertEquals(42L, store.getValue(0, 0));
+            Assert.assertNull(store.getValue(1, 1));
+            Assert.assertEquals("changed", store.getValue(2, 3));
+            Assert.assertArrayEquals(makeRow(3), store.getRow(3));
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testBudgetCountsRows() throws Exception {
+        int segmentSize = 200;
+        int maxResidentRows = 1000;
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT, maxResidentRows, getSpillFolder());
+        try {
+            int rowCount = 0;
+            for (int segment = 0; segment < 50; segment++) {
+                // Fetched segments are adopted as small pages
+                ResultSetValueStore segmentStore = new ResultSetValueStore(COLUMN_COUNT);
+                for (int i = 0; i < segmentSize; i++) {
+                    segmentStore.addRow(makeRow(rowCount++));
+                }
+                store.addRows(segmentStore);
+            }
+            int residentRows = store.getRowCount() - store.getSpilledRowCount();
+            Assert.assertTrue("Resident rows: " + residentRows, residentRows <= maxResidentRows);
+            // Small pages must not shrink the budget
+            Assert.assertTrue("Resident rows: " + residentRows, residentRows > maxResidentRows - segmentSize);
+            for (int i = 0; i < rowCount; i++) {
+                Assert.assertArrayEquals("Row " + i, makeRow(i), store.getRow(i));
+            }
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testResidentRows() throws Exception {
+        int rowCount = ResultSetValueStore.PAGE_SIZE * 3;
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT, ResultSetValueStore.PAGE_SIZE, getSpillFolder());
+        try {
+            for (int i = 0; i < rowCount; i++) {
+                store.addRow(makeRow(i));
+            }
+            int spilledRows = store.getSpilledRowCount();
+            List<Object[]> residentRows = store.getResidentRows();
+            Assert.assertEquals(rowCount - spilledRows, residentRows.size());
+            // Spilled pages are not read back
+            Assert.assertEquals(spilledRows, store.getSpilledRowCount());
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testColumnKinds() {
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT);
+        for (int i = 0; i < 1000; i++) {
+            store.addRow(makeRow(i));
+        }
+        // Value which doesn't fit the column converts it to object storage
+        store.setValue(10, 0, "not a number");
+        store.setValue(11, 5, new java.sql.Date(0));
+        for (int i = 0; i < 1000; i++) {
+            Object[] expected = makeRow(i);
+            if (i == 10) {
+                expected[0] = "not a number";
+            } else if (i == 11) {
+                expected[5] = new java.sql.Date(0);
+            }
+            Assert.assertArrayEquals("Row " + i, expected, store.getRow(i));
+        }
+        Timestamp nanoTimestamp = new Timestamp(1_600_000_000_123L);
+        nanoTimestamp.setNanos(123456789);
+        store.setValue(12, 5, nanoTimestamp);
+        Assert.assertEquals(nanoTimestamp, store.getValue(12, 5));
+        Assert.assertEquals(makeRow(13)[5], store.getValue(13, 5));
+    }
+
+    @Test
+    public void testStringOverwrite() {
+        ResultSetValueStore store = new ResultSetValueStore(1);
+        for (int i = 0; i < 100; i++) {
+            store.addRow(new Object[] { "value " + (i % 10) });
+        }
+        for (int k = 0; k < 10000; k++) {
+            store.setValue(k % 100, 0, "changed " + k);
+        }
+        store.setValue(0, 0, null);
+        Assert.assertNull(store.getValue(0, 0));
+        for (int i = 1; i < 100; i++) {
+            Assert.assertEquals("changed " + (9900 + i), store.getValue(i, 0));
+        }
+    }
+
+    @Test
+    public void testRepeatedReadReusesValue() {
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT);
+        store.addRow(makeRow(1000));
+        store.addRow(makeRow(1001));
+        Assert.assertSame(store.getValue(0, 0), store.getValue(0, 0));
+        Assert.assertSame(store.getValue(0, 5), store.getValue(0, 5));
+        Object value = store.getValue(1, 5);
+        store.setValue(1, 5, new Timestamp(0));
+        Assert.assertNotSame(value, store.getValue(1, 5));
+        Assert.assertEquals(new Timestamp(0), store.getValue(1, 5));
+    }
+
+    @Test
+    public void testCompareValues() {
+        ResultSetValueStore store = new ResultSetValueStore(COLUMN_COUNT);
+        store.addRow(makeRow(5));
+        store.addRow(makeRow(3));
+        store.addRow(makeRow(5));
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            Assert.assertEquals("Column " + column, 0, store.compareValues(0, 2, column));
+        }
+        Assert.assertTrue(store.compareValues(0, 1, 0) > 0);
+        Assert.assertTrue(store.compareValues(1, 0, 2) < 0);
+        Assert.assertTrue(store.compareValues(1, 0, 5) < 0);
+        // Nulls go last
+        Assert.assertTrue(store.compareValues(0, 1, 1) > 0);
+        Assert.assertTrue(store.compareValues(1, 0, 1) < 0);
+        // Mixed kinds
+        store.setValue(1, 0, 3);
+        Assert.assertTrue(store.compareValues(0, 1, 0) > 0);
+    }
+
+    private Path getSpillFolder() throws Exception {
+        return folder.newFolder().toPath();
+    }
+
+    private static Object[] makeRow(int i) {
+        return new Object[] {
+            (long) i,
+            i % 5 == 0 ? null : i * 2,
+            i * 0.5,
+            "name " + (i % 100),
+            i % 2 == 0,
+            new Timestamp(1_600_000_000_000L + i * 1000L),
+            i % 3 == 0 ? null : new BigDecimal(i).movePointLeft(2)
+        };
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils;
+
+import org.jkiss.utils.csv.CSVStreamParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSVStreamParserTest {
+
+    @Test
+    public void testPlainFields() throws IOException {
+        List<String[]> records = parse("a,b,c\n1,,3\r\n\n4,5,6", 1024);
+        Assert.assertEquals(3, records.size());
+        Assert.assertArrayEquals(new String[]{"a", "b", "c"}, records.get(0));
+        Assert.assertArrayEquals(new String[]{"1", "", "3"}, records.get(1));
+        Assert.assertArrayEquals(new String[]{"4", "5", "6"}, records.get(2));
+    }
+
+    @Test
+    public void testQuotedFields() throws IOException {
+        List<String[]> records = parse("\"a,b\",\"c\"\"d\",\"e\\\"f\",\"multi\r\nline\",\"\"\n", 1024);
+        Assert.assertEquals(1, records.size());
+        Assert.assertArrayEquals(new String[]{"a,b", "c\"d", "e\"f", "multi\nline", ""}, records.get(0));
+    }
+
+    @Test
+    public void testWhitespaceBeforeQuote() throws IOException {
+        List<String[]> records = parse("1, \"Smith, John\",\t\"x\" y, z\n", 1024);
+        Assert.assertEquals(1, records.size());
+        Assert.assertArrayEquals(new String[]{"1", "Smith, John", "x y", " z"}, records.get(0));
+    }
+
+    @Test
+    public void testSmallBuffer() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append(i).append(",\"value ").append(i).append(" with \"\"quotes\"\"\",").append("x".repeat(i)).append("\n");
+        }
+        List<String[]> records = parse(csv.toString(), 16);
+        Assert.assertEquals(100, records.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertArrayEquals(new String[]{String.valueOf(i), "value " + i + " with \"quotes\"", "x".repeat(i)}, records.get(i));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedQuote() throws IOException {
+        parse("a,\"b\nc", 1024);
+    }
+
+    @Test
+    public void testTypedValues() throws IOException {
+        CSVStreamParser parser = new CSVStreamParser(
+            new StringReader("-9223372036854775808,12.375,1e3,2022-03-04,2022-03-04 05:06:07.123,2022-03-04T05:06,abc"), ',', '"', '\\');
+        Assert.assertTrue(parser.nextRecord());
+        Assert.assertEquals(Long.MIN_VALUE, parser.getLong(0));
+        Assert.assertEquals(12.375, parser.getDouble(1), 0);
+        Assert.assertEquals(1000.0, parser.getDouble(2), 0);
+        Assert.assertEquals(LocalDate.of(2022, 3, 4), parser.getLocalDate(3));
+        Assert.assertEquals(LocalDateTime.of(2022, 3, 4, 5, 6, 7, 123000000), parser.getLocalDateTime(4));
+        Assert.assertEquals(LocalDateTime.of(2022, 3, 4, 5, 6), parser.getLocalDateTime(5));
+        Assert.assertNull(parser.getLocalDate(6));
+        Assert.assertTrue(parser.fieldEquals(6, "abc"));
+        try {
+            parser.getLong(6);
+            Assert.fail("Number format exception expected");
+        } catch (NumberFormatException e) {
+            // ok
+        }
+        Assert.assertFalse(parser.nextRecord());
+    }
+
+    private static List<String[]> parse(String csv, int bufferSize) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CSVStreamParser parser = new CSVStreamParser(new StringReader(csv), ',', '"', '\\', bufferSize)) {
+            while (parser.nextRecord()) {
+                records.add(parser.getStrings());
+            }
+        }
+        return records;
+    }
+}
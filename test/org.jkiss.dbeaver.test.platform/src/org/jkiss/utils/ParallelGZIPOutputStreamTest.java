@@ -0,0 +1,77 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils;
+
+import org.jkiss.utils.io.ParallelGZIPOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+public class ParallelGZIPOutputStreamTest {
+    @Test
+    public void testEmpty() throws IOException {
+        Assert.assertArrayEquals(new byte[0], decompress(compress(new byte[0], 4)));
+    }
+
+    @Test
+    public void testText() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            text.append(i).append(",\"name ").append(i % 100).append("\"\n");
+        }
+        final byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (int threads : new int[] {1, 2, 8}) {
+            final byte[] compressed = compress(data, threads);
+            Assert.assertTrue(compressed.length < data.length / 3);
+            Assert.assertArrayEquals(data, decompress(compressed));
+        }
+    }
+
+    @Test
+    public void testRandom() throws IOException {
+        final byte[] data = new byte[1000001];
+        new Random(1).nextBytes(data);
+        Assert.assertArrayEquals(data, decompress(compress(data, 4)));
+    }
+
+    private static byte[] compress(byte[] data, int threads) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(buffer, Deflater.DEFAULT_COMPRESSION, threads)) {
+            // Write in uneven chunks and flush in between like exporters do
+            for (int offset = 0; offset < data.length; ) {
+                final int count = Math.min(data.length - offset, 777 + offset % 50000);
+                out.write(data, offset, count);
+                out.flush();
+                offset += count;
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}